@@ -26,11 +26,13 @@ import org.jfree.chart.plot.XYPlot;
 
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.annotations.Output;
 import de.codapro.api.model.DataVector;
 
+@DeclaredColumns
 @Component(name		= "ValueMarker",
 			doc		= "Adds an marker.",
 			sinks	= {
@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnInit;
@@ -34,6 +35,7 @@ import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.utils.FileUtils;
 
+@DeclaredColumns
 @Component(name = "ChartWriter", doc = "Saves a chart.", sources={})
 public class ChartSaver {
 	@Log
@@ -24,11 +24,13 @@ import org.jfree.chart.plot.XYPlot;
 
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Value;
 
+@DeclaredColumns
 @Component(name = "RangeSetter", doc = "Sets the range of the x axis.")
 public class RangeSetter {
 	@Input(doc = "The maximum value for the y-axis.", name = "y-max", type = Double.class)
@@ -25,11 +25,13 @@ import org.jfree.chart.ui.TextAnchor;
 
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.annotations.Output;
 import de.codapro.api.model.DataVector;
 
+@DeclaredColumns
 @Component(	name	= "XYAnnotation",
 			doc 	= "Component for adding an annotation to a XY chart.",
 			sources	= {
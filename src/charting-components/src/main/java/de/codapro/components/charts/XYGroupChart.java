@@ -36,6 +36,9 @@ import org.jfree.data.xy.XYSeriesCollection;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
+import de.codapro.api.annotations.GroupIndex;
+import de.codapro.api.annotations.GroupIsolated;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.OnEnterGroup;
 import de.codapro.api.annotations.OnInit;
@@ -44,12 +47,20 @@ import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 
+@GroupIsolated
+@DeclaredColumns
 @Component(name = "XYGroupChart", doc = "Creates a XY-chart for each data group.")
 public class XYGroupChart {
 	private static final String LABEL_COLOR = "#666666";
 
 	private XYSeries[] dataSeries;
 
+	/**
+	 * Index of the current group if the runtime provides it.
+	 */
+	@GroupIndex
+	private int group = -1;
+
 	private int chartSuffix = 0;
 
 	@ColumnId(doc = "Column index of the x-value", name = "x-data", stream="input-stream")
@@ -134,6 +145,10 @@ public class XYGroupChart {
 
 	@OnEnterGroup
 	public void startChart(final @Named("input-stream") Stream stream) {
+		if(group >= 0) {
+			chartSuffix = group;
+		}
+
 		dataSeries = new XYSeries[yDataIndices.length];
 
 		for (int index = 0; index < yDataIndices.length; ++index) {
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a component that passes every vector of an input stream unchanged
+ *   to all its output streams. The runtime may replace such a component by a
+ *   {@link de.codapro.api.model.BroadcastStream}, i.e. the producer of the
+ *   input writes each vector once and the consumers of the outputs read it
+ *   directly. The component's own methods are only called by runtimes that
+ *   do not support broadcasting.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface Broadcast {
+	/**
+	 * @return The name of the input stream.
+	 */
+	String value() default "input-stream";
+
+	/**
+	 * @return Iff the consumers of all but the first output stream receive
+	 *   copies created by {@link de.codapro.api.model.DataVector#copyOnWrite()},
+	 *   otherwise all consumers share the same read-only instance.
+	 */
+	boolean copyOnWrite() default false;
+}
@@ -16,9 +16,10 @@ import java.lang.annotation.Target;
  *   possible.
  *   <br/>
  *   <br/>
- * Additional relevant annotations are: {@link ColumnId}, {@link Input}, {@link Log},
+ * Additional relevant annotations are: {@link Broadcast}, {@link ColumnId},
+ *   {@link DeclaredColumns}, {@link GroupIndex}, {@link GroupIsolated}, {@link Input}, {@link Log},
  *   {@link OnEnterGroup}, {@link OnExecute}, {@link OnFinish}, {@link OnInit},
- *   {@link OnLeaveGroup}, {@link OnProcess}, and {@link Output}
+ *   {@link OnLeaveGroup}, {@link OnProcess}, {@link Output}, and {@link Projection}
  *   <br/>
  *   <br/>
  * There are two possible component lifecycles. In the first you can use the
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a component that accesses the columns of its input streams only by
+ *   the indices of its {@link ColumnId} fields. The runtime then knows which
+ *   columns the component needs and may tell the producers to skip all other
+ *   columns (see {@link Projection}). Passing the input vectors on with added
+ *   columns is fine, but components which iterate over the whole header or
+ *   evaluate user supplied expressions must not be marked.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface DeclaredColumns {
+}
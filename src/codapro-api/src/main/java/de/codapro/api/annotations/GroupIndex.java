@@ -0,0 +1,40 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.annotations;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@code int} field of a group-oriented component. Runtimes that
+ *   support it set the field to the zero based index of the group within the
+ *   component's input stream before calling the {@link OnEnterGroup}
+ *   methods. Other runtimes leave the field unchanged, therefore components
+ *   should initialize it with a negative value and count the groups
+ *   themselves in that case.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface GroupIndex {
+}
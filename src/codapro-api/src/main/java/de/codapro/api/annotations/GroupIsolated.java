@@ -0,0 +1,49 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.annotations;
+
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a group-oriented {@link OnProcess} component whose groups are
+ *   independent of each other. The runtime may then process several groups
+ *   at once, each by its own instance of the component, and re-emits the
+ *   outputs of the groups in their original order.
+ *
+ * A group-isolated component has to
+ * <ul>
+ *   <li>have a parameterless constructor,</li>
+ *   <li>reset all its state in its {@link OnEnterGroup} methods, the instances
+ *     are shallow copies of the initialized component,</li>
+ *   <li>prefer the index of its {@link GroupIndex} field over counting groups
+ *     itself, each instance only sees some of the groups,</li>
+ *   <li>read secondary input streams only within {@link OnEnterGroup} methods,
+ *     they are called in group order.</li>
+ * </ul>
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(TYPE)
+public @interface GroupIsolated {
+}
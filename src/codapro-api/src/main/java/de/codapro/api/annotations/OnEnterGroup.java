@@ -25,7 +25,9 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.Target;
 
 /**
- * Mark a single parameterless method as a callback for entering a group.
+ * Mark a single method as a callback for entering a group. The method may
+ *   only take streams annotated with {@code Named}. The index of the group is
+ *   available through a {@link GroupIndex} field.
  */
 @Retention(RUNTIME)
 @Target(METHOD)
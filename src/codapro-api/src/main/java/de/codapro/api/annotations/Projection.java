@@ -0,0 +1,45 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.annotations;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a {@code Set<String>} field of a source component. Before the
+ *   component is initialized, the runtime injects the names of the columns of
+ *   the output stream that are used by the downstream components. The field
+ *   is set to {@code null} if the used columns are unknown, e.g. because a
+ *   downstream component is not marked with {@link DeclaredColumns}. A source
+ *   should then produce all its columns, otherwise it may omit every column
+ *   whose name is not contained in the set.
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(FIELD)
+public @interface Projection {
+	/**
+	 * @return The name of the output stream.
+	 */
+	String value() default "output-stream";
+}
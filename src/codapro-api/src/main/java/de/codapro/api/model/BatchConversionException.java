@@ -0,0 +1,52 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import de.codapro.api.ConversionException;
+
+/**
+ * Signals that a data vector cannot be stored as a row of a {@link DataBatch}.
+ *   The vector is kept, so a caller that has already taken it from a stream
+ *   can still handle it, see {@link Stream#getBatch(DataBatch)}.
+ */
+public class BatchConversionException extends ConversionException {
+	/**
+	 * Default serial version uid.
+	 */
+	private static final long serialVersionUID = 1L;
+
+	private final transient DataVector vector;
+
+	public BatchConversionException(final String message, final DataVector vector) {
+		super(message);
+		this.vector = vector;
+	}
+
+	public BatchConversionException(final String message, final DataVector vector, final Throwable cause) {
+		super(message, cause);
+		this.vector = vector;
+	}
+
+	/**
+	 * @return The vector that could not be stored.
+	 */
+	public DataVector getVector() {
+		return vector;
+	}
+}
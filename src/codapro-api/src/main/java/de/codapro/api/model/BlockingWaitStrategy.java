@@ -0,0 +1,79 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Waits on a condition variable. This strategy does not burn any CPU while
+ *   waiting, but waking up a thread is expensive. The lock is only taken by
+ *   {@link #signalAll()} if there is at least one waiting thread.
+ */
+public class BlockingWaitStrategy implements WaitStrategy {
+	private final ReentrantLock lock = new ReentrantLock();
+
+	private final Condition stateChanged = lock.newCondition();
+
+	/**
+	 * Number of threads that are waiting or about to wait.
+	 */
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	@Override
+	public void await(final BooleanSupplier condition) throws InterruptedException {
+		if(condition.getAsBoolean()) {
+			return;
+		}
+
+		// announce the waiter before checking the condition again, otherwise
+		//  we might miss a signal
+		waiters.incrementAndGet();
+		lock.lock();
+		try {
+			while(!condition.getAsBoolean()) {
+				stateChanged.await();
+			}
+		} finally {
+			lock.unlock();
+			waiters.decrementAndGet();
+		}
+	}
+
+	@Override
+	public void signalAll() {
+		// streams publish with release semantics only, the fence orders this
+		//  publication before reading the number of waiters
+		VarHandle.fullFence();
+
+		if(waiters.get() == 0) {
+			return;
+		}
+
+		lock.lock();
+		try {
+			stateChanged.signalAll();
+		} finally {
+			lock.unlock();
+		}
+	}
+}
@@ -0,0 +1,457 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.NoSuchElementException;
+import java.util.function.BooleanSupplier;
+
+import de.codapro.api.ConversionException;
+
+/**
+ * A bounded stream for one producing and several consuming threads, each
+ *   consumer sees every vector. Like a {@link RingStream} the vectors are
+ *   stored in a single ring, but every consumer has its own read position
+ *   in a {@link Sequence}. The producer writes each vector once and waits
+ *   only if the slowest consumer is a whole ring behind.
+ *
+ * The producer appends to the stream returned by {@link #producer()}, the
+ *   consumers read from the streams returned by {@link #getConsumer(int)}. All consumers share the vectors:
+ *   either the same instance, which is retained once per additional
+ *   consumer, or copies created by {@link DataVector#copyOnWrite()}. The
+ *   first consumer always receives the appended instance.
+ */
+public class BroadcastStream {
+	/**
+	 * The view of a single consumer.
+	 */
+	private final class Consumer implements QueuedStream {
+		private final int index;
+
+		/**
+		 * Position of the next element to read. Written by this consumer only.
+		 */
+		private final Sequence head = new Sequence();
+
+		/**
+		 * Last tail seen by this consumer.
+		 */
+		private long cachedTail = 0;
+
+		private final BooleanSupplier readable = () -> closed || tail.get() != head.get();
+
+		private Consumer(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public void append(final DataVector data) throws ConversionException {
+			throw new ConversionException("Cannot append to consumer " + index + " of a broadcast stream.");
+		}
+
+		@Override
+		public int capacity() {
+			return buffer.length;
+		}
+
+		/**
+		 * Closes the whole stream, so the producer and the other consumers
+		 *   terminate as well.
+		 */
+		@Override
+		public void close() {
+			markClosed();
+		}
+
+		@Override
+		public DataVector get() {
+			final long position = head.get();
+
+			if(position == cachedTail) {
+				cachedTail = tail.get();
+
+				if(position == cachedTail) {
+					awaitQuietly(readable);
+					cachedTail = tail.get();
+
+					if(position == cachedTail) {
+						throw new NoSuchElementException("Stream is closed.");
+					}
+				}
+			}
+
+			final int slot = (int)position & mask;
+			DataVector data = buffer[slot];
+
+			if(index > 0 && copies != null && data != DataVector.GROUP_START && data != DataVector.GROUP_END) {
+				data = copies[index - 1][slot];
+			}
+
+			head.set(position + 1);
+
+			waitStrategy.signalAll();
+
+			return data;
+		}
+
+		@Override
+		public StreamHeader getHeader() {
+			return header;
+		}
+
+		@Override
+		public boolean isClosed() {
+			return closed;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return head.get() == tail.get();
+		}
+
+		@Override
+		public void markClosed() {
+			BroadcastStream.this.markClosed();
+		}
+
+		@Override
+		public StreamHeader setHeader(final StreamHeader header) {
+			return BroadcastStream.this.setHeader(header);
+		}
+
+		@Override
+		public int size() {
+			return (int)(tail.get() - head.get());
+		}
+
+		@Override
+		public String toString() {
+			return "BroadcastStream.Consumer [index=" + index + "]";
+		}
+	}
+
+	/**
+	 * The view of the producer.
+	 */
+	private final class Producer implements QueuedStream {
+		@Override
+		public void append(final DataVector data) throws ConversionException {
+			BroadcastStream.this.append(data);
+		}
+
+		@Override
+		public int capacity() {
+			return BroadcastStream.this.capacity();
+		}
+
+		@Override
+		public void close() {
+			markClosed();
+		}
+
+		/**
+		 * The producer cannot read its own output, the consumers read from
+		 *   their own streams, see {@link BroadcastStream#getConsumer(int)}.
+		 *
+		 * @throws UnsupportedOperationException Always.
+		 */
+		@Override
+		public DataVector get() {
+			throw new UnsupportedOperationException("The producer of a broadcast stream cannot read from it.");
+		}
+
+		@Override
+		public StreamHeader getHeader() {
+			return header;
+		}
+
+		@Override
+		public boolean isClosed() {
+			return closed;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return BroadcastStream.this.isEmpty();
+		}
+
+		@Override
+		public void markClosed() {
+			BroadcastStream.this.markClosed();
+		}
+
+		@Override
+		public StreamHeader setHeader(final StreamHeader header) {
+			return BroadcastStream.this.setHeader(header);
+		}
+
+		@Override
+		public int size() {
+			return BroadcastStream.this.size();
+		}
+
+		@Override
+		public String toString() {
+			return "BroadcastStream.Producer [capacity=" + buffer.length + "]";
+		}
+	}
+
+	private final DataVector [] buffer;
+
+	/**
+	 * The copies for all but the first consumer, {@code null} if the
+	 *   consumers share the appended instances.
+	 */
+	private final DataVector [][] copies;
+
+	private final int mask;
+
+	private final Consumer [] consumers;
+
+	private final Producer producer = new Producer();
+
+	/**
+	 * Position of the next element to write. Written by the producer only.
+	 */
+	private final Sequence tail = new Sequence();
+
+	/**
+	 * Last position of the slowest consumer seen by the producer.
+	 */
+	private long cachedHead = 0;
+
+	private final WaitStrategy waitStrategy;
+
+	private volatile boolean closed = false;
+
+	private final BooleanSupplier writable = () -> closed || tail.get() - minimumHead() < capacity();
+
+	private volatile StreamHeader header = new StreamHeader();
+
+	/**
+	 * @param capacity Minimal number of elements the stream can hold. It is
+	 *   rounded up to the next power of two.
+	 * @param consumers Number of consumers.
+	 * @param copyOnWrite Iff all but the first consumer receive copies,
+	 *   otherwise all consumers receive the same instance and must not modify it.
+	 */
+	public BroadcastStream(final int capacity, final int consumers, final boolean copyOnWrite) {
+		this(capacity, consumers, copyOnWrite, new BlockingWaitStrategy());
+	}
+
+	/**
+	 * @param capacity Minimal number of elements the stream can hold. It is
+	 *   rounded up to the next power of two.
+	 * @param consumers Number of consumers.
+	 * @param copyOnWrite Iff all but the first consumer receive copies,
+	 *   otherwise all consumers receive the same instance and must not modify it.
+	 * @param waitStrategy Strategy for waiting on data or free space, shared
+	 *   by the producer and all consumers.
+	 */
+	public BroadcastStream(final int capacity, final int consumers, final boolean copyOnWrite, final WaitStrategy waitStrategy) {
+		if(capacity <= 0 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30 but is " + capacity + ".");
+		}
+
+		if(consumers <= 0) {
+			throw new IllegalArgumentException("Number of consumers must be positive but is " + consumers + ".");
+		}
+
+		final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+
+		this.buffer = new DataVector[size];
+		this.copies = copyOnWrite && consumers > 1 ? new DataVector[consumers - 1][size] : null;
+		this.mask = size - 1;
+		this.waitStrategy = waitStrategy;
+		this.consumers = new Consumer[consumers];
+
+		for(int i = 0; i < consumers; ++i) {
+			this.consumers[i] = new Consumer(i);
+		}
+	}
+
+	/**
+	 * Appends a vector for all consumers, see {@link Stream#append(DataVector)}.
+	 */
+	public void append(final DataVector data) throws ConversionException {
+		final long position = tail.get();
+
+		claim(position);
+
+		final int slot = (int)position & mask;
+		buffer[slot] = data;
+
+		if(data != DataVector.GROUP_START && data != DataVector.GROUP_END) {
+			share(data, slot);
+		}
+
+		tail.set(position + 1);
+
+		waitStrategy.signalAll();
+	}
+
+	/**
+	 * @return The number of elements the stream can hold.
+	 */
+	public int capacity() {
+		return buffer.length;
+	}
+
+	/**
+	 * Closes the stream, see {@link #markClosed()}.
+	 */
+	public void close() {
+		markClosed();
+	}
+
+	/**
+	 * @return The stream read by consumer {@code index}. Each consumer must
+	 *   be read by a single thread.
+	 */
+	public QueuedStream getConsumer(final int index) {
+		return consumers[index];
+	}
+
+	/**
+	 * @return The number of consumers.
+	 */
+	public int getConsumerCount() {
+		return consumers.length;
+	}
+
+	/**
+	 * @return The header shared by the producer and all consumers.
+	 */
+	public StreamHeader getHeader() {
+		return header;
+	}
+
+	/**
+	 * @return If the stream is closed.
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/**
+	 * @return Iff all consumers have read all elements.
+	 */
+	public boolean isEmpty() {
+		return tail.get() == minimumHead();
+	}
+
+	/**
+	 * Marks the stream as closed and wakes up the producer and all consumers.
+	 */
+	public void markClosed() {
+		closed = true;
+		waitStrategy.signalAll();
+	}
+
+	/**
+	 * @return The stream the producer appends to.
+	 */
+	public QueuedStream producer() {
+		return producer;
+	}
+
+	/**
+	 * Sets the header shared by the producer and all consumers.
+	 */
+	public StreamHeader setHeader(final StreamHeader header) {
+		this.header = header;
+		return header;
+	}
+
+	/**
+	 * @return The number of elements the slowest consumer has not read yet.
+	 */
+	public int size() {
+		return (int)(tail.get() - minimumHead());
+	}
+
+	@Override
+	public String toString() {
+		return "BroadcastStream [capacity=" + buffer.length + ", consumers=" + consumers.length + "]";
+	}
+
+	private void awaitQuietly(final BooleanSupplier condition) {
+		try {
+			waitStrategy.await(condition);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NoSuchElementException("Interrupted while waiting for data.");
+		}
+	}
+
+	/**
+	 * Waits until slot {@code position} has been read by all consumers.
+	 */
+	private void claim(final long position) throws ConversionException {
+		if(closed) {
+			throw new ConversionException("Cannot append to a closed stream.");
+		}
+
+		if(position - cachedHead < buffer.length) {
+			return;
+		}
+
+		cachedHead = minimumHead();
+		if(position - cachedHead < buffer.length) {
+			return;
+		}
+
+		try {
+			waitStrategy.await(writable);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConversionException("Interrupted while waiting for free space.", e);
+		}
+
+		if(closed) {
+			throw new ConversionException("Cannot append to a closed stream.");
+		}
+
+		cachedHead = minimumHead();
+	}
+
+	private long minimumHead() {
+		long minimum = Long.MAX_VALUE;
+
+		for(final Consumer consumer : consumers) {
+			minimum = Math.min(minimum, consumer.head.get());
+		}
+
+		return minimum;
+	}
+
+	/**
+	 * Hands the vector in {@code slot} to all but the first consumer.
+	 */
+	private void share(final DataVector data, final int slot) {
+		if(copies == null) {
+			for(int i = 1; i < consumers.length; ++i) {
+				data.retain();
+			}
+		} else {
+			for(final DataVector [] copy : copies) {
+				copy[slot] = data.copyOnWrite();
+			}
+		}
+	}
+}
@@ -18,6 +18,9 @@
  */
 package de.codapro.api.model;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import de.codapro.api.ConversionException;
 
 /**
@@ -34,6 +37,10 @@ import de.codapro.api.ConversionException;
  *
  *  If the stream is closed it is going to push the remaining buffered elements to the
  *   {@code dataStream}.
+ *
+ * The buffered elements form a sliding window. {@link BufferingStream#window(int)}
+ *   gives indexed access to a column of the window without copying, and
+ *   {@link WindowListener}s are told about each element entering or leaving it.
  */
 public class BufferingStream extends RingBufferImpl<DataVector> implements AutoCloseable {
 	/**
@@ -41,6 +48,8 @@ public class BufferingStream extends RingBufferImpl<DataVector> implements AutoC
 	 */
 	private final Stream dataStream;
 
+	private final List<WindowListener> listeners = new ArrayList<>();
+
 	public BufferingStream(final Stream dataStream, final int capacity) {
 		super(DataVector.class, capacity);
 
@@ -51,18 +60,62 @@ public class BufferingStream extends RingBufferImpl<DataVector> implements AutoC
 	public void append(final DataVector element) throws ConversionException {
 		if(isFull()) {
 			// we are going to overwrite an element, let's push it to the output stream.
-			dataStream.append(super.get(0));
+			final DataVector eldest = super.get(0);
+
+			evicted(eldest);
+			dataStream.append(eldest);
 		}
 
 		super.append(element);
+
+		for(int i = 0; i < listeners.size(); ++i) {
+			listeners.get(i).admitted(element);
+		}
+	}
+
+	/**
+	 * Registers a listener for elements entering or leaving the window.
+	 */
+	public void addListener(final WindowListener listener) {
+		listeners.add(listener);
 	}
 
 	@Override
 	public void close() throws ConversionException {
 		while(!isEmpty()) {
-			dataStream.append(super.remove());
+			final DataVector eldest = super.remove();
+
+			evicted(eldest);
+			dataStream.append(eldest);
 		}
 
 		dataStream.markClosed();
 	}
+
+	/**
+	 * Creates a view of a column of the buffered elements.
+	 *
+	 * @param column Index of the column within the data vectors.
+	 */
+	public ColumnWindow window(final int column) {
+		return new ColumnWindow(this, column);
+	}
+
+	/**
+	 * @return The {@code i}-th buffered element, the oldest one is at index {@code 0}.
+	 * @throws IndexOutOfBoundsException Iff {@code i} is not within [0, size()).
+	 */
+	DataVector vectorAt(final int i) {
+		if(i < 0 || i >= size()) {
+			throw new IndexOutOfBoundsException("Index " + i + " is not within [0, " + size() + ").");
+		}
+
+		return super.get(i);
+	}
+
+	private void evicted(final DataVector element) {
+		for(int i = 0; i < listeners.size(); ++i) {
+			listeners.get(i).evicted(element);
+		}
+	}
 }
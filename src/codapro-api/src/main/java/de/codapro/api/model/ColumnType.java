@@ -0,0 +1,77 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+/**
+ * The storage type of a single column. Primitive column types allow components
+ *   and streams to keep data in primitive arrays instead of boxed objects.
+ */
+public enum ColumnType {
+	/**
+	 * Column of {@code double} values.
+	 */
+	DOUBLE,
+
+	/**
+	 * Column of {@code float} values.
+	 */
+	FLOAT,
+
+	/**
+	 * Column of {@code int} values.
+	 */
+	INT,
+
+	/**
+	 * Column of {@code boolean} values.
+	 */
+	BOOLEAN,
+
+	/**
+	 * Column of strings. Batches store them dictionary encoded.
+	 */
+	STRING,
+
+	/**
+	 * Column of arbitrary objects.
+	 */
+	OBJECT;
+
+	/**
+	 * Derives the column type from a sample value.
+	 *
+	 * @param value The sample value, may be {@code null}.
+	 * @return The matching column type or {@link ColumnType#OBJECT} if there is no primitive representation.
+	 */
+	public static ColumnType of(final Object value) {
+		if(value instanceof Double) {
+			return DOUBLE;
+		} else if(value instanceof Float) {
+			return FLOAT;
+		} else if(value instanceof Integer) {
+			return INT;
+		} else if(value instanceof Boolean) {
+			return BOOLEAN;
+		} else if(value instanceof String) {
+			return STRING;
+		}
+
+		return OBJECT;
+	}
+}
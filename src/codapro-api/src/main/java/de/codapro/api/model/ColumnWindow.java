@@ -0,0 +1,86 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+/**
+ * A read-only view of a single column of the vectors buffered by a
+ *   {@link BufferingStream}. The view reads through to the buffered vectors,
+ *   nothing is copied. Index {@code 0} is the oldest vector, index
+ *   {@code size() - 1} the newest one.
+ */
+public final class ColumnWindow {
+	private final BufferingStream buffer;
+
+	private final int column;
+
+	ColumnWindow(final BufferingStream buffer, final int column) {
+		this.buffer = buffer;
+		this.column = column;
+	}
+
+	/**
+	 * @return The value of the {@code i}-th vector.
+	 * @throws IndexOutOfBoundsException Iff {@code i} is not within [0, size()).
+	 */
+	public Object get(final int i) {
+		return buffer.vectorAt(i).get(column);
+	}
+
+	/**
+	 * @return The numeric value of the {@code i}-th vector as {@code double}.
+	 * @throws IndexOutOfBoundsException Iff {@code i} is not within [0, size()).
+	 */
+	public double getDouble(final int i) {
+		return ((Number)get(i)).doubleValue();
+	}
+
+	/**
+	 * @return The numeric value of the {@code i}-th vector as {@code long}.
+	 * @throws IndexOutOfBoundsException Iff {@code i} is not within [0, size()).
+	 */
+	public long getLong(final int i) {
+		return ((Number)get(i)).longValue();
+	}
+
+	/**
+	 * @return The index of the column within the vectors.
+	 */
+	public int getColumn() {
+		return column;
+	}
+
+	/**
+	 * @return Iff the window holds as many vectors as the buffer can hold.
+	 */
+	public boolean isFull() {
+		return buffer.isFull();
+	}
+
+	/**
+	 * @return The number of vectors in the window.
+	 */
+	public int size() {
+		return buffer.size();
+	}
+
+	@Override
+	public String toString() {
+		return "ColumnWindow [column=" + column + ", size=" + size() + "]";
+	}
+}
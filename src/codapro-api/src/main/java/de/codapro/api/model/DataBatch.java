@@ -0,0 +1,768 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.codapro.api.ConversionException;
+
+/**
+ * A columnar block of data vectors. Each column is backed by an array of its
+ *   {@link ColumnType}, e.g. a {@code double[]} for {@link ColumnType#DOUBLE}
+ *   columns. String columns are dictionary encoded. A batch is meant to be
+ *   reused: fill it, hand it to {@link Stream#appendBatch(DataBatch)} and
+ *   {@link DataBatch#clear()} it afterwards.
+ *
+ * {@code null} values of numeric and boolean columns are kept in a null mask
+ *   per column (see {@link DataBatch#isNull(int, int)}), the column arrays
+ *   hold NaN, 0 or {@code false} instead. String and object columns store
+ *   {@code null} directly.
+ *
+ * Batches never contain group sentinels. If a batch is terminated by a group
+ *   start or end, the sentinel is stored as the batch's group marker (see
+ *   {@link DataBatch#getGroupMarker()}) and logically follows the last row.
+ */
+public class DataBatch {
+	/**
+	 * A dictionary for string columns.
+	 */
+	private static final class Dictionary {
+		private final Map<String, Integer> codes = new HashMap<>();
+
+		private final List<String> values = new ArrayList<>();
+
+		private int encode(final String value) {
+			if(value == null) {
+				return -1;
+			}
+
+			return codes.computeIfAbsent(value, v -> {
+				values.add(v);
+				return values.size() - 1;
+			});
+		}
+
+		private String decode(final int code) {
+			return code < 0 ? null : values.get(code);
+		}
+
+		private void clear() {
+			codes.clear();
+			values.clear();
+		}
+	}
+
+	/**
+	 * Maximum number of rows.
+	 */
+	private final int capacity;
+
+	/**
+	 * The column arrays.
+	 */
+	private final Object [] columns;
+
+	/**
+	 * Dictionaries of string columns, {@code null} for other columns.
+	 */
+	private final Dictionary [] dictionaries;
+
+	/**
+	 * Null masks of the primitive columns, one bit per row. A mask is only
+	 *   allocated once the column contains a {@code null} value.
+	 */
+	private final long [][] nullMasks;
+
+	/**
+	 * Group sentinel following the last row or {@code null}.
+	 */
+	private DataVector groupMarker;
+
+	/**
+	 * Pool for the data vectors created by {@link #toDataVector(int)} or {@code null}.
+	 */
+	private DataVectorPool pool;
+
+	/**
+	 * Number of valid rows.
+	 */
+	private int size;
+
+	/**
+	 * The column names, {@code null} if the batch has been created without a schema.
+	 */
+	private final String [] names;
+
+	/**
+	 * The column types.
+	 */
+	private final ColumnType [] types;
+
+	/**
+	 * Creates a new batch with the column types of {@code schema}.
+	 *
+	 * @param schema The schema describing the columns.
+	 * @param capacity The maximum number of rows.
+	 */
+	public DataBatch(final StreamSchema schema, final int capacity) {
+		this(columnNames(schema), schema.types(), capacity);
+	}
+
+	/**
+	 * Creates a new batch.
+	 *
+	 * @param types The type of each column.
+	 * @param capacity The maximum number of rows.
+	 */
+	public DataBatch(final ColumnType [] types, final int capacity) {
+		this(null, types, capacity);
+	}
+
+	private DataBatch(final String [] names, final ColumnType [] types, final int capacity) {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Batch capacity must be positive but is " + capacity + ".");
+		}
+
+		this.capacity = capacity;
+		this.names = names;
+		this.types = types.clone();
+		this.columns = new Object[types.length];
+		this.dictionaries = new Dictionary[types.length];
+		this.nullMasks = new long[types.length][];
+
+		for(int column = 0; column < types.length; ++column) {
+			switch(types[column]) {
+			case DOUBLE:
+				columns[column] = new double[capacity];
+				break;
+
+			case FLOAT:
+				columns[column] = new float[capacity];
+				break;
+
+			case INT:
+				columns[column] = new int[capacity];
+				break;
+
+			case BOOLEAN:
+				columns[column] = new boolean[capacity];
+				break;
+
+			case STRING:
+				columns[column] = new int[capacity];
+				dictionaries[column] = new Dictionary();
+				break;
+
+			default:
+				columns[column] = new Object[capacity];
+			}
+		}
+	}
+
+	/**
+	 * Adds a new row to the batch. The row's values have to be set by the setters.
+	 *
+	 * @return The index of the new row.
+	 * @throws IllegalStateException Iff the batch is full.
+	 */
+	public int addRow() {
+		if(isFull()) {
+			throw new IllegalStateException("Batch is full.");
+		}
+
+		return size++;
+	}
+
+	/**
+	 * Adds a new row and copies the values of {@code vector} into the columns.
+	 *   The row is only added if all values could be stored.
+	 *
+	 * @param vector The vector to copy, must not be a group sentinel.
+	 * @return The index of the new row.
+	 * @throws IllegalStateException Iff the batch is full.
+	 * @throws BatchConversionException Iff the vector does not have a value
+	 *   for each column or a value cannot be stored, see {@link #set(int, int, Object)}.
+	 */
+	public int appendRow(final DataVector vector) throws BatchConversionException {
+		if(vector == DataVector.GROUP_START || vector == DataVector.GROUP_END) {
+			throw new IllegalArgumentException("Group sentinels cannot be stored as batch rows.");
+		}
+
+		if(vector.size() != types.length) {
+			throw new BatchConversionException("Vector " + vector + " has " + vector.size() + " values, but the batch has " + types.length + " columns.", vector);
+		}
+
+		final int row = addRow();
+
+		try {
+			for(int column = 0; column < types.length; ++column) {
+				set(column, row, vector.get(column));
+			}
+		} catch(final ConversionException e) {
+			clearNulls(row);
+			size = row;
+			throw new BatchConversionException("Vector " + vector + " does not fit the batch. " + e.getMessage(), vector, e);
+		}
+
+		return row;
+	}
+
+	/**
+	 * @return The maximum number of rows.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Removes all rows and the group marker. Column arrays are kept.
+	 */
+	public void clear() {
+		size = 0;
+		groupMarker = null;
+
+		for(final Dictionary dictionary : dictionaries) {
+			if(dictionary != null) {
+				dictionary.clear();
+			}
+		}
+
+		for(final long [] mask : nullMasks) {
+			if(mask != null) {
+				Arrays.fill(mask, 0L);
+			}
+		}
+	}
+
+	/**
+	 * Appends {@code count} rows of {@code source} starting at row {@code from}.
+	 *   Columns of the same type are copied as arrays, others are converted
+	 *   like by {@link #set(int, int, Object)}. If this batch has more columns
+	 *   than {@code source}, the additional columns of the new rows are
+	 *   {@code null}. The rows are only added if all values could be stored.
+	 *
+	 * @throws IllegalStateException Iff there is no space for {@code count} rows.
+	 * @throws ConversionException Iff {@code source} has more columns than this
+	 *   batch or a value cannot be stored.
+	 */
+	public void copyRows(final DataBatch source, final int from, final int count) throws ConversionException {
+		if(source.types.length > types.length) {
+			throw new ConversionException("Cannot copy " + source.types.length + " columns into a batch with " + types.length + " columns.");
+		}
+
+		if(from < 0 || count < 0 || from + count > source.size) {
+			throw new IndexOutOfBoundsException("Rows [" + from + ", " + (from + count) + ") are not within [0, " + source.size + ").");
+		}
+
+		if(count > capacity - size) {
+			throw new IllegalStateException("Batch has no space for " + count + " rows.");
+		}
+
+		final int start = size;
+		size += count;
+
+		try {
+			for(int column = 0; column < types.length; ++column) {
+				if(column >= source.types.length) {
+					for(int row = start; row < size; ++row) {
+						setNull(column, row);
+					}
+				} else if(types[column] == source.types[column]) {
+					copyColumn(source, column, from, start, count);
+				} else {
+					for(int row = 0; row < count; ++row) {
+						set(column, start + row, source.get(column, from + row));
+					}
+				}
+			}
+		} catch(final ConversionException e) {
+			for(int row = start; row < size; ++row) {
+				clearNulls(row);
+			}
+
+			size = start;
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns the value at the given position as an object.
+	 */
+	public Object get(final int column, final int row) {
+		checkRow(row);
+
+		if(isMasked(column, row)) {
+			return null;
+		}
+
+		switch(types[column]) {
+		case DOUBLE:
+			return ((double[])columns[column])[row];
+
+		case FLOAT:
+			return ((float[])columns[column])[row];
+
+		case INT:
+			return ((int[])columns[column])[row];
+
+		case BOOLEAN:
+			return ((boolean[])columns[column])[row];
+
+		case STRING:
+			return dictionaries[column].decode(((int[])columns[column])[row]);
+
+		default:
+			return ((Object[])columns[column])[row];
+		}
+	}
+
+	public boolean getBoolean(final int column, final int row) {
+		checkRow(row);
+		return ((boolean[])columns[column])[row];
+	}
+
+	/**
+	 * Gives direct access to a boolean column. Only the first {@link DataBatch#size()}
+	 *   elements are valid, {@code null} values are not visible, see
+	 *   {@link DataBatch#isNull(int, int)}.
+	 */
+	public boolean [] getBooleanColumn(final int column) {
+		return (boolean[])checkType(column, ColumnType.BOOLEAN);
+	}
+
+	/**
+	 * @return The number of columns.
+	 */
+	public int getColumnCount() {
+		return types.length;
+	}
+
+	/**
+	 * Returns a numeric value as {@code double} regardless of the numeric column type.
+	 *   {@code null} values of primitive columns are returned as NaN.
+	 */
+	public double getDouble(final int column, final int row) {
+		checkRow(row);
+
+		if(isMasked(column, row)) {
+			return Double.NaN;
+		}
+
+		switch(types[column]) {
+		case DOUBLE:
+			return ((double[])columns[column])[row];
+
+		case FLOAT:
+			return ((float[])columns[column])[row];
+
+		case INT:
+			return ((int[])columns[column])[row];
+
+		default:
+			return ((Number)get(column, row)).doubleValue();
+		}
+	}
+
+	/**
+	 * Gives direct access to a double column. Only the first {@link DataBatch#size()}
+	 *   elements are valid, {@code null} values are not visible, see
+	 *   {@link DataBatch#isNull(int, int)}.
+	 */
+	public double [] getDoubleColumn(final int column) {
+		return (double[])checkType(column, ColumnType.DOUBLE);
+	}
+
+	public float getFloat(final int column, final int row) {
+		checkRow(row);
+		return ((float[])columns[column])[row];
+	}
+
+	/**
+	 * Gives direct access to a float column. Only the first {@link DataBatch#size()}
+	 *   elements are valid, {@code null} values are not visible, see
+	 *   {@link DataBatch#isNull(int, int)}.
+	 */
+	public float [] getFloatColumn(final int column) {
+		return (float[])checkType(column, ColumnType.FLOAT);
+	}
+
+	/**
+	 * @return The group sentinel following the last row or {@code null}.
+	 */
+	public DataVector getGroupMarker() {
+		return groupMarker;
+	}
+
+	/**
+	 * @return The pool used by {@link #toDataVector(int)} or {@code null}.
+	 */
+	public DataVectorPool getPool() {
+		return pool;
+	}
+
+	public int getInt(final int column, final int row) {
+		checkRow(row);
+		return ((int[])columns[column])[row];
+	}
+
+	/**
+	 * Gives direct access to an int column. Only the first {@link DataBatch#size()}
+	 *   elements are valid, {@code null} values are not visible, see
+	 *   {@link DataBatch#isNull(int, int)}.
+	 */
+	public int [] getIntColumn(final int column) {
+		return (int[])checkType(column, ColumnType.INT);
+	}
+
+	public String getString(final int column, final int row) {
+		checkRow(row);
+		return dictionaries[checkDictionary(column)].decode(((int[])columns[column])[row]);
+	}
+
+	/**
+	 * @return The type of the given column.
+	 */
+	public ColumnType getType(final int column) {
+		return types[column];
+	}
+
+	/**
+	 * @return Iff there is a {@code null} value in the rows of the column.
+	 */
+	public boolean hasNulls(final int column) {
+		switch(types[column]) {
+		case DOUBLE:
+		case FLOAT:
+		case INT:
+		case BOOLEAN:
+			if(nullMasks[column] == null) {
+				return false;
+			}
+			break;
+
+		default:
+			break;
+		}
+
+		for(int row = 0; row < size; ++row) {
+			if(isNull(column, row)) {
+				return true;
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return Iff there are no rows.
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @return Iff no more rows can be added.
+	 */
+	public boolean isFull() {
+		return size == capacity;
+	}
+
+	/**
+	 * @return Iff the value at the given position is {@code null}.
+	 */
+	public boolean isNull(final int column, final int row) {
+		checkRow(row);
+
+		switch(types[column]) {
+		case STRING:
+			return ((int[])columns[column])[row] < 0;
+
+		case DOUBLE:
+		case FLOAT:
+		case INT:
+		case BOOLEAN:
+			return isMasked(column, row);
+
+		default:
+			return ((Object[])columns[column])[row] == null;
+		}
+	}
+
+	/**
+	 * Sets the value at the given position. Numeric values are converted to the
+	 *   column type.
+	 *
+	 * @throws ConversionException Iff the value does not fit the column type.
+	 */
+	public void set(final int column, final int row, final Object value) throws ConversionException {
+		if(value == null) {
+			setNull(column, row);
+			return;
+		}
+
+		try {
+			store(column, row, value);
+		} catch(final ClassCastException e) {
+			throw new ConversionException("Column " + nameOf(column) + " of type " + types[column] + " cannot store " + value + ".", e);
+		}
+	}
+
+	public void setBoolean(final int column, final int row, final boolean value) {
+		checkRow(row);
+		unmask(column, row);
+		((boolean[])columns[column])[row] = value;
+	}
+
+	public void setDouble(final int column, final int row, final double value) {
+		checkRow(row);
+		unmask(column, row);
+		((double[])columns[column])[row] = value;
+	}
+
+	public void setFloat(final int column, final int row, final float value) {
+		checkRow(row);
+		unmask(column, row);
+		((float[])columns[column])[row] = value;
+	}
+
+	/**
+	 * Sets the group sentinel that terminates this batch.
+	 *
+	 * @param marker {@link DataVector#GROUP_START}, {@link DataVector#GROUP_END} or {@code null}.
+	 */
+	public void setGroupMarker(final DataVector marker) {
+		if(marker != null && marker != DataVector.GROUP_START && marker != DataVector.GROUP_END) {
+			throw new IllegalArgumentException("Only group sentinels are valid group markers.");
+		}
+
+		this.groupMarker = marker;
+	}
+
+	public void setInt(final int column, final int row, final int value) {
+		checkRow(row);
+		unmask(column, row);
+		((int[])columns[column])[row] = value;
+	}
+
+	/**
+	 * Sets the value at the given position to {@code null}.
+	 */
+	public void setNull(final int column, final int row) {
+		switch(types[column]) {
+		case DOUBLE:
+			setDouble(column, row, Double.NaN);
+			break;
+
+		case FLOAT:
+			setFloat(column, row, Float.NaN);
+			break;
+
+		case INT:
+			setInt(column, row, 0);
+			break;
+
+		case BOOLEAN:
+			setBoolean(column, row, false);
+			break;
+
+		case STRING:
+			setString(column, row, null);
+			return;
+
+		default:
+			checkRow(row);
+			((Object[])columns[column])[row] = null;
+			return;
+		}
+
+		if(nullMasks[column] == null) {
+			nullMasks[column] = new long[(capacity + Long.SIZE - 1) / Long.SIZE];
+		}
+
+		nullMasks[column][row >>> 6] |= 1L << row;
+	}
+
+	public void setString(final int column, final int row, final String value) {
+		checkRow(row);
+		((int[])columns[column])[row] = dictionaries[checkDictionary(column)].encode(value);
+	}
+
+	/**
+	 * @return Number of valid rows.
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Sets the pool used by {@link #toDataVector(int)}, {@code null} disables pooling.
+	 */
+	public void setPool(final DataVectorPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * Converts a row into a new data vector. The vector is taken from the pool
+	 *   if one has been set.
+	 */
+	public DataVector toDataVector(final int row) {
+		return toDataVector(row, pool == null ? new DataVector(types.length) : pool.acquire());
+	}
+
+	/**
+	 * Copies a row into the first {@link DataBatch#getColumnCount()} elements of {@code target}.
+	 *
+	 * @return The target vector.
+	 */
+	public DataVector toDataVector(final int row, final DataVector target) {
+		for(int column = 0; column < types.length; ++column) {
+			target.set(column, get(column, row));
+		}
+
+		return target;
+	}
+
+	@Override
+	public String toString() {
+		return "DataBatch [types=" + Arrays.toString(types) + ", size=" + size + ", capacity=" + capacity + "]";
+	}
+
+	private static String [] columnNames(final StreamSchema schema) {
+		final String [] result = new String[schema.size()];
+		for(int column = 0; column < result.length; ++column) {
+			result[column] = schema.nameOf(column);
+		}
+		return result;
+	}
+
+	/**
+	 * Converts a value that is not {@code null} to the column type and stores it.
+	 */
+	private void store(final int column, final int row, final Object value) {
+		switch(types[column]) {
+		case DOUBLE:
+			setDouble(column, row, ((Number)value).doubleValue());
+			break;
+
+		case FLOAT:
+			setFloat(column, row, ((Number)value).floatValue());
+			break;
+
+		case INT:
+			setInt(column, row, ((Number)value).intValue());
+			break;
+
+		case BOOLEAN:
+			setBoolean(column, row, (Boolean)value);
+			break;
+
+		case STRING:
+			setString(column, row, (String)value);
+			break;
+
+		default:
+			checkRow(row);
+			((Object[])columns[column])[row] = value;
+		}
+	}
+
+	/**
+	 * @return The name of a column for messages, its index if the batch has no names.
+	 */
+	private String nameOf(final int column) {
+		return names == null ? String.valueOf(column) : "'" + names[column] + "'";
+	}
+
+	/**
+	 * Copies rows of a column of the same type.
+	 */
+	private void copyColumn(final DataBatch source, final int column, final int from, final int start, final int count) {
+		if(types[column] == ColumnType.STRING) {
+			final int [] codes = (int[])source.columns[column];
+			final int [] target = (int[])columns[column];
+
+			for(int row = 0; row < count; ++row) {
+				target[start + row] = dictionaries[column].encode(source.dictionaries[column].decode(codes[from + row]));
+			}
+
+			return;
+		}
+
+		System.arraycopy(source.columns[column], from, columns[column], start, count);
+
+		if(source.nullMasks[column] != null || nullMasks[column] != null) {
+			for(int row = 0; row < count; ++row) {
+				if(source.isMasked(column, from + row)) {
+					setNull(column, start + row);
+				} else {
+					unmask(column, start + row);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes a rolled back row from the null masks.
+	 */
+	private void clearNulls(final int row) {
+		for(final long [] mask : nullMasks) {
+			if(mask != null) {
+				mask[row >>> 6] &= ~(1L << row);
+			}
+		}
+	}
+
+	private boolean isMasked(final int column, final int row) {
+		final long [] mask = nullMasks[column];
+		return mask != null && (mask[row >>> 6] & (1L << row)) != 0;
+	}
+
+	private void unmask(final int column, final int row) {
+		final long [] mask = nullMasks[column];
+		if(mask != null) {
+			mask[row >>> 6] &= ~(1L << row);
+		}
+	}
+
+	private int checkDictionary(final int column) {
+		if(dictionaries[column] == null) {
+			throw new IllegalArgumentException("Column " + column + " is not a string column.");
+		}
+
+		return column;
+	}
+
+	private void checkRow(final int row) {
+		if(row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " is not within [0, " + size + ").");
+		}
+	}
+
+	private Object checkType(final int column, final ColumnType type) {
+		if(types[column] != type) {
+			throw new IllegalArgumentException("Column " + column + " is of type " + types[column] + " and not " + type + ".");
+		}
+
+		return columns[column];
+	}
+}
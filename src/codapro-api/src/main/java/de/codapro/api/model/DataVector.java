@@ -23,12 +23,24 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import org.apache.commons.lang3.SerializationUtils;
 
 /**
  * A simple container for a single data column. It consists of a list of data
  *   elements.
+ *
+ * Data vectors taken from a {@link DataVectorPool} are recycled when their last
+ *   owner calls {@link #release()}. Components that hand the same vector to
+ *   several streams have to {@link #retain()} it once per additional stream.
+ *   Setting the system property {@value #CHECK_RELEASED_PROPERTY} to
+ *   {@code true} turns on a debug mode: released vectors are never recycled
+ *   and every access to them throws an {@link IllegalStateException}.
+ *
+ * {@link #copy()} and {@link #copyOnWrite()} create cheap copies for handing
+ *   the same data to several consumers.
  */
 public class DataVector implements Iterable<Object>, Serializable {
 	/**
@@ -36,6 +48,19 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 */
 	private static final long serialVersionUID = 8230788166525617022L;
 
+	/**
+	 * System property enabling the use-after-release check.
+	 */
+	public static final String CHECK_RELEASED_PROPERTY = "codapro.datavector.check-released";
+
+	/**
+	 * If access to released vectors is checked. Not final, so tests can change it.
+	 */
+	static boolean checkReleased = Boolean.getBoolean(CHECK_RELEASED_PROPERTY);
+
+	private static final AtomicIntegerFieldUpdater<DataVector> REFERENCES =
+			AtomicIntegerFieldUpdater.newUpdater(DataVector.class, "references");
+
 	/**
 	 * An artificial group end vector
 	 */
@@ -51,6 +76,22 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 */
 	private ArrayList<Object> data;
 
+	/**
+	 * The pool this vector is returned to or {@code null}.
+	 */
+	private transient DataVectorPool pool;
+
+	/**
+	 * Number of additional owners, {@code -1} if the vector has been released.
+	 */
+	private transient volatile int references = 0;
+
+	/**
+	 * Number of vectors sharing {@link #data} after {@link #copyOnWrite()}, or
+	 *   {@code null} if the list is not shared.
+	 */
+	private transient AtomicInteger sharers;
+
 	public DataVector() {
 		data = new ArrayList<>(10);
 	}
@@ -60,6 +101,10 @@ public class DataVector implements Iterable<Object>, Serializable {
 		ensureSize(size);
 	}
 
+	private DataVector(final ArrayList<Object> data) {
+		this.data = data;
+	}
+
 	/**
 	 * Appends an data element to the vector.
 	 *
@@ -67,6 +112,8 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 * @return The data vector itself.
 	 */
 	public DataVector append(final Object next) {
+		checkNotReleased();
+		prepareWrite();
 		data.add(next);
 
 		return this;
@@ -78,6 +125,8 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 * @param elements The elements to append in the correct order.
 	 */
 	public void appendAll(final Collection<Object> elements) {
+		checkNotReleased();
+		prepareWrite();
 		data.addAll(elements);
 	}
 
@@ -98,6 +147,7 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 * @throws IndexOutOfBoundsException iff the index is not valid.
 	 */
 	public Object get(int index) {
+		checkNotReleased();
 		return data.get(index);
 	}
 
@@ -105,6 +155,7 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 * @return A read-only copy of the underlying data vector.
 	 */
 	public Collection<Object> getAll() {
+		checkNotReleased();
 		return Collections.unmodifiableCollection(data);
 	}
 
@@ -112,6 +163,7 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 * @return Number of date elements in this vector.
 	 */
 	public int size(){
+		checkNotReleased();
 		return data.size();
 	}
 
@@ -119,11 +171,19 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 * @return Iff this vector is empty.
 	 */
 	public boolean isEmpty() {
+		checkNotReleased();
 		return data.isEmpty();
 	}
 
 	@Override
 	public Iterator<Object> iterator() {
+		checkNotReleased();
+
+		if(sharers != null) {
+			// a shared list must not be modified through the iterator
+			return Collections.unmodifiableList(data).iterator();
+		}
+
 		return data.iterator();
 	}
 
@@ -131,6 +191,8 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 * Removes data at {@code index}
 	 */
 	public void remove(int index) {
+		checkNotReleased();
+		prepareWrite();
 		data.remove(index);
 	}
 
@@ -138,6 +200,8 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 * Replaces the stored data by the passed data.
 	 */
 	public void replace(final Iterator<?> iterator) {
+		checkNotReleased();
+		prepareWrite();
 		data.clear();
 		while(iterator.hasNext()) {
 			data.add(iterator.next());
@@ -149,6 +213,8 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 *   vector size if necessary.
 	 */
 	public void set(int i, final Object value) {
+		checkNotReleased();
+		prepareWrite();
 		ensureSize(i + 1);
 		data.set(i, value);
 	}
@@ -162,13 +228,142 @@ public class DataVector implements Iterable<Object>, Serializable {
 	 * Appends all elements to the vector.
 	 */
 	public void appendAll(final double[] elements) {
+		checkNotReleased();
+		prepareWrite();
 		for (final double element : elements) {
 			data.add(element);
 		}
 	}
 
+	/**
+	 * Creates a structural copy: the new vector has its own list, but shares
+	 *   the elements with this vector. This is safe for immutable elements, such
+	 *   as boxed numbers or strings, which are the usual content of a vector.
+	 *   Use {@link #clone()} for a deep copy.
+	 *
+	 * @return The copy.
+	 */
+	public DataVector copy() {
+		checkNotReleased();
+
+		return new DataVector(new ArrayList<>(data));
+	}
+
+	/**
+	 * Creates a copy sharing the element list with this vector. The list is
+	 *   copied as soon as one of the vectors is modified, so handing a vector
+	 *   to several consumers costs nothing as long as they only read it.
+	 *
+	 * @return The copy.
+	 */
+	public DataVector copyOnWrite() {
+		checkNotReleased();
+
+		if(sharers == null) {
+			sharers = new AtomicInteger(1);
+		}
+
+		sharers.incrementAndGet();
+
+		final DataVector result = new DataVector(data);
+		result.sharers = sharers;
+
+		return result;
+	}
+
 	@Override
 	public Object clone() throws CloneNotSupportedException {
+		checkNotReleased();
 		return SerializationUtils.<DataVector>clone(this);
 	}
+
+	/**
+	 * @return Iff the last owner has released this vector.
+	 */
+	public boolean isReleased() {
+		return references < 0;
+	}
+
+	/**
+	 * Signals that the caller does not use this vector anymore. If this was the
+	 *   last owner, a pooled vector is returned to its pool. Group sentinels and
+	 *   vectors not taken from a pool are not affected, unless the debug mode is
+	 *   enabled.
+	 *
+	 * @throws IllegalStateException If the debug mode is enabled and the vector
+	 *   has already been released.
+	 */
+	public void release() {
+		if(this == GROUP_START || this == GROUP_END) {
+			return;
+		}
+
+		final int owners = REFERENCES.getAndDecrement(this);
+		if(owners > 0) {
+			return;
+		}
+
+		if(owners < 0 && checkReleased) {
+			throw new IllegalStateException("Data vector has already been released.");
+		}
+
+		if(owners == 0 && pool != null && !checkReleased) {
+			pool.recycle(this);
+		}
+	}
+
+	/**
+	 * Registers an additional owner, who has to call {@link #release()} as well.
+	 *
+	 * @return The data vector itself.
+	 */
+	public DataVector retain() {
+		checkNotReleased();
+		REFERENCES.incrementAndGet(this);
+
+		return this;
+	}
+
+	/**
+	 * Prepares a vector for its next use from {@code owningPool}.
+	 */
+	void reset(final DataVectorPool owningPool) {
+		if(sharers != null) {
+			// the list still belongs to other vectors
+			sharers.decrementAndGet();
+			sharers = null;
+			data = new ArrayList<>(10);
+		} else {
+			data.clear();
+		}
+
+		pool = owningPool;
+		references = 0;
+	}
+
+	/**
+	 * Gives this vector its own list if it is shared with other vectors.
+	 */
+	private void prepareWrite() {
+		final AtomicInteger shared = sharers;
+
+		if(shared == null) {
+			return;
+		}
+
+		// copy before leaving the group, otherwise the last remaining vector
+		//  might modify the list while we are copying it
+		if(shared.get() > 1) {
+			data = new ArrayList<>(data);
+		}
+
+		shared.decrementAndGet();
+		sharers = null;
+	}
+
+	private void checkNotReleased() {
+		if(checkReleased && references < 0) {
+			throw new IllegalStateException("Data vector has been used after it has been released.");
+		}
+	}
 }
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.lang3.SerializationException;
+import org.apache.commons.lang3.SerializationUtils;
+
+import de.codapro.api.ConversionException;
+
+/**
+ * Compact binary form of data vectors, e.g. for spilling queued vectors to
+ *   disk. A record consists of the number of elements followed by the
+ *   elements, each as a one byte tag and its value. Numbers, booleans and
+ *   strings are stored directly, other serializable objects by Java
+ *   serialization. The group sentinels are stored as negative sizes, so
+ *   decoding them yields {@link DataVector#GROUP_START} and
+ *   {@link DataVector#GROUP_END} again.
+ */
+public final class DataVectorCodec {
+	private static final int GROUP_START = -1;
+
+	private static final int GROUP_END = -2;
+
+	private static final byte NULL = 0;
+
+	private static final byte DOUBLE = 1;
+
+	private static final byte FLOAT = 2;
+
+	private static final byte INT = 3;
+
+	private static final byte LONG = 4;
+
+	private static final byte BOOLEAN = 5;
+
+	private static final byte STRING = 6;
+
+	private static final byte OBJECT = 7;
+
+	/**
+	 * Writes a vector at the buffer's position. If the buffer is too small,
+	 *   its content is copied to a larger one.
+	 *
+	 * @return The buffer holding the record, its position is the end of the record.
+	 * @throws ConversionException Iff an element is neither a number, a boolean,
+	 *   a string nor serializable.
+	 */
+	public static ByteBuffer encode(final DataVector vector, final ByteBuffer buffer) throws ConversionException {
+		final int start = buffer.position();
+		ByteBuffer target = buffer;
+
+		while(true) {
+			try {
+				write(vector, target);
+				return target;
+			} catch(final BufferOverflowException e) {
+				final ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * target.capacity(), 64)).order(target.order());
+
+				target.limit(start).position(0);
+				larger.put(target);
+				target = larger;
+			}
+		}
+	}
+
+	/**
+	 * Reads a vector at the buffer's position and advances it to the end of the record.
+	 *
+	 * @throws ConversionException Iff the buffer does not contain a valid record.
+	 */
+	public static DataVector decode(final ByteBuffer buffer) throws ConversionException {
+		try {
+			final int size = buffer.getInt();
+
+			if(size == GROUP_START) {
+				return DataVector.GROUP_START;
+			}
+
+			if(size == GROUP_END) {
+				return DataVector.GROUP_END;
+			}
+
+			if(size < 0) {
+				throw new ConversionException("Invalid data vector size " + size + ".");
+			}
+
+			final DataVector vector = new DataVector(size);
+			for(int i = 0; i < size; ++i) {
+				vector.set(i, readValue(buffer));
+			}
+
+			return vector;
+		} catch(final BufferUnderflowException | NegativeArraySizeException | SerializationException e) {
+			throw new ConversionException("Failed to decode data vector.", e);
+		}
+	}
+
+	private static void write(final DataVector vector, final ByteBuffer buffer) throws ConversionException {
+		if(vector == DataVector.GROUP_START) {
+			buffer.putInt(GROUP_START);
+			return;
+		}
+
+		if(vector == DataVector.GROUP_END) {
+			buffer.putInt(GROUP_END);
+			return;
+		}
+
+		final int size = vector.size();
+		buffer.putInt(size);
+
+		for(int i = 0; i < size; ++i) {
+			writeValue(vector.get(i), buffer);
+		}
+	}
+
+	/**
+	 * Writes a single element as tag and value at the buffer's position.
+	 *
+	 * @throws java.nio.BufferOverflowException Iff the buffer is too small.
+	 * @throws ConversionException Iff the value is neither a number, a boolean,
+	 *   a string nor serializable.
+	 */
+	public static void writeValue(final Object value, final ByteBuffer buffer) throws ConversionException {
+		if(value == null) {
+			buffer.put(NULL);
+		} else if(value instanceof Double) {
+			buffer.put(DOUBLE).putDouble((Double)value);
+		} else if(value instanceof Float) {
+			buffer.put(FLOAT).putFloat((Float)value);
+		} else if(value instanceof Integer) {
+			buffer.put(INT).putInt((Integer)value);
+		} else if(value instanceof Long) {
+			buffer.put(LONG).putLong((Long)value);
+		} else if(value instanceof Boolean) {
+			buffer.put(BOOLEAN).put((byte)((Boolean)value ? 1 : 0));
+		} else if(value instanceof String) {
+			final byte [] bytes = ((String)value).getBytes(StandardCharsets.UTF_8);
+			buffer.put(STRING).putInt(bytes.length).put(bytes);
+		} else if(value instanceof Serializable) {
+			final byte [] bytes = SerializationUtils.serialize((Serializable)value);
+			buffer.put(OBJECT).putInt(bytes.length).put(bytes);
+		} else {
+			throw new ConversionException("Cannot encode value of type " + value.getClass().getName() + ".");
+		}
+	}
+
+	/**
+	 * Reads a single element written by {@link #writeValue(Object, ByteBuffer)}.
+	 *
+	 * @throws ConversionException Iff the buffer does not contain a valid element.
+	 */
+	public static Object readValue(final ByteBuffer buffer) throws ConversionException {
+		try {
+			return read(buffer);
+		} catch(final BufferUnderflowException | NegativeArraySizeException | SerializationException e) {
+			throw new ConversionException("Failed to decode value.", e);
+		}
+	}
+
+	private static Object read(final ByteBuffer buffer) throws ConversionException {
+		final byte tag = buffer.get();
+
+		switch(tag) {
+		case NULL:
+			return null;
+
+		case DOUBLE:
+			return buffer.getDouble();
+
+		case FLOAT:
+			return buffer.getFloat();
+
+		case INT:
+			return buffer.getInt();
+
+		case LONG:
+			return buffer.getLong();
+
+		case BOOLEAN:
+			return buffer.get() != 0;
+
+		case STRING:
+			return new String(readBytes(buffer), StandardCharsets.UTF_8);
+
+		case OBJECT:
+			return SerializationUtils.deserialize(readBytes(buffer));
+
+		default:
+			throw new ConversionException("Invalid value tag " + tag + ".");
+		}
+	}
+
+	private static byte [] readBytes(final ByteBuffer buffer) {
+		final byte [] bytes = new byte[buffer.getInt()];
+		buffer.get(bytes);
+		return bytes;
+	}
+
+	private DataVectorCodec() {
+	}
+}
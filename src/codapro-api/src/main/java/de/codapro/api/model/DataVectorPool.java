@@ -0,0 +1,92 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A pool of data vectors. Producers {@link #acquire()} vectors instead of
+ *   creating them and the last consumer calls {@link DataVector#release()},
+ *   which hands the vector back to the pool. Once the pool is warmed up, no
+ *   vectors and no backing lists are allocated anymore.
+ *
+ * The pool is thread-safe: vectors are usually acquired by a reader and
+ *   released by a sink running in a different thread. Vectors that are not
+ *   released are simply collected by the garbage collector, so using the pool
+ *   is always safe, it is just less effective if not all sinks release their
+ *   vectors.
+ */
+public class DataVectorPool {
+	/**
+	 * Idle vectors. The array based queue does not allocate nodes.
+	 */
+	private final BlockingQueue<DataVector> idle;
+
+	private final LongAdder created = new LongAdder();
+
+	/**
+	 * @param maximumIdle Maximum number of released vectors kept for reuse.
+	 */
+	public DataVectorPool(final int maximumIdle) {
+		if(maximumIdle <= 0) {
+			throw new IllegalArgumentException("Pool size must be positive but is " + maximumIdle + ".");
+		}
+
+		this.idle = new ArrayBlockingQueue<>(maximumIdle);
+	}
+
+	/**
+	 * @return An empty data vector, owned by the caller.
+	 */
+	public DataVector acquire() {
+		DataVector vector = idle.poll();
+
+		if(vector == null) {
+			vector = new DataVector();
+			created.increment();
+		}
+
+		vector.reset(this);
+
+		return vector;
+	}
+
+	/**
+	 * @return Number of vectors created by this pool so far.
+	 */
+	public long getCreatedCount() {
+		return created.sum();
+	}
+
+	/**
+	 * @return Number of vectors waiting for reuse.
+	 */
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	/**
+	 * Takes back a released vector. If the pool is full, the vector is dropped.
+	 */
+	void recycle(final DataVector vector) {
+		idle.offer(vector);
+	}
+}
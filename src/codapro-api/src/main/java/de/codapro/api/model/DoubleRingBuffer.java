@@ -0,0 +1,457 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.NoSuchElementException;
+import java.util.function.DoubleConsumer;
+
+/**
+ * A ring buffer for primitive {@code double} values. Like {@link RingBufferImpl}
+ *   it overwrites the oldest element when appending to a full buffer.
+ *
+ * In addition, the buffer keeps the sum, the sum of squares, the minimum and
+ *   the maximum of its elements up to date, so all of them are available in
+ *   constant time. The minimum and maximum are tracked with monotonic deques,
+ *   therefore appending is amortised constant time, too. The sum of the
+ *   elements weighted by their index is kept as well, it gives the slope of
+ *   the regression line through the elements in constant time. The variance
+ *   is kept with Welford's updates of the mean and the sum of squared
+ *   deviations, so it is accurate for values with a large offset.
+ *
+ * Elements are addressed in insertion order, index {@code 0} is the oldest
+ *   element. The elements are kept in storages of a {@link StorageAllocator},
+ *   on the heap by default.
+ */
+public class DoubleRingBuffer {
+	private final int capacity;
+
+	private final DoubleStorage data;
+
+	/**
+	 * Sequence number of the oldest element.
+	 */
+	private long first = 0;
+
+	/**
+	 * Sequence number of the next element.
+	 */
+	private long next = 0;
+
+	private double sum = 0;
+
+	private double sumOfSquares = 0;
+
+	/**
+	 * Sum of the elements multiplied by their index.
+	 */
+	private double indexWeightedSum = 0;
+
+	/**
+	 * Mean of the finite elements, updated with Welford's method.
+	 */
+	private double welfordMean = 0;
+
+	/**
+	 * Sum of the squared deviations of the finite elements from {@link #welfordMean}.
+	 */
+	private double squaredDeviations = 0;
+
+	/**
+	 * Number of NaN and infinite values in the buffer. They are not part of the
+	 *   running sums, since removing them again would turn the sums into NaN.
+	 */
+	private int nonFiniteCount = 0;
+
+	/**
+	 * Number of evictions since the running sums have been recomputed.
+	 */
+	private int evictionsSinceRecompute = 0;
+
+	/**
+	 * Sequence numbers of the minimum candidates, values are increasing.
+	 */
+	private final LongStorage minQueue;
+
+	private int minHead = 0;
+
+	private int minSize = 0;
+
+	/**
+	 * Sequence numbers of the maximum candidates, values are decreasing.
+	 */
+	private final LongStorage maxQueue;
+
+	private int maxHead = 0;
+
+	private int maxSize = 0;
+
+	public DoubleRingBuffer(final int capacity) {
+		this(capacity, StorageAllocator.HEAP);
+	}
+
+	/**
+	 * Creates a ring buffer whose elements are kept in storages of {@code allocator}.
+	 *   Off-heap buffers have to be released by {@link DoubleRingBuffer#close()}.
+	 */
+	public DoubleRingBuffer(final int capacity, final StorageAllocator allocator) {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive but is " + capacity + ".");
+		}
+
+		this.capacity = capacity;
+		this.data = allocator.doubles(capacity);
+		this.minQueue = allocator.longs(capacity);
+		this.maxQueue = allocator.longs(capacity);
+	}
+
+	/**
+	 * Appends {@code value} and removes the oldest element if the buffer is full.
+	 */
+	public void append(final double value) {
+		if(isFull()) {
+			remove();
+		}
+
+		final long sequence = next++;
+		data.set(index(sequence), value);
+
+		if(!Double.isFinite(value)) {
+			++nonFiniteCount;
+			return;
+		}
+
+		sum += value;
+		sumOfSquares += value * value;
+		indexWeightedSum += (sequence - first) * value;
+
+		final double delta = value - welfordMean;
+		welfordMean += delta / (size() - nonFiniteCount);
+		squaredDeviations += delta * (value - welfordMean);
+
+		while(minSize > 0 && valueAt(minQueue.get((minHead + minSize - 1) % capacity)) > value) {
+			--minSize;
+		}
+		minQueue.set((minHead + minSize++) % capacity, sequence);
+
+		while(maxSize > 0 && valueAt(maxQueue.get((maxHead + maxSize - 1) % capacity)) < value) {
+			--maxSize;
+		}
+		maxQueue.set((maxHead + maxSize++) % capacity, sequence);
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Releases the storages. The buffer must not be used afterwards.
+	 */
+	public void close() {
+		data.close();
+		minQueue.close();
+		maxQueue.close();
+	}
+
+	/**
+	 * Removes all elements.
+	 */
+	public void clear() {
+		first = next;
+		sum = 0;
+		sumOfSquares = 0;
+		indexWeightedSum = 0;
+		welfordMean = 0;
+		squaredDeviations = 0;
+		nonFiniteCount = 0;
+		evictionsSinceRecompute = 0;
+		minSize = 0;
+		maxSize = 0;
+	}
+
+	/**
+	 * Copies the elements in insertion order to {@code destination}.
+	 *
+	 * @return The number of copied elements.
+	 */
+	public int copyTo(final double [] destination, final int offset) {
+		final int size = size();
+		final int start = index(first);
+		final int firstPart = Math.min(size, capacity - start);
+
+		data.copyTo(start, destination, offset, firstPart);
+		data.copyTo(0, destination, offset + firstPart, size - firstPart);
+
+		return size;
+	}
+
+	/**
+	 * Calls {@code consumer} for each element in insertion order.
+	 */
+	public void forEach(final DoubleConsumer consumer) {
+		for(long sequence = first; sequence < next; ++sequence) {
+			consumer.accept(data.get(index(sequence)));
+		}
+	}
+
+	/**
+	 * @return The {@code elementIndex}th element, {@code 0} is the oldest one.
+	 * @throws NoSuchElementException If there is no such element.
+	 */
+	public double get(final int elementIndex) {
+		if(elementIndex < 0 || elementIndex >= size()) {
+			throw new NoSuchElementException("Ring buffer has no element " + elementIndex + ".");
+		}
+
+		return data.get(index(first + elementIndex));
+	}
+
+	/**
+	 * @return The most recently appended element.
+	 * @throws NoSuchElementException If the buffer is empty.
+	 */
+	public double getLast() {
+		return get(size() - 1);
+	}
+
+	public boolean isEmpty() {
+		return first == next;
+	}
+
+	public boolean isFull() {
+		return next - first == capacity;
+	}
+
+	/**
+	 * @return The largest element. NaN if the buffer is empty or contains NaN.
+	 */
+	public double max() {
+		if(nonFiniteCount > 0) {
+			return fold(Double.NEGATIVE_INFINITY, true);
+		}
+
+		return maxSize == 0 ? Double.NaN : valueAt(maxQueue.get(maxHead));
+	}
+
+	/**
+	 * @return The arithmetic mean. NaN if the buffer is empty.
+	 */
+	public double mean() {
+		return sum() / size();
+	}
+
+	/**
+	 * @return The smallest element. NaN if the buffer is empty or contains NaN.
+	 */
+	public double min() {
+		if(nonFiniteCount > 0) {
+			return fold(Double.POSITIVE_INFINITY, false);
+		}
+
+		return minSize == 0 ? Double.NaN : valueAt(minQueue.get(minHead));
+	}
+
+	/**
+	 * Removes the oldest element.
+	 *
+	 * @return The removed element.
+	 * @throws NoSuchElementException If the buffer is empty.
+	 */
+	public double remove() {
+		if(isEmpty()) {
+			throw new NoSuchElementException("Ring buffer is empty.");
+		}
+
+		final long sequence = first++;
+		final double value = data.get(index(sequence));
+
+		if(!Double.isFinite(value)) {
+			--nonFiniteCount;
+			// the index of each remaining element decreases by one
+			indexWeightedSum -= sum;
+			return value;
+		}
+
+		if(minSize > 0 && minQueue.get(minHead) == sequence) {
+			minHead = (minHead + 1) % capacity;
+			--minSize;
+		}
+
+		if(maxSize > 0 && maxQueue.get(maxHead) == sequence) {
+			maxHead = (maxHead + 1) % capacity;
+			--maxSize;
+		}
+
+		sum -= value;
+		sumOfSquares -= value * value;
+		indexWeightedSum -= sum;
+
+		// the element has already been removed from the size
+		final int remaining = size() - nonFiniteCount;
+		if(remaining == 0) {
+			welfordMean = 0;
+			squaredDeviations = 0;
+		} else {
+			final double previousMean = welfordMean;
+			welfordMean -= (value - welfordMean) / remaining;
+			squaredDeviations -= (value - previousMean) * (value - welfordMean);
+		}
+
+		// subtracting accumulates rounding errors, start afresh once per round
+		if(++evictionsSinceRecompute >= capacity) {
+			recomputeSums();
+		}
+
+		return value;
+	}
+
+	public int size() {
+		return (int)(next - first);
+	}
+
+	/**
+	 * @return The slope of the least squares regression line through the
+	 *   elements over their indices. NaN if there are less than two elements.
+	 */
+	public double slope() {
+		final int size = size();
+
+		if(size < 2) {
+			return Double.NaN;
+		}
+
+		double weightedSum = indexWeightedSum;
+		if(nonFiniteCount > 0) {
+			weightedSum = 0;
+			for(long sequence = first; sequence < next; ++sequence) {
+				weightedSum += (sequence - first) * data.get(index(sequence));
+			}
+		}
+
+		// the sums of the indices and of their squares are known in closed form
+		final double n = size;
+		final double indexSum = n * (n - 1) / 2;
+		final double denominator = n * n * (n * n - 1) / 12;
+
+		return (n * weightedSum - indexSum * sum()) / denominator;
+	}
+
+	/**
+	 * @return The sum of all elements.
+	 */
+	public double sum() {
+		if(nonFiniteCount > 0) {
+			double result = 0;
+			for(long sequence = first; sequence < next; ++sequence) {
+				result += data.get(index(sequence));
+			}
+			return result;
+		}
+
+		return sum;
+	}
+
+	/**
+	 * @return The sum of the squares of all elements.
+	 */
+	public double sumOfSquares() {
+		if(nonFiniteCount > 0) {
+			double result = 0;
+			for(long sequence = first; sequence < next; ++sequence) {
+				final double value = data.get(index(sequence));
+				result += value * value;
+			}
+			return result;
+		}
+
+		return sumOfSquares;
+	}
+
+	/**
+	 * @return A new array containing the elements in insertion order.
+	 */
+	public double [] toArray() {
+		final double [] result = new double[size()];
+		copyTo(result, 0);
+		return result;
+	}
+
+	/**
+	 * @return The sample variance of the elements. NaN if there are less than
+	 *   two elements.
+	 */
+	public double variance() {
+		final int size = size();
+
+		if(size < 2 || nonFiniteCount > 0) {
+			return Double.NaN;
+		}
+
+		// removing elements may leave a negative rounding error for equal elements
+		return Math.max(0.0, squaredDeviations) / (size - 1);
+	}
+
+	/**
+	 * Computes the minimum or maximum by iterating over all elements, used if
+	 *   non-finite values are present.
+	 */
+	private double fold(final double identity, final boolean maximum) {
+		if(isEmpty()) {
+			return Double.NaN;
+		}
+
+		double result = identity;
+		for(long sequence = first; sequence < next; ++sequence) {
+			result = maximum ? Math.max(result, data.get(index(sequence))) : Math.min(result, data.get(index(sequence)));
+		}
+		return result;
+	}
+
+	private int index(final long sequence) {
+		return (int)(sequence % capacity);
+	}
+
+	private void recomputeSums() {
+		sum = 0;
+		sumOfSquares = 0;
+		indexWeightedSum = 0;
+		welfordMean = 0;
+		squaredDeviations = 0;
+
+		int count = 0;
+		for(long sequence = first; sequence < next; ++sequence) {
+			final double value = data.get(index(sequence));
+
+			if(Double.isFinite(value)) {
+				sum += value;
+				sumOfSquares += value * value;
+				indexWeightedSum += (sequence - first) * value;
+
+				final double delta = value - welfordMean;
+				welfordMean += delta / ++count;
+				squaredDeviations += delta * (value - welfordMean);
+			}
+		}
+
+		evictionsSinceRecompute = 0;
+	}
+
+	private double valueAt(final long sequence) {
+		return data.get(index(sequence));
+	}
+}
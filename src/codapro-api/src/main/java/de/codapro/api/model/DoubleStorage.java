@@ -0,0 +1,43 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+/**
+ * Fixed-size storage of primitive {@code double} values. Storages are created by a
+ *   {@link StorageAllocator}, either on the heap or off-heap. Off-heap memory is
+ *   released by {@link DoubleStorage#close()}, the storage must not be used afterwards.
+ */
+public interface DoubleStorage extends AutoCloseable {
+	public int capacity();
+
+	/**
+	 * Releases the storage. Closing a storage twice has no effect.
+	 */
+	@Override
+	public void close();
+
+	/**
+	 * Copies {@code length} values starting at {@code index} to {@code destination}.
+	 */
+	public void copyTo(final int index, final double [] destination, final int offset, final int length);
+
+	public double get(final int index);
+
+	public void set(final int index, final double value);
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+/**
+ * A ring buffer for primitive {@code long} values, the integral counterpart of
+ *   {@link DoubleRingBuffer}. The sum is exact (modulo overflow), the sum of
+ *   squares is kept as {@code double} since squares overflow quickly.
+ *   Like the double buffer, it can keep its elements off-heap.
+ */
+public class LongRingBuffer {
+	private final int capacity;
+
+	private final LongStorage data;
+
+	/**
+	 * Sequence number of the oldest element.
+	 */
+	private long first = 0;
+
+	/**
+	 * Sequence number of the next element.
+	 */
+	private long next = 0;
+
+	private long sum = 0;
+
+	private double sumOfSquares = 0;
+
+	/**
+	 * Number of evictions since the sum of squares has been recomputed.
+	 */
+	private int evictionsSinceRecompute = 0;
+
+	/**
+	 * Sequence numbers of the minimum candidates, values are increasing.
+	 */
+	private final LongStorage minQueue;
+
+	private int minHead = 0;
+
+	private int minSize = 0;
+
+	/**
+	 * Sequence numbers of the maximum candidates, values are decreasing.
+	 */
+	private final LongStorage maxQueue;
+
+	private int maxHead = 0;
+
+	private int maxSize = 0;
+
+	public LongRingBuffer(final int capacity) {
+		this(capacity, StorageAllocator.HEAP);
+	}
+
+	/**
+	 * Creates a ring buffer whose elements are kept in storages of {@code allocator}.
+	 *   Off-heap buffers have to be released by {@link LongRingBuffer#close()}.
+	 */
+	public LongRingBuffer(final int capacity, final StorageAllocator allocator) {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive but is " + capacity + ".");
+		}
+
+		this.capacity = capacity;
+		this.data = allocator.longs(capacity);
+		this.minQueue = allocator.longs(capacity);
+		this.maxQueue = allocator.longs(capacity);
+	}
+
+	/**
+	 * Appends {@code value} and removes the oldest element if the buffer is full.
+	 */
+	public void append(final long value) {
+		if(isFull()) {
+			remove();
+		}
+
+		final long sequence = next++;
+		data.set(index(sequence), value);
+
+		sum += value;
+		sumOfSquares += (double)value * value;
+
+		while(minSize > 0 && valueAt(minQueue.get((minHead + minSize - 1) % capacity)) > value) {
+			--minSize;
+		}
+		minQueue.set((minHead + minSize++) % capacity, sequence);
+
+		while(maxSize > 0 && valueAt(maxQueue.get((maxHead + maxSize - 1) % capacity)) < value) {
+			--maxSize;
+		}
+		maxQueue.set((maxHead + maxSize++) % capacity, sequence);
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Releases the storages. The buffer must not be used afterwards.
+	 */
+	public void close() {
+		data.close();
+		minQueue.close();
+		maxQueue.close();
+	}
+
+	/**
+	 * Removes all elements.
+	 */
+	public void clear() {
+		first = next;
+		sum = 0;
+		sumOfSquares = 0;
+		evictionsSinceRecompute = 0;
+		minSize = 0;
+		maxSize = 0;
+	}
+
+	/**
+	 * Copies the elements in insertion order to {@code destination}.
+	 *
+	 * @return The number of copied elements.
+	 */
+	public int copyTo(final long [] destination, final int offset) {
+		final int size = size();
+		final int start = index(first);
+		final int firstPart = Math.min(size, capacity - start);
+
+		data.copyTo(start, destination, offset, firstPart);
+		data.copyTo(0, destination, offset + firstPart, size - firstPart);
+
+		return size;
+	}
+
+	/**
+	 * Calls {@code consumer} for each element in insertion order.
+	 */
+	public void forEach(final LongConsumer consumer) {
+		for(long sequence = first; sequence < next; ++sequence) {
+			consumer.accept(data.get(index(sequence)));
+		}
+	}
+
+	/**
+	 * @return The {@code elementIndex}th element, {@code 0} is the oldest one.
+	 * @throws NoSuchElementException If there is no such element.
+	 */
+	public long get(final int elementIndex) {
+		if(elementIndex < 0 || elementIndex >= size()) {
+			throw new NoSuchElementException("Ring buffer has no element " + elementIndex + ".");
+		}
+
+		return data.get(index(first + elementIndex));
+	}
+
+	/**
+	 * @return The most recently appended element.
+	 * @throws NoSuchElementException If the buffer is empty.
+	 */
+	public long getLast() {
+		return get(size() - 1);
+	}
+
+	public boolean isEmpty() {
+		return first == next;
+	}
+
+	public boolean isFull() {
+		return next - first == capacity;
+	}
+
+	/**
+	 * @return The largest element.
+	 * @throws NoSuchElementException If the buffer is empty.
+	 */
+	public long max() {
+		if(maxSize == 0) {
+			throw new NoSuchElementException("Ring buffer is empty.");
+		}
+
+		return valueAt(maxQueue.get(maxHead));
+	}
+
+	/**
+	 * @return The arithmetic mean. NaN if the buffer is empty.
+	 */
+	public double mean() {
+		return (double)sum / size();
+	}
+
+	/**
+	 * @return The smallest element.
+	 * @throws NoSuchElementException If the buffer is empty.
+	 */
+	public long min() {
+		if(minSize == 0) {
+			throw new NoSuchElementException("Ring buffer is empty.");
+		}
+
+		return valueAt(minQueue.get(minHead));
+	}
+
+	/**
+	 * Removes the oldest element.
+	 *
+	 * @return The removed element.
+	 * @throws NoSuchElementException If the buffer is empty.
+	 */
+	public long remove() {
+		if(isEmpty()) {
+			throw new NoSuchElementException("Ring buffer is empty.");
+		}
+
+		final long sequence = first++;
+		final long value = data.get(index(sequence));
+
+		if(minQueue.get(minHead) == sequence) {
+			minHead = (minHead + 1) % capacity;
+			--minSize;
+		}
+
+		if(maxQueue.get(maxHead) == sequence) {
+			maxHead = (maxHead + 1) % capacity;
+			--maxSize;
+		}
+
+		sum -= value;
+		sumOfSquares -= (double)value * value;
+
+		// subtracting accumulates rounding errors, start afresh once per round
+		if(++evictionsSinceRecompute >= capacity) {
+			sumOfSquares = 0;
+			for(long current = first; current < next; ++current) {
+				final double element = data.get(index(current));
+				sumOfSquares += element * element;
+			}
+			evictionsSinceRecompute = 0;
+		}
+
+		return value;
+	}
+
+	public int size() {
+		return (int)(next - first);
+	}
+
+	/**
+	 * @return The sum of all elements.
+	 */
+	public long sum() {
+		return sum;
+	}
+
+	/**
+	 * @return The sum of the squares of all elements.
+	 */
+	public double sumOfSquares() {
+		return sumOfSquares;
+	}
+
+	/**
+	 * @return A new array containing the elements in insertion order.
+	 */
+	public long [] toArray() {
+		final long [] result = new long[size()];
+		copyTo(result, 0);
+		return result;
+	}
+
+	private int index(final long sequence) {
+		return (int)(sequence % capacity);
+	}
+
+	private long valueAt(final long sequence) {
+		return data.get(index(sequence));
+	}
+}
@@ -36,6 +36,14 @@ import de.codapro.api.ConversionException;
  *   not yet appended, you can call {@link MarkingStream#markFuture()}. This method
  *   will mark {@code capacity} elements that will be appended in the future. A future
  *   marking may override the marking value passed to {@link MarkingStream#append(DataVector, boolean)}.
+ *
+ * Both markings are kept as ranges of sequence numbers, so marking costs
+ *   constant time regardless of the capacity. The marking values passed to
+ *   {@link MarkingStream#append(DataVector, boolean)} are stored in a bitset.
+ *   The marking is appended to each vector when it leaves the buffer, or, if
+ *   the stream has been created with a schema, stored in the boolean column of
+ *   a {@link DataBatch} that is handed to the data stream once it is full.
+ *   Group sentinels are passed on unmarked.
  */
 public class MarkingStream implements AutoCloseable {
 	/**
@@ -46,33 +54,59 @@ public class MarkingStream implements AutoCloseable {
 	/**
 	 * The data ring buffer
 	 */
-	private final Object [] data;
+	private final DataVector [] data;
 
 	/**
 	 * The data stream to copy the data to.
 	 */
 	private final Stream dataStream;
 
-	/**
-	 * The number of future data sets to mark.
-	 */
-	private int dataToMark;
-
 	/**
 	 * Current insertion index.
 	 */
 	private int index;
 
 	/**
-	 * The data ring buffer
+	 * The marking values passed on appending, one bit per ring buffer slot.
 	 */
-	private final boolean [] markings;
+	private final long [] markings;
 
 	/**
 	 * Current size.
 	 */
 	private int size;
 
+	/**
+	 * Number of appended elements, i.e. the sequence number of the next one.
+	 */
+	private long appended;
+
+	/**
+	 * Number of elements passed on to the data stream.
+	 */
+	private long emitted;
+
+	/**
+	 * Elements with a lower sequence number are marked by {@link MarkingStream#markPast()}.
+	 */
+	private long pastMarkedUntil;
+
+	/**
+	 * Elements with a lower sequence number are marked by {@link MarkingStream#markFuture()}.
+	 */
+	private long futureMarkedUntil;
+
+	/**
+	 * The batch collecting the elements for the data stream or {@code null}
+	 *   if the vectors are appended one by one.
+	 */
+	private final DataBatch batch;
+
+	/**
+	 * Index of the marking column in the batch.
+	 */
+	private final int markColumn;
+
 	/**
 	 * Create a new marking stream.
 	 *
@@ -80,13 +114,47 @@ public class MarkingStream implements AutoCloseable {
 	 * @param capacity Number of elements to buffer.
 	 */
 	public MarkingStream(final Stream dataStream, final int capacity) {
+		this(dataStream, capacity, null, 0);
+	}
+
+	/**
+	 * Create a new marking stream that hands the data to the output stream in
+	 *   batches. The vectors are copied into the batch, so only the columns of
+	 *   {@code schema} are kept and values are converted to the column types.
+	 *   Vectors are held back until the batch is full, a group sentinel
+	 *   arrives or the stream is closed.
+	 *
+	 * @param dataStream Output stream for the data.
+	 * @param capacity Number of elements to buffer.
+	 * @param schema Schema of the output stream, its last column is the
+	 *   marking and has to be of type {@link ColumnType#BOOLEAN}.
+	 * @param batchSize Number of vectors per batch.
+	 */
+	public MarkingStream(final Stream dataStream, final int capacity, final StreamSchema schema, final int batchSize) {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive but is " + capacity + ".");
+		}
+
 		this.dataStream = dataStream;
 		this.capacity = capacity;
 		this.size = 0;
 		this.index = 0;
 
-		data = new Object[capacity];
-		markings = new boolean[capacity];
+		data = new DataVector[capacity];
+		markings = new long[(capacity + Long.SIZE - 1) / Long.SIZE];
+
+		if(schema == null) {
+			batch = null;
+			markColumn = -1;
+		} else {
+			markColumn = schema.size() - 1;
+
+			if(markColumn < 0 || schema.typeOf(markColumn) != ColumnType.BOOLEAN) {
+				throw new IllegalArgumentException("The last column of " + schema + " is not a boolean column.");
+			}
+
+			batch = new DataBatch(schema, batchSize);
+		}
 	}
 
 	/**
@@ -98,19 +166,16 @@ public class MarkingStream implements AutoCloseable {
 	 */
 	public void append(final DataVector element, final boolean marking) throws ConversionException {
 		if(size == capacity) {
-			copyDataToStream(index);
-
-			data[index] = element;
-			markings[index] = marking || (dataToMark > 0);
-			index = (index + 1) % capacity;
-			dataToMark = Math.max(dataToMark - 1, 0);
+			emit(index);
 		} else {
-			data[index] = element;
-			markings[index] = marking;
-
-			index = (index + 1) % capacity;
 			size += 1;
 		}
+
+		data[index] = element;
+		setMarking(index, marking || appended < futureMarkedUntil);
+
+		index = index + 1 == capacity ? 0 : index + 1;
+		appended += 1;
 	}
 
 	@Override
@@ -118,32 +183,81 @@ public class MarkingStream implements AutoCloseable {
 		while(size != 0) {
 			final int eldestIndex = (index - size + capacity) % capacity;
 
-			copyDataToStream(eldestIndex);
+			emit(eldestIndex);
 			size = size - 1;
 		}
 
-		dataStream.markClosed();
-	}
+		if(batch != null) {
+			flush();
+		}
 
-	private void copyDataToStream(final int dataIndex) throws ConversionException {
-		final DataVector vector = (DataVector)data[dataIndex];
-		vector.append(markings[dataIndex]);
-		dataStream.append(vector);
+		dataStream.markClosed();
 	}
 
 	/**
 	 * Mark {@link MarkingStream#capacity} elements in the future.
 	 */
 	public void markFuture() {
-		dataToMark = capacity;
+		futureMarkedUntil = appended + capacity;
 	}
 
 	/**
 	 * Mark {@link MarkingStream#capacity} elements in the past.
 	 */
 	public void markPast() {
-		for(int i = 0; i < capacity; ++i) {
-			markings[i] = true;
+		pastMarkedUntil = appended;
+	}
+
+	/**
+	 * Passes the element in {@code dataIndex} on to the data stream.
+	 */
+	private void emit(final int dataIndex) throws ConversionException {
+		final DataVector vector = data[dataIndex];
+		final boolean marking = isMarked(dataIndex) || emitted < pastMarkedUntil;
+
+		data[dataIndex] = null;
+		emitted += 1;
+
+		if(batch == null) {
+			if(vector != DataVector.GROUP_START && vector != DataVector.GROUP_END) {
+				vector.append(marking);
+			}
+
+			dataStream.append(vector);
+		} else if(vector == DataVector.GROUP_START || vector == DataVector.GROUP_END) {
+			batch.setGroupMarker(vector);
+			flush();
+		} else {
+			final int row = batch.addRow();
+
+			for(int column = 0; column < markColumn; ++column) {
+				batch.set(column, row, vector.get(column));
+			}
+			batch.setBoolean(markColumn, row, marking);
+			vector.release();
+
+			if(batch.isFull()) {
+				flush();
+			}
+		}
+	}
+
+	private void flush() throws ConversionException {
+		if(!batch.isEmpty() || batch.getGroupMarker() != null) {
+			dataStream.appendBatch(batch);
+			batch.clear();
+		}
+	}
+
+	private boolean isMarked(final int dataIndex) {
+		return (markings[dataIndex >>> 6] & (1L << dataIndex)) != 0;
+	}
+
+	private void setMarking(final int dataIndex, final boolean marking) {
+		if(marking) {
+			markings[dataIndex >>> 6] |= 1L << dataIndex;
+		} else {
+			markings[dataIndex >>> 6] &= ~(1L << dataIndex);
 		}
 	}
 }
@@ -0,0 +1,50 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+/**
+ * Defines how an {@link OverflowStream} treats vectors appended while it is full.
+ *   Group sentinels are never dropped, appending them waits for free space
+ *   unless the oldest queued vector can be dropped.
+ */
+public enum OverflowPolicy {
+	/**
+	 * The producer waits until the consumer frees space.
+	 */
+	BLOCK,
+
+	/**
+	 * The oldest queued vector is dropped to make room for the new one. If the
+	 *   oldest one is a group sentinel, the new one is dropped instead.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * The appended vector is dropped.
+	 */
+	DROP_NEWEST,
+
+	/**
+	 * Once the stream is filled above three quarters, only every k-th vector is
+	 *   kept. k starts at 2 and is doubled whenever the stream is full, the
+	 *   decimation stops after the stream has drained to a quarter. Kept vectors
+	 *   that do not fit anymore are dropped.
+	 */
+	DECIMATE
+}
@@ -0,0 +1,354 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.NoSuchElementException;
+import java.util.function.BooleanSupplier;
+
+import de.codapro.api.ConversionException;
+
+/**
+ * A bounded stream for one producing and one consuming thread that applies an
+ *   {@link OverflowPolicy} when it is full. Unless the policy is
+ *   {@link OverflowPolicy#BLOCK}, the producer never waits for data vectors,
+ *   which keeps live acquisition going if a consumer is too slow. Dropped and
+ *   decimated vectors are released and counted.
+ *
+ * Like the {@link RingStream} the vectors are stored in a ring, but the read
+ *   position is advanced by compare-and-swap, because the producer advances it
+ *   as well when dropping the oldest vector.
+ */
+public class OverflowStream implements QueuedStream {
+	private final DataVector [] buffer;
+
+	private final int mask;
+
+	private final OverflowPolicy policy;
+
+	/**
+	 * Position of the next element to read. Advanced by the consumer and, for
+	 *   {@link OverflowPolicy#DROP_OLDEST}, by the producer.
+	 */
+	private final Sequence head = new Sequence();
+
+	/**
+	 * Position of the next element to write. Written by the producer only.
+	 */
+	private final Sequence tail = new Sequence();
+
+	private final WaitStrategy waitStrategy;
+
+	private volatile boolean closed = false;
+
+	private final BooleanSupplier readable = () -> closed || tail.get() != head.get();
+
+	private final BooleanSupplier writable = () -> closed || !isFull(tail.get());
+
+	/**
+	 * Number of dropped vectors. Written by the producer only.
+	 */
+	private volatile long dropped = 0;
+
+	/**
+	 * Number of vectors removed by decimation. Written by the producer only.
+	 */
+	private volatile long decimated = 0;
+
+	/**
+	 * Only every {@code decimationFactor}-th vector is kept, 1 while the stream
+	 *   is not overloaded.
+	 */
+	private int decimationFactor = 1;
+
+	/**
+	 * Number of vectors since the last kept one while decimating.
+	 */
+	private int decimationPhase = 0;
+
+	private volatile StreamHeader header = new StreamHeader();
+
+	/**
+	 * @param capacity Minimal number of elements the stream can hold. It is
+	 *   rounded up to the next power of two.
+	 * @param policy Treatment of vectors appended to the full stream.
+	 * @param waitStrategy Strategy for waiting on data or free space.
+	 */
+	public OverflowStream(final int capacity, final OverflowPolicy policy, final WaitStrategy waitStrategy) {
+		if(capacity <= 0 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30 but is " + capacity + ".");
+		}
+
+		final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+
+		this.buffer = new DataVector[size];
+		this.mask = size - 1;
+		this.policy = policy;
+		this.waitStrategy = waitStrategy;
+	}
+
+	@Override
+	public void append(final DataVector data) throws ConversionException {
+		if(offer(data)) {
+			waitStrategy.signalAll();
+		}
+	}
+
+	/**
+	 * Appends all rows of the batch and wakes up the consumer once. The
+	 *   overflow policies drop single vectors, so unlike {@link RingStream} the
+	 *   rows are converted into data vectors, taken from the batch's pool if it
+	 *   has one.
+	 */
+	@Override
+	public void appendBatch(final DataBatch batch) throws ConversionException {
+		final int size = batch.size();
+		boolean published = false;
+
+		for(int row = 0; row < size; ++row) {
+			published |= offer(batch.toDataVector(row));
+		}
+
+		if(batch.getGroupMarker() != null) {
+			published |= offer(batch.getGroupMarker());
+		}
+
+		if(published) {
+			waitStrategy.signalAll();
+		}
+	}
+
+	/**
+	 * @return The number of vectors that can be queued without blocking,
+	 *   {@link Integer#MAX_VALUE} unless the policy is {@link OverflowPolicy#BLOCK}.
+	 */
+	@Override
+	public int capacity() {
+		return policy == OverflowPolicy.BLOCK ? buffer.length : Integer.MAX_VALUE;
+	}
+
+	@Override
+	public void close() {
+		markClosed();
+	}
+
+	@Override
+	public DataVector get() {
+		while(true) {
+			final long position = head.get();
+
+			if(position == tail.get()) {
+				if(closed) {
+					if(position == tail.get()) {
+						throw new NoSuchElementException("Stream is closed.");
+					}
+				} else {
+					awaitQuietly(readable);
+				}
+
+				continue;
+			}
+
+			// the slot is not cleared, the producer might already reuse it
+			final DataVector data = buffer[(int)position & mask];
+
+			if(head.compareAndSet(position, position + 1)) {
+				waitStrategy.signalAll();
+				return data;
+			}
+		}
+	}
+
+	/**
+	 * @return Number of vectors removed by decimation.
+	 */
+	public long getDecimatedCount() {
+		return decimated;
+	}
+
+	/**
+	 * @return Number of vectors dropped since the stream was full.
+	 */
+	public long getDroppedCount() {
+		return dropped;
+	}
+
+	@Override
+	public StreamHeader getHeader() {
+		return header;
+	}
+
+	public OverflowPolicy getPolicy() {
+		return policy;
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return head.get() == tail.get();
+	}
+
+	@Override
+	public void markClosed() {
+		closed = true;
+		waitStrategy.signalAll();
+	}
+
+	@Override
+	public StreamHeader setHeader(final StreamHeader header) {
+		this.header = header;
+		return header;
+	}
+
+	@Override
+	public int size() {
+		return (int)(tail.get() - head.get());
+	}
+
+	@Override
+	public String toString() {
+		return "OverflowStream [policy=" + policy + ", size=" + size() + ", dropped=" + dropped + ", decimated=" + decimated + "]";
+	}
+
+	/**
+	 * Applies the policy and publishes the vector if it is kept.
+	 *
+	 * @return Iff the vector has been published.
+	 */
+	private boolean offer(final DataVector data) throws ConversionException {
+		if(closed) {
+			throw new ConversionException("Cannot append to a closed stream.");
+		}
+
+		final long position = tail.get();
+		final boolean sentinel = data == DataVector.GROUP_START || data == DataVector.GROUP_END;
+
+		if(!sentinel && policy == OverflowPolicy.DECIMATE && !admit(position)) {
+			data.release();
+			++decimated;
+			return false;
+		}
+
+		if(isFull(position) && !(policy == OverflowPolicy.DROP_OLDEST && dropOldest(position))) {
+			if(sentinel || policy == OverflowPolicy.BLOCK) {
+				awaitSpace();
+			} else {
+				return drop(data);
+			}
+		}
+
+		buffer[(int)position & mask] = data;
+		tail.set(position + 1);
+
+		return true;
+	}
+
+	/**
+	 * Decides whether a vector is kept while decimating.
+	 */
+	private boolean admit(final long position) {
+		final long queued = position - head.get();
+
+		if(decimationFactor == 1) {
+			if(queued < buffer.length - buffer.length / 4) {
+				return true;
+			}
+
+			decimationFactor = 2;
+			decimationPhase = 0;
+		} else if(queued <= buffer.length / 4) {
+			decimationFactor = 1;
+			return true;
+		}
+
+		if(++decimationPhase < decimationFactor) {
+			return false;
+		}
+
+		decimationPhase = 0;
+
+		if(queued >= buffer.length && decimationFactor < buffer.length) {
+			decimationFactor *= 2;
+		}
+
+		return true;
+	}
+
+	private void awaitSpace() throws ConversionException {
+		try {
+			waitStrategy.signalAll();
+			waitStrategy.await(writable);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConversionException("Interrupted while waiting for free space.", e);
+		}
+
+		if(closed) {
+			throw new ConversionException("Cannot append to a closed stream.");
+		}
+	}
+
+	private void awaitQuietly(final BooleanSupplier condition) {
+		try {
+			waitStrategy.await(condition);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NoSuchElementException("Interrupted while waiting for data.");
+		}
+	}
+
+	private boolean drop(final DataVector data) {
+		data.release();
+		++dropped;
+		return false;
+	}
+
+	/**
+	 * Drops the oldest vector unless it is a group sentinel.
+	 *
+	 * @return Iff there is space for the vector at {@code position} now.
+	 */
+	private boolean dropOldest(final long position) {
+		final long oldest = head.get();
+
+		if(position - oldest < buffer.length) {
+			return true;
+		}
+
+		final DataVector victim = buffer[(int)oldest & mask];
+
+		if(victim == DataVector.GROUP_START || victim == DataVector.GROUP_END) {
+			return false;
+		}
+
+		// the consumer took the vector in the meantime, which frees the slot as well
+		if(head.compareAndSet(oldest, oldest + 1)) {
+			drop(victim);
+		}
+
+		return true;
+	}
+
+	private boolean isFull(final long position) {
+		return position - head.get() >= buffer.length;
+	}
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Spins for a short time and parks the thread afterwards for a fixed amount of
+ *   time before checking the condition again. There is no need to signal
+ *   waiting threads, therefore the producing side does not pay anything for
+ *   waking them up. The price is a latency of up to the park time.
+ */
+public class ParkingWaitStrategy implements WaitStrategy {
+	/**
+	 * Default time a thread parks before checking the condition again.
+	 */
+	public static final long DEFAULT_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	/**
+	 * Number of spins before parking the thread.
+	 */
+	private static final int SPIN_TRIES = 100;
+
+	private final long parkNanos;
+
+	public ParkingWaitStrategy() {
+		this(DEFAULT_PARK_NANOS);
+	}
+
+	/**
+	 * @param parkNanos Time in nanoseconds the thread parks between checks.
+	 */
+	public ParkingWaitStrategy(final long parkNanos) {
+		if(parkNanos <= 0) {
+			throw new IllegalArgumentException("Park time must be positive but is " + parkNanos + ".");
+		}
+
+		this.parkNanos = parkNanos;
+	}
+
+	@Override
+	public void await(final BooleanSupplier condition) throws InterruptedException {
+		int spins = SPIN_TRIES;
+
+		while(!condition.getAsBoolean()) {
+			if(Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+
+			if(spins > 0) {
+				--spins;
+				Thread.onSpinWait();
+			} else {
+				LockSupport.parkNanos(this, parkNanos);
+			}
+		}
+	}
+
+	@Override
+	public void signalAll() {
+		// parked threads wake up on their own
+	}
+}
@@ -0,0 +1,35 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+/**
+ * A stream that queues the appended vectors until they are read.
+ */
+public interface QueuedStream extends Stream {
+	/**
+	 * @return The number of vectors that can be queued without blocking the
+	 *   producer, {@link Integer#MAX_VALUE} if the producer never blocks.
+	 */
+	public int capacity();
+
+	/**
+	 * @return The number of vectors currently queued.
+	 */
+	public int size();
+}
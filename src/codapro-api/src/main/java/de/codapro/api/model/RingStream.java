@@ -0,0 +1,462 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.BooleanSupplier;
+
+import de.codapro.api.ConversionException;
+
+/**
+ * A bounded, lock-free stream for exactly one producing and one consuming
+ *   thread. The data vectors are stored in a ring whose read and write
+ *   positions are kept in cache line padded {@link Sequence}s. The producer
+ *   only writes the write position and the consumer only writes the read
+ *   position, so no compare-and-swap or lock is necessary.
+ *
+ * If the ring is full the producer waits, if it is empty the consumer waits.
+ *   How they wait is defined by the {@link WaitStrategy}. After
+ *   {@link #markClosed()} has been called, the consumer can still read the
+ *   remaining elements. Afterwards, {@link #get()} throws a
+ *   {@link NoSuchElementException}.
+ *
+ * Batches are queued as batches: {@link #appendBatch(DataBatch)} copies the
+ *   columns into a batch owned by the stream and {@link #getBatch(DataBatch)}
+ *   copies them into the consumer's batch, so a batch passes the stream
+ *   without a data vector per row. {@link #get()} converts the rows of a
+ *   queued batch into data vectors for row-based consumers. A queued batch
+ *   occupies one slot per row, so the capacity still counts vectors.
+ */
+public class RingStream implements QueuedStream {
+	/**
+	 * Capacity used if none is given.
+	 */
+	public static final int DEFAULT_CAPACITY = 1024;
+
+	/**
+	 * Maximum number of read batches kept for copying further batches.
+	 */
+	private static final int RECYCLED_BATCHES = 8;
+
+	/**
+	 * The queued data vectors and batches. A batch is stored in the slot of
+	 *   its first row, the slots of its other rows stay empty.
+	 */
+	private final Object [] buffer;
+
+	private final int mask;
+
+	/**
+	 * Position of the next element to read. Written by the consumer only.
+	 */
+	private final Sequence head = new Sequence();
+
+	/**
+	 * Position of the next element to write. Written by the producer only.
+	 */
+	private final Sequence tail = new Sequence();
+
+	/**
+	 * Last head seen by the producer. Avoids reading the consumer's cache line
+	 *   as long as there is enough free space.
+	 */
+	private long cachedHead = 0;
+
+	/**
+	 * Last tail seen by the consumer.
+	 */
+	private long cachedTail = 0;
+
+	/**
+	 * The batch the consumer reads rows from or {@code null}. Used by the consumer only.
+	 */
+	private DataBatch current = null;
+
+	/**
+	 * Index of the next row of {@link #current}.
+	 */
+	private int currentRow = 0;
+
+	/**
+	 * Batches read by the consumer, the producer copies further batches into them.
+	 */
+	private final BlockingQueue<DataBatch> recycled = new ArrayBlockingQueue<>(RECYCLED_BATCHES);
+
+	/**
+	 * Number of slots the producer waits for. Used by the producer only.
+	 */
+	private int required = 1;
+
+	private final WaitStrategy waitStrategy;
+
+	private volatile boolean closed = false;
+
+	private final BooleanSupplier readable = () -> closed || tail.get() != head.get();
+
+	private final BooleanSupplier writable = () -> closed || tail.get() - head.get() + required <= capacity();
+
+	private volatile StreamHeader header = new StreamHeader();
+
+	public RingStream() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	public RingStream(final int capacity) {
+		this(capacity, new BlockingWaitStrategy());
+	}
+
+	/**
+	 * @param capacity Minimal number of elements the stream can hold. It is
+	 *   rounded up to the next power of two.
+	 * @param waitStrategy Strategy for waiting on data or free space.
+	 */
+	public RingStream(final int capacity, final WaitStrategy waitStrategy) {
+		if(capacity <= 0 || capacity > (1 << 30)) {
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30 but is " + capacity + ".");
+		}
+
+		final int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+
+		this.buffer = new Object[size];
+		this.mask = size - 1;
+		this.waitStrategy = waitStrategy;
+	}
+
+	@Override
+	public void append(final DataVector data) throws ConversionException {
+		final long position = tail.get();
+
+		claim(position, 1);
+		buffer[(int)position & mask] = data;
+		tail.set(position + 1);
+
+		waitStrategy.signalAll();
+	}
+
+	/**
+	 * Queues a copy of the batch followed by its group marker and publishes them
+	 *   at once, so the consumer is woken up only once per batch. Batches
+	 *   larger than the ring are queued in parts.
+	 */
+	@Override
+	public void appendBatch(final DataBatch batch) throws ConversionException {
+		final int size = batch.size();
+		long position = tail.get();
+
+		for(int from = 0; from < size;) {
+			final int rows = Math.min(size - from, buffer.length);
+
+			claimOrPublish(position, rows);
+			buffer[(int)position & mask] = copy(batch, from, rows);
+			position += rows;
+			from += rows;
+		}
+
+		if(batch.getGroupMarker() != null) {
+			claimOrPublish(position, 1);
+			buffer[(int)position & mask] = batch.getGroupMarker();
+			++position;
+		}
+
+		if(position != tail.get()) {
+			tail.set(position);
+			waitStrategy.signalAll();
+		}
+	}
+
+	@Override
+	public void close() {
+		markClosed();
+	}
+
+	/**
+	 * @return The number of elements the stream can hold.
+	 */
+	@Override
+	public int capacity() {
+		return buffer.length;
+	}
+
+	@Override
+	public DataVector get() {
+		final long position = head.get();
+
+		if(current == null) {
+			awaitData(position);
+
+			final int index = (int)position & mask;
+			final Object entry = buffer[index];
+			buffer[index] = null;
+
+			if(entry instanceof DataBatch) {
+				current = (DataBatch)entry;
+				currentRow = 0;
+			} else {
+				head.set(position + 1);
+				waitStrategy.signalAll();
+
+				return (DataVector)entry;
+			}
+		}
+
+		final DataVector data = current.toDataVector(currentRow);
+		advance(1);
+		head.set(position + 1);
+
+		waitStrategy.signalAll();
+
+		return data;
+	}
+
+	/**
+	 * Copies the queued rows into {@code batch}. Rows of queued batches are
+	 *   copied column-wise, see {@link DataBatch#copyRows(DataBatch, int, int)}.
+	 */
+	@Override
+	public int getBatch(final DataBatch batch) throws BatchConversionException {
+		batch.clear();
+
+		long position = head.get();
+
+		if(current == null) {
+			awaitData(position);
+		}
+
+		try {
+			while(!batch.isFull()) {
+				if(current == null) {
+					if(position == cachedTail) {
+						cachedTail = tail.get();
+
+						if(position == cachedTail) {
+							break;
+						}
+					}
+
+					final int index = (int)position & mask;
+					final Object entry = buffer[index];
+					buffer[index] = null;
+
+					if(entry instanceof DataBatch) {
+						current = (DataBatch)entry;
+						currentRow = 0;
+						continue;
+					}
+
+					++position;
+
+					if(entry == DataVector.GROUP_START || entry == DataVector.GROUP_END) {
+						batch.setGroupMarker((DataVector)entry);
+						break;
+					}
+
+					batch.appendRow((DataVector)entry);
+					continue;
+				}
+
+				final int rows = Math.min(current.size() - currentRow, batch.capacity() - batch.size());
+
+				try {
+					batch.copyRows(current, currentRow, rows);
+				} catch(final ConversionException e) {
+					// the failing row is taken like a vector, the rows before it are kept
+					final DataVector vector = current.toDataVector(currentRow);
+					advance(1);
+					++position;
+
+					batch.appendRow(vector);
+					continue;
+				}
+
+				advance(rows);
+				position += rows;
+			}
+		} finally {
+			if(position != head.get()) {
+				head.set(position);
+				waitStrategy.signalAll();
+			}
+		}
+
+		return batch.size();
+	}
+
+	@Override
+	public StreamHeader getHeader() {
+		return header;
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return head.get() == tail.get();
+	}
+
+	@Override
+	public void markClosed() {
+		closed = true;
+		waitStrategy.signalAll();
+	}
+
+	@Override
+	public StreamHeader setHeader(final StreamHeader header) {
+		this.header = header;
+		return header;
+	}
+
+	/**
+	 * @return The number of elements currently stored in the stream.
+	 */
+	@Override
+	public int size() {
+		return (int)(tail.get() - head.get());
+	}
+
+	/**
+	 * Waits until data is available at {@code position}.
+	 *
+	 * @throws NoSuchElementException If the stream is closed and empty.
+	 */
+	private void awaitData(final long position) {
+		if(position == cachedTail) {
+			cachedTail = tail.get();
+
+			if(position == cachedTail) {
+				awaitQuietly(readable);
+				cachedTail = tail.get();
+
+				if(position == cachedTail) {
+					throw new NoSuchElementException("Stream is closed.");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Waits until {@code count} slots starting at {@code position} can be written.
+	 */
+	private void claim(final long position, final int count) throws ConversionException {
+		if(closed) {
+			throw new ConversionException("Cannot append to a closed stream.");
+		}
+
+		if(position + count - cachedHead <= buffer.length) {
+			return;
+		}
+
+		cachedHead = head.get();
+		if(position + count - cachedHead <= buffer.length) {
+			return;
+		}
+
+		required = count;
+
+		try {
+			waitStrategy.await(writable);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConversionException("Interrupted while waiting for free space.", e);
+		}
+
+		if(closed) {
+			throw new ConversionException("Cannot append to a closed stream.");
+		}
+
+		cachedHead = head.get();
+	}
+
+	/**
+	 * Like {@link #claim(long, int)}, but publishes the already written elements
+	 *   before waiting. Otherwise, the consumer would never free a slot.
+	 */
+	private void claimOrPublish(final long position, final int count) throws ConversionException {
+		if(position + count - cachedHead > buffer.length && position != tail.get()) {
+			tail.set(position);
+			waitStrategy.signalAll();
+		}
+
+		claim(position, count);
+	}
+
+	/**
+	 * Copies rows of {@code batch} into a batch owned by the stream. Read
+	 *   batches are reused if they have the same columns.
+	 */
+	private DataBatch copy(final DataBatch batch, final int from, final int rows) throws ConversionException {
+		DataBatch copy = recycled.poll();
+
+		if(copy == null || copy.capacity() < rows || !hasSameColumns(copy, batch)) {
+			final ColumnType [] types = new ColumnType[batch.getColumnCount()];
+			for(int column = 0; column < types.length; ++column) {
+				types[column] = batch.getType(column);
+			}
+
+			copy = new DataBatch(types, Math.min(batch.capacity(), buffer.length));
+		} else {
+			copy.clear();
+		}
+
+		copy.setPool(batch.getPool());
+		copy.copyRows(batch, from, rows);
+
+		return copy;
+	}
+
+	/**
+	 * Skips rows of {@link #current} and hands the batch back to the producer
+	 *   once all rows have been read.
+	 */
+	private void advance(final int rows) {
+		currentRow += rows;
+
+		if(currentRow == current.size()) {
+			recycled.offer(current);
+			current = null;
+		}
+	}
+
+	private static boolean hasSameColumns(final DataBatch batch, final DataBatch other) {
+		if(batch.getColumnCount() != other.getColumnCount()) {
+			return false;
+		}
+
+		for(int column = 0; column < batch.getColumnCount(); ++column) {
+			if(batch.getType(column) != other.getType(column)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void awaitQuietly(final BooleanSupplier condition) {
+		try {
+			waitStrategy.await(condition);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NoSuchElementException("Interrupted while waiting for data.");
+		}
+	}
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Padding in front of the sequence value. Together with {@link SequenceRightPadding}
+ *   it keeps the value on its own cache line, so two sequences updated by
+ *   different threads do not invalidate each other's cache lines.
+ */
+abstract class SequenceLeftPadding {
+	protected long p01, p02, p03, p04, p05, p06, p07;
+}
+
+/**
+ * Holds the actual sequence value.
+ */
+abstract class SequenceValue extends SequenceLeftPadding {
+	protected volatile long value;
+}
+
+/**
+ * Padding behind the sequence value.
+ */
+abstract class SequenceRightPadding extends SequenceValue {
+	protected long p11, p12, p13, p14, p15, p16, p17;
+}
+
+/**
+ * A cache line padded counter that is written by a single thread and read by
+ *   other threads. Writes use release semantics, which is sufficient to publish
+ *   all data written before the update.
+ */
+public final class Sequence extends SequenceRightPadding {
+	private static final VarHandle VALUE;
+
+	static {
+		try {
+			VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+		} catch (final ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	public Sequence() {
+		this(0);
+	}
+
+	public Sequence(final long initialValue) {
+		VALUE.setRelease(this, initialValue);
+	}
+
+	/**
+	 * @return The current value with acquire semantics.
+	 */
+	public long get() {
+		return (long)VALUE.getAcquire(this);
+	}
+
+	/**
+	 * Sets the value with release semantics. Must only be called by the owning thread.
+	 */
+	public void set(final long newValue) {
+		VALUE.setRelease(this, newValue);
+	}
+
+	/**
+	 * Atomically sets the value to {@code newValue} iff it equals {@code expected}.
+	 *   Used if more than one thread advances the sequence.
+	 *
+	 * @return Iff the value has been set.
+	 */
+	public boolean compareAndSet(final long expected, final long newValue) {
+		return VALUE.compareAndSet(this, expected, newValue);
+	}
+
+	/**
+	 * Sets the value with full volatile semantics.
+	 */
+	public void setVolatile(final long newValue) {
+		value = newValue;
+	}
+
+	@Override
+	public String toString() {
+		return Long.toString(get());
+	}
+}
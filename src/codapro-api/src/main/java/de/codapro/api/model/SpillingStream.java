@@ -0,0 +1,380 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+
+import de.codapro.api.ConversionException;
+
+/**
+ * A stream for one producing and one consuming thread that never blocks the
+ *   producer. Up to a watermark the vectors are queued in memory like in a
+ *   {@link RingStream}. Beyond it they are encoded by the
+ *   {@link DataVectorCodec} and written to a memory-mapped temporary file.
+ *   The consumer reads the spilled vectors in order once it has caught up,
+ *   afterwards the stream uses memory again.
+ *
+ * The file is mapped in regions of {@link #REGION_SIZE} bytes. It grows with
+ *   the maximum backlog and is reused from the start whenever the consumer
+ *   has read all spilled vectors. It is deleted once the consumer has read
+ *   the end of the closed stream, or when the JVM terminates.
+ *
+ * The in-memory queue uses the stream's wait strategy as well, so the
+ *   strategy must not be shared with other streams.
+ */
+public class SpillingStream implements QueuedStream {
+	/**
+	 * Size of a file region in bytes.
+	 */
+	public static final int REGION_SIZE = 16 << 20;
+
+	/**
+	 * Marks the end of the used part of a region.
+	 */
+	private static final int END_OF_REGION = -1;
+
+	private final RingStream memory;
+
+	private final WaitStrategy waitStrategy;
+
+	private final Path directory;
+
+	private final int regionSize;
+
+	/**
+	 * The mapped regions of the spill file in file order.
+	 */
+	private final List<MappedByteBuffer> regions = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Number of vectors written to the file. Written by the producer only.
+	 */
+	private final Sequence spilled = new Sequence();
+
+	/**
+	 * Number of vectors read from the file. Written by the consumer only.
+	 */
+	private final Sequence drained = new Sequence();
+
+	/**
+	 * Number of the first vector written since the file was empty, counting
+	 *   from one. Reading this vector starts at the beginning of the file again.
+	 */
+	private volatile long spillStart = 0;
+
+	/**
+	 * Number of bytes written to the file. Written by the producer only.
+	 */
+	private volatile long spilledBytes = 0;
+
+	private volatile boolean closed = false;
+
+	private final BooleanSupplier readable = () -> closed || !isEmpty();
+
+	private volatile StreamHeader header = new StreamHeader();
+
+	/**
+	 * The spill file, opened on demand by the producer.
+	 */
+	private volatile FileChannel channel;
+
+	/**
+	 * Size of the spill file. Used by the producer only.
+	 */
+	private long fileSize = 0;
+
+	/**
+	 * Buffer for encoding, used by the producer only.
+	 */
+	private ByteBuffer encoded = ByteBuffer.allocate(256);
+
+	/**
+	 * The producer's view of the region it writes to and its index.
+	 */
+	private ByteBuffer writeRegion;
+
+	private int writeRegionIndex = -1;
+
+	/**
+	 * The consumer's view of the region it reads from and its index.
+	 */
+	private ByteBuffer readRegion;
+
+	private int readRegionIndex = -1;
+
+	/**
+	 * @param watermark Number of vectors queued in memory before spilling,
+	 *   it is rounded up to the next power of two.
+	 * @param directory Directory for the spill file.
+	 */
+	public SpillingStream(final int watermark, final Path directory) {
+		this(watermark, directory, new BlockingWaitStrategy());
+	}
+
+	/**
+	 * @param watermark Number of vectors queued in memory before spilling,
+	 *   it is rounded up to the next power of two.
+	 * @param directory Directory for the spill file.
+	 * @param waitStrategy Strategy for the consumer waiting on data.
+	 */
+	public SpillingStream(final int watermark, final Path directory, final WaitStrategy waitStrategy) {
+		this(watermark, directory, waitStrategy, REGION_SIZE);
+	}
+
+	SpillingStream(final int watermark, final Path directory, final WaitStrategy waitStrategy, final int regionSize) {
+		this.memory = new RingStream(watermark, waitStrategy);
+		this.waitStrategy = waitStrategy;
+		this.directory = directory;
+		this.regionSize = regionSize;
+	}
+
+	@Override
+	public void append(final DataVector data) throws ConversionException {
+		if(closed) {
+			throw new ConversionException("Cannot append to a closed stream.");
+		}
+
+		final long written = spilled.get();
+		final boolean spillEmpty = written == drained.get();
+
+		// once spilling, vectors go to the file until the consumer has caught up
+		if(spillEmpty && memory.size() < memory.capacity()) {
+			memory.append(data);
+			return;
+		}
+
+		if(spillEmpty) {
+			spillStart = written + 1;
+			writeRegion = null;
+			writeRegionIndex = -1;
+		}
+
+		spill(data);
+		spilled.set(written + 1);
+
+		if(data != DataVector.GROUP_START && data != DataVector.GROUP_END) {
+			data.release();
+		}
+
+		waitStrategy.signalAll();
+	}
+
+	/**
+	 * @return {@link Integer#MAX_VALUE}, the producer never blocks.
+	 */
+	@Override
+	public int capacity() {
+		return Integer.MAX_VALUE;
+	}
+
+	@Override
+	public void close() {
+		markClosed();
+	}
+
+	@Override
+	public DataVector get() {
+		while(true) {
+			// memory appended before a spilled vector is visible once the vector is
+			final boolean wasClosed = closed;
+			final boolean spillEmpty = spilled.get() == drained.get();
+
+			if(!memory.isEmpty()) {
+				return memory.get();
+			}
+
+			if(!spillEmpty) {
+				return unspill();
+			}
+
+			if(wasClosed) {
+				deleteFile();
+				throw new NoSuchElementException("Stream is closed.");
+			}
+
+			awaitQuietly(readable);
+		}
+	}
+
+	@Override
+	public StreamHeader getHeader() {
+		return header;
+	}
+
+	/**
+	 * @return The number of bytes written to the spill file so far.
+	 */
+	public long getSpilledBytes() {
+		return spilledBytes;
+	}
+
+	/**
+	 * @return The number of vectors written to the spill file so far.
+	 */
+	public long getSpilledVectors() {
+		return spilled.get();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return spilled.get() == drained.get() && memory.isEmpty();
+	}
+
+	@Override
+	public void markClosed() {
+		closed = true;
+		memory.markClosed();
+	}
+
+	@Override
+	public StreamHeader setHeader(final StreamHeader header) {
+		this.header = header;
+		return header;
+	}
+
+	/**
+	 * @return The number of queued vectors, in memory and spilled.
+	 */
+	@Override
+	public int size() {
+		return (int)Math.min(Integer.MAX_VALUE, memory.size() + spilled.get() - drained.get());
+	}
+
+	private void awaitQuietly(final BooleanSupplier condition) {
+		try {
+			waitStrategy.await(condition);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NoSuchElementException("Interrupted while waiting for data.");
+		}
+	}
+
+	/**
+	 * Closes the spill file, which deletes it. Reading from the regions
+	 *   mapped before is still possible.
+	 */
+	private void deleteFile() {
+		final FileChannel file = channel;
+
+		if(file != null) {
+			channel = null;
+
+			try {
+				file.close();
+			} catch(final IOException e) {
+				// the file is deleted when the JVM terminates
+			}
+		}
+	}
+
+	/**
+	 * Makes the next region with at least {@code size} bytes the write region.
+	 *   Skipped regions are marked as unused, the file grows if there is none.
+	 */
+	private void nextWriteRegion(final int size) throws IOException {
+		if(writeRegion != null && writeRegion.remaining() >= Integer.BYTES) {
+			writeRegion.putInt(END_OF_REGION);
+		}
+
+		++writeRegionIndex;
+		while(writeRegionIndex < regions.size() && regions.get(writeRegionIndex).capacity() < size) {
+			regions.get(writeRegionIndex).duplicate().putInt(END_OF_REGION);
+			++writeRegionIndex;
+		}
+
+		if(writeRegionIndex == regions.size()) {
+			if(channel == null) {
+				final Path file = Files.createTempFile(directory, "codapro-spill-", ".bin");
+				channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+			}
+
+			final int regionCapacity = Math.max(regionSize, size);
+			regions.add(channel.map(FileChannel.MapMode.READ_WRITE, fileSize, regionCapacity));
+			fileSize += regionCapacity;
+		}
+
+		writeRegion = regions.get(writeRegionIndex).duplicate();
+	}
+
+	/**
+	 * Writes a vector to the spill file.
+	 */
+	private void spill(final DataVector data) throws ConversionException {
+		encoded.clear();
+		encoded = DataVectorCodec.encode(data, encoded);
+		encoded.flip();
+
+		final int size = Integer.BYTES + encoded.remaining();
+
+		try {
+			if(writeRegion == null || writeRegion.remaining() < size) {
+				nextWriteRegion(size);
+			}
+		} catch(final IOException e) {
+			throw new ConversionException("Failed to extend spill file in " + directory + ".", e);
+		}
+
+		writeRegion.putInt(encoded.remaining());
+		writeRegion.put(encoded);
+		spilledBytes += size;
+	}
+
+	/**
+	 * Reads the next vector from the spill file.
+	 */
+	private DataVector unspill() {
+		final long next = drained.get() + 1;
+
+		if(next == spillStart) {
+			readRegion = null;
+			readRegionIndex = -1;
+		}
+
+		while(readRegion == null || readRegion.remaining() < Integer.BYTES || readRegion.getInt(readRegion.position()) == END_OF_REGION) {
+			readRegion = regions.get(++readRegionIndex).duplicate();
+		}
+
+		final int length = readRegion.getInt();
+		final int end = readRegion.position() + length;
+
+		try {
+			final DataVector data = DataVectorCodec.decode(readRegion);
+			readRegion.position(end);
+			drained.set(next);
+			return data;
+		} catch(final ConversionException e) {
+			throw new IllegalStateException("Spill file is corrupted.", e);
+		}
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Busy spins until the condition holds. This strategy has the lowest latency
+ *   but occupies a whole core while waiting. Only use it if there are more cores
+ *   than busy threads. After some spins the thread yields its time slice, so
+ *   a producer sharing the core with the waiting thread can still make progress.
+ */
+public class SpinningWaitStrategy implements WaitStrategy {
+	/**
+	 * Number of spins before yielding.
+	 */
+	private static final int SPIN_TRIES = 100;
+
+	@Override
+	public void await(final BooleanSupplier condition) throws InterruptedException {
+		int spins = SPIN_TRIES;
+
+		while(!condition.getAsBoolean()) {
+			if(Thread.interrupted()) {
+				throw new InterruptedException();
+			}
+
+			if(spins > 0) {
+				--spins;
+				Thread.onSpinWait();
+			} else {
+				Thread.yield();
+			}
+		}
+	}
+
+	@Override
+	public void signalAll() {
+		// spinning threads check the condition on their own
+	}
+}
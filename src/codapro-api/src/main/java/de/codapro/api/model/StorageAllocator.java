@@ -0,0 +1,364 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Creates {@link DoubleStorage}s and {@link LongStorage}s. Besides plain arrays
+ *   ({@link StorageAllocator#HEAP}), storages can live in direct buffers
+ *   ({@link StorageAllocator#DIRECT}) or in memory-mapped files
+ *   ({@link StorageAllocator#mapped(Path)}). Off-heap storages are invisible to
+ *   the garbage collector, hence large windows do not prolong collections.
+ *
+ * Off-heap memory is released when the storage is closed. Components using
+ *   off-heap storages should close them in their {@code OnFinish} methods.
+ */
+public abstract class StorageAllocator {
+	/**
+	 * Allocates arrays on the heap.
+	 */
+	public static final StorageAllocator HEAP = new StorageAllocator() {
+		@Override
+		public DoubleStorage doubles(final int capacity) {
+			return new HeapDoubles(checkCapacity(capacity, Double.BYTES));
+		}
+
+		@Override
+		public LongStorage longs(final int capacity) {
+			return new HeapLongs(checkCapacity(capacity, Long.BYTES));
+		}
+
+		@Override
+		public String toString() {
+			return "StorageAllocator [heap]";
+		}
+	};
+
+	/**
+	 * Allocates direct buffers.
+	 */
+	public static final StorageAllocator DIRECT = new OffHeap(null);
+
+	/**
+	 * Allocates memory-mapped temporary files in {@code directory}. The files
+	 *   are deleted when the storages are closed or the JVM terminates, so the
+	 *   operating system may page out the data instead of keeping it in memory.
+	 */
+	public static StorageAllocator mapped(final Path directory) {
+		return new OffHeap(directory);
+	}
+
+	/**
+	 * @throws UncheckedIOException Iff a memory-mapped file cannot be created.
+	 */
+	public abstract DoubleStorage doubles(final int capacity);
+
+	/**
+	 * @throws UncheckedIOException Iff a memory-mapped file cannot be created.
+	 */
+	public abstract LongStorage longs(final int capacity);
+
+	private static int checkCapacity(final int capacity, final int elementSize) {
+		if(capacity <= 0 || capacity > Integer.MAX_VALUE / elementSize) {
+			throw new IllegalArgumentException("Invalid storage capacity " + capacity + ".");
+		}
+
+		return capacity;
+	}
+
+	/**
+	 * Allocates direct or memory-mapped buffers.
+	 */
+	private static final class OffHeap extends StorageAllocator {
+		/**
+		 * Directory of the mapped files, {@code null} for direct buffers.
+		 */
+		private final Path directory;
+
+		private OffHeap(final Path directory) {
+			this.directory = directory;
+		}
+
+		@Override
+		public DoubleStorage doubles(final int capacity) {
+			return new OffHeapDoubles(allocate(checkCapacity(capacity, Double.BYTES) * Double.BYTES), capacity);
+		}
+
+		@Override
+		public LongStorage longs(final int capacity) {
+			return new OffHeapLongs(allocate(checkCapacity(capacity, Long.BYTES) * Long.BYTES), capacity);
+		}
+
+		@Override
+		public String toString() {
+			return "StorageAllocator [" + (directory == null ? "direct" : directory) + "]";
+		}
+
+		private Memory allocate(final int bytes) {
+			if(directory == null) {
+				return new Memory(ByteBuffer.allocateDirect(bytes), null);
+			}
+
+			FileChannel channel = null;
+			try {
+				final Path file = Files.createTempFile(directory, "storage-", ".bin");
+				channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+				file.toFile().deleteOnExit();
+
+				return new Memory(channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes), channel);
+			} catch(final IOException e) {
+				Memory.closeQuietly(channel);
+				throw new UncheckedIOException("Cannot create storage in " + directory + ".", e);
+			}
+		}
+	}
+
+	/**
+	 * Owner of a direct or mapped buffer. Releasing frees or unmaps the buffer
+	 *   immediately if the JVM permits it, otherwise the buffer is left to the
+	 *   garbage collector.
+	 */
+	private static final class Memory {
+		private static final Object UNSAFE;
+
+		private static final Method INVOKE_CLEANER;
+
+		static {
+			Object unsafe = null;
+			Method invokeCleaner = null;
+
+			try {
+				final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+				final Field field = unsafeClass.getDeclaredField("theUnsafe");
+				field.setAccessible(true);
+				unsafe = field.get(null);
+				invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+			} catch(final ReflectiveOperationException | RuntimeException e) {
+				// buffers cannot be freed explicitly on this JVM
+				invokeCleaner = null;
+			}
+
+			UNSAFE = unsafe;
+			INVOKE_CLEANER = invokeCleaner;
+		}
+
+		private ByteBuffer buffer;
+
+		private final FileChannel channel;
+
+		private Memory(final ByteBuffer buffer, final FileChannel channel) {
+			this.buffer = buffer.order(ByteOrder.nativeOrder());
+			this.channel = channel;
+		}
+
+		private void release() {
+			if(buffer == null) {
+				return;
+			}
+
+			if(INVOKE_CLEANER != null) {
+				try {
+					INVOKE_CLEANER.invoke(UNSAFE, buffer);
+				} catch(final ReflectiveOperationException | RuntimeException e) {
+					// the garbage collector frees the buffer eventually
+				}
+			}
+
+			buffer = null;
+			closeQuietly(channel);
+		}
+
+		private static void closeQuietly(final FileChannel channel) {
+			if(channel != null) {
+				try {
+					channel.close();
+				} catch(final IOException e) {
+					// the file is deleted on exit
+				}
+			}
+		}
+	}
+
+	private static final class HeapDoubles implements DoubleStorage {
+		private final double [] values;
+
+		private HeapDoubles(final int capacity) {
+			values = new double[capacity];
+		}
+
+		@Override
+		public int capacity() {
+			return values.length;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public void copyTo(final int index, final double [] destination, final int offset, final int length) {
+			System.arraycopy(values, index, destination, offset, length);
+		}
+
+		@Override
+		public double get(final int index) {
+			return values[index];
+		}
+
+		@Override
+		public void set(final int index, final double value) {
+			values[index] = value;
+		}
+	}
+
+	private static final class HeapLongs implements LongStorage {
+		private final long [] values;
+
+		private HeapLongs(final int capacity) {
+			values = new long[capacity];
+		}
+
+		@Override
+		public int capacity() {
+			return values.length;
+		}
+
+		@Override
+		public void close() {
+		}
+
+		@Override
+		public void copyTo(final int index, final long [] destination, final int offset, final int length) {
+			System.arraycopy(values, index, destination, offset, length);
+		}
+
+		@Override
+		public long get(final int index) {
+			return values[index];
+		}
+
+		@Override
+		public void set(final int index, final long value) {
+			values[index] = value;
+		}
+	}
+
+	private static final class OffHeapDoubles implements DoubleStorage {
+		private final int capacity;
+
+		private final Memory memory;
+
+		/**
+		 * View of the memory, {@code null} once closed, so that later accesses
+		 *   fail instead of touching released memory.
+		 */
+		private DoubleBuffer values;
+
+		private OffHeapDoubles(final Memory memory, final int capacity) {
+			this.capacity = capacity;
+			this.memory = memory;
+			this.values = memory.buffer.asDoubleBuffer();
+		}
+
+		@Override
+		public int capacity() {
+			return capacity;
+		}
+
+		@Override
+		public void close() {
+			values = null;
+			memory.release();
+		}
+
+		@Override
+		public void copyTo(final int index, final double [] destination, final int offset, final int length) {
+			final DoubleBuffer source = values.duplicate();
+			source.position(index);
+			source.get(destination, offset, length);
+		}
+
+		@Override
+		public double get(final int index) {
+			return values.get(index);
+		}
+
+		@Override
+		public void set(final int index, final double value) {
+			values.put(index, value);
+		}
+	}
+
+	private static final class OffHeapLongs implements LongStorage {
+		private final int capacity;
+
+		private final Memory memory;
+
+		/**
+		 * View of the memory, {@code null} once closed.
+		 */
+		private LongBuffer values;
+
+		private OffHeapLongs(final Memory memory, final int capacity) {
+			this.capacity = capacity;
+			this.memory = memory;
+			this.values = memory.buffer.asLongBuffer();
+		}
+
+		@Override
+		public int capacity() {
+			return capacity;
+		}
+
+		@Override
+		public void close() {
+			values = null;
+			memory.release();
+		}
+
+		@Override
+		public void copyTo(final int index, final long [] destination, final int offset, final int length) {
+			final LongBuffer source = values.duplicate();
+			source.position(index);
+			source.get(destination, offset, length);
+		}
+
+		@Override
+		public long get(final int index) {
+			return values.get(index);
+		}
+
+		@Override
+		public void set(final int index, final long value) {
+			values.put(index, value);
+		}
+	}
+}
@@ -39,6 +39,29 @@ public interface Stream extends Closeable {
 	 */
 	public void append(final DataVector data) throws ConversionException;
 
+	/**
+	 * Appends all rows of a batch followed by its group marker (if any). The
+	 *   default implementation converts each row into a data vector, so it
+	 *   allocates one {@link DataVector} per row unless the batch has a pool
+	 *   (see {@link DataBatch#setPool(DataVectorPool)}). Streams with a
+	 *   columnar transport should override it.
+	 *
+	 * @param batch The batch to append. The batch may be reused by the caller
+	 *   after this method returns.
+	 * @throws ConversionException Signals the caller there was an problem sending the data.
+	 */
+	public default void appendBatch(final DataBatch batch) throws ConversionException {
+		final int size = batch.size();
+
+		for(int row = 0; row < size; ++row) {
+			append(batch.toDataVector(row));
+		}
+
+		if(batch.getGroupMarker() != null) {
+			append(batch.getGroupMarker());
+		}
+	}
+
 	/**
 	 * @return The next available data vector.
 	 *
@@ -46,6 +69,47 @@ public interface Stream extends Closeable {
 	 */
 	public DataVector get();
 
+	/**
+	 * Fills {@code batch} with the next data vectors. The method blocks until at
+	 *   least one data vector is available and then takes as many vectors as are
+	 *   available without blocking, up to the batch's capacity. A group sentinel
+	 *   terminates the batch and is stored as its group marker.
+	 *
+	 * @param batch The batch to fill. It is cleared before any data is added.
+	 * @return The number of rows read.
+	 *
+	 * @throws NoSuchElementException If there is no next element since the stream is closed.
+	 * @throws BatchConversionException If a vector does not fit the batch's
+	 *   columns, see {@link DataBatch#appendRow(DataVector)}. The rows read
+	 *   before stay in the batch, the vector has been taken from the stream and
+	 *   is available by {@link BatchConversionException#getVector()}.
+	 */
+	public default int getBatch(final DataBatch batch) throws BatchConversionException {
+		batch.clear();
+
+		DataVector vector = get();
+		while(true) {
+			if(vector == DataVector.GROUP_START || vector == DataVector.GROUP_END) {
+				batch.setGroupMarker(vector);
+				break;
+			}
+
+			batch.appendRow(vector);
+
+			if(batch.isFull() || isEmpty()) {
+				break;
+			}
+
+			try {
+				vector = get();
+			} catch(final NoSuchElementException e) {
+				break;
+			}
+		}
+
+		return batch.size();
+	}
+
 	/**
 	 * @return The header information of the stream.
 	 */
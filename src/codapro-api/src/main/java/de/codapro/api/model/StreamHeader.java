@@ -19,11 +19,19 @@
 package de.codapro.api.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 /**
- * A stream header associates a name to each existing column.
+ * A stream header associates a name to each existing column. Optionally, it
+ *   records the {@link ColumnType} of each column, columns added without a type
+ *   are of type {@link ColumnType#OBJECT}.
+ *
+ * Column names are indexed, so {@link #indexOf(String)} takes constant time.
+ *   {@link #freeze()} creates an immutable {@link StreamSchema} of the header.
  */
 public class StreamHeader implements Iterable<String> {
 	/**
@@ -31,11 +39,23 @@ public class StreamHeader implements Iterable<String> {
 	 */
 	private final List<String> columnOrder = new ArrayList<>();
 
+	/**
+	 * The column types in index order.
+	 */
+	private final List<ColumnType> columnTypes = new ArrayList<>();
+
+	/**
+	 * Maps a column name to the index of its first occurrence.
+	 */
+	private final Map<String, Integer> columnIndex = new HashMap<>();
+
 	public StreamHeader() {
 	}
 
 	public StreamHeader(final StreamHeader other) {
 		this.columnOrder.addAll(other.columnOrder);
+		this.columnTypes.addAll(other.columnTypes);
+		this.columnIndex.putAll(other.columnIndex);
 	}
 
 	/**
@@ -45,7 +65,20 @@ public class StreamHeader implements Iterable<String> {
 	 * @return A instance to itself.
 	 */
 	public StreamHeader add(final String name) {
+		return add(name, ColumnType.OBJECT);
+	}
+
+	/**
+	 * Adds a new column of a known type.
+	 *
+	 * @param name The name of the column to add.
+	 * @param type The type of the column's values.
+	 * @return A instance to itself.
+	 */
+	public StreamHeader add(final String name, final ColumnType type) {
+		columnIndex.putIfAbsent(name, columnOrder.size());
 		columnOrder.add(name);
+		columnTypes.add(type);
 		return this;
 	}
 
@@ -63,6 +96,13 @@ public class StreamHeader implements Iterable<String> {
 		return this;
 	}
 
+	/**
+	 * Creates an immutable snapshot of the header.
+	 */
+	public StreamSchema freeze() {
+		return new StreamSchema(columnOrder.toArray(new String[0]), columnTypes.toArray(new ColumnType[0]));
+	}
+
 	/**
 	 * Calculates the index of a column.
 	 *
@@ -70,12 +110,12 @@ public class StreamHeader implements Iterable<String> {
 	 * @return Index of the column or <code>-1</code> if there is no such column.
 	 */
 	public int indexOf(final String columnName) {
-		return columnOrder.indexOf(columnName);
+		return columnIndex.getOrDefault(columnName, -1);
 	}
 
 	@Override
 	public Iterator<String> iterator() {
-		return columnOrder.iterator();
+		return Collections.unmodifiableList(columnOrder).iterator();
 	}
 
 	/**
@@ -95,6 +135,23 @@ public class StreamHeader implements Iterable<String> {
 	 */
 	public void remove(final int index) {
 		columnOrder.remove(index);
+		columnTypes.remove(index);
+
+		// all following indices have changed
+		columnIndex.clear();
+		for(int i = 0; i < columnOrder.size(); ++i) {
+			columnIndex.putIfAbsent(columnOrder.get(i), i);
+		}
+	}
+
+	/**
+	 * Sets the type of an existing column.
+	 *
+	 * @param i Index of the column.
+	 * @param type The type of the column's values.
+	 */
+	public void setType(final int i, final ColumnType type) {
+		columnTypes.set(i, type);
 	}
 
 	/**
@@ -108,4 +165,14 @@ public class StreamHeader implements Iterable<String> {
 	public String toString() {
 		return "StreamHeader [" + columnOrder.toString() + "]";
 	}
+
+	/**
+	 * Returns the type of a specific column.
+	 *
+	 * @param i Index of the column.
+	 * @return The type of the column, {@link ColumnType#OBJECT} if unknown.
+	 */
+	public ColumnType typeOf(final int i) {
+		return columnTypes.get(i);
+	}
 }
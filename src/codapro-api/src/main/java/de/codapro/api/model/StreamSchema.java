@@ -0,0 +1,150 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * An immutable, typed description of the columns of a stream. It is created
+ *   by {@link StreamHeader#freeze()} once a header is complete, typically in
+ *   an {@code @OnInit} method, and can be shared between threads freely.
+ *
+ * Components can use the column types to select specialised code paths once
+ *   instead of checking the type of every value.
+ */
+public final class StreamSchema implements Iterable<String> {
+	private final String [] names;
+
+	private final ColumnType [] types;
+
+	/**
+	 * Maps a column name to the index of its first occurrence.
+	 */
+	private final Map<String, Integer> columnIndex;
+
+	/**
+	 * @param names The column names in index order.
+	 * @param types The column types in index order.
+	 */
+	public StreamSchema(final String [] names, final ColumnType [] types) {
+		if(names.length != types.length) {
+			throw new IllegalArgumentException("Got " + names.length + " names but " + types.length + " types.");
+		}
+
+		this.names = names.clone();
+		this.types = types.clone();
+
+		final Map<String, Integer> index = new HashMap<>();
+		for(int i = 0; i < names.length; ++i) {
+			index.putIfAbsent(names[i], i);
+		}
+		this.columnIndex = Collections.unmodifiableMap(index);
+	}
+
+	@Override
+	public boolean equals(final Object other) {
+		if(this == other) {
+			return true;
+		}
+
+		if(!(other instanceof StreamSchema)) {
+			return false;
+		}
+
+		final StreamSchema schema = (StreamSchema)other;
+		return Arrays.equals(names, schema.names) && Arrays.equals(types, schema.types);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(names) + Arrays.hashCode(types);
+	}
+
+	/**
+	 * @param columnName The name of the column to search.
+	 * @return Index of the column or <code>-1</code> if there is no such column.
+	 */
+	public int indexOf(final String columnName) {
+		return columnIndex.getOrDefault(columnName, -1);
+	}
+
+	@Override
+	public Iterator<String> iterator() {
+		return Collections.unmodifiableList(Arrays.asList(names)).iterator();
+	}
+
+	/**
+	 * @return The name at the given column index.
+	 */
+	public String nameOf(final int i) {
+		return names[i];
+	}
+
+	/**
+	 * @return The number of columns.
+	 */
+	public int size() {
+		return names.length;
+	}
+
+	/**
+	 * @return A mutable header with the same columns.
+	 */
+	public StreamHeader toHeader() {
+		final StreamHeader header = new StreamHeader();
+
+		for(int i = 0; i < names.length; ++i) {
+			header.add(names[i], types[i]);
+		}
+
+		return header;
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder("StreamSchema [");
+
+		for(int i = 0; i < names.length; ++i) {
+			if(i > 0) {
+				builder.append(", ");
+			}
+			builder.append(names[i]).append(':').append(types[i]);
+		}
+
+		return builder.append(']').toString();
+	}
+
+	/**
+	 * @return The type at the given column index.
+	 */
+	public ColumnType typeOf(final int i) {
+		return types[i];
+	}
+
+	/**
+	 * @return A copy of all column types in index order.
+	 */
+	public ColumnType [] types() {
+		return types.clone();
+	}
+}
@@ -18,44 +18,101 @@
  */
 package de.codapro.api.model;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
 /**
  * A dependency to a constant value that might be produced by a component or set by
  *   the configuration
  *
- * Getting the value blocks until the value has been produced.
+ * Getting the value blocks until the value has been produced. Waiting threads
+ *   are woken up as soon as the value is set, everything the producer did
+ *   before calling {@link #set(Object)} is visible to them.
  * 
  * @author Bernhard J. Berger
  */
 public class Value<T> {
+	/**
+	 * Released by the first call of {@link #set(Object)}.
+	 */
+	private final CountDownLatch produced = new CountDownLatch(1);
+
+	/**
+	 * Callbacks to notify about new values. Guarded by itself.
+	 */
+	private final List<Consumer<? super T>> listeners = new ArrayList<>();
+
 	/**
 	 * Tracks if value was not set so far.
 	 */
-	private boolean isUnset = true;
+	private volatile boolean isUnset = true;
 
 	/**
 	 * The value of the constant. This field is {@code null} as long as the value
 	 *   hasn't been set so far.
 	 */
-	private T object = null;
+	private volatile T object = null;
 
 	/**
-	 * The get methods waits for the producer to create the value.
+	 * The get methods waits for the producer to create the value. If the waiting
+	 *   thread is interrupted, the method keeps waiting and restores the
+	 *   interrupt flag afterwards.
 	 *
 	 * @return The value.
 	 */
 	public T get() {
-		while(isUnset) {
+		if(!isUnset) {
+			return object;
+		}
+
+		boolean interrupted = false;
+		while(true) {
 			try {
-				Thread.sleep(100);
+				produced.await();
+				break;
 			} catch (final InterruptedException e) {
-				Thread.currentThread().interrupt();
+				interrupted = true;
 			}
 		}
 
+		if(interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
 		return object;
 	}
 
+	/**
+	 * Waits at most {@code timeout} for the producer to create the value.
+	 *
+	 * @return The value.
+	 * @throws InterruptedException If the waiting thread has been interrupted.
+	 * @throws TimeoutException If the value has not been set in time.
+	 */
+	public T get(final long timeout, final TimeUnit unit) throws InterruptedException, TimeoutException {
+		if(!isUnset) {
+			return object;
+		}
+
+		if(!produced.await(timeout, unit)) {
+			throw new TimeoutException("Value has not been set within " + timeout + " " + unit + ".");
+		}
+
+		return object;
+	}
+
+	/**
+	 * @return The value or {@code defaultValue} if the value is still unset. Never blocks.
+	 */
+	public T getNow(final T defaultValue) {
+		return isUnset ? defaultValue : object;
+	}
+
 	/**
 	 * @return If the value is still unset.
 	 */
@@ -63,9 +120,40 @@ public class Value<T> {
 		return isUnset;
 	}
 
+	/**
+	 * Registers a callback that is called with every value passed to
+	 *   {@link #set(Object)}. If the value is already set, the callback is
+	 *   called immediately with the current value. Callbacks run in the thread
+	 *   setting the value and should therefore return quickly.
+	 */
+	public void onSet(final Consumer<? super T> listener) {
+		Objects.requireNonNull(listener);
+
+		final boolean alreadySet;
+		final T current;
+		synchronized(listeners) {
+			listeners.add(listener);
+			alreadySet = !isUnset;
+			current = object;
+		}
+
+		if(alreadySet) {
+			listener.accept(current);
+		}
+	}
+
 	public void set(final T value) {
-		this.object = value;
-		this.isUnset = false;
+		final List<Consumer<? super T>> toNotify;
+		synchronized(listeners) {
+			this.object = value;
+			this.isUnset = false;
+			toNotify = new ArrayList<>(listeners);
+		}
+		produced.countDown();
+
+		for(final Consumer<? super T> listener : toNotify) {
+			listener.accept(value);
+		}
 	}
 
 	@Override
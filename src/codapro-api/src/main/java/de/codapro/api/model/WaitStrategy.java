@@ -0,0 +1,44 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Strategy used by streams to wait for data or for free space. A stream calls
+ *   {@link #await(BooleanSupplier)} whenever it cannot continue and
+ *   {@link #signalAll()} whenever it changed its state, i.e. an element has
+ *   been appended or removed or the stream has been closed.
+ *
+ * An instance must only be used by a single stream.
+ */
+public interface WaitStrategy {
+	/**
+	 * Waits until {@code condition} becomes {@code true}.
+	 *
+	 * @param condition The condition to wait for. Is evaluated several times.
+	 * @throws InterruptedException If the waiting thread has been interrupted.
+	 */
+	public void await(final BooleanSupplier condition) throws InterruptedException;
+
+	/**
+	 * Wakes up all waiting threads to re-check their conditions.
+	 */
+	public void signalAll();
+}
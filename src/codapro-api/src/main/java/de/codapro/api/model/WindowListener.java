@@ -0,0 +1,37 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+/**
+ * Gets notified when a vector enters or leaves the window of a
+ *   {@link BufferingStream}. Window algorithms use it to update their state
+ *   incrementally instead of rescanning the whole window.
+ */
+public interface WindowListener {
+	/**
+	 * Called after {@code vector} has been added to the window.
+	 */
+	public void admitted(final DataVector vector);
+
+	/**
+	 * Called before {@code vector} leaves the window and is passed on to the
+	 *   output stream.
+	 */
+	public void evicted(final DataVector vector);
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import de.codapro.api.ConversionException;
+
+/**
+ * Stream based on a {@link LinkedBlockingQueue}, the way most runtimes implement
+ *   streams. Serves as reference for the contract and throughput tests.
+ */
+public class BlockingQueueStream implements Stream {
+	private final BlockingQueue<DataVector> queue;
+
+	private volatile boolean closed = false;
+
+	private volatile StreamHeader header = new StreamHeader();
+
+	public BlockingQueueStream(final int capacity) {
+		this.queue = new LinkedBlockingQueue<>(capacity);
+	}
+
+	@Override
+	public void append(final DataVector data) throws ConversionException {
+		try {
+			queue.put(data);
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConversionException("Interrupted while appending.", e);
+		}
+	}
+
+	@Override
+	public void close() {
+		markClosed();
+	}
+
+	@Override
+	public DataVector get() {
+		try {
+			while(true) {
+				final DataVector data = queue.poll(1, TimeUnit.MILLISECONDS);
+
+				if(data != null) {
+					return data;
+				}
+
+				if(closed && queue.isEmpty()) {
+					throw new NoSuchElementException("Stream is closed.");
+				}
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new NoSuchElementException("Interrupted while waiting for data.");
+		}
+	}
+
+	@Override
+	public StreamHeader getHeader() {
+		return header;
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return queue.isEmpty();
+	}
+
+	@Override
+	public void markClosed() {
+		closed = true;
+	}
+
+	@Override
+	public StreamHeader setHeader(final StreamHeader header) {
+		this.header = header;
+		return header;
+	}
+}
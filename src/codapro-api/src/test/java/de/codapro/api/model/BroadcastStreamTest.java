@@ -0,0 +1,216 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.codapro.api.ConversionException;
+
+public class BroadcastStreamTest {
+	private final ExecutorService executor = Executors.newCachedThreadPool();
+
+	@After
+	public void shutdownExecutor() {
+		executor.shutdownNow();
+	}
+
+	private static DataVector vector(final int value) {
+		return new DataVector().append(value);
+	}
+
+	@Test
+	public void testEveryConsumerSeesAllElements() throws ConversionException {
+		final BroadcastStream testee = new BroadcastStream(4, 3, false);
+
+		testee.append(vector(1));
+		testee.append(DataVector.GROUP_END);
+
+		for(int i = 0; i < testee.getConsumerCount(); ++i) {
+			final Stream consumer = testee.getConsumer(i);
+
+			assertFalse(consumer.isEmpty());
+			assertEquals(1, consumer.get().get(0));
+			assertSame(DataVector.GROUP_END, consumer.get());
+			assertTrue(consumer.isEmpty());
+		}
+
+		assertTrue(testee.isEmpty());
+	}
+
+	@Test
+	public void testConsumersShareTheHeader() {
+		final BroadcastStream testee = new BroadcastStream(4, 2, false);
+		final StreamHeader header = new StreamHeader();
+
+		testee.setHeader(header);
+
+		assertSame(header, testee.getConsumer(0).getHeader());
+		assertSame(header, testee.getConsumer(1).getHeader());
+	}
+
+	@Test
+	public void testSharedVectorIsRetainedPerConsumer() throws ConversionException {
+		final DataVectorPool pool = new DataVectorPool(4);
+		final BroadcastStream testee = new BroadcastStream(4, 2, false);
+
+		testee.append(pool.acquire().append(1));
+
+		final DataVector first = testee.getConsumer(0).get();
+		final DataVector second = testee.getConsumer(1).get();
+		assertSame(first, second);
+
+		first.release();
+		assertFalse(first.isReleased());
+
+		second.release();
+		assertTrue(first.isReleased());
+	}
+
+	@Test
+	public void testCopyOnWriteConsumersAreIsolated() throws ConversionException {
+		final BroadcastStream testee = new BroadcastStream(4, 2, true);
+		final DataVector appended = vector(1);
+
+		testee.append(appended);
+		testee.append(DataVector.GROUP_END);
+
+		final DataVector first = testee.getConsumer(0).get();
+		final DataVector second = testee.getConsumer(1).get();
+		assertSame(appended, first);
+		assertNotSame(first, second);
+
+		second.set(0, 2);
+
+		assertEquals(1, first.get(0));
+		assertEquals(2, second.get(0));
+		assertSame(DataVector.GROUP_END, testee.getConsumer(0).get());
+		assertSame(DataVector.GROUP_END, testee.getConsumer(1).get());
+	}
+
+	@Test(timeout = 5000)
+	public void testProducerWaitsForSlowestConsumer() throws Exception {
+		final BroadcastStream testee = new BroadcastStream(2, 2, false);
+
+		testee.append(vector(0));
+		testee.append(vector(1));
+		assertEquals(2, testee.size());
+
+		// the first consumer keeps up, the second one does not
+		testee.getConsumer(0).get();
+		testee.getConsumer(0).get();
+
+		final Future<?> producer = executor.submit(() -> { testee.append(vector(2)); return null; });
+		try {
+			producer.get(200, TimeUnit.MILLISECONDS);
+			fail("Producer has not been blocked.");
+		} catch(final TimeoutException e) {
+			// expected
+		}
+
+		assertEquals(0, testee.getConsumer(1).get().get(0));
+		producer.get();
+
+		assertEquals(2, testee.getConsumer(0).get().get(0));
+		assertEquals(1, testee.getConsumer(1).get().get(0));
+		assertEquals(2, testee.getConsumer(1).get().get(0));
+	}
+
+	@Test(timeout = 5000)
+	public void testMarkClosedWakesUpConsumers() throws Exception {
+		final BroadcastStream testee = new BroadcastStream(4, 2, false);
+
+		final Future<DataVector> result = executor.submit(testee.getConsumer(1)::get);
+		Thread.sleep(100);
+		testee.markClosed();
+
+		try {
+			result.get();
+			fail("Consumer has not been terminated.");
+		} catch(final ExecutionException e) {
+			assertTrue(e.getCause() instanceof NoSuchElementException);
+		}
+	}
+
+	@Test(expected = ConversionException.class)
+	public void testConsumerCannotAppend() throws ConversionException {
+		new BroadcastStream(4, 2, false).getConsumer(0).append(vector(1));
+	}
+
+	@Test
+	public void testProducerAppendsForAllConsumers() throws ConversionException {
+		final BroadcastStream testee = new BroadcastStream(4, 2, false);
+		final QueuedStream producer = testee.producer();
+
+		producer.append(vector(1));
+		assertEquals(1, producer.size());
+
+		assertEquals(1, testee.getConsumer(0).get().get(0));
+		assertEquals(1, testee.getConsumer(1).get().get(0));
+		assertTrue(producer.isEmpty());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testProducerCannotRead() {
+		new BroadcastStream(4, 2, false).producer().get();
+	}
+
+	@Test(timeout = 20000)
+	public void testConcurrentTransfer() throws Exception {
+		final BroadcastStream testee = new BroadcastStream(16, 3, true);
+		final int count = 100_000;
+
+		final List<Future<Integer>> consumers = new ArrayList<>();
+		for(int i = 0; i < testee.getConsumerCount(); ++i) {
+			final Stream consumer = testee.getConsumer(i);
+
+			consumers.add(executor.submit(() -> {
+				int expected = 0;
+				try {
+					while(true) {
+						assertEquals(expected++, consumer.get().get(0));
+					}
+				} catch(final NoSuchElementException e) {
+					return expected - 1;
+				}
+			}));
+		}
+
+		for(int i = 0; i < count; ++i) {
+			testee.append(vector(i));
+		}
+		testee.markClosed();
+
+		for(final Future<Integer> consumer : consumers) {
+			assertEquals(count, consumer.get().intValue());
+		}
+	}
+}
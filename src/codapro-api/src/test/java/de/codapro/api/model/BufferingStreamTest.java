@@ -18,6 +18,11 @@
  */
 package de.codapro.api.model;
 
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
 import de.codapro.api.ConversionException;
 import org.junit.Test;
 import org.mockito.InOrder;
@@ -84,4 +89,54 @@ public class BufferingStreamTest {
 		order.verify(stream).append(vector01);
 
 	}
+
+	@Test
+	public void testWindowView() throws ConversionException {
+		final BufferingStream testee = new BufferingStream(Mockito.mock(Stream.class), 3);
+		final ColumnWindow window = testee.window(1);
+
+		for(int i = 0; i < 5; ++i) {
+			testee.append(new DataVector().append("row " + i).append(i));
+		}
+
+		assertEquals(3, window.size());
+		assertTrue(window.isFull());
+		assertEquals(2.0, window.getDouble(0), 0.0);
+		assertEquals(4L, window.getLong(2));
+		assertEquals(3, window.get(1));
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testWindowBoundsAreChecked() throws ConversionException {
+		final BufferingStream testee = new BufferingStream(Mockito.mock(Stream.class), 3);
+		testee.append(new DataVector().append(1));
+
+		testee.window(0).get(1);
+	}
+
+	@Test
+	public void testListenerIsNotifiedInOrder() throws ConversionException {
+		final Stream stream = Mockito.mock(Stream.class);
+		final List<String> events = new ArrayList<>();
+
+		final BufferingStream testee = new BufferingStream(stream, 2);
+		testee.addListener(new WindowListener() {
+			@Override
+			public void admitted(final DataVector vector) {
+				events.add("+" + vector.get(0));
+			}
+
+			@Override
+			public void evicted(final DataVector vector) {
+				events.add("-" + vector.get(0));
+			}
+		});
+
+		for(int i = 0; i < 3; ++i) {
+			testee.append(new DataVector().append(i));
+		}
+		testee.close();
+
+		assertEquals(List.of("+0", "+1", "-0", "+2", "-1", "-2"), events);
+	}
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import de.codapro.api.ConversionException;
+
+public class DataBatchTest {
+
+	private static final ColumnType [] TYPES = {
+			ColumnType.DOUBLE, ColumnType.FLOAT, ColumnType.INT, ColumnType.BOOLEAN, ColumnType.STRING, ColumnType.OBJECT
+	};
+
+	@Test
+	public void testNewBatchIsEmpty() {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+
+		assertTrue(testee.isEmpty());
+		assertFalse(testee.isFull());
+		assertEquals(0, testee.size());
+		assertEquals(4, testee.capacity());
+		assertEquals(TYPES.length, testee.getColumnCount());
+	}
+
+	@Test
+	public void testPrimitiveSetAndGet() throws Exception {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+
+		final int row = testee.addRow();
+		testee.setDouble(0, row, 1.5);
+		testee.setFloat(1, row, 2.5f);
+		testee.setInt(2, row, 3);
+		testee.setBoolean(3, row, true);
+		testee.setString(4, row, "four");
+		testee.set(5, row, Long.valueOf(5));
+
+		assertEquals(1.5, testee.getDouble(0, row), 0.0);
+		assertEquals(2.5f, testee.getFloat(1, row), 0.0f);
+		assertEquals(3, testee.getInt(2, row));
+		assertTrue(testee.getBoolean(3, row));
+		assertEquals("four", testee.getString(4, row));
+		assertEquals(Long.valueOf(5), testee.get(5, row));
+
+		assertEquals(1.5, testee.getDoubleColumn(0)[row], 0.0);
+	}
+
+	@Test
+	public void testNullValues() throws Exception {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+
+		final int row = testee.appendRow(new DataVector(TYPES.length));
+		final DataVector result = testee.toDataVector(row);
+
+		for(int column = 0; column < TYPES.length; ++column) {
+			assertTrue(testee.isNull(column, row));
+			assertTrue(testee.hasNulls(column));
+			assertNull(testee.get(column, row));
+			assertNull(result.get(column));
+		}
+
+		assertTrue(Double.isNaN(testee.getDouble(0, row)));
+		assertTrue(Double.isNaN(testee.getDouble(2, row)));
+		assertEquals(0, testee.getInt(2, row));
+	}
+
+	@Test
+	public void testNaNIsNotNull() throws Exception {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+		final int row = testee.addRow();
+
+		testee.set(0, row, Double.NaN);
+
+		assertFalse(testee.isNull(0, row));
+		assertFalse(testee.hasNulls(0));
+		assertEquals(Double.NaN, testee.get(0, row));
+	}
+
+	@Test
+	public void testSettingValueRemovesNull() throws Exception {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+		final int row = testee.addRow();
+
+		testee.set(2, row, null);
+		testee.setInt(2, row, 7);
+
+		assertFalse(testee.isNull(2, row));
+		assertEquals(7, testee.get(2, row));
+
+		testee.setNull(3, row);
+		testee.clear();
+		testee.addRow();
+
+		assertFalse(testee.isNull(3, row));
+	}
+
+	@Test
+	public void testAppendRowAndToDataVectorKeepTypes() throws Exception {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+
+		final DataVector vector = new DataVector();
+		vector.append(1.0).append(2.0f).append(3).append(false).append("x").append('c');
+
+		final int row = testee.appendRow(vector);
+		final DataVector result = testee.toDataVector(row);
+
+		assertEquals(vector.size(), result.size());
+		for(int i = 0; i < vector.size(); ++i) {
+			assertEquals(vector.get(i), result.get(i));
+		}
+	}
+
+	@Test
+	public void testAppendRowIsAtomic() {
+		final DataBatch testee = new DataBatch(new StreamSchema(new String [] {"time", "count"}, new ColumnType [] {ColumnType.DOUBLE, ColumnType.INT}), 4);
+		final DataVector vector = new DataVector().append(1.0).append("many");
+
+		try {
+			testee.appendRow(vector);
+			fail("A string cannot be stored in an int column.");
+		} catch(final BatchConversionException e) {
+			assertSame(vector, e.getVector());
+			assertTrue(e.getMessage(), e.getMessage().contains("'count'"));
+		}
+
+		assertTrue(testee.isEmpty());
+	}
+
+	@Test
+	public void testAppendRowRejectsVectorsNotMatchingColumns() {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+
+		for(final DataVector vector : new DataVector [] {new DataVector(TYPES.length - 1), new DataVector(TYPES.length + 1)}) {
+			try {
+				testee.appendRow(vector);
+				fail("Vector " + vector + " does not match the columns.");
+			} catch(final BatchConversionException e) {
+				assertSame(vector, e.getVector());
+			}
+		}
+
+		assertTrue(testee.isEmpty());
+	}
+
+	@Test
+	public void testStringDictionary() {
+		final DataBatch testee = new DataBatch(new ColumnType [] {ColumnType.STRING}, 4);
+
+		testee.setString(0, testee.addRow(), "a");
+		testee.setString(0, testee.addRow(), "b");
+		testee.setString(0, testee.addRow(), "a");
+		testee.setString(0, testee.addRow(), null);
+
+		assertEquals("a", testee.getString(0, 0));
+		assertEquals("b", testee.getString(0, 1));
+		assertEquals("a", testee.getString(0, 2));
+		assertNull(testee.getString(0, 3));
+	}
+
+	@Test
+	public void testClearRemovesRowsAndMarker() {
+		final DataBatch testee = new DataBatch(TYPES, 1);
+
+		testee.addRow();
+		testee.setGroupMarker(DataVector.GROUP_END);
+
+		assertTrue(testee.isFull());
+
+		testee.clear();
+
+		assertTrue(testee.isEmpty());
+		assertNull(testee.getGroupMarker());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddRowOnFullBatch() {
+		final DataBatch testee = new DataBatch(TYPES, 1);
+
+		testee.addRow();
+		testee.addRow();
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetBeyondSize() {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+
+		testee.addRow();
+		testee.getDouble(0, 1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testWrongColumnType() {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+
+		testee.getDoubleColumn(1);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidGroupMarker() {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+
+		testee.setGroupMarker(new DataVector());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testSentinelAsRow() throws Exception {
+		final DataBatch testee = new DataBatch(TYPES, 4);
+
+		testee.appendRow(DataVector.GROUP_START);
+	}
+}
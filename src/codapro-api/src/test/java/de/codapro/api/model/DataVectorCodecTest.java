@@ -0,0 +1,91 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+
+import org.junit.Test;
+
+import de.codapro.api.ConversionException;
+
+public class DataVectorCodecTest {
+	private static DataVector roundTrip(final DataVector vector) throws ConversionException {
+		final ByteBuffer buffer = DataVectorCodec.encode(vector, ByteBuffer.allocate(4));
+		buffer.flip();
+
+		final DataVector result = DataVectorCodec.decode(buffer);
+		assertFalse(buffer.hasRemaining());
+
+		return result;
+	}
+
+	@Test
+	public void testRoundTrip() throws ConversionException {
+		final DataVector testee = new DataVector()
+				.append(1.5)
+				.append(2.5f)
+				.append(3)
+				.append(4L)
+				.append(true)
+				.append("text ä")
+				.append(null)
+				.append(LocalDate.of(2021, 3, 1));
+
+		final DataVector result = roundTrip(testee);
+
+		assertEquals(testee.size(), result.size());
+		for(int i = 0; i < testee.size(); ++i) {
+			assertEquals(testee.get(i), result.get(i));
+		}
+	}
+
+	@Test
+	public void testGroupSentinels() throws ConversionException {
+		assertSame(DataVector.GROUP_START, roundTrip(DataVector.GROUP_START));
+		assertSame(DataVector.GROUP_END, roundTrip(DataVector.GROUP_END));
+	}
+
+	@Test
+	public void testConsecutiveRecords() throws ConversionException {
+		ByteBuffer buffer = ByteBuffer.allocate(16);
+		buffer = DataVectorCodec.encode(new DataVector().append(1), buffer);
+		buffer = DataVectorCodec.encode(new DataVector().append("two"), buffer);
+		buffer.flip();
+
+		assertEquals(1, DataVectorCodec.decode(buffer).get(0));
+		assertEquals("two", DataVectorCodec.decode(buffer).get(0));
+	}
+
+	@Test(expected = ConversionException.class)
+	public void testNotSerializable() throws ConversionException {
+		DataVectorCodec.encode(new DataVector().append(new Object()), ByteBuffer.allocate(16));
+	}
+
+	@Test(expected = ConversionException.class)
+	public void testTruncatedRecord() throws ConversionException {
+		final ByteBuffer buffer = DataVectorCodec.encode(new DataVector().append("truncated"), ByteBuffer.allocate(16));
+		buffer.flip();
+		buffer.limit(buffer.limit() - 2);
+
+		DataVectorCodec.decode(buffer);
+	}
+}
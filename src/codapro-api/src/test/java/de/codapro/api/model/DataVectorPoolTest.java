@@ -0,0 +1,142 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class DataVectorPoolTest {
+
+	@After
+	public void disableReleaseCheck() {
+		DataVector.checkReleased = false;
+	}
+
+	@Test
+	public void testReleasedVectorIsReused() {
+		final DataVectorPool testee = new DataVectorPool(4);
+
+		final DataVector vector = testee.acquire();
+		vector.append(1.0);
+		vector.release();
+
+		final DataVector recycled = testee.acquire();
+
+		assertSame(vector, recycled);
+		assertTrue(recycled.isEmpty());
+		assertFalse(recycled.isReleased());
+		assertEquals(1, testee.getCreatedCount());
+	}
+
+	@Test
+	public void testSteadyStateDoesNotCreateVectors() {
+		final DataVectorPool testee = new DataVectorPool(4);
+
+		for(int i = 0; i < 10_000; ++i) {
+			final DataVector first = testee.acquire();
+			final DataVector second = testee.acquire();
+			first.release();
+			second.release();
+		}
+
+		assertEquals(2, testee.getCreatedCount());
+	}
+
+	@Test
+	public void testRetainedVectorNeedsAllReleases() {
+		final DataVectorPool testee = new DataVectorPool(4);
+
+		final DataVector vector = testee.acquire().retain();
+		vector.release();
+
+		assertFalse(vector.isReleased());
+		assertEquals(0, testee.getIdleCount());
+
+		vector.release();
+
+		assertTrue(vector.isReleased());
+		assertEquals(1, testee.getIdleCount());
+	}
+
+	@Test
+	public void testFullPoolDropsVectors() {
+		final DataVectorPool testee = new DataVectorPool(1);
+
+		final DataVector first = testee.acquire();
+		final DataVector second = testee.acquire();
+		first.release();
+		second.release();
+
+		assertEquals(1, testee.getIdleCount());
+	}
+
+	@Test
+	public void testSentinelsAreNeverReleased() {
+		DataVector.GROUP_START.release();
+		DataVector.GROUP_END.release();
+
+		assertFalse(DataVector.GROUP_START.isReleased());
+		assertFalse(DataVector.GROUP_END.isReleased());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testUseAfterReleaseIsDetected() {
+		DataVector.checkReleased = true;
+		final DataVectorPool testee = new DataVectorPool(4);
+
+		final DataVector vector = testee.acquire();
+		vector.release();
+		vector.get(0);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testDoubleReleaseIsDetected() {
+		DataVector.checkReleased = true;
+		final DataVector vector = new DataVector();
+
+		vector.release();
+		vector.release();
+	}
+
+	@Test
+	public void testReleasedVectorsAreNotRecycledInDebugMode() {
+		DataVector.checkReleased = true;
+		final DataVectorPool testee = new DataVectorPool(4);
+
+		final DataVector vector = testee.acquire();
+		vector.release();
+
+		assertNotSame(vector, testee.acquire());
+	}
+
+	@Test
+	public void testBatchUsesPool() {
+		final DataVectorPool pool = new DataVectorPool(4);
+		final DataBatch batch = new DataBatch(new ColumnType [] {ColumnType.DOUBLE}, 2);
+		batch.setPool(pool);
+		batch.setDouble(0, batch.addRow(), 1.0);
+
+		batch.toDataVector(0).release();
+		batch.toDataVector(0).release();
+
+		assertEquals(1, pool.getCreatedCount());
+	}
+}
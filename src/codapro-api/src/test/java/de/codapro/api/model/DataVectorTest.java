@@ -89,4 +89,60 @@ public class DataVectorTest {
 		assertEquals(5, testee.size());
 		assertEquals(4, cloned.size());
 	}
+
+	@Test
+	public void testCopySharesElementsButNotList() {
+		final DataVector testee = new DataVector();
+		final Double value = 1.0;
+		testee.append(value);
+
+		final DataVector copy = testee.copy();
+		copy.append(2.0);
+
+		assertSame(value, copy.get(0));
+		assertEquals(1, testee.size());
+		assertEquals(2, copy.size());
+	}
+
+	@Test
+	public void testCopyOnWriteIsIndependentAfterModification() {
+		final DataVector testee = new DataVector();
+		testee.append(1.0);
+
+		final DataVector copy = testee.copyOnWrite();
+		copy.set(0, 2.0);
+		testee.append(3.0);
+
+		assertEquals(2.0, copy.get(0));
+		assertEquals(1, copy.size());
+		assertEquals(1.0, testee.get(0));
+		assertEquals(2, testee.size());
+	}
+
+	@Test
+	public void testCopyOnWriteWithSeveralCopies() {
+		final DataVector testee = new DataVector();
+		testee.append(1.0);
+
+		final DataVector first = testee.copyOnWrite();
+		final DataVector second = testee.copyOnWrite();
+
+		first.remove(0);
+		second.append(2.0);
+
+		assertEquals(0, first.size());
+		assertEquals(2, second.size());
+		assertEquals(1, testee.size());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testIteratorOfSharedVectorIsReadOnly() {
+		final DataVector testee = new DataVector();
+		testee.append(1.0);
+		testee.copyOnWrite();
+
+		final Iterator<Object> iterator = testee.iterator();
+		iterator.next();
+		iterator.remove();
+	}
 }
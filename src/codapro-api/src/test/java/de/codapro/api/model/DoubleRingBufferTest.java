@@ -0,0 +1,235 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class DoubleRingBufferTest {
+
+	@Test
+	public void testEmptyBuffer() {
+		final DoubleRingBuffer testee = new DoubleRingBuffer(3);
+
+		assertTrue(testee.isEmpty());
+		assertFalse(testee.isFull());
+		assertEquals(0.0, testee.sum(), 0.0);
+		assertTrue(Double.isNaN(testee.min()));
+		assertTrue(Double.isNaN(testee.max()));
+	}
+
+	@Test
+	public void testOverwritesOldestElement() {
+		final DoubleRingBuffer testee = new DoubleRingBuffer(3);
+
+		for(int i = 1; i <= 5; ++i) {
+			testee.append(i);
+		}
+
+		assertTrue(testee.isFull());
+		assertEquals(3.0, testee.get(0), 0.0);
+		assertEquals(5.0, testee.getLast(), 0.0);
+		assertArrayEquals(new double [] {3, 4, 5}, testee.toArray(), 0.0);
+	}
+
+	@Test
+	public void testCopyToKeepsInsertionOrder() {
+		final DoubleRingBuffer testee = new DoubleRingBuffer(4);
+
+		for(int i = 0; i < 6; ++i) {
+			testee.append(i);
+		}
+
+		final double [] destination = new double[6];
+		assertEquals(4, testee.copyTo(destination, 2));
+		assertArrayEquals(new double [] {0, 0, 2, 3, 4, 5}, destination, 0.0);
+
+		final List<Double> visited = new ArrayList<>();
+		testee.forEach(visited::add);
+		assertEquals(List.of(2.0, 3.0, 4.0, 5.0), visited);
+	}
+
+	@Test
+	public void testAggregatesMatchBruteForce() {
+		final int capacity = 17;
+		final DoubleRingBuffer testee = new DoubleRingBuffer(capacity);
+		final Random random = new Random(42);
+
+		for(int i = 0; i < 10_000; ++i) {
+			testee.append(random.nextGaussian() * 1000);
+
+			final double [] values = testee.toArray();
+			double sum = 0, sumOfSquares = 0, min = Double.MAX_VALUE, max = -Double.MAX_VALUE;
+			for(final double value : values) {
+				sum += value;
+				sumOfSquares += value * value;
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+
+			assertEquals(sum, testee.sum(), 1e-6);
+			assertEquals(sumOfSquares, testee.sumOfSquares(), 1e-3);
+			assertEquals(min, testee.min(), 0.0);
+			assertEquals(max, testee.max(), 0.0);
+			assertEquals(sum / values.length, testee.mean(), 1e-6);
+		}
+	}
+
+	@Test
+	public void testVarianceAndSlopeMatchBruteForce() {
+		final int capacity = 13;
+		final DoubleRingBuffer testee = new DoubleRingBuffer(capacity);
+		final Random random = new Random(7);
+
+		for(int i = 0; i < 10_000; ++i) {
+			testee.append(i % 100 + random.nextGaussian() * 10);
+
+			final double [] values = testee.toArray();
+			if(values.length < 2) {
+				assertTrue(Double.isNaN(testee.variance()));
+				assertTrue(Double.isNaN(testee.slope()));
+				continue;
+			}
+
+			final double mean = testee.mean();
+			final double meanIndex = (values.length - 1) / 2.0;
+			double squares = 0, covariance = 0, indexSquares = 0;
+			for(int index = 0; index < values.length; ++index) {
+				squares += (values[index] - mean) * (values[index] - mean);
+				covariance += (index - meanIndex) * (values[index] - mean);
+				indexSquares += (index - meanIndex) * (index - meanIndex);
+			}
+
+			assertEquals(squares / (values.length - 1), testee.variance(), 1e-6);
+			assertEquals(covariance / indexSquares, testee.slope(), 1e-9);
+		}
+	}
+
+	@Test
+	public void testVarianceWithLargeOffset() {
+		final int capacity = 50;
+		final DoubleRingBuffer testee = new DoubleRingBuffer(capacity);
+		final Random random = new Random(3);
+
+		for(int i = 0; i < 10_000; ++i) {
+			// a DC offset with a small signal, like many acquired channels
+			testee.append(1e4 + (random.nextDouble() * 2 - 1) * 1e-3);
+
+			if(testee.size() < 2) {
+				continue;
+			}
+
+			final double [] values = testee.toArray();
+			double mean = 0;
+			for(final double value : values) {
+				mean += value - 1e4;
+			}
+			mean = 1e4 + mean / values.length;
+
+			double squares = 0;
+			for(final double value : values) {
+				squares += (value - mean) * (value - mean);
+			}
+
+			final double expected = squares / (values.length - 1);
+			assertEquals(expected, testee.variance(), expected * 1e-6);
+		}
+	}
+
+	@Test
+	public void testSlopeWithNonFiniteValues() {
+		final DoubleRingBuffer testee = new DoubleRingBuffer(3);
+
+		testee.append(1);
+		testee.append(Double.NaN);
+		testee.append(3);
+
+		assertTrue(Double.isNaN(testee.slope()));
+
+		testee.append(5);
+		testee.append(7);
+
+		assertEquals(2.0, testee.slope(), 1e-12);
+	}
+
+	@Test
+	public void testNonFiniteValuesLeaveTheWindow() {
+		final DoubleRingBuffer testee = new DoubleRingBuffer(2);
+
+		testee.append(1);
+		testee.append(Double.NaN);
+
+		assertTrue(Double.isNaN(testee.sum()));
+		assertTrue(Double.isNaN(testee.min()));
+
+		testee.append(Double.POSITIVE_INFINITY);
+		testee.append(2);
+
+		assertEquals(Double.POSITIVE_INFINITY, testee.max(), 0.0);
+		assertEquals(2.0, testee.min(), 0.0);
+
+		testee.append(3);
+
+		assertEquals(5.0, testee.sum(), 0.0);
+		assertEquals(13.0, testee.sumOfSquares(), 0.0);
+		assertEquals(2.0, testee.min(), 0.0);
+		assertEquals(3.0, testee.max(), 0.0);
+	}
+
+	@Test
+	public void testRemove() {
+		final DoubleRingBuffer testee = new DoubleRingBuffer(3);
+
+		testee.append(1);
+		testee.append(5);
+		testee.append(3);
+
+		assertEquals(1.0, testee.remove(), 0.0);
+		assertEquals(2, testee.size());
+		assertEquals(3.0, testee.min(), 0.0);
+		assertEquals(8.0, testee.sum(), 0.0);
+	}
+
+	@Test
+	public void testClear() {
+		final DoubleRingBuffer testee = new DoubleRingBuffer(3);
+
+		testee.append(1);
+		testee.clear();
+		testee.append(2);
+
+		assertEquals(1, testee.size());
+		assertEquals(2.0, testee.sum(), 0.0);
+		assertEquals(2.0, testee.min(), 0.0);
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testGetBeyondSize() {
+		final DoubleRingBuffer testee = new DoubleRingBuffer(3);
+
+		testee.append(1);
+		testee.get(1);
+	}
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LongRingBufferTest {
+
+	@Test
+	public void testAggregatesMatchBruteForce() {
+		final LongRingBuffer testee = new LongRingBuffer(9);
+		final Random random = new Random(42);
+
+		for(int i = 0; i < 5_000; ++i) {
+			testee.append(random.nextInt(2000) - 1000);
+
+			final long [] values = testee.toArray();
+			long sum = 0, min = Long.MAX_VALUE, max = Long.MIN_VALUE;
+			double sumOfSquares = 0;
+			for(final long value : values) {
+				sum += value;
+				sumOfSquares += (double)value * value;
+				min = Math.min(min, value);
+				max = Math.max(max, value);
+			}
+
+			assertEquals(sum, testee.sum());
+			assertEquals(sumOfSquares, testee.sumOfSquares(), 0.0);
+			assertEquals(min, testee.min());
+			assertEquals(max, testee.max());
+		}
+	}
+
+	@Test
+	public void testOrderedView() {
+		final LongRingBuffer testee = new LongRingBuffer(3);
+
+		for(long i = 0; i < 5; ++i) {
+			testee.append(i);
+		}
+
+		assertArrayEquals(new long [] {2, 3, 4}, testee.toArray());
+		assertEquals(2, testee.get(0));
+		assertEquals(4, testee.getLast());
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testMinOfEmptyBuffer() {
+		new LongRingBuffer(3).min();
+	}
+}
@@ -18,11 +18,112 @@
  */
 package de.codapro.api.model;
 
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 public class MarkingStreamTest {
+	/**
+	 * Appends {@code count} vectors, calls {@code marker} before appending
+	 *   vector {@code at} and returns the markings in order.
+	 */
+	private static List<Boolean> markings(final MarkingStream testee, final RingStream output, final int count, final int at, final Runnable marker) throws Exception {
+		for(int i = 0; i < count; ++i) {
+			if(i == at) {
+				marker.run();
+			}
+
+			testee.append(new DataVector().append(i), false);
+		}
+		testee.close();
+
+		final List<Boolean> result = new ArrayList<>();
+		while(!output.isEmpty()) {
+			final DataVector vector = output.get();
+
+			assertEquals(result.size(), vector.get(0));
+			result.add((Boolean)vector.get(1));
+		}
+
+		return result;
+	}
+
+	@Test
+	public void testMarkPast() throws Exception {
+		final RingStream output = new RingStream(32);
+		final MarkingStream testee = new MarkingStream(output, 3);
+
+		final List<Boolean> result = markings(testee, output, 8, 5, testee::markPast);
+
+		assertEquals(List.of(false, false, true, true, true, false, false, false), result);
+	}
+
+	@Test
+	public void testMarkPastOnPartiallyFilledBuffer() throws Exception {
+		final RingStream output = new RingStream(32);
+		final MarkingStream testee = new MarkingStream(output, 5);
+
+		final List<Boolean> result = markings(testee, output, 6, 2, testee::markPast);
+
+		assertEquals(List.of(true, true, false, false, false, false), result);
+	}
+
+	@Test
+	public void testMarkFuture() throws Exception {
+		final RingStream output = new RingStream(32);
+		final MarkingStream testee = new MarkingStream(output, 3);
+
+		final List<Boolean> result = markings(testee, output, 8, 1, testee::markFuture);
+
+		assertEquals(List.of(false, true, true, true, false, false, false, false), result);
+	}
+
+	@Test
+	public void testAppendedMarkingsAreKept() throws Exception {
+		final RingStream output = new RingStream(256);
+		final MarkingStream testee = new MarkingStream(output, 100);
+
+		for(int i = 0; i < 200; ++i) {
+			testee.append(new DataVector().append(i), i % 3 == 0);
+		}
+		testee.close();
+
+		for(int i = 0; i < 200; ++i) {
+			assertEquals(i % 3 == 0, output.get().get(1));
+		}
+	}
+
+	@Test
+	public void testBatchOutput() throws Exception {
+		final RingStream output = new RingStream(32);
+		final StreamSchema schema = new StreamHeader().add("value", ColumnType.INT).add("mark", ColumnType.BOOLEAN).freeze();
+		final MarkingStream testee = new MarkingStream(output, 2, schema, 4);
+
+		testee.append(new DataVector().append(0), false);
+		testee.append(new DataVector().append(1), true);
+		testee.append(DataVector.GROUP_END, false);
+		testee.append(new DataVector().append(2), false);
+		testee.markPast();
+		testee.close();
+
+		final DataBatch batch = new DataBatch(schema, 4);
+
+		assertEquals(2, output.getBatch(batch));
+		assertArrayEquals(new boolean [] {false, true}, Arrays.copyOf(batch.getBooleanColumn(1), 2));
+		assertSame(DataVector.GROUP_END, batch.getGroupMarker());
+
+		batch.clear();
+		assertEquals(1, output.getBatch(batch));
+		assertEquals(2, batch.getInt(0, 0));
+		assertTrue(batch.getBoolean(1, 0));
+		assertTrue(output.isClosed());
+	}
 
 	@Test
 	public void testCloseOnNonFullStream() throws Exception {
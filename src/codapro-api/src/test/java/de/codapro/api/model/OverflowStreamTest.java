@@ -0,0 +1,158 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import de.codapro.api.ConversionException;
+
+public class OverflowStreamTest extends StreamContractTest {
+	@Override
+	protected Stream createStream(final int capacity) {
+		return new OverflowStream(capacity, OverflowPolicy.BLOCK, new BlockingWaitStrategy());
+	}
+
+	private static DataVector vector(final int value) {
+		return new DataVector().append(value);
+	}
+
+	private static List<Integer> drain(final Stream stream) {
+		stream.markClosed();
+
+		final List<Integer> values = new ArrayList<>();
+		while(!stream.isEmpty()) {
+			final DataVector vector = stream.get();
+			values.add(vector == DataVector.GROUP_START ? -1 : vector == DataVector.GROUP_END ? -2 : (Integer)vector.get(0));
+		}
+		return values;
+	}
+
+	@Test
+	public void testDropNewest() throws ConversionException {
+		final OverflowStream testee = new OverflowStream(4, OverflowPolicy.DROP_NEWEST, new BlockingWaitStrategy());
+
+		for(int i = 0; i < 10; ++i) {
+			testee.append(vector(i));
+		}
+
+		assertEquals(Integer.MAX_VALUE, testee.capacity());
+		assertEquals(6, testee.getDroppedCount());
+		assertEquals(List.of(0, 1, 2, 3), drain(testee));
+	}
+
+	@Test
+	public void testDropOldest() throws ConversionException {
+		final OverflowStream testee = new OverflowStream(4, OverflowPolicy.DROP_OLDEST, new BlockingWaitStrategy());
+
+		for(int i = 0; i < 10; ++i) {
+			testee.append(vector(i));
+		}
+
+		assertEquals(6, testee.getDroppedCount());
+		assertEquals(List.of(6, 7, 8, 9), drain(testee));
+	}
+
+	@Test
+	public void testDropOldestKeepsSentinels() throws Exception {
+		final OverflowStream testee = new OverflowStream(4, OverflowPolicy.DROP_OLDEST, new BlockingWaitStrategy());
+
+		testee.append(vector(0));
+		testee.append(DataVector.GROUP_START);
+		for(int i = 1; i < 6; ++i) {
+			testee.append(vector(i));
+		}
+
+		assertEquals(List.of(-1, 1, 2, 3), drain(testee));
+		assertEquals(3, testee.getDroppedCount());
+	}
+
+	@Test
+	public void testDecimate() throws ConversionException {
+		final OverflowStream testee = new OverflowStream(8, OverflowPolicy.DECIMATE, new BlockingWaitStrategy());
+
+		for(int i = 0; i < 20; ++i) {
+			testee.append(vector(i));
+		}
+
+		assertTrue(testee.getDecimatedCount() > 0);
+		assertEquals(20, testee.size() + testee.getDecimatedCount() + testee.getDroppedCount());
+
+		final List<Integer> values = drain(testee);
+		assertEquals(List.of(0, 1, 2, 3, 4, 5), values.subList(0, 6));
+		assertEquals(7, values.get(6).intValue());
+	}
+
+	@Test
+	public void testDecimationStopsAfterDraining() throws ConversionException {
+		final OverflowStream testee = new OverflowStream(8, OverflowPolicy.DECIMATE, new BlockingWaitStrategy());
+
+		for(int i = 0; i < 8; ++i) {
+			testee.append(vector(i));
+		}
+
+		while(testee.size() > 2) {
+			testee.get();
+		}
+
+		final long decimated = testee.getDecimatedCount();
+		testee.append(vector(100));
+		testee.append(vector(101));
+
+		assertEquals(decimated, testee.getDecimatedCount());
+		assertEquals(4, testee.size());
+	}
+
+	@Test(timeout = 20000)
+	public void testConcurrentDropOldest() throws Exception {
+		final OverflowStream testee = new OverflowStream(16, OverflowPolicy.DROP_OLDEST, new SpinningWaitStrategy());
+		final int count = 200000;
+
+		final Future<?> producer = executor.submit(() -> {
+			for(int i = 0; i < count; ++i) {
+				testee.append(vector(i));
+			}
+			testee.markClosed();
+			return null;
+		});
+
+		int previous = -1;
+		long received = 0;
+		try {
+			while(true) {
+				final int value = (Integer)testee.get().get(0);
+				assertTrue(value > previous);
+				previous = value;
+				++received;
+			}
+		} catch(final NoSuchElementException e) {
+			// closed
+		}
+
+		producer.get();
+		assertEquals(count - 1, previous);
+		assertEquals(count, received + testee.getDroppedCount());
+	}
+}
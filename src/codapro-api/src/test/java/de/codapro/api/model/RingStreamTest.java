@@ -0,0 +1,187 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+
+import de.codapro.api.ConversionException;
+
+@RunWith(Parameterized.class)
+public class RingStreamTest extends StreamContractTest {
+
+	@Parameters(name = "{0}")
+	public static Collection<Object[]> waitStrategies() {
+		return Arrays.asList(new Object[][] {
+			{ "blocking", (Supplier<WaitStrategy>)BlockingWaitStrategy::new },
+			{ "spinning", (Supplier<WaitStrategy>)SpinningWaitStrategy::new },
+			{ "parking",  (Supplier<WaitStrategy>)ParkingWaitStrategy::new },
+		});
+	}
+
+	@Parameter(0)
+	public String name;
+
+	@Parameter(1)
+	public Supplier<WaitStrategy> waitStrategy;
+
+	@Override
+	protected Stream createStream(final int capacity) {
+		return new RingStream(capacity, waitStrategy.get());
+	}
+
+	@Test
+	public void testCapacityIsRoundedUpToPowerOfTwo() {
+		assertEquals(1, new RingStream(1, waitStrategy.get()).capacity());
+		assertEquals(8, new RingStream(5, waitStrategy.get()).capacity());
+		assertEquals(8, new RingStream(8, waitStrategy.get()).capacity());
+	}
+
+	@Test
+	public void testSize() throws ConversionException {
+		final RingStream testee = new RingStream(4, waitStrategy.get());
+
+		testee.append(new DataVector());
+		testee.append(new DataVector());
+		testee.get();
+
+		assertEquals(1, testee.size());
+	}
+
+	@Test(expected = ConversionException.class)
+	public void testAppendToClosedStream() throws ConversionException {
+		final RingStream testee = new RingStream(4, waitStrategy.get());
+
+		testee.markClosed();
+		testee.append(new DataVector());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCapacity() {
+		new RingStream(0, waitStrategy.get());
+	}
+
+	@Test(timeout = 5000)
+	public void testBatchLargerThanCapacity() throws Exception {
+		final RingStream testee = new RingStream(4, waitStrategy.get());
+		final DataBatch batch = new DataBatch(new ColumnType [] {ColumnType.INT}, 10);
+
+		for(int i = 0; i < 10; ++i) {
+			batch.setInt(0, batch.addRow(), i);
+		}
+
+		final Thread producer = new Thread(() -> {
+			try {
+				testee.appendBatch(batch);
+			} catch (final ConversionException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+		producer.start();
+
+		for(int i = 0; i < 10; ++i) {
+			assertEquals(i, testee.get().get(0));
+		}
+
+		producer.join();
+	}
+
+	@Test
+	public void testBatchIsQueuedAsBatch() throws Exception {
+		final RingStream testee = new RingStream(16, waitStrategy.get());
+		final DataBatch batch = new DataBatch(new ColumnType [] {ColumnType.DOUBLE, ColumnType.STRING}, 8);
+
+		for(int i = 0; i < 6; ++i) {
+			final int row = batch.addRow();
+			batch.setDouble(0, row, i);
+			batch.setString(1, row, i % 2 == 0 ? "even" : "odd");
+		}
+		batch.setNull(0, 5);
+		testee.appendBatch(batch);
+		batch.clear();
+
+		testee.append(new DataVector().append(6.0).append("even"));
+
+		assertEquals(7, testee.size());
+
+		final DataBatch result = new DataBatch(new ColumnType [] {ColumnType.DOUBLE, ColumnType.STRING}, 4);
+
+		assertEquals(4, testee.getBatch(result));
+		assertEquals(3.0, result.getDouble(0, 3), 0.0);
+		assertEquals("odd", result.getString(1, 3));
+
+		assertEquals(4.0, testee.get().get(0));
+
+		assertEquals(2, testee.getBatch(result));
+		assertTrue(result.isNull(0, 0));
+		assertEquals(6.0, result.getDouble(0, 1), 0.0);
+		assertTrue(testee.isEmpty());
+	}
+
+	@Test
+	public void testBatchRowsAreConvertedToTheConsumersTypes() throws Exception {
+		final RingStream testee = new RingStream(16, waitStrategy.get());
+		final DataBatch batch = new DataBatch(new ColumnType [] {ColumnType.INT}, 8);
+
+		batch.setInt(0, batch.addRow(), 1);
+		batch.setInt(0, batch.addRow(), 2);
+		testee.appendBatch(batch);
+
+		final DataBatch result = new DataBatch(new ColumnType [] {ColumnType.DOUBLE, ColumnType.OBJECT}, 4);
+
+		assertEquals(2, testee.getBatch(result));
+		assertEquals(2.0, result.getDouble(0, 1), 0.0);
+		assertTrue(result.isNull(1, 1));
+	}
+
+	@Test
+	public void testFailingBatchRowIsHandedOver() throws Exception {
+		final RingStream testee = new RingStream(16, waitStrategy.get());
+		final DataBatch batch = new DataBatch(new ColumnType [] {ColumnType.OBJECT}, 8);
+
+		batch.set(0, batch.addRow(), 1);
+		batch.set(0, batch.addRow(), "two");
+		batch.set(0, batch.addRow(), 3);
+		testee.appendBatch(batch);
+
+		final DataBatch result = new DataBatch(new ColumnType [] {ColumnType.INT}, 4);
+
+		try {
+			testee.getBatch(result);
+			fail("A string cannot be stored in an int column.");
+		} catch(final BatchConversionException e) {
+			assertEquals("two", e.getVector().get(0));
+		}
+
+		assertEquals(1, result.size());
+		assertEquals(1, result.getInt(0, 0));
+
+		assertEquals(1, testee.getBatch(result));
+		assertEquals(3, result.getInt(0, 0));
+	}
+}
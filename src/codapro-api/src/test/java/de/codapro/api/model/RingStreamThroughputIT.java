@@ -0,0 +1,101 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.codapro.api.ConversionException;
+
+/**
+ * Measures the throughput of one producer and one consumer thread exchanging
+ *   data vectors. Run with {@code -Pintegration}.
+ */
+public class RingStreamThroughputIT {
+	private static final Logger log = LoggerFactory.getLogger(RingStreamThroughputIT.class);
+
+	private static final int CAPACITY = 1024;
+
+	private static final int COUNT = 20_000_000;
+
+	private static final int RUNS = 5;
+
+	@Test
+	public void testThroughput() throws Exception {
+		final double queue = measure("LinkedBlockingQueue", () -> new BlockingQueueStream(CAPACITY));
+		final double blocking = measure("RingStream/blocking", () -> new RingStream(CAPACITY, new BlockingWaitStrategy()));
+		final double parking = measure("RingStream/parking", () -> new RingStream(CAPACITY, new ParkingWaitStrategy()));
+		final double spinning = measure("RingStream/spinning", () -> new RingStream(CAPACITY, new SpinningWaitStrategy()));
+
+		log.info("blocking {}x, parking {}x, spinning {}x of LinkedBlockingQueue",
+				String.format("%.1f", blocking / queue), String.format("%.1f", parking / queue), String.format("%.1f", spinning / queue));
+	}
+
+	private static double measure(final String name, final Supplier<Stream> factory) throws Exception {
+		double best = 0;
+
+		for(int run = 0; run < RUNS; ++run) {
+			best = Math.max(best, transfer(factory.get()));
+		}
+
+		log.info("{} {} M vectors/s", String.format("%-20s", name), String.format("%6.1f", best / 1e6));
+		return best;
+	}
+
+	private static double transfer(final Stream stream) throws Exception {
+		final DataVector data = new DataVector().append(1.0);
+
+		final Thread producer = new Thread(() -> {
+			try {
+				for(int i = 0; i < COUNT; ++i) {
+					stream.append(data);
+				}
+			} catch (final ConversionException e) {
+				throw new IllegalStateException(e);
+			} finally {
+				stream.markClosed();
+			}
+		});
+
+		final long start = System.nanoTime();
+		producer.start();
+
+		long received = 0;
+		try {
+			while(true) {
+				stream.get();
+				++received;
+			}
+		} catch(final NoSuchElementException e) {
+			// end of stream
+		}
+
+		final long duration = System.nanoTime() - start;
+		producer.join();
+
+		assertEquals(COUNT, received);
+		return received * 1e9 / duration;
+	}
+}
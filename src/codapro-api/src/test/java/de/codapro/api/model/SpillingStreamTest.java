@@ -0,0 +1,129 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.NoSuchElementException;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.codapro.api.ConversionException;
+
+public class SpillingStreamTest extends StreamContractTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Override
+	protected Stream createStream(final int capacity) {
+		return new SpillingStream(capacity, folder.getRoot().toPath());
+	}
+
+	private static DataVector vector(final int value) {
+		return new DataVector().append(value).append("value " + value);
+	}
+
+	/**
+	 * The producer never waits, vectors beyond the watermark are spilled.
+	 */
+	@Override
+	@Test(timeout = 5000)
+	public void testAppendWaitsForFreeSpace() throws Exception {
+		final SpillingStream testee = new SpillingStream(4, folder.getRoot().toPath());
+
+		for(int i = 0; i < 10; ++i) {
+			testee.append(vector(i));
+		}
+
+		assertEquals(Integer.MAX_VALUE, testee.capacity());
+		assertEquals(10, testee.size());
+		assertEquals(6, testee.getSpilledVectors());
+		assertThat(testee.getSpilledBytes(), greaterThan(0L));
+
+		for(int i = 0; i < 10; ++i) {
+			assertEquals(i, testee.get().get(0));
+		}
+		assertTrue(testee.isEmpty());
+	}
+
+	@Test(timeout = 5000)
+	public void testSpillingAcrossRegions() throws ConversionException, IOException {
+		final SpillingStream testee = new SpillingStream(2, folder.getRoot().toPath(), new BlockingWaitStrategy(), 64);
+
+		testee.append(vector(0));
+		testee.append(vector(1));
+		testee.append(DataVector.GROUP_START);
+		for(int i = 2; i < 50; ++i) {
+			testee.append(vector(i));
+		}
+		testee.append(new DataVector().append("a string exceeding the size of a single region by far"));
+		testee.append(DataVector.GROUP_END);
+		testee.markClosed();
+
+		assertEquals(0, testee.get().get(0));
+		assertEquals(1, testee.get().get(0));
+		assertSame(DataVector.GROUP_START, testee.get());
+		for(int i = 2; i < 50; ++i) {
+			final DataVector data = testee.get();
+
+			assertEquals(i, data.get(0));
+			assertEquals("value " + i, data.get(1));
+		}
+		assertEquals("a string exceeding the size of a single region by far", testee.get().get(0));
+		assertSame(DataVector.GROUP_END, testee.get());
+
+		try {
+			testee.get();
+			fail("Stream is not empty.");
+		} catch(final NoSuchElementException e) {
+			// expected
+		}
+
+		assertEquals(0, folder.getRoot().list().length);
+	}
+
+	@Test(timeout = 5000)
+	public void testFileIsReusedAfterCatchingUp() throws ConversionException {
+		final SpillingStream testee = new SpillingStream(2, folder.getRoot().toPath(), new BlockingWaitStrategy(), 64);
+
+		int appended = 0;
+		int read = 0;
+		for(int round = 0; round < 5; ++round) {
+			for(int i = 0; i < 10; ++i) {
+				testee.append(vector(appended++));
+			}
+
+			// read only part of the queue, so memory and spill file are mixed
+			for(int i = 0; i < 7; ++i) {
+				assertEquals(read++, testee.get().get(0));
+			}
+		}
+
+		while(!testee.isEmpty()) {
+			assertEquals(read++, testee.get().get(0));
+		}
+
+		assertEquals(appended, read);
+		assertThat(testee.getSpilledVectors(), greaterThan(0L));
+	}
+}
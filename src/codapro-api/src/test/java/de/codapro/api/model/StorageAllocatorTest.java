@@ -0,0 +1,114 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class StorageAllocatorTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testHeapStorage() {
+		assertStorage(StorageAllocator.HEAP);
+	}
+
+	@Test
+	public void testDirectStorage() {
+		assertStorage(StorageAllocator.DIRECT);
+	}
+
+	@Test
+	public void testMappedStorage() {
+		assertStorage(StorageAllocator.mapped(folder.getRoot().toPath()));
+	}
+
+	@Test
+	public void testMappedFilesAreRemovedOnClose() {
+		final DoubleStorage testee = StorageAllocator.mapped(folder.getRoot().toPath()).doubles(1024);
+		testee.set(1023, 1.0);
+		testee.close();
+
+		final File [] files = folder.getRoot().listFiles();
+		assertEquals(0, files.length);
+	}
+
+	@Test(expected = NullPointerException.class)
+	public void testClosedStorageCannotBeUsed() {
+		final DoubleStorage testee = StorageAllocator.DIRECT.doubles(4);
+		testee.close();
+		testee.close();
+
+		testee.get(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidCapacity() {
+		StorageAllocator.DIRECT.longs(Integer.MAX_VALUE);
+	}
+
+	@Test
+	public void testOffHeapRingBuffer() {
+		final DoubleRingBuffer testee = new DoubleRingBuffer(3, StorageAllocator.DIRECT);
+
+		for(int i = 1; i <= 5; ++i) {
+			testee.append(i);
+		}
+
+		assertArrayEquals(new double [] {3, 4, 5}, testee.toArray(), 0.0);
+		assertEquals(3.0, testee.min(), 0.0);
+		assertEquals(5.0, testee.max(), 0.0);
+		assertEquals(12.0, testee.sum(), 0.0);
+
+		testee.close();
+	}
+
+	private static void assertStorage(final StorageAllocator allocator) {
+		final DoubleStorage doubles = allocator.doubles(8);
+		final LongStorage longs = allocator.longs(8);
+
+		assertEquals(8, doubles.capacity());
+		assertEquals(8, longs.capacity());
+
+		for(int i = 0; i < 8; ++i) {
+			doubles.set(i, i * 0.5);
+			longs.set(i, -i);
+		}
+
+		assertEquals(1.5, doubles.get(3), 0.0);
+		assertEquals(-7L, longs.get(7));
+
+		final double [] doubleCopy = new double[4];
+		doubles.copyTo(5, doubleCopy, 1, 3);
+		assertArrayEquals(new double [] {0, 2.5, 3, 3.5}, doubleCopy, 0.0);
+
+		final long [] longCopy = new long[2];
+		longs.copyTo(0, longCopy, 0, 2);
+		assertArrayEquals(new long [] {0, -1}, longCopy);
+
+		doubles.close();
+		longs.close();
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.NoSuchElementException;
+
+import org.junit.Test;
+
+import de.codapro.api.ConversionException;
+
+public class StreamBatchTest {
+	/**
+	 * Minimal row-based stream that only implements the abstract methods.
+	 */
+	private static final class DequeStream implements Stream {
+		private final Deque<DataVector> data = new ArrayDeque<>();
+
+		private StreamHeader header = new StreamHeader();
+
+		private boolean closed = false;
+
+		@Override
+		public void append(final DataVector vector) {
+			data.addLast(vector);
+		}
+
+		@Override
+		public void close() {
+			markClosed();
+		}
+
+		@Override
+		public DataVector get() {
+			if(data.isEmpty()) {
+				throw new NoSuchElementException("Stream is empty.");
+			}
+
+			return data.removeFirst();
+		}
+
+		@Override
+		public StreamHeader getHeader() {
+			return header;
+		}
+
+		@Override
+		public boolean isClosed() {
+			return closed;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return data.isEmpty();
+		}
+
+		@Override
+		public void markClosed() {
+			closed = true;
+		}
+
+		@Override
+		public StreamHeader setHeader(final StreamHeader header) {
+			this.header = header;
+			return header;
+		}
+	}
+
+	private static DataVector row(final double value) {
+		return new DataVector().append(value).append((int)value);
+	}
+
+	private static DataBatch newBatch(final int capacity) {
+		return new DataBatch(new ColumnType[] {ColumnType.DOUBLE, ColumnType.INT}, capacity);
+	}
+
+	@Test
+	public void testAppendBatchAppendsRowsAndMarker() throws ConversionException {
+		final DequeStream testee = new DequeStream();
+		final DataBatch batch = newBatch(4);
+
+		batch.appendRow(row(1));
+		batch.appendRow(row(2));
+		batch.setGroupMarker(DataVector.GROUP_END);
+
+		testee.appendBatch(batch);
+
+		assertEquals(1.0, testee.get().get(0));
+		assertEquals(2, testee.get().get(1));
+		assertSame(DataVector.GROUP_END, testee.get());
+		assertTrue(testee.isEmpty());
+	}
+
+	@Test
+	public void testGetBatchStopsAtCapacity() throws ConversionException {
+		final DequeStream testee = new DequeStream();
+		testee.append(row(1));
+		testee.append(row(2));
+		testee.append(row(3));
+
+		final DataBatch batch = newBatch(2);
+
+		assertEquals(2, testee.getBatch(batch));
+		assertEquals(2.0, batch.getDouble(0, 1), 0.0);
+		assertEquals(1, testee.getBatch(batch));
+		assertEquals(3, batch.getInt(1, 0));
+	}
+
+	@Test
+	public void testGetBatchStopsAtGroupSentinel() throws ConversionException {
+		final DequeStream testee = new DequeStream();
+		testee.append(row(1));
+		testee.append(DataVector.GROUP_END);
+		testee.append(row(2));
+
+		final DataBatch batch = newBatch(8);
+
+		assertEquals(1, testee.getBatch(batch));
+		assertSame(DataVector.GROUP_END, batch.getGroupMarker());
+
+		assertEquals(1, testee.getBatch(batch));
+		assertNull(batch.getGroupMarker());
+	}
+
+	@Test
+	public void testGetBatchKeepsRowsAndFailingVector() throws ConversionException {
+		final DequeStream testee = new DequeStream();
+		final DataVector invalid = new DataVector().append("one").append(1);
+
+		testee.append(row(1));
+		testee.append(invalid);
+		testee.append(row(2));
+
+		final DataBatch batch = newBatch(8);
+
+		try {
+			testee.getBatch(batch);
+			fail("A string cannot be stored in a double column.");
+		} catch(final BatchConversionException e) {
+			assertSame(invalid, e.getVector());
+		}
+
+		assertEquals(1, batch.size());
+		assertEquals(1.0, batch.getDouble(0, 0), 0.0);
+
+		assertEquals(1, testee.getBatch(batch));
+		assertEquals(2.0, batch.getDouble(0, 0), 0.0);
+	}
+
+	@Test(expected = NoSuchElementException.class)
+	public void testGetBatchOnExhaustedStream() throws ConversionException {
+		final DequeStream testee = new DequeStream();
+
+		testee.getBatch(newBatch(2));
+	}
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Test;
+
+import de.codapro.api.ConversionException;
+
+/**
+ * Contract every {@link Stream} implementation has to fulfill. Implementations
+ *   extend this class and provide the stream under test.
+ */
+public abstract class StreamContractTest {
+	/**
+	 * Time after which a waiting operation is considered to be blocked.
+	 */
+	private static final long BLOCKED_MILLIS = 200;
+
+	protected final ExecutorService executor = Executors.newCachedThreadPool();
+
+	/**
+	 * @param capacity Number of elements the stream must be able to hold
+	 *   without blocking the producer.
+	 * @return A new and empty stream.
+	 */
+	protected abstract Stream createStream(final int capacity);
+
+	@After
+	public void shutdownExecutor() {
+		executor.shutdownNow();
+	}
+
+	private static DataVector vector(final int value) {
+		return new DataVector().append(value);
+	}
+
+	@Test
+	public void testNewStreamIsEmptyAndOpen() {
+		final Stream testee = createStream(4);
+
+		assertTrue(testee.isEmpty());
+		assertFalse(testee.isClosed());
+	}
+
+	@Test
+	public void testElementsAreDeliveredInOrder() throws ConversionException {
+		final Stream testee = createStream(4);
+
+		testee.append(vector(1));
+		testee.append(DataVector.GROUP_START);
+		testee.append(vector(2));
+
+		assertFalse(testee.isEmpty());
+		assertEquals(1, testee.get().get(0));
+		assertSame(DataVector.GROUP_START, testee.get());
+		assertEquals(2, testee.get().get(0));
+		assertTrue(testee.isEmpty());
+	}
+
+	@Test
+	public void testHeader() {
+		final Stream testee = createStream(4);
+		final StreamHeader header = new StreamHeader();
+
+		assertSame(header, testee.setHeader(header));
+		assertSame(header, testee.getHeader());
+	}
+
+	@Test
+	public void testRemainingElementsAreReadableAfterClose() throws ConversionException {
+		final Stream testee = createStream(4);
+
+		testee.append(vector(1));
+		testee.markClosed();
+
+		assertTrue(testee.isClosed());
+		assertEquals(1, testee.get().get(0));
+	}
+
+	@Test(expected = NoSuchElementException.class, timeout = 5000)
+	public void testGetOnClosedAndEmptyStream() {
+		final Stream testee = createStream(4);
+
+		testee.markClosed();
+		testee.get();
+	}
+
+	@Test
+	public void testCloseMarksStreamClosed() throws Exception {
+		final Stream testee = createStream(4);
+
+		testee.close();
+
+		assertTrue(testee.isClosed());
+	}
+
+	@Test(timeout = 5000)
+	public void testGetWaitsForProducer() throws Exception {
+		final Stream testee = createStream(4);
+
+		final Future<DataVector> result = executor.submit(testee::get);
+		assertBlocked(result);
+
+		testee.append(vector(42));
+		assertEquals(42, result.get().get(0));
+	}
+
+	@Test(timeout = 5000)
+	public void testMarkClosedWakesUpConsumer() throws Exception {
+		final Stream testee = createStream(4);
+		final CountDownLatch started = new CountDownLatch(1);
+
+		final Future<DataVector> result = executor.submit(() -> {
+			started.countDown();
+			return testee.get();
+		});
+		started.await();
+		assertBlocked(result);
+
+		testee.markClosed();
+
+		try {
+			result.get();
+			fail("Consumer has not been terminated.");
+		} catch(final ExecutionException e) {
+			assertThat(e.getCause(), instanceOf(NoSuchElementException.class));
+		}
+	}
+
+	@Test(timeout = 5000)
+	public void testAppendWaitsForFreeSpace() throws Exception {
+		final int capacity = 4;
+		final Stream testee = createStream(capacity);
+
+		// the stream might be larger than requested, fill it until the producer blocks
+		int appended = 0;
+		Future<?> producer = null;
+		while(producer == null) {
+			final DataVector data = vector(appended++);
+			final Future<?> candidate = executor.submit(() -> { testee.append(data); return null; });
+
+			try {
+				candidate.get(BLOCKED_MILLIS, TimeUnit.MILLISECONDS);
+			} catch(final TimeoutException e) {
+				producer = candidate;
+			}
+		}
+
+		assertThat(appended, greaterThan(capacity));
+
+		assertEquals(0, testee.get().get(0));
+		producer.get();
+
+		for(int i = 1; i < appended; ++i) {
+			assertEquals(i, testee.get().get(0));
+		}
+	}
+
+	@Test(timeout = 20000)
+	public void testConcurrentTransfer() throws Exception {
+		final Stream testee = createStream(16);
+		final int count = 100_000;
+
+		final Future<?> producer = executor.submit(() -> {
+			for(int i = 0; i < count; ++i) {
+				testee.append(vector(i));
+
+				if(i % 1000 == 999) {
+					testee.append(DataVector.GROUP_END);
+				}
+			}
+			testee.markClosed();
+			return null;
+		});
+
+		int expected = 0;
+		int groups = 0;
+		try {
+			while(true) {
+				final DataVector data = testee.get();
+
+				if(data == DataVector.GROUP_END) {
+					++groups;
+				} else {
+					assertEquals(expected++, data.get(0));
+				}
+			}
+		} catch(final NoSuchElementException e) {
+			// end of stream
+		}
+
+		producer.get();
+		assertEquals(count, expected);
+		assertEquals(count / 1000, groups);
+	}
+
+	@Test(timeout = 5000)
+	public void testBatchRoundTrip() throws ConversionException {
+		final Stream testee = createStream(8);
+		final DataBatch batch = new DataBatch(new ColumnType [] {ColumnType.INT}, 4);
+
+		for(int i = 0; i < 3; ++i) {
+			batch.setInt(0, batch.addRow(), i);
+		}
+		batch.setGroupMarker(DataVector.GROUP_END);
+		testee.appendBatch(batch);
+
+		assertEquals(3, testee.getBatch(batch));
+		assertEquals(2, batch.getInt(0, 2));
+		assertSame(DataVector.GROUP_END, batch.getGroupMarker());
+		assertTrue(testee.isEmpty());
+	}
+
+	private static void assertBlocked(final Future<?> future) throws Exception {
+		try {
+			future.get(BLOCKED_MILLIS, TimeUnit.MILLISECONDS);
+			fail("Operation has not been blocked.");
+		} catch(final TimeoutException e) {
+			// expected
+		}
+	}
+}
@@ -20,6 +20,8 @@ package de.codapro.api.model;
 
 import static org.junit.Assert.*;
 
+import java.util.Iterator;
+
 import org.junit.Test;
 
 public class StreamHeaderTest {
@@ -143,4 +145,65 @@ public class StreamHeaderTest {
 		assertEquals(3, testee.size());
 	}
 
+
+	@Test
+	public void testIndexOfAfterRemove() {
+		final StreamHeader testee = new StreamHeader();
+		testee.add(new String [] {"a", "b", "c"});
+
+		testee.remove(0);
+
+		assertEquals(-1, testee.indexOf("a"));
+		assertEquals(0, testee.indexOf("b"));
+		assertEquals(1, testee.indexOf("c"));
+	}
+
+	@Test
+	public void testIndexOfDuplicateReturnsFirst() {
+		final StreamHeader testee = new StreamHeader();
+		testee.add(new String [] {"a", "b", "a"});
+
+		assertEquals(0, testee.indexOf("a"));
+
+		testee.remove(0);
+
+		assertEquals(1, testee.indexOf("a"));
+	}
+
+	@Test
+	public void testTypes() {
+		final StreamHeader testee = new StreamHeader();
+		testee.add("a");
+		testee.add("b", ColumnType.DOUBLE);
+
+		assertEquals(ColumnType.OBJECT, testee.typeOf(0));
+		assertEquals(ColumnType.DOUBLE, testee.typeOf(1));
+
+		testee.setType(0, ColumnType.INT);
+
+		assertEquals(ColumnType.INT, testee.typeOf(0));
+	}
+
+	@Test
+	public void testFreeze() {
+		final StreamHeader testee = new StreamHeader();
+		testee.add("a", ColumnType.DOUBLE);
+
+		final StreamSchema schema = testee.freeze();
+		testee.add("b");
+
+		assertEquals(1, schema.size());
+		assertEquals(0, schema.indexOf("a"));
+		assertEquals(ColumnType.DOUBLE, schema.typeOf(0));
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void testIteratorIsReadOnly() {
+		final StreamHeader testee = new StreamHeader();
+		testee.add("a");
+
+		final Iterator<String> iterator = testee.iterator();
+		iterator.next();
+		iterator.remove();
+	}
 }
@@ -0,0 +1,71 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.api.model;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class StreamSchemaTest {
+
+	private static StreamSchema schema() {
+		return new StreamSchema(new String [] {"time", "value", "label"},
+				new ColumnType [] {ColumnType.DOUBLE, ColumnType.FLOAT, ColumnType.STRING});
+	}
+
+	@Test
+	public void testLookup() {
+		final StreamSchema testee = schema();
+
+		assertEquals(3, testee.size());
+		assertEquals(1, testee.indexOf("value"));
+		assertEquals(-1, testee.indexOf("unknown"));
+		assertEquals("label", testee.nameOf(2));
+		assertEquals(ColumnType.STRING, testee.typeOf(2));
+	}
+
+	@Test
+	public void testTypesAreCopied() {
+		final StreamSchema testee = schema();
+
+		testee.types()[0] = ColumnType.OBJECT;
+
+		assertEquals(ColumnType.DOUBLE, testee.typeOf(0));
+	}
+
+	@Test
+	public void testToHeaderRoundTrip() {
+		final StreamSchema testee = schema();
+
+		assertEquals(testee, testee.toHeader().freeze());
+		assertEquals(testee.hashCode(), testee.toHeader().freeze().hashCode());
+	}
+
+	@Test
+	public void testBatchFromSchema() {
+		final DataBatch batch = new DataBatch(schema(), 2);
+
+		assertEquals(ColumnType.FLOAT, batch.getType(1));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testMismatchingTypes() {
+		new StreamSchema(new String [] {"a"}, new ColumnType [0]);
+	}
+}
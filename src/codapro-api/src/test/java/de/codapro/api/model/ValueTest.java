@@ -19,8 +19,15 @@
 package de.codapro.api.model;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
 import org.junit.Test;
 
 public class ValueTest {
@@ -62,4 +69,67 @@ public class ValueTest {
 
 		assertEquals("Constant<null>", value.toString());
 	}
+
+	@Test(timeout = 5000)
+	public void testGetWaitsForProducer() throws InterruptedException {
+		final Value<Integer> value = new Value<Integer>();
+		final AtomicReference<Integer> result = new AtomicReference<>();
+
+		final Thread consumer = new Thread(() -> result.set(value.get()));
+		consumer.start();
+
+		value.set(10);
+		consumer.join();
+
+		assertEquals((Integer)10, result.get());
+	}
+
+	@Test(expected = TimeoutException.class)
+	public void testTimedGetWithoutValue() throws InterruptedException, TimeoutException {
+		final Value<Integer> value = new Value<Integer>();
+
+		value.get(10, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	public void testTimedGetWithValue() throws InterruptedException, TimeoutException {
+		final Value<Integer> value = new Value<Integer>();
+		value.set(10);
+
+		assertEquals((Integer)10, value.get(10, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testGetNow() {
+		final Value<Integer> value = new Value<Integer>();
+
+		assertEquals((Integer)1, value.getNow(1));
+
+		value.set(10);
+
+		assertEquals((Integer)10, value.getNow(1));
+	}
+
+	@Test
+	public void testOnSetIsCalledForEachValue() {
+		final Value<Integer> value = new Value<Integer>();
+		final List<Integer> values = new ArrayList<>();
+
+		value.onSet(values::add);
+		value.set(10);
+		value.set(20);
+
+		assertEquals(List.of(10, 20), values);
+	}
+
+	@Test
+	public void testOnSetAfterValueHasBeenSet() {
+		final Value<Integer> value = new Value<Integer>();
+		final AtomicReference<Integer> result = new AtomicReference<>();
+
+		value.set(10);
+		value.onSet(result::set);
+
+		assertSame(value.get(), result.get());
+	}
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks. Accepts the usual JMH command line options, but writes
+ *   the results as JSON to {@code jmh-result.json} unless another format or file
+ *   is given, so runs can be compared across commits.
+ */
+public final class BenchmarkRunner {
+	private static final String RESULT_FILE = "jmh-result.json";
+
+	public static void main(final String [] args) throws CommandLineOptionException, IOException, RunnerException {
+		final CommandLineOptions commandLine = new CommandLineOptions(args);
+
+		if(commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+
+		final ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+		if(!commandLine.getResultFormat().hasValue()) {
+			options.resultFormat(ResultFormatType.JSON);
+		}
+
+		if(!commandLine.getResult().hasValue()) {
+			options.result(RESULT_FILE);
+		}
+
+		new Runner(options.build()).run();
+	}
+
+	private BenchmarkRunner() {
+	}
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.mariuszgromada.math.mxparser.Expression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.codapro.api.model.DataVector;
+import de.codapro.components.core.math.FormulaEvaluator;
+import de.codapro.components.core.math.MedianFilter;
+import de.codapro.components.core.math.SimpleMovingAverage;
+import de.codapro.components.core.math.TupleFormulaEvaluator;
+
+/**
+ * Per-vector costs of the windowed math components. Each invocation pushes
+ *   {@link ComponentBenchmark#VECTORS} fresh vectors through a newly
+ *   initialized component, results are reported per vector.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComponentBenchmark {
+	static final int VECTORS = 4096;
+
+	private static final int COLUMNS = 4;
+
+	@State(Scope.Thread)
+	public static class Input {
+		private final DataVector template = Vectors.of(COLUMNS);
+
+		private MemoryStream source;
+
+		private MemoryStream sink;
+
+		@Setup(Level.Invocation)
+		public void fill() {
+			source = MemoryStream.source();
+			source.setHeader(Vectors.header(COLUMNS));
+			Vectors.fill(source, template, VECTORS);
+			sink = MemoryStream.sink();
+		}
+
+		<T> ComponentHarness<T> connect(final T component) {
+			return new ComponentHarness<>(component)
+				.stream("input-stream", source)
+				.stream("output-stream", sink);
+		}
+
+		/**
+		 * Hands all source vectors to the component's {@code @OnProcess} method.
+		 *
+		 * @return The number of processed vectors.
+		 */
+		long drain(final ComponentHarness<?> harness) throws Exception {
+			long count = 0;
+
+			while(!source.isEmpty()) {
+				harness.process(source.get());
+				++count;
+			}
+
+			return count;
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Window {
+		@Param({"5", "51", "501"})
+		private int size;
+	}
+
+	/**
+	 * The median filter reads its input itself, so it is driven through its
+	 *   {@code @OnExecute} loop until the source is exhausted.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(VECTORS)
+	public long medianFilter(final Input input, final Window window) throws Exception {
+		final ComponentHarness<MedianFilter> harness = input.connect(new MedianFilter())
+			.set("filter-size", window.size)
+			.set("results", new String[] {"median"})
+			.columns("columns", "c0");
+
+		harness.init();
+		harness.execute();
+
+		return input.sink.getAppended();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(VECTORS)
+	public long simpleMovingAverage(final Input input, final Window window) throws Exception {
+		final ComponentHarness<SimpleMovingAverage> harness = input.connect(new SimpleMovingAverage())
+			.set("filter-size", window.size)
+			.set("results", new String[] {"mean"})
+			.columns("columns", "c0");
+
+		harness.init();
+		input.drain(harness);
+		harness.finish();
+
+		return input.sink.getAppended();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(VECTORS)
+	public long formulaEvaluator(final Input input) throws Exception {
+		final ComponentHarness<FormulaEvaluator> harness = input.connect(new FormulaEvaluator())
+			.set("formulas", new Expression[] {new Expression("c0 * 2 + c1"), new Expression("sqrt(c2^2 + c3^2)")})
+			.set("result-column-names", new String[] {"r0", "r1"});
+
+		harness.init();
+		return input.drain(harness);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(VECTORS)
+	public long tupleFormulaEvaluator(final Input input, final Window window) throws Exception {
+		final ComponentHarness<TupleFormulaEvaluator> harness = input.connect(new TupleFormulaEvaluator())
+			.set("formulas", new Expression[] {new Expression("c0(0) - c0(" + (window.size - 1) + ")")})
+			.set("result-column-names", new String[] {"slope"})
+			.set("nans", new double[] {Double.NaN})
+			.set("capacity", window.size)
+			.columns("tuple-column-names", "c0");
+
+		harness.init();
+		return input.drain(harness);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(VECTORS)
+	public long tupleFormulaEvaluatorAggregates(final Input input, final Window window) throws Exception {
+		final ComponentHarness<TupleFormulaEvaluator> harness = input.connect(new TupleFormulaEvaluator())
+			.set("formulas", new Expression[] {new Expression("mean(c0) + sqrt(var(c0))"), new Expression("slope(c0)")})
+			.set("result-column-names", new String[] {"band", "slope"})
+			.set("nans", new double[] {Double.NaN, Double.NaN})
+			.set("capacity", window.size)
+			.columns("tuple-column-names", "c0");
+
+		harness.init();
+		return input.drain(harness);
+	}
+}
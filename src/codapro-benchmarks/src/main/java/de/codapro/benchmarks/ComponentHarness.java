@@ -0,0 +1,192 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.benchmarks;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.inject.Named;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.slf4j.LoggerFactory;
+
+import de.codapro.api.annotations.ColumnId;
+import de.codapro.api.annotations.Input;
+import de.codapro.api.annotations.Log;
+import de.codapro.api.annotations.OnExecute;
+import de.codapro.api.annotations.OnFinish;
+import de.codapro.api.annotations.OnInit;
+import de.codapro.api.annotations.OnProcess;
+import de.codapro.api.annotations.Output;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.Stream;
+
+/**
+ * Drives a single component without a pipeline, so a benchmark measures the
+ *   component's own methods. Parameters and streams are addressed by their
+ *   annotated names, not by field names.
+ */
+final class ComponentHarness<T> {
+	private final T component;
+
+	private final Map<String, Stream> streams = new HashMap<>();
+
+	private final Method process;
+
+	ComponentHarness(final T component) {
+		this.component = component;
+
+		final List<Method> processMethods = MethodUtils.getMethodsListWithAnnotation(component.getClass(), OnProcess.class, true, true);
+		this.process = processMethods.isEmpty() ? null : accessible(processMethods.get(0));
+
+		for(final Field field : FieldUtils.getFieldsListWithAnnotation(component.getClass(), Log.class)) {
+			write(field, LoggerFactory.getLogger(component.getClass()));
+		}
+	}
+
+	T getComponent() {
+		return component;
+	}
+
+	/**
+	 * Sets an {@link Input} parameter to an already converted value.
+	 */
+	ComponentHarness<T> set(final String name, final Object value) {
+		write(findField(Input.class, name), value);
+		return this;
+	}
+
+	/**
+	 * Connects a stream, it is injected into fields and method parameters of that name.
+	 */
+	ComponentHarness<T> stream(final String name, final Stream stream) {
+		streams.put(name, stream);
+
+		for(final Field field : FieldUtils.getAllFieldsList(component.getClass())) {
+			if(Stream.class.isAssignableFrom(field.getType()) && name.equals(streamName(field))) {
+				write(field, stream);
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Resolves a {@link ColumnId} parameter against the header of its stream.
+	 */
+	ComponentHarness<T> columns(final String name, final String... columns) {
+		final Field field = findField(ColumnId.class, name);
+		final Stream stream = streams.get(field.getAnnotation(ColumnId.class).stream());
+		final int [] indices = new int[columns.length];
+
+		for(int i = 0; i < columns.length; ++i) {
+			indices[i] = stream.getHeader().indexOf(columns[i]);
+		}
+
+		write(field, field.getType() == int.class ? (Object)indices[0] : indices);
+		return this;
+	}
+
+	void init() throws Exception {
+		invokeAll(OnInit.class);
+	}
+
+	void execute() throws Exception {
+		invokeAll(OnExecute.class);
+	}
+
+	void process(final DataVector vector) throws Exception {
+		invoke(process, vector);
+	}
+
+	void finish() throws Exception {
+		invokeAll(OnFinish.class);
+	}
+
+	private static Method accessible(final Method method) {
+		method.setAccessible(true);
+		return method;
+	}
+
+	private Field findField(final Class<? extends Annotation> annotation, final String name) {
+		for(final Field field : FieldUtils.getFieldsListWithAnnotation(component.getClass(), annotation)) {
+			final Annotation instance = field.getAnnotation(annotation);
+			final String fieldName = instance instanceof Input ? ((Input)instance).name() : ((ColumnId)instance).name();
+
+			if(fieldName.equals(name)) {
+				return field;
+			}
+		}
+
+		throw new IllegalArgumentException(component.getClass().getSimpleName() + " has no parameter " + name + ".");
+	}
+
+	private void invokeAll(final Class<? extends Annotation> annotation) throws Exception {
+		for(final Method method : MethodUtils.getMethodsListWithAnnotation(component.getClass(), annotation, true, true)) {
+			invoke(accessible(method), null);
+		}
+	}
+
+	private void invoke(final Method method, final DataVector vector) throws Exception {
+		final Parameter [] parameters = method.getParameters();
+		final Object [] arguments = new Object[parameters.length];
+
+		for(int i = 0; i < parameters.length; ++i) {
+			final Named named = parameters[i].getAnnotation(Named.class);
+			arguments[i] = named == null ? vector : streams.get(named.value());
+		}
+
+		try {
+			method.invoke(component, arguments);
+		} catch(final InvocationTargetException e) {
+			throw e.getCause() instanceof Exception ? (Exception)e.getCause() : e;
+		}
+	}
+
+	private static String streamName(final Field field) {
+		if(field.isAnnotationPresent(Named.class)) {
+			return field.getAnnotation(Named.class).value();
+		}
+
+		if(field.isAnnotationPresent(Input.class)) {
+			return field.getAnnotation(Input.class).name();
+		}
+
+		if(field.isAnnotationPresent(Output.class)) {
+			return field.getAnnotation(Output.class).name();
+		}
+
+		return null;
+	}
+
+	private void write(final Field field, final Object value) {
+		try {
+			FieldUtils.writeField(field, component, value, true);
+		} catch(final IllegalAccessException e) {
+			throw new IllegalStateException("Cannot set " + field.getName() + ".", e);
+		}
+	}
+}
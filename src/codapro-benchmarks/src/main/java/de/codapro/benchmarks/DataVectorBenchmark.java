@@ -0,0 +1,109 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.codapro.api.model.DataVector;
+
+/**
+ * Access and copy costs of a single data vector.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DataVectorBenchmark {
+	@Param({"8", "64"})
+	private int size;
+
+	private DataVector vector;
+
+	private double [] values;
+
+	@Setup
+	public void setup() {
+		vector = Vectors.of(size);
+		values = new double[size];
+	}
+
+	@Benchmark
+	public DataVector append() {
+		final DataVector result = new DataVector(size);
+
+		for(int i = 0; i < size; ++i) {
+			result.append((double)i);
+		}
+
+		return result;
+	}
+
+	@Benchmark
+	public DataVector appendAll() {
+		final DataVector result = new DataVector(size);
+		result.appendAll(values);
+		return result;
+	}
+
+	@Benchmark
+	public void get(final Blackhole blackhole) {
+		for(int i = 0; i < size; ++i) {
+			blackhole.consume(vector.get(i));
+		}
+	}
+
+	@Benchmark
+	public DataVector set() {
+		for(int i = 0; i < size; ++i) {
+			vector.set(i, (double)i);
+		}
+
+		return vector;
+	}
+
+	@Benchmark
+	public Object cloneVector() throws CloneNotSupportedException {
+		return vector.clone();
+	}
+
+	@Benchmark
+	public DataVector copy() {
+		return vector.copy();
+	}
+
+	@Benchmark
+	public DataVector copyOnWrite() {
+		return vector.copyOnWrite();
+	}
+}
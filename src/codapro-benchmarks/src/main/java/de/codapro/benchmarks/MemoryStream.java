@@ -0,0 +1,113 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.benchmarks;
+
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
+
+/**
+ * Single-threaded, unbounded stream for feeding components. Reading from an
+ *   empty stream fails like reading from a closed one. If created as sink,
+ *   appended vectors are only counted.
+ */
+final class MemoryStream implements Stream {
+	private final ArrayDeque<DataVector> data = new ArrayDeque<>();
+
+	private final boolean sink;
+
+	private StreamHeader header = new StreamHeader();
+
+	private boolean closed = false;
+
+	private long appended = 0;
+
+	private MemoryStream(final boolean sink) {
+		this.sink = sink;
+	}
+
+	static MemoryStream source() {
+		return new MemoryStream(false);
+	}
+
+	static MemoryStream sink() {
+		return new MemoryStream(true);
+	}
+
+	@Override
+	public void append(final DataVector vector) {
+		++appended;
+
+		if(!sink) {
+			data.add(vector);
+		}
+	}
+
+	@Override
+	public void close() {
+		markClosed();
+	}
+
+	@Override
+	public DataVector get() {
+		final DataVector vector = data.poll();
+
+		if(vector == null) {
+			throw new NoSuchElementException("Stream is empty.");
+		}
+
+		return vector;
+	}
+
+	/**
+	 * @return Number of vectors appended so far.
+	 */
+	long getAppended() {
+		return appended;
+	}
+
+	@Override
+	public StreamHeader getHeader() {
+		return header;
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return data.isEmpty();
+	}
+
+	@Override
+	public void markClosed() {
+		closed = true;
+	}
+
+	@Override
+	public StreamHeader setHeader(final StreamHeader header) {
+		this.header = header;
+		return header;
+	}
+}
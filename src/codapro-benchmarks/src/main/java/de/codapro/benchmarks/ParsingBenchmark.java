@@ -0,0 +1,82 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.benchmarks;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.codapro.api.model.StreamHeader;
+import de.codapro.components.core.utils.StringConverter;
+
+/**
+ * Per-value costs of reading text input: column lookup by name and parsing of
+ *   the cell values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ParsingBenchmark {
+	@Param({"8", "64"})
+	private int columns;
+
+	@Param({"%d", "%f", "%i", "%b"})
+	private String conversion;
+
+	private StreamHeader header;
+
+	private String lastColumn;
+
+	private Function<String, Object> parser;
+
+	private String value;
+
+	@Setup
+	public void setup() {
+		header = Vectors.header(columns);
+		lastColumn = "c" + (columns - 1);
+		parser = StringConverter.getFunction(conversion, Locale.GERMANY);
+		value = "%b".equals(conversion) ? "true" : "%i".equals(conversion) ? "12345" : "12345,678";
+	}
+
+	@Benchmark
+	public int indexOf() {
+		return header.indexOf(lastColumn);
+	}
+
+	@Benchmark
+	public Object parse() {
+		return parser.apply(value);
+	}
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.model.BufferingStream;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.DoubleRingBuffer;
+import de.codapro.api.model.MarkingStream;
+import de.codapro.api.model.RingBufferImpl;
+
+/**
+ * Append and access costs of the ring buffers and the buffering streams built
+ *   on them. Buffers are filled during setup, so appends measure the steady
+ *   state where every append evicts the eldest element.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RingBufferBenchmark {
+	@Param({"5", "51", "501", "4096"})
+	private int capacity;
+
+	private RingBufferImpl<DataVector> ring;
+
+	private DoubleRingBuffer doubles;
+
+	private BufferingStream buffering;
+
+	private MarkingStream marking;
+
+	private DataVector vector;
+
+	private int counter;
+
+	@Setup
+	public void setup() throws ConversionException {
+		vector = Vectors.of(4);
+		ring = new RingBufferImpl<>(DataVector.class, capacity);
+		doubles = new DoubleRingBuffer(capacity);
+		buffering = new BufferingStream(MemoryStream.sink(), capacity);
+		marking = new MarkingStream(MemoryStream.sink(), capacity);
+
+		for(int i = 0; i < capacity; ++i) {
+			ring.append(vector);
+			doubles.append(i);
+			buffering.append(vector);
+			marking.append(vector.copy(), false);
+		}
+	}
+
+	@Benchmark
+	public RingBufferImpl<DataVector> ringAppend() throws ConversionException {
+		ring.append(vector);
+		return ring;
+	}
+
+	@Benchmark
+	public DataVector ringGet() {
+		return ring.get(++counter % capacity);
+	}
+
+	@Benchmark
+	public DoubleRingBuffer doubleAppend() {
+		doubles.append(++counter);
+		return doubles;
+	}
+
+	@Benchmark
+	public double doubleGet() {
+		return doubles.get(++counter % capacity);
+	}
+
+	@Benchmark
+	public double doubleSum() {
+		return doubles.sum();
+	}
+
+	@Benchmark
+	public BufferingStream bufferingAppend() throws ConversionException {
+		buffering.append(vector);
+		return buffering;
+	}
+
+	/**
+	 * The marking stream appends the marking to each vector it releases, so
+	 *   a single vector cannot be reused.
+	 */
+	@Benchmark
+	public MarkingStream markingAppend() throws ConversionException {
+		marking.append(new DataVector(1), (++counter & 15) == 0);
+		return marking;
+	}
+
+	@Benchmark
+	public MarkingStream markPast() {
+		marking.markPast();
+		return marking;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.benchmarks;
+
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.StreamHeader;
+
+/**
+ * Test data shared by the benchmarks.
+ */
+final class Vectors {
+	/**
+	 * Creates a header with the columns {@code c0} to {@code c<size-1>}.
+	 */
+	static StreamHeader header(final int size) {
+		final StreamHeader header = new StreamHeader();
+
+		for(int i = 0; i < size; ++i) {
+			header.add("c" + i);
+		}
+
+		return header;
+	}
+
+	/**
+	 * Creates a vector of {@code size} doubles.
+	 */
+	static DataVector of(final int size) {
+		final DataVector vector = new DataVector(size);
+
+		for(int i = 0; i < size; ++i) {
+			vector.append(i + 0.5);
+		}
+
+		return vector;
+	}
+
+	/**
+	 * Fills a source stream with copies of {@code template} whose first column
+	 *   is a saw tooth, so sorting and windowed computations see changing values.
+	 */
+	static MemoryStream fill(final MemoryStream stream, final DataVector template, final int count) {
+		for(int i = 0; i < count; ++i) {
+			final DataVector vector = template.copy();
+			vector.set(0, (double)(i % 97));
+			stream.append(vector);
+		}
+
+		return stream;
+	}
+
+	private Vectors() {
+	}
+}
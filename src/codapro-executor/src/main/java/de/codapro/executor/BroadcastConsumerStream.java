@@ -0,0 +1,104 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.model.BatchConversionException;
+import de.codapro.api.model.BroadcastStream;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
+
+/**
+ * The input stream of one consumer of a {@link BroadcastStream}. Tells the
+ *   producer's {@link NotifyingStream} when the consumer has read, so a
+ *   producer waiting for the slowest consumer is scheduled again.
+ */
+final class BroadcastConsumerStream implements Stream {
+	private final Stream delegate;
+
+	private final NotifyingStream producerStream;
+
+	/**
+	 * @param delegate The consumer's view of the broadcast stream.
+	 * @param producerStream The stream the producer appends to.
+	 */
+	BroadcastConsumerStream(final Stream delegate, final NotifyingStream producerStream) {
+		this.delegate = delegate;
+		this.producerStream = producerStream;
+	}
+
+	@Override
+	public void append(final DataVector data) throws ConversionException {
+		delegate.append(data);
+	}
+
+	@Override
+	public void close() {
+		markClosed();
+	}
+
+	@Override
+	public DataVector get() {
+		final DataVector data = delegate.get();
+		producerStream.spaceFreed();
+		return data;
+	}
+
+	@Override
+	public int getBatch(final DataBatch batch) throws BatchConversionException {
+		final int rows = delegate.getBatch(batch);
+		producerStream.spaceFreed();
+		return rows;
+	}
+
+	@Override
+	public StreamHeader getHeader() {
+		return delegate.getHeader();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return delegate.isClosed();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return delegate.isEmpty();
+	}
+
+	/**
+	 * Closes the whole broadcast and notifies all its consumers.
+	 */
+	@Override
+	public void markClosed() {
+		producerStream.markClosed();
+	}
+
+	@Override
+	public StreamHeader setHeader(final StreamHeader header) {
+		return delegate.setHeader(header);
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+}
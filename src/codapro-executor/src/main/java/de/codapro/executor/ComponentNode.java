@@ -0,0 +1,712 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import javax.inject.Named;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.apache.commons.lang3.reflect.MethodUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.annotations.Broadcast;
+import de.codapro.api.annotations.ColumnId;
+import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
+import de.codapro.api.annotations.GroupIndex;
+import de.codapro.api.annotations.GroupIsolated;
+import de.codapro.api.annotations.Input;
+import de.codapro.api.annotations.Log;
+import de.codapro.api.annotations.OnEnterGroup;
+import de.codapro.api.annotations.OnExecute;
+import de.codapro.api.annotations.OnFinish;
+import de.codapro.api.annotations.OnInit;
+import de.codapro.api.annotations.OnLeaveGroup;
+import de.codapro.api.annotations.OnProcess;
+import de.codapro.api.annotations.Output;
+import de.codapro.api.annotations.Projection;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.RingStream;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.Value;
+import de.codapro.executor.metrics.ComponentMetrics;
+
+/**
+ * A component instance within a {@link Pipeline}. The node knows the
+ *   component's annotated fields and lifecycle methods, injects streams,
+ *   values and loggers, and calls the lifecycle methods.
+ */
+public final class ComponentNode {
+	private static final Logger log = LoggerFactory.getLogger(ComponentNode.class);
+
+	/**
+	 * Name of the default output stream, see {@link OnProcess#dest()}.
+	 */
+	static final String DEFAULT_OUTPUT = "output-stream";
+
+	private final String name;
+
+	private final Object component;
+
+	private final Pipeline pipeline;
+
+	/**
+	 * Names of the streams ending at the component.
+	 */
+	private final Set<String> sinkNames = new LinkedHashSet<>();
+
+	/**
+	 * Names of the streams produced by the component.
+	 */
+	private final Set<String> sourceNames = new LinkedHashSet<>();
+
+	private final Map<String, Stream> inputs = new HashMap<>();
+
+	private final Map<String, Stream> outputs = new HashMap<>();
+
+	/**
+	 * Configured column names by {@link ColumnId#name()}.
+	 */
+	private final Map<String, String []> columnNames = new HashMap<>();
+
+	/**
+	 * Components producing the connected input streams.
+	 */
+	private final Set<ComponentNode> producers = new LinkedHashSet<>();
+
+	private final List<Method> initMethods;
+
+	private final List<Method> executeMethods;
+
+	private final List<Method> enterGroupMethods;
+
+	private final List<Method> leaveGroupMethods;
+
+	private final List<Method> finishMethods;
+
+	/**
+	 * The {@link GroupIndex} fields, set before the {@link OnEnterGroup} methods are called.
+	 */
+	private final List<Field> groupIndexFields;
+
+	/**
+	 * The {@link OnProcess} method or {@code null}.
+	 */
+	private final Method processMethod;
+
+	/**
+	 * Records the calls of the process method, {@code null} if disabled.
+	 */
+	private ComponentMetrics metrics;
+
+	ComponentNode(final Pipeline pipeline, final String name, final Object component) {
+		final Class<?> type = component.getClass();
+		final Component description = type.getAnnotation(Component.class);
+
+		if(description == null) {
+			throw new IllegalArgumentException("Class " + type.getName() + " is not annotated as component.");
+		}
+
+		this.pipeline = pipeline;
+		this.name = name;
+		this.component = component;
+
+		Arrays.stream(description.sinks()).map(Input::name).forEach(sinkNames::add);
+		Arrays.stream(description.sources()).map(Output::name).forEach(sourceNames::add);
+
+		for(final Field field : FieldUtils.getAllFieldsList(type)) {
+			if(Stream.class.isAssignableFrom(field.getType())) {
+				if(field.isAnnotationPresent(Input.class)) {
+					sinkNames.add(field.getAnnotation(Input.class).name());
+				} else if(field.isAnnotationPresent(Output.class)) {
+					sourceNames.add(field.getAnnotation(Output.class).name());
+				}
+			}
+		}
+
+		initMethods = findMethods(OnInit.class);
+		executeMethods = findMethods(OnExecute.class);
+		enterGroupMethods = findMethods(OnEnterGroup.class);
+		leaveGroupMethods = findMethods(OnLeaveGroup.class);
+		finishMethods = findMethods(OnFinish.class);
+		groupIndexFields = FieldUtils.getFieldsListWithAnnotation(type, GroupIndex.class);
+
+		final List<Method> processMethods = findMethods(OnProcess.class);
+		if(processMethods.size() > 1) {
+			throw new IllegalArgumentException("Component " + name + " has more than one process method.");
+		}
+
+		if(!processMethods.isEmpty() && !executeMethods.isEmpty()) {
+			throw new IllegalArgumentException("Component " + name + " has both, process and execute methods.");
+		}
+
+		processMethod = processMethods.isEmpty() ? null : processMethods.get(0);
+	}
+
+	/**
+	 * @return The component instance.
+	 */
+	public Object getComponent() {
+		return component;
+	}
+
+	/**
+	 * @return The component's name within the pipeline.
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Sets a configuration parameter, i.e. an {@link Input} field or the column
+	 *   names of a {@link ColumnId} field. Strings are converted by the
+	 *   pipeline's converters, see {@link Pipeline#registerConverter(org.apache.commons.beanutils.Converter)}.
+	 *
+	 * @param parameter The parameter's name.
+	 * @param value The value, column ids take a column name or an array of names.
+	 * @return This node.
+	 * @throws IllegalArgumentException Iff there is no such parameter or the
+	 *   value cannot be converted.
+	 */
+	public ComponentNode set(final String parameter, final Object value) {
+		final Field columnId = findField(ColumnId.class, id -> id.name().equals(parameter));
+		if(columnId != null) {
+			columnNames.put(parameter, value instanceof String [] ? ((String [])value).clone() : new String [] {String.valueOf(value)});
+			return this;
+		}
+
+		final Field field = findField(Input.class, input -> input.name().equals(parameter));
+		if(field == null) {
+			throw new IllegalArgumentException("Component " + name + " has no parameter " + parameter + ".");
+		}
+
+		if(Stream.class.isAssignableFrom(field.getType())) {
+			throw new IllegalArgumentException("Parameter " + parameter + " of component " + name + " is a stream and has to be connected.");
+		}
+
+		if(Value.class.isAssignableFrom(field.getType())) {
+			final Value<Object> constant = new Value<>();
+			constant.set(pipeline.convert(value, field.getAnnotation(Input.class).type()));
+			write(field, constant);
+		} else {
+			write(field, pipeline.convert(value, field.getType()));
+		}
+
+		return this;
+	}
+
+	@Override
+	public String toString() {
+		return "ComponentNode [name=" + name + ", component=" + component.getClass().getSimpleName() + "]";
+	}
+
+	void connectInput(final String streamName, final Stream stream, final ComponentNode producer) {
+		if(!sinkNames.contains(streamName)) {
+			throw new IllegalArgumentException("Component " + name + " has no input stream " + streamName + ".");
+		}
+
+		if(inputs.putIfAbsent(streamName, stream) != null) {
+			throw new IllegalArgumentException("Input stream " + streamName + " of component " + name + " is already connected.");
+		}
+
+		producers.add(producer);
+	}
+
+	void connectOutput(final String streamName, final Stream stream) {
+		if(!sourceNames.contains(streamName)) {
+			throw new IllegalArgumentException("Component " + name + " has no output stream " + streamName + ".");
+		}
+
+		if(outputs.putIfAbsent(streamName, stream) != null) {
+			throw new IllegalArgumentException("Output stream " + streamName + " of component " + name + " is already connected.");
+		}
+	}
+
+	void setMetrics(final ComponentMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Replaces an already connected stream, e.g. by a {@link FusedStream}.
+	 */
+	void replaceStream(final String streamName, final Stream stream) {
+		if(inputs.replace(streamName, stream) == null && outputs.replace(streamName, stream) == null) {
+			throw new IllegalArgumentException("Stream " + streamName + " of component " + name + " is not connected.");
+		}
+	}
+
+	/**
+	 * @return Iff the component can be fused with a producer and a consumer
+	 *   of the same kind: it processes a single input stream and passes the
+	 *   vectors on to a single output stream.
+	 */
+	boolean isFusable() {
+		if(processMethod == null) {
+			return false;
+		}
+
+		final OnProcess process = processMethod.getAnnotation(OnProcess.class);
+
+		return process.value().length == 1
+			&& Arrays.equals(process.dest(), new String [] {DEFAULT_OUTPUT})
+			&& sinkNames.equals(Collections.singleton(process.value()[0]))
+			&& sourceNames.equals(Collections.singleton(DEFAULT_OUTPUT));
+	}
+
+	/**
+	 * Replaces {@code producer} by {@code replacement} as producer of one of
+	 *   this node's input streams.
+	 */
+	void replaceProducer(final ComponentNode producer, final ComponentNode replacement) {
+		producers.remove(producer);
+		producers.add(replacement);
+	}
+
+	/**
+	 * @return The component's {@link Broadcast} annotation if its broadcast
+	 *   input is one of its input streams, otherwise {@code null}.
+	 */
+	Broadcast getBroadcast() {
+		final Broadcast broadcast = component.getClass().getAnnotation(Broadcast.class);
+
+		return broadcast != null && sinkNames.contains(broadcast.value()) ? broadcast : null;
+	}
+
+	/**
+	 * @return The configured names of the {@link ColumnId} fields if the
+	 *   component is marked with {@link DeclaredColumns}, otherwise {@code null}
+	 *   since it may access any column.
+	 */
+	Set<String> getDeclaredColumns() {
+		if(!component.getClass().isAnnotationPresent(DeclaredColumns.class)) {
+			return null;
+		}
+
+		final Set<String> columns = new HashSet<>();
+		columnNames.values().forEach(names -> columns.addAll(Arrays.asList(names)));
+		return columns;
+	}
+
+	/**
+	 * @return Iff the component has a {@link Projection} field for the output stream.
+	 */
+	boolean hasProjection(final String output) {
+		return findField(Projection.class, projection -> projection.value().equals(output)) != null;
+	}
+
+	/**
+	 * Injects the used columns into the {@link Projection} field of the output stream.
+	 *
+	 * @param columns The used column names or {@code null} if unknown.
+	 */
+	void setProjection(final String output, final Set<String> columns) {
+		final Field field = findField(Projection.class, projection -> projection.value().equals(output));
+
+		if(field != null) {
+			write(field, columns == null ? null : Collections.unmodifiableSet(columns));
+		}
+	}
+
+	/**
+	 * @return Iff the component is {@link GroupIsolated} and its process method
+	 *   reads a single input stream, so its groups can be processed in parallel.
+	 */
+	boolean isGroupIsolated() {
+		return processMethod != null
+			&& component.getClass().isAnnotationPresent(GroupIsolated.class)
+			&& processMethod.getAnnotation(OnProcess.class).value().length == 1;
+	}
+
+	/**
+	 * Creates a node for another instance of the component. The instance is a
+	 *   shallow copy of this node's component, it reads the same input streams
+	 *   but appends to the streams given by {@code outputStreams}. Call this
+	 *   only after {@link #prepare()}.
+	 *
+	 * @param outputStreams Gives the stream for each output stream name.
+	 * @throws IllegalStateException Iff the component cannot be instantiated.
+	 */
+	ComponentNode isolate(final Function<String, Stream> outputStreams) {
+		final Object copy;
+
+		try {
+			final Constructor<?> constructor = component.getClass().getDeclaredConstructor();
+			constructor.setAccessible(true);
+			copy = constructor.newInstance();
+
+			for(final Field field : FieldUtils.getAllFieldsList(component.getClass())) {
+				if(!Modifier.isStatic(field.getModifiers())) {
+					FieldUtils.writeField(field, copy, read(field), true);
+				}
+			}
+		} catch(final ReflectiveOperationException e) {
+			throw new IllegalStateException("Cannot create another instance of component " + name + ".", e);
+		}
+
+		final ComponentNode node = new ComponentNode(pipeline, name, copy);
+		node.inputs.putAll(inputs);
+		outputs.keySet().forEach(output -> node.outputs.put(output, outputStreams.apply(output)));
+		node.columnNames.putAll(columnNames);
+		node.metrics = metrics;
+		node.prepare();
+
+		return node;
+	}
+
+	/**
+	 * Uses {@code value} for the {@link Input} value {@code inputName}.
+	 */
+	void connectValue(final String inputName, final Value<?> value) {
+		final Field field = findField(Input.class, input -> input.name().equals(inputName));
+
+		if(field == null || !Value.class.isAssignableFrom(field.getType())) {
+			throw new IllegalArgumentException("Component " + name + " has no input value " + inputName + ".");
+		}
+
+		write(field, value);
+	}
+
+	/**
+	 * @return The {@link Output} value {@code outputName}, it is created if the
+	 *   component did not do so.
+	 */
+	Value<?> getOutputValue(final String outputName) {
+		final Field field = findField(Output.class, output -> output.name().equals(outputName));
+
+		if(field == null || !Value.class.isAssignableFrom(field.getType())) {
+			throw new IllegalArgumentException("Component " + name + " has no output value " + outputName + ".");
+		}
+
+		Value<?> value = (Value<?>)read(field);
+		if(value == null) {
+			value = new Value<>();
+			write(field, value);
+		}
+
+		return value;
+	}
+
+	Set<ComponentNode> getProducers() {
+		return Collections.unmodifiableSet(producers);
+	}
+
+	Method getProcessMethod() {
+		return processMethod;
+	}
+
+	Collection<Stream> getInputs() {
+		return inputs.values();
+	}
+
+	Collection<Stream> getOutputs() {
+		return outputs.values();
+	}
+
+	boolean isExecuting() {
+		return !executeMethods.isEmpty();
+	}
+
+	/**
+	 * Resolves all streams used by the component and injects streams,
+	 *   values and loggers. Streams are resolved here, so the maps are not
+	 *   modified while the pipeline is running.
+	 *
+	 * @throws IllegalStateException Iff a required input stream is not connected.
+	 */
+	void prepare() {
+		final Component description = component.getClass().getAnnotation(Component.class);
+
+		for(final Input sink : description.sinks()) {
+			if(sink.required() && !inputs.containsKey(sink.name())) {
+				throw new IllegalStateException("Input stream " + sink.name() + " of component " + name + " is not connected.");
+			}
+		}
+
+		sinkNames.forEach(this::stream);
+		sourceNames.forEach(this::stream);
+
+		if(processMethod != null) {
+			final OnProcess process = processMethod.getAnnotation(OnProcess.class);
+			Arrays.stream(process.value()).forEach(this::stream);
+			Arrays.stream(process.dest()).forEach(this::stream);
+		}
+
+		for(final List<Method> methods : Arrays.asList(initMethods, executeMethods, enterGroupMethods, leaveGroupMethods, finishMethods, Collections.singletonList(processMethod))) {
+			for(final Method method : methods) {
+				if(method != null) {
+					Arrays.stream(method.getParameters())
+						  .filter(parameter -> parameter.isAnnotationPresent(Named.class))
+						  .forEach(parameter -> stream(parameter.getAnnotation(Named.class).value()));
+				}
+			}
+		}
+
+		for(final Field field : FieldUtils.getAllFieldsList(component.getClass())) {
+			if(field.isAnnotationPresent(Log.class) && Logger.class.isAssignableFrom(field.getType())) {
+				write(field, LoggerFactory.getLogger(component.getClass()));
+			} else if(Stream.class.isAssignableFrom(field.getType())) {
+				final String streamName = streamNameOf(field);
+
+				if(streamName != null) {
+					write(field, stream(streamName));
+				}
+			} else if(Value.class.isAssignableFrom(field.getType()) && field.isAnnotationPresent(Output.class)) {
+				getOutputValue(field.getAnnotation(Output.class).name());
+			}
+		}
+	}
+
+	/**
+	 * Resolves the column ids against the stream headers and calls the
+	 *   {@link OnInit} methods. The headers of the input streams have to be
+	 *   complete, i.e. the producers have to be initialized.
+	 */
+	void initialize() throws Exception {
+		for(final Field field : FieldUtils.getFieldsListWithAnnotation(component.getClass(), ColumnId.class)) {
+			final ColumnId id = field.getAnnotation(ColumnId.class);
+			final String [] names = columnNames.get(id.name());
+
+			if(names != null) {
+				write(field, resolveColumns(id, names, field.getType()));
+			}
+		}
+
+		invokeAll(initMethods);
+	}
+
+	void execute() throws Exception {
+		invokeAll(executeMethods);
+	}
+
+	/**
+	 * @param group Index of the group within the input stream.
+	 */
+	void enterGroup(final int group) throws Exception {
+		for(final Field field : groupIndexFields) {
+			write(field, group);
+		}
+
+		invokeAll(enterGroupMethods);
+	}
+
+	void leaveGroup() throws Exception {
+		invokeAll(leaveGroupMethods);
+	}
+
+	void process(final DataVector [] vectors) throws Exception {
+		if(metrics == null) {
+			invoke(processMethod, vectors);
+			return;
+		}
+
+		final long start = System.nanoTime();
+		try {
+			invoke(processMethod, vectors);
+		} finally {
+			metrics.processed(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Calls the {@link OnFinish} methods and closes all output streams.
+	 */
+	void finish() throws Exception {
+		try {
+			invokeAll(finishMethods);
+		} finally {
+			closeOutputs();
+		}
+	}
+
+	/**
+	 * Closes all streams of the component. Producers fail when appending
+	 *   to a closed stream, consumers see the end of their input.
+	 */
+	void abort() {
+		inputs.values().forEach(Stream::markClosed);
+		closeOutputs();
+	}
+
+	/**
+	 * Returns the stream with the given name. Unconnected inputs are empty
+	 *   and closed, unconnected outputs discard everything.
+	 */
+	Stream stream(final String streamName) {
+		Stream stream = inputs.get(streamName);
+
+		if(stream == null) {
+			stream = outputs.get(streamName);
+		}
+
+		if(stream == null) {
+			if(sinkNames.contains(streamName)) {
+				stream = new RingStream(1);
+				stream.markClosed();
+				inputs.put(streamName, stream);
+			} else {
+				if(!sourceNames.contains(streamName)) {
+					log.warn("Component {} uses the undeclared stream {}, its data is discarded.", name, streamName);
+				}
+
+				stream = new DiscardingStream();
+				outputs.put(streamName, stream);
+			}
+		}
+
+		return stream;
+	}
+
+	private void closeOutputs() {
+		outputs.values().forEach(Stream::markClosed);
+	}
+
+	private <A extends Annotation> Field findField(final Class<A> annotation, final Predicate<A> filter) {
+		for(final Field field : FieldUtils.getFieldsListWithAnnotation(component.getClass(), annotation)) {
+			if(filter.test(field.getAnnotation(annotation))) {
+				return field;
+			}
+		}
+
+		return null;
+	}
+
+	private List<Method> findMethods(final Class<? extends Annotation> annotation) {
+		final List<Method> methods = new ArrayList<>(MethodUtils.getMethodsListWithAnnotation(component.getClass(), annotation, true, true));
+		methods.forEach(method -> method.setAccessible(true));
+		return methods;
+	}
+
+	private void invokeAll(final List<Method> methods) throws Exception {
+		for(final Method method : methods) {
+			invoke(method);
+		}
+	}
+
+	/**
+	 * Calls a lifecycle method. Parameters annotated with {@link Named} get
+	 *   the stream of that name, all other parameters the given vectors in order.
+	 */
+	private void invoke(final Method method, final DataVector... vectors) throws Exception {
+		final Parameter [] parameters = method.getParameters();
+		final Object [] arguments = new Object[parameters.length];
+		int vector = 0;
+
+		for(int i = 0; i < parameters.length; ++i) {
+			final Named named = parameters[i].getAnnotation(Named.class);
+
+			if(named != null) {
+				arguments[i] = stream(named.value());
+			} else if(parameters[i].getType() == DataVector.class && vector < vectors.length) {
+				arguments[i] = vectors[vector++];
+			} else {
+				throw new IllegalStateException("Cannot resolve parameter " + parameters[i].getName() + " of " + method + ".");
+			}
+		}
+
+		try {
+			method.invoke(component, arguments);
+		} catch(final InvocationTargetException e) {
+			if(e.getCause() instanceof Exception) {
+				throw (Exception)e.getCause();
+			}
+
+			if(e.getCause() instanceof Error) {
+				throw (Error)e.getCause();
+			}
+
+			throw e;
+		}
+	}
+
+	private Object read(final Field field) {
+		try {
+			return FieldUtils.readField(field, component, true);
+		} catch(final IllegalAccessException e) {
+			throw new IllegalStateException("Cannot read field " + field.getName() + " of component " + name + ".", e);
+		}
+	}
+
+	private Object resolveColumns(final ColumnId id, final String [] names, final Class<?> type) throws ConversionException {
+		final Stream stream = stream(id.stream());
+		final int [] indices = new int[names.length];
+
+		for(int i = 0; i < names.length; ++i) {
+			indices[i] = stream.getHeader().indexOf(names[i]);
+
+			if(indices[i] == -1) {
+				throw new ConversionException("Stream " + id.stream() + " of component " + name + " has no column " + names[i] + ".");
+			}
+		}
+
+		if(type == int [].class) {
+			return indices;
+		}
+
+		if(names.length != 1) {
+			throw new IllegalArgumentException("Column id " + id.name() + " of component " + name + " takes exactly one column.");
+		}
+
+		return indices[0];
+	}
+
+	private String streamNameOf(final Field field) {
+		if(field.isAnnotationPresent(Named.class)) {
+			return field.getAnnotation(Named.class).value();
+		}
+
+		if(field.isAnnotationPresent(Input.class)) {
+			return field.getAnnotation(Input.class).name();
+		}
+
+		if(field.isAnnotationPresent(Output.class)) {
+			return field.getAnnotation(Output.class).name();
+		}
+
+		return null;
+	}
+
+	private void write(final Field field, final Object value) {
+		try {
+			FieldUtils.writeField(field, component, value, true);
+		} catch(final IllegalAccessException | IllegalArgumentException e) {
+			throw new IllegalArgumentException("Cannot set field " + field.getName() + " of component " + name + " to " + value + ".", e);
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import java.util.NoSuchElementException;
+
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
+
+/**
+ * Stream for outputs nobody is interested in. Appended vectors are released
+ *   immediately, reading always fails.
+ */
+final class DiscardingStream implements Stream {
+	private volatile boolean closed = false;
+
+	private volatile StreamHeader header = new StreamHeader();
+
+	@Override
+	public void append(final DataVector data) {
+		data.release();
+	}
+
+	@Override
+	public void close() {
+		markClosed();
+	}
+
+	@Override
+	public DataVector get() {
+		throw new NoSuchElementException("Stream is not connected.");
+	}
+
+	@Override
+	public StreamHeader getHeader() {
+		return header;
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return true;
+	}
+
+	@Override
+	public void markClosed() {
+		closed = true;
+	}
+
+	@Override
+	public StreamHeader setHeader(final StreamHeader header) {
+		this.header = header;
+		return header;
+	}
+}
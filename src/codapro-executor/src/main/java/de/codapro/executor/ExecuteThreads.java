@@ -0,0 +1,87 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the threads of {@code @OnExecute} components. On Java 21 and later
+ *   these are virtual threads, so blocking readers and writers do not tie up
+ *   a platform thread each. Older runtimes get named platform threads. The
+ *   virtual thread API is looked up reflectively as the project still targets
+ *   Java 11.
+ */
+final class ExecuteThreads {
+	private static final Method OF_VIRTUAL;
+
+	private static final Method NAME;
+
+	private static final Method UNSTARTED;
+
+	static {
+		Method ofVirtual = null;
+		Method name = null;
+		Method unstarted = null;
+
+		try {
+			final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+
+			ofVirtual = Thread.class.getMethod("ofVirtual");
+			name = builder.getMethod("name", String.class);
+			unstarted = builder.getMethod("unstarted", Runnable.class);
+		} catch(final ReflectiveOperationException e) {
+			ofVirtual = null;
+		}
+
+		OF_VIRTUAL = ofVirtual;
+		NAME = name;
+		UNSTARTED = unstarted;
+	}
+
+	private ExecuteThreads() {
+	}
+
+	/**
+	 * @return Iff the runtime supports virtual threads.
+	 */
+	static boolean isVirtualAvailable() {
+		return OF_VIRTUAL != null;
+	}
+
+	/**
+	 * Creates a new, unstarted thread.
+	 *
+	 * @param name The thread's name.
+	 * @param virtual Iff a virtual thread should be used if available.
+	 */
+	static Thread newThread(final String name, final boolean virtual, final Runnable task) {
+		if(virtual && isVirtualAvailable()) {
+			try {
+				final Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), name);
+				return (Thread)UNSTARTED.invoke(builder, task);
+			} catch(final ReflectiveOperationException e) {
+				// fall through and use a platform thread
+			}
+		}
+
+		final Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import java.util.NoSuchElementException;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
+
+/**
+ * Connects two fused process components. There is no queue, appending a
+ *   vector directly runs the consumer's process method on the producer's
+ *   thread. Closing the stream finishes the consumer.
+ *
+ * The consumer sees exactly the sequence of vectors and group sentinels it
+ *   would read from a queued stream, so its group hooks are called in the
+ *   same order relative to its data.
+ */
+final class FusedStream implements Stream {
+	private ProcessTask consumer;
+
+	private volatile boolean closed = false;
+
+	private volatile StreamHeader header = new StreamHeader();
+
+	@Override
+	public void append(final DataVector data) throws ConversionException {
+		if(closed) {
+			throw new ConversionException("Cannot append to a closed stream.");
+		}
+
+		try {
+			consumer.accept(data);
+		} catch(final Throwable t) {
+			closed = true;
+			consumer.fail(t);
+			throw new ConversionException("Fused component failed.", t);
+		}
+	}
+
+	@Override
+	public void close() {
+		markClosed();
+	}
+
+	@Override
+	public DataVector get() {
+		throw new NoSuchElementException("Fused streams cannot be read.");
+	}
+
+	@Override
+	public StreamHeader getHeader() {
+		return header;
+	}
+
+	@Override
+	public boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return true;
+	}
+
+	@Override
+	public void markClosed() {
+		if(closed) {
+			return;
+		}
+
+		closed = true;
+		consumer.complete();
+	}
+
+	@Override
+	public StreamHeader setHeader(final StreamHeader header) {
+		this.header = header;
+		return header;
+	}
+
+	ProcessTask getConsumer() {
+		return consumer;
+	}
+
+	void setConsumer(final ProcessTask consumer) {
+		this.consumer = consumer;
+	}
+}
@@ -0,0 +1,427 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.function.BooleanSupplier;
+
+import de.codapro.api.annotations.GroupIsolated;
+import de.codapro.api.annotations.OnProcess;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
+
+/**
+ * Processes the groups of a {@link GroupIsolated} component in parallel. Each
+ *   group in flight is handled by its own instance of the component, a
+ *   worker. The group hooks for entering a group are called in group order
+ *   on the dispatching thread, so they may read secondary inputs. The data
+ *   vectors and the hooks for leaving the group run as a separate task.
+ *
+ * Workers do not append to the real output streams but record their output.
+ *   The recordings are replayed to the outputs strictly in input order, so
+ *   consumers see exactly the sequence of a sequential run. Vectors outside
+ *   of groups are processed by a dedicated worker on the dispatching thread.
+ *
+ * Nested groups are passed to the worker of the enclosing group, their hooks
+ *   are called by the group's task.
+ *
+ * The dispatcher is not thread-safe. All methods except the group tasks are
+ *   called by the component's {@link ProcessTask}.
+ */
+final class GroupDispatcher {
+	/**
+	 * Output of a group or of a run of vectors outside of groups.
+	 */
+	private static final class Segment {
+		/**
+		 * The group's vectors, passed to its task.
+		 */
+		private final List<DataVector> input = new ArrayList<>();
+
+		/**
+		 * Output streams in the order of the appended vectors.
+		 */
+		private final List<Stream> streams = new ArrayList<>();
+
+		/**
+		 * The vectors appended to the output streams.
+		 */
+		private final List<DataVector> vectors = new ArrayList<>();
+
+		/**
+		 * Number of vectors already appended to the output streams.
+		 */
+		private int replayed = 0;
+
+		private volatile boolean complete = false;
+
+		private volatile Throwable failure;
+
+		private boolean isReplayed() {
+			return replayed == vectors.size();
+		}
+
+		private void record(final Stream stream, final DataVector vector) {
+			streams.add(stream);
+			vectors.add(vector);
+		}
+	}
+
+	/**
+	 * An instance of the component that records its output to a segment.
+	 */
+	private final class Worker {
+		private final ComponentNode node;
+
+		/**
+		 * Recording output streams in the order of {@link OnProcess#dest()}.
+		 */
+		private final Stream [] destinations;
+
+		private final DataVector [] vectors = new DataVector[1];
+
+		private Segment segment;
+
+		/**
+		 * Index of the worker's current group.
+		 */
+		private int group;
+
+		/**
+		 * Nesting depth within the current group.
+		 */
+		private int depth;
+
+		private Worker(final ComponentNode template) {
+			final Map<String, Stream> outputs = new HashMap<>();
+
+			this.node = template.isolate(name -> outputs.computeIfAbsent(name, n -> new RecordingStream(this, template.stream(n))));
+			this.destinations = new Stream[dest.length];
+
+			for(int i = 0; i < destinations.length; ++i) {
+				destinations[i] = node.stream(dest[i]);
+			}
+		}
+
+		/**
+		 * Processes a vector like a sequential {@link ProcessTask} would do.
+		 */
+		private void handle(final DataVector vector, final int group) throws Exception {
+			if(vector == DataVector.GROUP_START) {
+				forward(vector);
+				node.enterGroup(group);
+			} else if(vector == DataVector.GROUP_END) {
+				node.leaveGroup();
+				forward(vector);
+			} else {
+				process(vector);
+			}
+		}
+
+		private void process(final DataVector vector) throws Exception {
+			vectors[0] = vector;
+			node.process(vectors);
+
+			if(destinations.length > 0) {
+				destinations[0].append(vectors[0]);
+			}
+		}
+
+		private void forward(final DataVector sentinel) throws Exception {
+			if(destinations.length > 0) {
+				destinations[0].append(sentinel);
+			}
+		}
+	}
+
+	/**
+	 * Output stream of a worker, it records the vectors for the worker's current segment.
+	 */
+	private static final class RecordingStream implements Stream {
+		private final Worker worker;
+
+		private final Stream target;
+
+		private RecordingStream(final Worker worker, final Stream target) {
+			this.worker = worker;
+			this.target = target;
+		}
+
+		@Override
+		public void append(final DataVector data) {
+			worker.segment.record(target, data);
+		}
+
+		@Override
+		public void close() {
+			// the target is closed when the component finishes
+		}
+
+		@Override
+		public DataVector get() {
+			throw new NoSuchElementException("Output streams cannot be read.");
+		}
+
+		@Override
+		public StreamHeader getHeader() {
+			return target.getHeader();
+		}
+
+		@Override
+		public boolean isClosed() {
+			return false;
+		}
+
+		@Override
+		public boolean isEmpty() {
+			return true;
+		}
+
+		@Override
+		public void markClosed() {
+			// the target is closed when the component finishes
+		}
+
+		@Override
+		public StreamHeader setHeader(final StreamHeader header) {
+			return target.setHeader(header);
+		}
+	}
+
+	private final ComponentNode node;
+
+	private final Executor executor;
+
+	/**
+	 * Called whenever a group has been completed.
+	 */
+	private final Runnable listener;
+
+	/**
+	 * Maximum number of segments in flight.
+	 */
+	private final int capacity;
+
+	/**
+	 * Destination stream names, see {@link OnProcess#dest()}.
+	 */
+	private final String [] dest;
+
+	/**
+	 * Segments in input order, the head is the next one to replay.
+	 */
+	private final Deque<Segment> segments = new ArrayDeque<>();
+
+	/**
+	 * Workers without a group.
+	 */
+	private final Queue<Worker> idle = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Copy of the initialized component, all workers are copied from it.
+	 */
+	private ComponentNode template;
+
+	/**
+	 * Worker for the vectors outside of groups, created on demand.
+	 */
+	private Worker outside;
+
+	/**
+	 * Worker of the group currently read or {@code null}.
+	 */
+	private Worker current;
+
+	private int groupIndex = 0;
+
+	GroupDispatcher(final ComponentNode node, final Executor executor, final Runnable listener, final int capacity) {
+		this.node = node;
+		this.executor = executor;
+		this.listener = listener;
+		this.capacity = capacity;
+		this.dest = node.getProcessMethod().getAnnotation(OnProcess.class).dest();
+	}
+
+	/**
+	 * Takes the template for the workers. Called once the component has been initialized.
+	 */
+	void start() {
+		template = node.isolate(node::stream);
+	}
+
+	/**
+	 * @return Iff another vector can be accepted without exceeding the
+	 *   number of segments in flight.
+	 */
+	boolean canAccept() {
+		return segments.size() < capacity;
+	}
+
+	/**
+	 * Dispatches a vector of the component's input stream.
+	 */
+	void accept(final DataVector vector) throws Exception {
+		if(current == null) {
+			if(vector == DataVector.GROUP_START) {
+				enter();
+			} else {
+				processOutside(vector);
+			}
+		} else if(vector == DataVector.GROUP_END && current.depth == 0) {
+			submit(current, true);
+			current = null;
+		} else {
+			if(vector == DataVector.GROUP_START) {
+				++current.depth;
+			} else if(vector == DataVector.GROUP_END) {
+				--current.depth;
+			}
+
+			current.segment.input.add(vector);
+		}
+	}
+
+	/**
+	 * Submits an unterminated group after the input has been closed.
+	 */
+	void close() {
+		if(current != null) {
+			submit(current, false);
+			current = null;
+		}
+	}
+
+	/**
+	 * @return Iff there is recorded output that can be replayed.
+	 */
+	boolean hasReplayable() {
+		final Segment head = segments.peek();
+		return head != null && head.complete;
+	}
+
+	/**
+	 * @return Iff all groups have been processed and replayed.
+	 */
+	boolean isDrained() {
+		return current == null && segments.isEmpty();
+	}
+
+	/**
+	 * Appends the recorded output of all completed segments at the head of
+	 *   the queue to the real output streams.
+	 *
+	 * @param hasSpace Checks for space in the output streams before each vector.
+	 * @return Iff there is no more replayable output.
+	 * @throws Exception The failure of a group.
+	 */
+	boolean replay(final BooleanSupplier hasSpace) throws Exception {
+		Segment head = segments.peek();
+
+		while(head != null && head.complete) {
+			if(head.failure != null) {
+				rethrow(head.failure);
+			}
+
+			while(!head.isReplayed()) {
+				if(!hasSpace.getAsBoolean()) {
+					return false;
+				}
+
+				final int index = head.replayed++;
+				head.streams.get(index).append(head.vectors.get(index));
+			}
+
+			segments.poll();
+			head = segments.peek();
+		}
+
+		return true;
+	}
+
+	private void enter() throws Exception {
+		final Worker worker = idle.isEmpty() ? new Worker(template) : idle.poll();
+
+		worker.segment = new Segment();
+		worker.group = groupIndex++;
+		worker.depth = 0;
+		segments.add(worker.segment);
+		current = worker;
+
+		worker.handle(DataVector.GROUP_START, worker.group);
+	}
+
+	private void processOutside(final DataVector vector) throws Exception {
+		if(outside == null) {
+			outside = new Worker(template);
+		}
+
+		if(outside.segment == null || segments.peekLast() != outside.segment) {
+			outside.segment = new Segment();
+			outside.segment.complete = true;
+			segments.add(outside.segment);
+		}
+
+		// only data vectors and unbalanced group ends get here
+		outside.handle(vector, groupIndex);
+	}
+
+	private static void rethrow(final Throwable failure) throws Exception {
+		if(failure instanceof Error) {
+			throw (Error)failure;
+		}
+
+		throw (Exception)failure;
+	}
+
+	private void submit(final Worker worker, final boolean leave) {
+		final Segment segment = worker.segment;
+
+		executor.execute(() -> {
+			try {
+				for(final DataVector vector : segment.input) {
+					worker.handle(vector, worker.group);
+				}
+
+				if(leave) {
+					worker.node.leaveGroup();
+					worker.forward(DataVector.GROUP_END);
+				}
+			} catch(final Throwable t) {
+				segment.failure = t;
+			} finally {
+				segment.input.clear();
+				worker.segment = null;
+				segment.complete = true;
+
+				idle.add(worker);
+				listener.run();
+			}
+		});
+	}
+}
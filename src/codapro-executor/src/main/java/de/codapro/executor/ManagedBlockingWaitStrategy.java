@@ -0,0 +1,60 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BooleanSupplier;
+
+import de.codapro.api.model.BlockingWaitStrategy;
+import de.codapro.api.model.WaitStrategy;
+
+/**
+ * A {@link BlockingWaitStrategy} that tells the fork/join pool about blocked
+ *   workers. If a process task blocks on a full or empty stream, the pool
+ *   may start a compensating worker, so the tasks that would unblock it can
+ *   still run.
+ */
+final class ManagedBlockingWaitStrategy implements WaitStrategy {
+	private final BlockingWaitStrategy delegate = new BlockingWaitStrategy();
+
+	@Override
+	public void await(final BooleanSupplier condition) throws InterruptedException {
+		if(condition.getAsBoolean()) {
+			return;
+		}
+
+		ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+			@Override
+			public boolean block() throws InterruptedException {
+				delegate.await(condition);
+				return true;
+			}
+
+			@Override
+			public boolean isReleasable() {
+				return condition.getAsBoolean();
+			}
+		});
+	}
+
+	@Override
+	public void signalAll() {
+		delegate.signalAll();
+	}
+}
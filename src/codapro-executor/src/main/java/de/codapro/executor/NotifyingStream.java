@@ -0,0 +1,172 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import java.lang.invoke.VarHandle;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.model.BatchConversionException;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.QueuedStream;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
+
+/**
+ * Decorates a queued stream and tells the consumer when it might have something
+ *   new to do, i.e. after appending and after closing. A producer that does
+ *   not want to block on a full stream can ask to be told when there is free
+ *   space again, see {@link #awaitSpace()}.
+ */
+final class NotifyingStream implements Stream {
+	private final Stream delegate;
+
+	/**
+	 * The queue holding the data, {@code delegate} itself or decorated by it.
+	 */
+	private final QueuedStream buffer;
+
+	private final Runnable listener;
+
+	private final Runnable spaceListener;
+
+	/**
+	 * Iff the producer waits for free space.
+	 */
+	private volatile boolean spaceRequested = false;
+
+	/**
+	 * @param listener Notifies the consumer about new data.
+	 * @param spaceListener Notifies the producer about free space.
+	 */
+	NotifyingStream(final QueuedStream delegate, final Runnable listener, final Runnable spaceListener) {
+		this(delegate, delegate, listener, spaceListener);
+	}
+
+	/**
+	 * @param delegate A decorator of {@code buffer}.
+	 */
+	NotifyingStream(final Stream delegate, final QueuedStream buffer, final Runnable listener, final Runnable spaceListener) {
+		this.delegate = delegate;
+		this.buffer = buffer;
+		this.listener = listener;
+		this.spaceListener = spaceListener;
+	}
+
+	@Override
+	public void append(final DataVector data) throws ConversionException {
+		delegate.append(data);
+		listener.run();
+	}
+
+	@Override
+	public void appendBatch(final DataBatch batch) throws ConversionException {
+		delegate.appendBatch(batch);
+		listener.run();
+	}
+
+	@Override
+	public void close() {
+		markClosed();
+	}
+
+	/**
+	 * Requests a notification as soon as there is free space. The request is
+	 *   dropped if there already is free space.
+	 *
+	 * @return Iff there is free space, i.e. no notification will follow.
+	 */
+	boolean awaitSpace() {
+		spaceRequested = true;
+
+		// pairs with the fence of the wait strategy after the consumer
+		//  advanced, one of both sides sees the other's write
+		VarHandle.fullFence();
+
+		if(hasSpace()) {
+			spaceRequested = false;
+			return true;
+		}
+
+		return false;
+	}
+
+	@Override
+	public DataVector get() {
+		final DataVector data = delegate.get();
+		spaceFreed();
+		return data;
+	}
+
+	@Override
+	public int getBatch(final DataBatch batch) throws BatchConversionException {
+		final int rows = delegate.getBatch(batch);
+		spaceFreed();
+		return rows;
+	}
+
+	@Override
+	public StreamHeader getHeader() {
+		return delegate.getHeader();
+	}
+
+	/**
+	 * @return Iff at least one vector can be appended without blocking.
+	 */
+	boolean hasSpace() {
+		return buffer.size() < buffer.capacity();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return delegate.isClosed();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return delegate.isEmpty();
+	}
+
+	@Override
+	public void markClosed() {
+		delegate.markClosed();
+		listener.run();
+	}
+
+	@Override
+	public StreamHeader setHeader(final StreamHeader header) {
+		return delegate.setHeader(header);
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+
+	/**
+	 * Notifies the producer if it waits for free space. Called after reading,
+	 *   also by the consumers of a broadcast.
+	 */
+	void spaceFreed() {
+		if(spaceRequested) {
+			spaceRequested = false;
+			spaceListener.run();
+		}
+	}
+}
@@ -0,0 +1,820 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.beanutils.ConvertUtilsBean;
+import org.apache.commons.beanutils.Converter;
+import org.apache.commons.lang3.ClassUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.annotations.Broadcast;
+import de.codapro.api.annotations.ConfigConverter;
+import de.codapro.api.annotations.DeclaredColumns;
+import de.codapro.api.annotations.GroupIsolated;
+import de.codapro.api.annotations.OnExecute;
+import de.codapro.api.annotations.OnProcess;
+import de.codapro.api.annotations.Projection;
+import de.codapro.api.model.BroadcastStream;
+import de.codapro.api.model.OverflowPolicy;
+import de.codapro.api.model.OverflowStream;
+import de.codapro.api.model.QueuedStream;
+import de.codapro.api.model.RingStream;
+import de.codapro.api.model.SpillingStream;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.Value;
+import de.codapro.executor.metrics.PipelineMetrics;
+
+/**
+ * A graph of components connected by streams and values.
+ *
+ * Components with an {@link OnProcess} method do not own a thread. They are
+ *   run as tasks of a shared {@link ForkJoinPool} whenever their input stream
+ *   has data, so a pipeline needs about as many threads as there are cores,
+ *   not one per component. Components with an {@link OnExecute} method drive
+ *   themselves and get a dedicated thread, a virtual one on Java 21 and later.
+ *   Linear chains of simple process components are fused into a single task,
+ *   see {@link #setFusion(boolean)}. The groups of {@link GroupIsolated}
+ *   components are processed in parallel, see {@link #setGroupParallel(boolean)}.
+ *   Sources with a {@link Projection} field learn which of their columns are
+ *   used downstream, as long as all downstream components are marked with
+ *   {@link DeclaredColumns}.
+ *
+ * A component is initialized after all components producing its input
+ *   streams, so the stream headers are complete when it resolves its column
+ *   ids. Streams are closed by the runtime once their producer finished.
+ *
+ * <pre>
+ * final Pipeline pipeline = new Pipeline();
+ * final ComponentNode reader = pipeline.add("reader", new CsvReader()).set("filename", "in.csv");
+ * final ComponentNode writer = pipeline.add("writer", new CsvWriter()).set("filename", "out.csv");
+ * pipeline.connect(reader, "output-stream", writer, "input-stream");
+ * pipeline.run();
+ * </pre>
+ */
+public class Pipeline {
+	private static final Logger log = LoggerFactory.getLogger(Pipeline.class);
+
+	/**
+	 * A stream connection between two components.
+	 */
+	private static final class Connection {
+		private final ComponentNode producer;
+
+		private final String output;
+
+		private final ComponentNode consumer;
+
+		private final String input;
+
+		private final int capacity;
+
+		/**
+		 * Directory for spilling or {@code null}.
+		 */
+		private final Path spillDirectory;
+
+		private final OverflowPolicy overflowPolicy;
+
+		private Connection(final ComponentNode producer, final String output, final ComponentNode consumer, final String input,
+						   final int capacity, final Path spillDirectory, final OverflowPolicy overflowPolicy) {
+			this.producer = producer;
+			this.output = output;
+			this.consumer = consumer;
+			this.input = input;
+			this.capacity = capacity;
+			this.spillDirectory = spillDirectory;
+			this.overflowPolicy = overflowPolicy;
+		}
+
+		private QueuedStream createBuffer() {
+			return Pipeline.createBuffer(capacity, spillDirectory, overflowPolicy);
+		}
+
+		/**
+		 * @return Iff the producer may wait for the consumer.
+		 */
+		private boolean isBlocking() {
+			return overflowPolicy == OverflowPolicy.BLOCK;
+		}
+	}
+
+	private final Map<String, ComponentNode> nodes = new LinkedHashMap<>();
+
+	private final List<Connection> connections = new ArrayList<>();
+
+	private final ConvertUtilsBean converters = new ConvertUtilsBean();
+
+	/**
+	 * Tasks of the process components.
+	 */
+	private final Map<ComponentNode, ProcessTask> tasks = new HashMap<>();
+
+	/**
+	 * The task to schedule if a process component has new data or free space.
+	 *   For fused components this is the task of the chain's head.
+	 */
+	private final Map<ComponentNode, ProcessTask> schedulers = new HashMap<>();
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	private int streamCapacity = RingStream.DEFAULT_CAPACITY;
+
+	private Path spillDirectory;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private boolean virtualThreads = true;
+
+	private boolean fusion = true;
+
+	private boolean groupParallel = true;
+
+	private PipelineMetrics metrics;
+
+	private boolean started = false;
+
+	/**
+	 * The first failure and the component that caused it.
+	 */
+	private final AtomicReference<ComponentNode> failedNode = new AtomicReference<>();
+
+	private volatile Throwable failure;
+
+	public Pipeline() {
+		// throw on conversion errors instead of using default values
+		converters.register(true, false, 0);
+	}
+
+	/**
+	 * Adds a component to the pipeline.
+	 *
+	 * @param name Unique name of the component within the pipeline.
+	 * @param component An instance of a class annotated with {@link de.codapro.api.annotations.Component}.
+	 * @return The node for configuring and connecting the component.
+	 */
+	public ComponentNode add(final String name, final Object component) {
+		checkNotStarted();
+
+		if(nodes.containsKey(name)) {
+			throw new IllegalArgumentException("There is already a component named " + name + ".");
+		}
+
+		final ComponentNode node = new ComponentNode(this, name, component);
+		nodes.put(name, node);
+		return node;
+	}
+
+	/**
+	 * Connects an output stream of {@code producer} to an input stream of {@code consumer}.
+	 */
+	public void connect(final ComponentNode producer, final String output, final ComponentNode consumer, final String input) {
+		checkNotStarted();
+		checkMember(producer);
+		checkMember(consumer);
+
+		final Connection connection = new Connection(producer, output, consumer, input, streamCapacity, spillDirectory, overflowPolicy);
+		final Stream stream = new NotifyingStream(connection.createBuffer(), () -> signal(consumer), () -> signal(producer));
+
+		consumer.connectInput(input, stream, producer);
+		producer.connectOutput(output, stream);
+		connections.add(connection);
+	}
+
+	/**
+	 * Hands the output value {@code output} of {@code producer} to the input
+	 *   value {@code input} of {@code consumer}.
+	 */
+	public void connectValue(final ComponentNode producer, final String output, final ComponentNode consumer, final String input) {
+		checkNotStarted();
+		checkMember(producer);
+		checkMember(consumer);
+
+		final Value<?> value = producer.getOutputValue(output);
+		consumer.connectValue(input, value);
+	}
+
+	/**
+	 * Registers a Beanutils converter for all types given by its
+	 *   {@link ConfigConverter} annotations.
+	 */
+	public void registerConverter(final Converter converter) {
+		final ConfigConverter [] types = converter.getClass().getAnnotationsByType(ConfigConverter.class);
+
+		if(types.length == 0) {
+			throw new IllegalArgumentException("Converter " + converter.getClass().getName() + " is not annotated as config converter.");
+		}
+
+		for(final ConfigConverter type : types) {
+			converters.register(converter, type.type());
+		}
+	}
+
+	/**
+	 * Iff linear chains of process components should be fused. Enabled by default.
+	 *
+	 * A component is fusable if its process method reads a single input
+	 *   stream and passes the vectors on to the default output stream, and if
+	 *   it has no other streams. Two connected fusable components run in one
+	 *   task without a queue in between.
+	 */
+	public void setFusion(final boolean fusion) {
+		this.fusion = fusion;
+	}
+
+	/**
+	 * Iff the groups of {@link GroupIsolated} components should be processed
+	 *   in parallel. Enabled by default.
+	 *
+	 * Up to twice the parallelism groups of a component are in flight at
+	 *   once, each processed by its own instance of the component. Their output
+	 *   is buffered and appended to the output streams in group order.
+	 */
+	public void setGroupParallel(final boolean groupParallel) {
+		this.groupParallel = groupParallel;
+	}
+
+	/**
+	 * Enables metrics for all queued streams and all process components,
+	 *   {@code null} disables them. Disabled by default.
+	 */
+	public void setMetrics(final PipelineMetrics metrics) {
+		this.metrics = metrics;
+	}
+
+	/**
+	 * Sets the policy for streams created by subsequent calls of {@link #connect(ComponentNode, String, ComponentNode, String)}
+	 *   that applies once they hold the stream capacity. Defaults to
+	 *   {@link OverflowPolicy#BLOCK}. Other policies never block the producer,
+	 *   they take precedence over spilling and prevent fusing or broadcasting
+	 *   the stream.
+	 */
+	public void setOverflowPolicy(final OverflowPolicy overflowPolicy) {
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Sets the number of worker threads for process components. Defaults to
+	 *   the number of available processors.
+	 */
+	public void setParallelism(final int parallelism) {
+		if(parallelism <= 0) {
+			throw new IllegalArgumentException("Parallelism must be positive but is " + parallelism + ".");
+		}
+
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Lets streams created by subsequent calls of {@link #connect(ComponentNode, String, ComponentNode, String)}
+	 *   spill to a file in {@code spillDirectory} instead of blocking the
+	 *   producer once they hold the stream capacity. {@code null} disables
+	 *   spilling, which is the default.
+	 */
+	public void setSpillDirectory(final Path spillDirectory) {
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * Sets the capacity of streams created by subsequent calls of {@link #connect(ComponentNode, String, ComponentNode, String)}.
+	 *   Spilling streams keep this number of vectors in memory.
+	 */
+	public void setStreamCapacity(final int streamCapacity) {
+		this.streamCapacity = streamCapacity;
+	}
+
+	/**
+	 * Iff execute components should run on virtual threads if the runtime
+	 *   supports them. Enabled by default.
+	 */
+	public void setVirtualThreads(final boolean virtualThreads) {
+		this.virtualThreads = virtualThreads;
+	}
+
+	/**
+	 * Runs the pipeline and waits until all components have finished. A
+	 *   pipeline can only be run once.
+	 *
+	 * @throws ConversionException If a component failed. The first failure is
+	 *   the cause, the streams of the failed component are closed, so the
+	 *   other components terminate as well.
+	 * @throws IllegalStateException If the pipeline is incomplete or cyclic.
+	 */
+	public void run() throws ConversionException {
+		checkNotStarted();
+		started = true;
+
+		project();
+		broadcast();
+
+		final Map<ComponentNode, ComponentNode> fusedProducers = fusion ? fuse() : Collections.emptyMap();
+
+		if(metrics != null) {
+			instrument(fusedProducers);
+		}
+
+		nodes.values().forEach(ComponentNode::prepare);
+		final List<ComponentNode> order = sortTopologically();
+
+		final AtomicInteger workers = new AtomicInteger();
+		final ForkJoinPool pool = new ForkJoinPool(parallelism, p -> {
+			final ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+			thread.setName("codapro-worker-" + workers.incrementAndGet());
+			return thread;
+		}, null, true);
+
+		final CountDownLatch terminated = new CountDownLatch(order.size());
+		final Map<ComponentNode, CompletableFuture<Void>> initialized = new HashMap<>();
+
+		final ProcessTask.Listener listener = (node, t) -> {
+			if(t != null) {
+				fail(node, t);
+			}
+
+			terminated.countDown();
+		};
+
+		// consumers first, a task needs the tasks of its fused consumers
+		for(int i = order.size() - 1; i >= 0; --i) {
+			final ComponentNode node = order.get(i);
+			initialized.put(node, new CompletableFuture<>());
+
+			if(node.getProcessMethod() != null) {
+				final ProcessTask task = new ProcessTask(node, pool, listener, isGroupParallel(node) ? 2 * parallelism : 0);
+				tasks.put(node, task);
+
+				node.getInputs().stream()
+					.filter(FusedStream.class::isInstance)
+					.forEach(stream -> ((FusedStream)stream).setConsumer(task));
+			}
+		}
+
+		// fused components are scheduled with the head of their chain
+		for(final ComponentNode node : order) {
+			if(fusedProducers.containsKey(node)) {
+				schedulers.put(node, schedulers.get(fusedProducers.get(node)));
+			} else if(tasks.containsKey(node)) {
+				schedulers.put(node, tasks.get(node));
+			}
+		}
+
+		if(metrics != null) {
+			metrics.start();
+		}
+
+		try {
+			for(final ComponentNode node : order) {
+				if(fusedProducers.containsKey(node)) {
+					continue;
+				}
+
+				final CompletableFuture<Void> ready = CompletableFuture.allOf(node.getProducers().stream()
+																			  .map(initialized::get)
+																			  .toArray(CompletableFuture []::new));
+
+				if(node.isExecuting()) {
+					ExecuteThreads.newThread("codapro-" + node.getName(), virtualThreads,
+											 () -> execute(node, ready, initialized.get(node), listener)).start();
+				} else {
+					final List<ComponentNode> chain = chainOf(node, fusedProducers, order);
+					ready.whenCompleteAsync((v, t) -> start(chain, t, initialized, listener), pool);
+				}
+			}
+
+			terminated.await();
+		} catch(final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			nodes.values().forEach(ComponentNode::abort);
+			throw new ConversionException("Interrupted while waiting for the pipeline.", e);
+		} finally {
+			pool.shutdown();
+
+			if(metrics != null) {
+				metrics.stop();
+			}
+		}
+
+		if(failure != null) {
+			throw new ConversionException("Component " + failedNode.get().getName() + " failed.", failure);
+		}
+	}
+
+	/**
+	 * Converts a configuration value to the given type.
+	 */
+	Object convert(final Object value, final Class<?> type) {
+		final Class<?> boxed = ClassUtils.primitiveToWrapper(type);
+
+		if(value == null || boxed.isInstance(value)) {
+			return value;
+		}
+
+		try {
+			final Object converted;
+
+			if(type.isEnum() && value instanceof String) {
+				converted = enumValue(type, (String)value);
+			} else {
+				converted = converters.convert(value, type);
+			}
+
+			if(converted != null && boxed.isInstance(converted)) {
+				return converted;
+			}
+		} catch(final RuntimeException e) {
+			throw new IllegalArgumentException("Cannot convert " + value + " to " + type.getName() + ".", e);
+		}
+
+		throw new IllegalArgumentException("Cannot convert " + value + " to " + type.getName() + ".");
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private static Object enumValue(final Class<?> type, final String value) {
+		return Enum.valueOf((Class<Enum>)type, value);
+	}
+
+	/**
+	 * @return The chain of fused components starting at {@code head}.
+	 */
+	private static List<ComponentNode> chainOf(final ComponentNode head, final Map<ComponentNode, ComponentNode> fusedProducers, final List<ComponentNode> order) {
+		final List<ComponentNode> chain = new ArrayList<>();
+		chain.add(head);
+
+		// the order is topological, so the chain members follow their producers
+		for(final ComponentNode node : order) {
+			if(fusedProducers.get(node) == chain.get(chain.size() - 1)) {
+				chain.add(node);
+			}
+		}
+
+		return chain;
+	}
+
+	/**
+	 * Creates the queue of a connection, an overflow stream if {@code overflowPolicy}
+	 *   does not block and a spilling one if {@code spillDirectory} is set.
+	 */
+	private static QueuedStream createBuffer(final int capacity, final Path spillDirectory, final OverflowPolicy overflowPolicy) {
+		if(overflowPolicy != OverflowPolicy.BLOCK) {
+			return new OverflowStream(capacity, overflowPolicy, new ManagedBlockingWaitStrategy());
+		}
+
+		if(spillDirectory == null) {
+			return new RingStream(capacity, new ManagedBlockingWaitStrategy());
+		}
+
+		return new SpillingStream(capacity, spillDirectory, new ManagedBlockingWaitStrategy());
+	}
+
+	/**
+	 * Hands the names of the used columns to the {@link Projection} fields of
+	 *   the producers. Runs before the streams are replaced, so the connections
+	 *   still describe the whole graph.
+	 */
+	private void project() {
+		final Map<ComponentNode, Set<String>> projectedOutputs = new LinkedHashMap<>();
+
+		for(final Connection connection : connections) {
+			if(connection.producer.hasProjection(connection.output)) {
+				projectedOutputs.computeIfAbsent(connection.producer, node -> new HashSet<>()).add(connection.output);
+			}
+		}
+
+		projectedOutputs.forEach((node, outputs) -> outputs.forEach(output -> {
+			final Set<String> columns = usedColumns(node, output);
+			node.setProjection(output, columns);
+
+			log.debug("Projected {}.{} to {}.", node.getName(), output, columns == null ? "all columns" : columns);
+		}));
+	}
+
+	/**
+	 * Collects the column names of all components reachable from an output
+	 *   stream. Downstream components may access any column produced by an
+	 *   upstream one, since vectors are usually passed on with added columns.
+	 *
+	 * @return The used column names or {@code null} if a reachable component
+	 *   is not marked with {@link DeclaredColumns}.
+	 */
+	private Set<String> usedColumns(final ComponentNode producer, final String output) {
+		final Set<String> columns = new HashSet<>();
+		final Set<ComponentNode> visited = new HashSet<>();
+		final Deque<ComponentNode> pending = new ArrayDeque<>();
+
+		for(final Connection connection : connections) {
+			if(connection.producer == producer && connection.output.equals(output)) {
+				pending.add(connection.consumer);
+			}
+		}
+
+		while(!pending.isEmpty()) {
+			final ComponentNode node = pending.poll();
+
+			if(!visited.add(node)) {
+				continue;
+			}
+
+			final Set<String> declared = node.getDeclaredColumns();
+			if(declared == null) {
+				return null;
+			}
+
+			columns.addAll(declared);
+
+			for(final Connection connection : connections) {
+				if(connection.producer == node) {
+					pending.add(connection.consumer);
+				}
+			}
+		}
+
+		return columns;
+	}
+
+	/**
+	 * Replaces the {@link Broadcast} components by {@link BroadcastStream}s,
+	 *   so the producer of their input writes each vector once and the
+	 *   consumers of their outputs read it directly. Components with further
+	 *   connected inputs or non-blocking streams are kept, since the slowest
+	 *   consumer of a broadcast holds up the producer.
+	 */
+	private void broadcast() {
+		for(final ComponentNode node : new ArrayList<>(nodes.values())) {
+			final Broadcast broadcast = node.getBroadcast();
+
+			if(broadcast == null) {
+				continue;
+			}
+
+			final List<Connection> inputs = new ArrayList<>();
+			final List<Connection> outputs = new ArrayList<>();
+			for(final Connection connection : connections) {
+				if(connection.consumer == node) {
+					inputs.add(connection);
+				} else if(connection.producer == node) {
+					outputs.add(connection);
+				}
+			}
+
+			if(inputs.size() != 1 || !inputs.get(0).input.equals(broadcast.value()) || outputs.isEmpty()
+			   || !inputs.get(0).isBlocking() || !outputs.stream().allMatch(Connection::isBlocking)) {
+				continue;
+			}
+
+			final Connection input = inputs.get(0);
+			final BroadcastStream buffer = new BroadcastStream(input.capacity, outputs.size(), broadcast.copyOnWrite(), new ManagedBlockingWaitStrategy());
+			final QueuedStream producer = buffer.producer();
+			final Stream delegate = metrics == null ? producer
+					: metrics.instrument(input.producer.getName() + "." + input.output + "->" + node.getName() + "." + input.input, producer);
+			final NotifyingStream stream = new NotifyingStream(delegate, producer,
+															   () -> outputs.forEach(output -> signal(output.consumer)), () -> signal(input.producer));
+
+			input.producer.replaceStream(input.output, stream);
+
+			for(int i = 0; i < outputs.size(); ++i) {
+				final Connection output = outputs.get(i);
+
+				output.consumer.replaceStream(output.input, new BroadcastConsumerStream(buffer.getConsumer(i), stream));
+				output.consumer.replaceProducer(node, input.producer);
+			}
+
+			connections.remove(input);
+			connections.removeAll(outputs);
+			nodes.remove(node.getName());
+
+			log.debug("Replaced {} by a broadcast to {} consumers.", node.getName(), outputs.size());
+		}
+	}
+
+	private void checkMember(final ComponentNode node) {
+		if(nodes.get(node.getName()) != node) {
+			throw new IllegalArgumentException("Component " + node.getName() + " is not part of this pipeline.");
+		}
+	}
+
+	private void checkNotStarted() {
+		if(started) {
+			throw new IllegalStateException("Pipeline has already been run.");
+		}
+	}
+
+	/**
+	 * Runs the whole lifecycle of an execute component on the calling thread.
+	 */
+	private void execute(final ComponentNode node, final CompletableFuture<Void> ready, final CompletableFuture<Void> done, final ProcessTask.Listener listener) {
+		Throwable failure = null;
+
+		try {
+			ready.join();
+			node.initialize();
+			done.complete(null);
+			node.execute();
+			node.finish();
+		} catch(final Throwable t) {
+			failure = t;
+			done.completeExceptionally(t);
+		}
+
+		listener.finished(node, failure);
+	}
+
+	private void fail(final ComponentNode node, final Throwable t) {
+		if(failedNode.compareAndSet(null, node)) {
+			failure = t;
+			log.error("Component {} failed.", node.getName(), t);
+		} else {
+			log.debug("Component {} failed after {}.", node.getName(), failedNode.get().getName(), t);
+		}
+
+		node.abort();
+	}
+
+	private boolean isGroupParallel(final ComponentNode node) {
+		return groupParallel && node.isGroupIsolated();
+	}
+
+	/**
+	 * Notifies a process component about new data or free space.
+	 */
+	private void signal(final ComponentNode node) {
+		final ProcessTask task = schedulers.get(node);
+
+		if(task != null) {
+			task.signal();
+		}
+	}
+
+	/**
+	 * Replaces the queued streams between fusable process components by
+	 *   {@link FusedStream}s, so linear chains of per-vector transformations
+	 *   run in a single loop on one thread.
+	 *
+	 * @return The fused producer of each fused consumer.
+	 */
+	private Map<ComponentNode, ComponentNode> fuse() {
+		final Map<ComponentNode, ComponentNode> fusedProducers = new HashMap<>();
+
+		for(final Connection connection : connections) {
+			if(connection.isBlocking() && connection.producer.isFusable() && connection.consumer.isFusable()
+			   && !isGroupParallel(connection.producer) && !isGroupParallel(connection.consumer)) {
+				final FusedStream stream = new FusedStream();
+
+				connection.producer.replaceStream(connection.output, stream);
+				connection.consumer.replaceStream(connection.input, stream);
+				fusedProducers.put(connection.consumer, connection.producer);
+
+				log.debug("Fused {} into {}.", connection.consumer.getName(), connection.producer.getName());
+			}
+		}
+
+		return fusedProducers;
+	}
+
+	/**
+	 * Replaces the queued streams by instrumented ones and enables the metrics
+	 *   of the process components. Fused streams have no queue, the time spent
+	 *   in fused components is recorded by the component metrics.
+	 */
+	private void instrument(final Map<ComponentNode, ComponentNode> fusedProducers) {
+		for(final Connection connection : connections) {
+			if(fusedProducers.get(connection.consumer) == connection.producer) {
+				continue;
+			}
+
+			final String name = connection.producer.getName() + "." + connection.output + "->" + connection.consumer.getName() + "." + connection.input;
+			final QueuedStream buffer = connection.createBuffer();
+			final Stream stream = new NotifyingStream(metrics.instrument(name, buffer), buffer,
+													  () -> signal(connection.consumer), () -> signal(connection.producer));
+
+			connection.producer.replaceStream(connection.output, stream);
+			connection.consumer.replaceStream(connection.input, stream);
+		}
+
+		for(final ComponentNode node : nodes.values()) {
+			if(node.getProcessMethod() != null) {
+				node.setMetrics(metrics.component(node.getName()));
+			}
+		}
+	}
+
+	/**
+	 * @return The nodes ordered such that producers come first.
+	 * @throws IllegalStateException Iff the streams form a cycle.
+	 */
+	private List<ComponentNode> sortTopologically() {
+		final List<ComponentNode> order = new ArrayList<>(nodes.size());
+		final Set<ComponentNode> visited = new HashSet<>();
+		final Deque<ComponentNode> path = new ArrayDeque<>();
+
+		for(final ComponentNode node : nodes.values()) {
+			visit(node, visited, path, order);
+		}
+
+		return order;
+	}
+
+	private void visit(final ComponentNode node, final Set<ComponentNode> visited, final Deque<ComponentNode> path, final List<ComponentNode> order) {
+		if(path.contains(node)) {
+			throw new IllegalStateException("Streams form a cycle at component " + node.getName() + ".");
+		}
+
+		if(!visited.add(node)) {
+			return;
+		}
+
+		path.push(node);
+		for(final ComponentNode producer : node.getProducers()) {
+			visit(producer, visited, path, order);
+		}
+		path.pop();
+
+		order.add(node);
+	}
+
+	/**
+	 * Initializes a chain of fused process components and starts the task of
+	 *   its head. All components of the chain are initialized before the
+	 *   first vector is processed.
+	 */
+	private void start(final List<ComponentNode> chain, final Throwable upstreamFailure, final Map<ComponentNode, CompletableFuture<Void>> initialized, final ProcessTask.Listener listener) {
+		Throwable failure = upstreamFailure;
+
+		for(final ComponentNode node : chain) {
+			if(failure == null) {
+				try {
+					node.initialize();
+					initialized.get(node).complete(null);
+					continue;
+				} catch(final Throwable t) {
+					failure = t;
+				}
+			}
+
+			initialized.get(node).completeExceptionally(failure);
+			terminate(node, failure, listener);
+		}
+
+		final ComponentNode head = chain.get(0);
+		if(!initialized.get(head).isDone() || initialized.get(head).isCompletedExceptionally()) {
+			return;
+		}
+
+		final ProcessTask task = tasks.get(head);
+		if(task != null) {
+			task.start();
+		} else {
+			// neither process nor execute method, the component is done
+			try {
+				head.finish();
+				listener.finished(head, null);
+			} catch(final Throwable t) {
+				listener.finished(head, t);
+			}
+		}
+	}
+
+	private void terminate(final ComponentNode node, final Throwable failure, final ProcessTask.Listener listener) {
+		final ProcessTask task = tasks.get(node);
+
+		if(task != null) {
+			task.fail(failure);
+		} else {
+			listener.finished(node, failure);
+		}
+	}
+}
@@ -0,0 +1,340 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.codapro.api.annotations.OnProcess;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.Stream;
+
+/**
+ * Runs an {@link OnProcess} component as a sequence of short tasks. The task
+ *   is scheduled whenever its primary input receives data and processes all
+ *   vectors available at that time, but at most {@link #BATCH_SIZE} vectors
+ *   before giving other tasks a chance. A component is never processed by
+ *   two threads at once.
+ *
+ * If an output stream is full, the task does not block a worker but stops
+ *   and gets scheduled again when the consumer has freed some space. Only
+ *   components appending many vectors at once may still block, the pool
+ *   compensates for them.
+ *
+ * Group sentinels are forwarded to the first destination stream and trigger
+ *   the group hooks: {@code GROUP_START} is forwarded before calling the
+ *   {@code OnEnterGroup} methods, {@code GROUP_END} after calling the
+ *   {@code OnLeaveGroup} methods. The groups of group-isolated components may
+ *   be handed to a {@link GroupDispatcher} instead, the task then replays its
+ *   output and finishes the component once all groups have been replayed.
+ */
+final class ProcessTask implements Runnable {
+	/**
+	 * Maximum number of vectors processed by a single run.
+	 */
+	static final int BATCH_SIZE = 256;
+
+	private static final int NEW = 0;
+
+	private static final int IDLE = 1;
+
+	private static final int SCHEDULED = 2;
+
+	private static final int DONE = 3;
+
+	private final AtomicInteger state = new AtomicInteger(NEW);
+
+	private final ComponentNode node;
+
+	private final Executor executor;
+
+	private final Listener listener;
+
+	/**
+	 * Input streams in the order of {@link OnProcess#value()}.
+	 */
+	private final Stream [] sources;
+
+	/**
+	 * Output streams in the order of {@link OnProcess#dest()}.
+	 */
+	private final Stream [] destinations;
+
+	private final DataVector [] vectors;
+
+	/**
+	 * All output streams that support space notifications.
+	 */
+	private final NotifyingStream [] bounded;
+
+	/**
+	 * Processes the groups in parallel, {@code null} for sequential processing.
+	 */
+	private final GroupDispatcher dispatcher;
+
+	/**
+	 * Index of the next group for sequential processing.
+	 */
+	private int groupIndex = 0;
+
+	/**
+	 * Gets notified when the task terminates.
+	 */
+	interface Listener {
+		void finished(ComponentNode node, Throwable failure);
+	}
+
+	ProcessTask(final ComponentNode node, final Executor executor, final Listener listener) {
+		this(node, executor, listener, 0);
+	}
+
+	/**
+	 * @param groups Maximum number of groups processed in parallel, groups are
+	 *   processed sequentially if it is zero.
+	 */
+	ProcessTask(final ComponentNode node, final Executor executor, final Listener listener, final int groups) {
+		final OnProcess process = node.getProcessMethod().getAnnotation(OnProcess.class);
+
+		this.node = node;
+		this.executor = executor;
+		this.listener = listener;
+		this.sources = new Stream[process.value().length];
+		this.destinations = new Stream[process.dest().length];
+		this.vectors = new DataVector[sources.length];
+
+		for(int i = 0; i < sources.length; ++i) {
+			sources[i] = node.stream(process.value()[i]);
+		}
+
+		for(int i = 0; i < destinations.length; ++i) {
+			destinations[i] = node.stream(process.dest()[i]);
+		}
+
+		// fused consumers run on this task's thread, so their outputs count as well
+		final List<NotifyingStream> outputs = new ArrayList<>();
+		for(final Stream output : node.getOutputs()) {
+			if(output instanceof NotifyingStream) {
+				outputs.add((NotifyingStream)output);
+			} else if(output instanceof FusedStream) {
+				outputs.addAll(Arrays.asList(((FusedStream)output).getConsumer().bounded));
+			}
+		}
+
+		this.bounded = outputs.toArray(new NotifyingStream[outputs.size()]);
+		this.dispatcher = groups > 0 ? new GroupDispatcher(node, executor, this::signal, groups) : null;
+	}
+
+	/**
+	 * Processes a vector of a {@link FusedStream} on the caller's thread.
+	 */
+	void accept(final DataVector vector) throws Exception {
+		handle(vector);
+	}
+
+	/**
+	 * Finishes the component after its input has been closed.
+	 */
+	void complete() {
+		if(state.getAndSet(DONE) == DONE) {
+			return;
+		}
+
+		try {
+			node.finish();
+		} catch(final Throwable t) {
+			listener.finished(node, t);
+			return;
+		}
+
+		listener.finished(node, null);
+	}
+
+	/**
+	 * Terminates the component because of a failure.
+	 */
+	void fail(final Throwable failure) {
+		if(state.getAndSet(DONE) == DONE) {
+			return;
+		}
+
+		listener.finished(node, failure);
+	}
+
+	/**
+	 * Allows the task to be scheduled. Called once the component has been
+	 *   initialized, notifications received before are ignored.
+	 */
+	void start() {
+		if(dispatcher != null) {
+			dispatcher.start();
+		}
+
+		state.set(IDLE);
+		signal();
+	}
+
+	/**
+	 * Schedules the task unless it is already scheduled or running.
+	 */
+	void signal() {
+		if(state.get() == IDLE && state.compareAndSet(IDLE, SCHEDULED)) {
+			executor.execute(this);
+		}
+	}
+
+	@Override
+	public void run() {
+		final Stream input = sources[0];
+
+		try {
+			int processed = 0;
+			while(processed < BATCH_SIZE && replay() && !input.isEmpty() && canAccept()) {
+				handle(input.get());
+				++processed;
+			}
+
+			// check closed before empty, data appended before closing is seen
+			if(input.isClosed() && input.isEmpty() && isDrained()) {
+				complete();
+				return;
+			}
+
+			if(processed == BATCH_SIZE) {
+				executor.execute(this);
+				return;
+			}
+
+			state.set(IDLE);
+
+			// a notification might have been ignored while running
+			if(isReady(input) && hasSpace()) {
+				signal();
+			}
+		} catch(final Throwable t) {
+			fail(t);
+		}
+	}
+
+	/**
+	 * @return Iff another input vector can be handled.
+	 */
+	private boolean canAccept() {
+		if(dispatcher == null) {
+			return hasSpace();
+		}
+
+		return dispatcher.canAccept() && hasSpace();
+	}
+
+	/**
+	 * Replays the output of completed groups.
+	 *
+	 * @return Iff all replayable output has been written.
+	 */
+	private boolean replay() throws Exception {
+		return dispatcher == null || dispatcher.replay(this::hasSpace);
+	}
+
+	/**
+	 * @return Iff all output has been written. Submits an unterminated group
+	 *   and replays the output of completed groups.
+	 */
+	private boolean isDrained() throws Exception {
+		if(dispatcher == null) {
+			return true;
+		}
+
+		dispatcher.close();
+		return dispatcher.replay(this::hasSpace) && dispatcher.isDrained();
+	}
+
+	/**
+	 * @return Iff the task has something to do.
+	 */
+	private boolean isReady(final Stream input) {
+		if(dispatcher == null) {
+			return !input.isEmpty() || input.isClosed();
+		}
+
+		return dispatcher.hasReplayable()
+			|| (!input.isEmpty() && dispatcher.canAccept())
+			|| (input.isClosed() && input.isEmpty() && dispatcher.isDrained());
+	}
+
+	private void handle(final DataVector vector) throws Exception {
+		if(dispatcher != null) {
+			dispatcher.accept(vector);
+		} else if(vector == DataVector.GROUP_START) {
+			forward(0, vector);
+			node.enterGroup(groupIndex++);
+		} else if(vector == DataVector.GROUP_END) {
+			node.leaveGroup();
+			forward(0, vector);
+		} else {
+			vectors[0] = vector;
+
+			for(int i = 1; i < sources.length; ++i) {
+				vectors[i] = next(i);
+			}
+
+			node.process(vectors);
+
+			for(int i = 0; i < destinations.length && i < vectors.length; ++i) {
+				destinations[i].append(vectors[i]);
+			}
+		}
+	}
+
+	/**
+	 * Reads the next data vector of a secondary input and forwards its sentinels.
+	 */
+	private DataVector next(final int source) throws Exception {
+		DataVector vector = sources[source].get();
+
+		while(vector == DataVector.GROUP_START || vector == DataVector.GROUP_END) {
+			forward(source, vector);
+			vector = sources[source].get();
+		}
+
+		return vector;
+	}
+
+	/**
+	 * @return Iff all outputs can take another vector. If not, the task gets
+	 *   signaled once there is space.
+	 */
+	private boolean hasSpace() {
+		for(final NotifyingStream stream : bounded) {
+			if(!stream.hasSpace() && !stream.awaitSpace()) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void forward(final int destination, final DataVector sentinel) throws Exception {
+		if(destination < destinations.length) {
+			destinations[destination].append(sentinel);
+		}
+	}
+}
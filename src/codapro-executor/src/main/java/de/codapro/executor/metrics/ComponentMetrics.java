@@ -0,0 +1,72 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a single component's process method.
+ */
+public class ComponentMetrics implements ComponentMetricsMBean {
+	private final String name;
+
+	private final LongAdder invocations = new LongAdder();
+
+	private final LongAdder processNanos = new LongAdder();
+
+	public ComponentMetrics(final String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getInvocations() {
+		return invocations.sum();
+	}
+
+	@Override
+	public long getProcessNanos() {
+		return processNanos.sum();
+	}
+
+	@Override
+	public double getMeanProcessNanos() {
+		final long calls = getInvocations();
+		return calls == 0 ? 0.0 : (double)getProcessNanos() / calls;
+	}
+
+	/**
+	 * Records a call of the process method.
+	 *
+	 * @param nanos Time spent in the call.
+	 */
+	public void processed(final long nanos) {
+		invocations.increment();
+		processNanos.add(nanos);
+	}
+
+	@Override
+	public String toString() {
+		return "ComponentMetrics [name=" + name + ", invocations=" + getInvocations()
+			 + ", process=" + getProcessNanos() / 1000000 + "ms]";
+	}
+}
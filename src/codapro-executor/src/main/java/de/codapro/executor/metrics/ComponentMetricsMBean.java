@@ -0,0 +1,39 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor.metrics;
+
+/**
+ * JMX view of {@link ComponentMetrics}.
+ */
+public interface ComponentMetricsMBean {
+	/**
+	 * @return Number of calls of the process method.
+	 */
+	public long getInvocations();
+
+	/**
+	 * @return Total time spent in the process method in nanoseconds.
+	 */
+	public long getProcessNanos();
+
+	/**
+	 * @return Mean time per call of the process method in nanoseconds.
+	 */
+	public double getMeanProcessNanos();
+}
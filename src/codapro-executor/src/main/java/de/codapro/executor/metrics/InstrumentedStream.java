@@ -0,0 +1,193 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor.metrics;
+
+import java.util.function.IntPredicate;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.model.BatchConversionException;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.OverflowStream;
+import de.codapro.api.model.QueuedStream;
+import de.codapro.api.model.SpillingStream;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
+
+/**
+ * Decorates a stream and records its traffic in {@link StreamMetrics}. Only
+ *   calls that may actually block are timed, i.e. reading from an empty
+ *   stream and appending to a full one, so the decorator costs little more
+ *   than two counter updates per vector. Uninstrumented streams do not pay
+ *   anything.
+ */
+public class InstrumentedStream implements Stream {
+	private final Stream delegate;
+
+	private final StreamMetrics metrics;
+
+	/**
+	 * Tells if appending the given number of vectors might block.
+	 */
+	private final IntPredicate mightBlock;
+
+	/**
+	 * @param mightBlock Tells if appending the given number of vectors might
+	 *   block, e.g. because there is not enough free space.
+	 */
+	public InstrumentedStream(final Stream delegate, final StreamMetrics metrics, final IntPredicate mightBlock) {
+		this.delegate = delegate;
+		this.metrics = metrics;
+		this.mightBlock = mightBlock;
+	}
+
+	/**
+	 * Instruments a queued stream, the metrics report its size as queue depth,
+	 *   for a {@link SpillingStream} the bytes it has spilled and for an
+	 *   {@link OverflowStream} the vectors it has dropped or decimated.
+	 */
+	public static InstrumentedStream of(final String name, final QueuedStream stream) {
+		final StreamMetrics metrics;
+
+		if(stream instanceof SpillingStream) {
+			metrics = new StreamMetrics(name, stream::size, ((SpillingStream)stream)::getSpilledBytes);
+		} else if(stream instanceof OverflowStream) {
+			final OverflowStream overflowStream = (OverflowStream)stream;
+			metrics = new StreamMetrics(name, stream::size, () -> 0, overflowStream::getDroppedCount, overflowStream::getDecimatedCount);
+		} else {
+			metrics = new StreamMetrics(name, stream::size);
+		}
+
+		return new InstrumentedStream(stream, metrics, count -> stream.size() + count > stream.capacity());
+	}
+
+	@Override
+	public void append(final DataVector data) throws ConversionException {
+		if(mightBlock.test(1)) {
+			final long start = System.nanoTime();
+			try {
+				delegate.append(data);
+			} finally {
+				metrics.blockedAppend(System.nanoTime() - start);
+			}
+		} else {
+			delegate.append(data);
+		}
+
+		metrics.appended(1);
+	}
+
+	@Override
+	public void appendBatch(final DataBatch batch) throws ConversionException {
+		final int vectors = batch.size() + (batch.getGroupMarker() == null ? 0 : 1);
+
+		if(mightBlock.test(vectors)) {
+			final long start = System.nanoTime();
+			try {
+				delegate.appendBatch(batch);
+			} finally {
+				metrics.blockedAppend(System.nanoTime() - start);
+			}
+		} else {
+			delegate.appendBatch(batch);
+		}
+
+		metrics.appended(vectors);
+	}
+
+	@Override
+	public void close() {
+		markClosed();
+	}
+
+	@Override
+	public DataVector get() {
+		final DataVector data;
+
+		if(delegate.isEmpty()) {
+			final long start = System.nanoTime();
+			try {
+				data = delegate.get();
+			} finally {
+				metrics.blockedGet(System.nanoTime() - start);
+			}
+		} else {
+			data = delegate.get();
+		}
+
+		metrics.read(1);
+		return data;
+	}
+
+	@Override
+	public int getBatch(final DataBatch batch) throws BatchConversionException {
+		final int rows;
+
+		if(delegate.isEmpty()) {
+			final long start = System.nanoTime();
+			try {
+				rows = delegate.getBatch(batch);
+			} finally {
+				metrics.blockedGet(System.nanoTime() - start);
+			}
+		} else {
+			rows = delegate.getBatch(batch);
+		}
+
+		metrics.read(rows + (batch.getGroupMarker() == null ? 0 : 1));
+		return rows;
+	}
+
+	/**
+	 * @return The metrics of this stream.
+	 */
+	public StreamMetrics getMetrics() {
+		return metrics;
+	}
+
+	@Override
+	public StreamHeader getHeader() {
+		return delegate.getHeader();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return delegate.isClosed();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return delegate.isEmpty();
+	}
+
+	@Override
+	public void markClosed() {
+		delegate.markClosed();
+	}
+
+	@Override
+	public StreamHeader setHeader(final StreamHeader header) {
+		return delegate.setHeader(header);
+	}
+
+	@Override
+	public String toString() {
+		return delegate.toString();
+	}
+}
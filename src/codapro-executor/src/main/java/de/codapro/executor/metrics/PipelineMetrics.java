@@ -0,0 +1,245 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.codapro.api.model.QueuedStream;
+
+/**
+ * Collects the metrics of a pipeline's streams and components. While the
+ *   pipeline runs, the metrics are registered as MBeans under
+ *   {@code de.codapro:type=Stream|Component,pipeline=<name>,name=<name>} and,
+ *   if a report interval is set, a snapshot is logged and appended to a CSV
+ *   file periodically.
+ *
+ * Pipelines without metrics do not create any instrumentation at all.
+ */
+public class PipelineMetrics {
+	private static final Logger log = LoggerFactory.getLogger(PipelineMetrics.class);
+
+	private static final String CSV_HEADER = "timestamp,kind,name,vectors_in,vectors_out,queue_depth,blocked_get_ns,blocked_append_ns,spilled_bytes,dropped,decimated,invocations,process_ns";
+
+	private final String pipelineName;
+
+	private final Map<String, StreamMetrics> streams = Collections.synchronizedMap(new LinkedHashMap<>());
+
+	private final Map<String, ComponentMetrics> components = Collections.synchronizedMap(new LinkedHashMap<>());
+
+	private final List<ObjectName> registered = new ArrayList<>();
+
+	private boolean jmxEnabled = true;
+
+	private long reportInterval = 0;
+
+	private TimeUnit reportUnit = TimeUnit.SECONDS;
+
+	private Path csvFile;
+
+	private ScheduledExecutorService reporter;
+
+	/**
+	 * @param pipelineName Name used to tell the MBeans of several pipelines apart.
+	 */
+	public PipelineMetrics(final String pipelineName) {
+		this.pipelineName = pipelineName;
+	}
+
+	/**
+	 * Creates the metrics of a component.
+	 */
+	public ComponentMetrics component(final String name) {
+		return components.computeIfAbsent(name, ComponentMetrics::new);
+	}
+
+	/**
+	 * @return The metrics of all components in creation order.
+	 */
+	public Collection<ComponentMetrics> getComponents() {
+		synchronized(components) {
+			return new ArrayList<>(components.values());
+		}
+	}
+
+	/**
+	 * @return The metrics of all streams in creation order.
+	 */
+	public Collection<StreamMetrics> getStreams() {
+		synchronized(streams) {
+			return new ArrayList<>(streams.values());
+		}
+	}
+
+	/**
+	 * Instruments a stream and keeps its metrics.
+	 */
+	public InstrumentedStream instrument(final String name, final QueuedStream stream) {
+		final InstrumentedStream instrumented = InstrumentedStream.of(name, stream);
+		streams.put(name, instrumented.getMetrics());
+		return instrumented;
+	}
+
+	/**
+	 * Logs the current numbers and appends them to the CSV file if one is set.
+	 */
+	public void report() {
+		final Collection<StreamMetrics> streamMetrics = getStreams();
+		final Collection<ComponentMetrics> componentMetrics = getComponents();
+
+		if(log.isInfoEnabled()) {
+			streamMetrics.forEach(metrics -> log.info("{}", metrics));
+			componentMetrics.forEach(metrics -> log.info("{}", metrics));
+		}
+
+		if(csvFile != null) {
+			writeCsv(streamMetrics, componentMetrics);
+		}
+	}
+
+	/**
+	 * Sets the file the periodic snapshots are appended to.
+	 */
+	public void setCsvFile(final Path csvFile) {
+		this.csvFile = csvFile;
+	}
+
+	/**
+	 * Iff the metrics should be registered as MBeans. Enabled by default.
+	 */
+	public void setJmxEnabled(final boolean jmxEnabled) {
+		this.jmxEnabled = jmxEnabled;
+	}
+
+	/**
+	 * Sets the interval of the periodic snapshots, 0 disables them. The final
+	 *   numbers are reported when the pipeline stops regardless of the interval.
+	 */
+	public void setReportInterval(final long interval, final TimeUnit unit) {
+		this.reportInterval = interval;
+		this.reportUnit = unit;
+	}
+
+	/**
+	 * Registers the MBeans and starts the periodic snapshots. Called by the
+	 *   pipeline before running.
+	 */
+	public synchronized void start() {
+		if(jmxEnabled) {
+			getStreams().forEach(metrics -> register("Stream", metrics.getName(), metrics));
+			getComponents().forEach(metrics -> register("Component", metrics.getName(), metrics));
+		}
+
+		if(reportInterval > 0) {
+			reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+				final Thread thread = new Thread(task, "codapro-metrics-" + pipelineName);
+				thread.setDaemon(true);
+				return thread;
+			});
+			reporter.scheduleAtFixedRate(this::report, reportInterval, reportInterval, reportUnit);
+		}
+	}
+
+	/**
+	 * Stops the periodic snapshots, reports the final numbers and unregisters
+	 *   the MBeans. Called by the pipeline after running.
+	 */
+	public synchronized void stop() {
+		if(reporter != null) {
+			reporter.shutdownNow();
+			reporter = null;
+		}
+
+		report();
+
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		for(final ObjectName name : registered) {
+			try {
+				server.unregisterMBean(name);
+			} catch(final JMException e) {
+				log.warn("Failed to unregister MBean {}.", name, e);
+			}
+		}
+
+		registered.clear();
+	}
+
+	private void register(final String type, final String name, final Object bean) {
+		try {
+			final ObjectName objectName = new ObjectName("de.codapro:type=" + type
+													   + ",pipeline=" + ObjectName.quote(pipelineName)
+													   + ",name=" + ObjectName.quote(name));
+
+			ManagementFactory.getPlatformMBeanServer().registerMBean(bean, objectName);
+			registered.add(objectName);
+		} catch(final JMException e) {
+			log.warn("Failed to register MBean for {} {}.", type, name, e);
+		}
+	}
+
+	private void writeCsv(final Collection<StreamMetrics> streamMetrics, final Collection<ComponentMetrics> componentMetrics) {
+		final boolean writeHeader = !Files.exists(csvFile);
+		final String timestamp = Instant.now().toString();
+
+		try(final Writer writer = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+			if(writeHeader) {
+				writer.write(CSV_HEADER);
+				writer.write('\n');
+			}
+
+			for(final StreamMetrics metrics : streamMetrics) {
+				writer.write(timestamp + ",stream," + quote(metrics.getName()) + "," + metrics.getVectorsIn() + "," + metrics.getVectorsOut()
+						   + "," + metrics.getQueueDepth() + "," + metrics.getBlockedGetNanos() + "," + metrics.getBlockedAppendNanos() + "," + metrics.getSpilledBytes()
+						   + "," + metrics.getDroppedVectors() + "," + metrics.getDecimatedVectors() + ",,\n");
+			}
+
+			for(final ComponentMetrics metrics : componentMetrics) {
+				writer.write(timestamp + ",component," + quote(metrics.getName()) + ",,,,,,,,," + metrics.getInvocations() + "," + metrics.getProcessNanos() + "\n");
+			}
+		} catch(final IOException e) {
+			log.error("Failed to write metrics to {}.", csvFile, e);
+		}
+	}
+
+	private static String quote(final String value) {
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Counters of a single stream, updated by an {@link InstrumentedStream}.
+ */
+public class StreamMetrics implements StreamMetricsMBean {
+	private final String name;
+
+	private final LongAdder vectorsIn = new LongAdder();
+
+	private final LongAdder vectorsOut = new LongAdder();
+
+	private final LongAdder blockedGetNanos = new LongAdder();
+
+	private final LongAdder blockedAppendNanos = new LongAdder();
+
+	private final IntSupplier queueDepth;
+
+	private final LongSupplier spilledBytes;
+
+	private final LongSupplier droppedVectors;
+
+	private final LongSupplier decimatedVectors;
+
+	/**
+	 * @param queueDepth Reports the number of queued vectors.
+	 */
+	public StreamMetrics(final String name, final IntSupplier queueDepth) {
+		this(name, queueDepth, () -> 0);
+	}
+
+	/**
+	 * @param queueDepth Reports the number of queued vectors.
+	 * @param spilledBytes Reports the number of bytes spilled to disk.
+	 */
+	public StreamMetrics(final String name, final IntSupplier queueDepth, final LongSupplier spilledBytes) {
+		this(name, queueDepth, spilledBytes, () -> 0, () -> 0);
+	}
+
+	/**
+	 * @param queueDepth Reports the number of queued vectors.
+	 * @param spilledBytes Reports the number of bytes spilled to disk.
+	 * @param droppedVectors Reports the number of vectors dropped by the overflow policy.
+	 * @param decimatedVectors Reports the number of vectors removed by decimation.
+	 */
+	public StreamMetrics(final String name, final IntSupplier queueDepth, final LongSupplier spilledBytes,
+						 final LongSupplier droppedVectors, final LongSupplier decimatedVectors) {
+		this.name = name;
+		this.queueDepth = queueDepth;
+		this.spilledBytes = spilledBytes;
+		this.droppedVectors = droppedVectors;
+		this.decimatedVectors = decimatedVectors;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public long getVectorsIn() {
+		return vectorsIn.sum();
+	}
+
+	@Override
+	public long getVectorsOut() {
+		return vectorsOut.sum();
+	}
+
+	@Override
+	public int getQueueDepth() {
+		return queueDepth.getAsInt();
+	}
+
+	@Override
+	public long getBlockedGetNanos() {
+		return blockedGetNanos.sum();
+	}
+
+	@Override
+	public long getBlockedAppendNanos() {
+		return blockedAppendNanos.sum();
+	}
+
+	@Override
+	public long getSpilledBytes() {
+		return spilledBytes.getAsLong();
+	}
+
+	@Override
+	public long getDroppedVectors() {
+		return droppedVectors.getAsLong();
+	}
+
+	@Override
+	public long getDecimatedVectors() {
+		return decimatedVectors.getAsLong();
+	}
+
+	@Override
+	public String toString() {
+		return "StreamMetrics [name=" + name + ", in=" + getVectorsIn() + ", out=" + getVectorsOut()
+			 + ", depth=" + getQueueDepth() + ", blockedGet=" + getBlockedGetNanos() / 1000000 + "ms"
+			 + ", blockedAppend=" + getBlockedAppendNanos() / 1000000 + "ms, spilled=" + getSpilledBytes() + "B"
+			 + ", dropped=" + getDroppedVectors() + ", decimated=" + getDecimatedVectors() + "]";
+	}
+
+	void appended(final long vectors) {
+		vectorsIn.add(vectors);
+	}
+
+	void read(final long vectors) {
+		vectorsOut.add(vectors);
+	}
+
+	void blockedGet(final long nanos) {
+		blockedGetNanos.add(nanos);
+	}
+
+	void blockedAppend(final long nanos) {
+		blockedAppendNanos.add(nanos);
+	}
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor.metrics;
+
+/**
+ * JMX view of {@link StreamMetrics}.
+ */
+public interface StreamMetricsMBean {
+	/**
+	 * @return Number of vectors appended to the stream, including group sentinels.
+	 */
+	public long getVectorsIn();
+
+	/**
+	 * @return Number of vectors read from the stream, including group sentinels.
+	 */
+	public long getVectorsOut();
+
+	/**
+	 * @return Number of vectors currently queued.
+	 */
+	public int getQueueDepth();
+
+	/**
+	 * @return Total time the consumer waited for data in nanoseconds.
+	 */
+	public long getBlockedGetNanos();
+
+	/**
+	 * @return Total time the producer waited for free space in nanoseconds.
+	 */
+	public long getBlockedAppendNanos();
+
+	/**
+	 * @return Total number of bytes spilled to disk, 0 for streams that never spill.
+	 */
+	public long getSpilledBytes();
+
+	/**
+	 * @return Number of vectors dropped by the overflow policy of the stream.
+	 */
+	public long getDroppedVectors();
+
+	/**
+	 * @return Number of vectors removed by decimation.
+	 */
+	public long getDecimatedVectors();
+}
@@ -0,0 +1,479 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.model.OverflowPolicy;
+import de.codapro.executor.TestComponents.Adder;
+import de.codapro.executor.TestComponents.Collector;
+import de.codapro.executor.TestComponents.Configurable;
+import de.codapro.executor.TestComponents.DeclaredAdder;
+import de.codapro.executor.TestComponents.Failing;
+import de.codapro.executor.TestComponents.GroupSummer;
+import de.codapro.executor.TestComponents.Mode;
+import de.codapro.executor.TestComponents.Source;
+import de.codapro.executor.TestComponents.Splitter;
+import de.codapro.executor.TestComponents.ThreadChecker;
+import de.codapro.executor.TestComponents.Tracer;
+import de.codapro.executor.TestComponents.ValueHolder;
+import de.codapro.executor.metrics.ComponentMetrics;
+import de.codapro.executor.metrics.PipelineMetrics;
+import de.codapro.executor.metrics.StreamMetrics;
+
+public class PipelineTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test(timeout = 10000)
+	public void testSourceToSink() throws ConversionException {
+		final Pipeline testee = new Pipeline();
+		final Collector collector = new Collector();
+
+		final ComponentNode source = testee.add("source", new Source()).set("count", 5);
+		final ComponentNode sink = testee.add("sink", collector);
+		testee.connect(source, "output-stream", sink, "input-stream");
+
+		testee.run();
+
+		assertThat(collector.events, contains(0.0, 1.0, 2.0, 3.0, 4.0));
+		assertTrue(collector.finished);
+	}
+
+	@Test(timeout = 10000)
+	public void testGroupsAndColumnIds() throws ConversionException {
+		final Pipeline testee = new Pipeline();
+		final Collector collector = new Collector();
+
+		final ComponentNode source = testee.add("source", new Source()).set("count", 5).set("group-size", 2);
+		final ComponentNode adder = testee.add("adder", new Adder()).set("column", "value").set("offset", "0.5");
+		final ComponentNode sink = testee.add("sink", collector);
+		testee.connect(source, "output-stream", adder, "input-stream");
+		testee.connect(adder, "output-stream", sink, "input-stream");
+
+		testee.run();
+
+		assertThat(collector.events, contains("[", 0.5, 1.5, "]", "[", 2.5, 3.5, "]", "[", 4.5, "]"));
+	}
+
+	@Test(timeout = 10000)
+	public void testConnectValue() throws ConversionException {
+		final Pipeline testee = new Pipeline();
+		final Collector collector = new Collector();
+		final ValueHolder holder = new ValueHolder();
+
+		final ComponentNode source = testee.add("source", new Source()).set("count", 10);
+		final ComponentNode sink = testee.add("sink", collector);
+		final ComponentNode consumer = testee.add("holder", holder);
+		testee.connect(source, "output-stream", sink, "input-stream");
+		testee.connectValue(sink, "max", consumer, "value");
+
+		testee.run();
+
+		assertThat(holder.value.get(), is(9.0));
+	}
+
+	@Test
+	public void testConfigConversion() {
+		final Pipeline testee = new Pipeline();
+		final Configurable component = new Configurable();
+
+		testee.add("configurable", component)
+			  .set("number", "2.5")
+			  .set("numbers", new String [] {"1", "2"})
+			  .set("mode", "SLOW")
+			  .set("name", "test");
+
+		assertThat(component.number, is(2.5));
+		assertThat(component.numbers, equalTo(new int [] {1, 2}));
+		assertThat(component.mode, is(Mode.SLOW));
+		assertThat(component.name, is("test"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConfigConversionFailure() {
+		new Pipeline().add("configurable", new Configurable()).set("number", "two");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownParameter() {
+		new Pipeline().add("configurable", new Configurable()).set("unknown", "1");
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testUnconnectedInput() throws ConversionException {
+		final Pipeline testee = new Pipeline();
+		testee.add("sink", new Collector());
+
+		testee.run();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testCycle() throws ConversionException {
+		final Pipeline testee = new Pipeline();
+		final ComponentNode first = testee.add("first", new Adder());
+		final ComponentNode second = testee.add("second", new Adder());
+		testee.connect(first, "output-stream", second, "input-stream");
+		testee.connect(second, "output-stream", first, "input-stream");
+
+		testee.run();
+	}
+
+	@Test(timeout = 10000)
+	public void testFailurePropagation() {
+		final Pipeline testee = new Pipeline();
+		final Collector collector = new Collector();
+
+		final ComponentNode source = testee.add("source", new Source()).set("count", 100000);
+		final ComponentNode failing = testee.add("failing", new Failing()).set("fail-at", 10);
+		final ComponentNode sink = testee.add("sink", collector);
+		testee.connect(source, "output-stream", failing, "input-stream");
+		testee.connect(failing, "output-stream", sink, "input-stream");
+
+		try {
+			testee.run();
+			fail("Pipeline did not fail.");
+		} catch(final ConversionException e) {
+			assertThat(e.getMessage(), is("Component failing failed."));
+			assertThat(e.getCause(), instanceOf(ConversionException.class));
+		}
+
+		assertThat(collector.events.size(), is(10));
+		assertTrue(collector.finished);
+	}
+
+	@Test(timeout = 30000)
+	public void testLongChainUsesFewThreads() throws ConversionException {
+		final int stages = 40;
+		final int count = 10000;
+		final Set<String> threads = ConcurrentHashMap.newKeySet();
+		final Pipeline testee = new Pipeline();
+		final Collector collector = new Collector();
+
+		testee.setParallelism(2);
+		testee.setStreamCapacity(64);
+		testee.setFusion(false);
+
+		ComponentNode previous = testee.add("source", new Source()).set("count", count);
+		for(int i = 0; i < stages; ++i) {
+			final ComponentNode adder = testee.add("adder-" + i, new Adder(threads)).set("column", "value").set("offset", 1.0);
+			testee.connect(previous, "output-stream", adder, "input-stream");
+			previous = adder;
+		}
+
+		final ComponentNode sink = testee.add("sink", collector);
+		testee.connect(previous, "output-stream", sink, "input-stream");
+
+		testee.run();
+
+		final List<Object> expected = new ArrayList<>();
+		for(int i = 0; i < count; ++i) {
+			expected.add((double)(i + stages));
+		}
+
+		assertThat(collector.events, equalTo(expected));
+		assertThat(threads.size(), lessThanOrEqualTo(2));
+	}
+
+	@Test(timeout = 10000)
+	public void testFusedChainRunsOnOneThread() throws ConversionException {
+		final AtomicInteger handovers = new AtomicInteger();
+		final Pipeline testee = new Pipeline();
+		final Collector collector = new Collector();
+
+		testee.setParallelism(4);
+
+		ComponentNode previous = testee.add("source", new Source()).set("count", 1000);
+		for(int i = 0; i < 40; ++i) {
+			final ComponentNode checker = testee.add("checker-" + i, new ThreadChecker(handovers));
+			testee.connect(previous, "output-stream", checker, "input-stream");
+			previous = checker;
+		}
+
+		final ComponentNode sink = testee.add("sink", collector);
+		testee.connect(previous, "output-stream", sink, "input-stream");
+
+		testee.run();
+
+		assertThat(collector.events.size(), is(1000));
+		assertThat(handovers.get(), is(0));
+	}
+
+	@Test(timeout = 10000)
+	public void testFusionKeepsGroupHookOrder() throws ConversionException {
+		for(final boolean fusion : new boolean [] {true, false}) {
+			final Pipeline testee = new Pipeline();
+			final Tracer first = new Tracer();
+			final Tracer second = new Tracer();
+			final Collector collector = new Collector();
+
+			testee.setFusion(fusion);
+
+			final ComponentNode source = testee.add("source", new Source()).set("count", 3).set("group-size", 2);
+			final ComponentNode firstNode = testee.add("first", first);
+			final ComponentNode secondNode = testee.add("second", second);
+			final ComponentNode sink = testee.add("sink", collector);
+			testee.connect(source, "output-stream", firstNode, "input-stream");
+			testee.connect(firstNode, "output-stream", secondNode, "input-stream");
+			testee.connect(secondNode, "output-stream", sink, "input-stream");
+
+			testee.run();
+
+			assertThat(first.events, contains("[", 0.0, 1.0, "]", "[", 2.0, "]"));
+			assertThat(second.events, contains("[", 0.0, 1.0, -1.0, "]", "[", 2.0, -1.0, "]"));
+			assertThat(collector.events, contains("[", 0.0, 1.0, -1.0, -1.0, "]", "[", 2.0, -1.0, -1.0, "]"));
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testGroupParallelKeepsOrder() throws ConversionException {
+		for(final boolean groupParallel : new boolean [] {true, false}) {
+			final Pipeline testee = new Pipeline();
+			final Set<GroupSummer> instances = ConcurrentHashMap.newKeySet();
+			final Collector data = new Collector();
+			final Collector sums = new Collector();
+
+			testee.setParallelism(4);
+			testee.setGroupParallel(groupParallel);
+
+			final ComponentNode source = testee.add("source", new Source()).set("count", 9).set("group-size", 2);
+			final ComponentNode summer = testee.add("summer", new GroupSummer(instances));
+			final ComponentNode dataSink = testee.add("data", data);
+			final ComponentNode sumSink = testee.add("sums", sums);
+			testee.connect(source, "output-stream", summer, "input-stream");
+			testee.connect(summer, "output-stream", dataSink, "input-stream");
+			testee.connect(summer, "descriptor-stream", sumSink, "input-stream");
+
+			testee.run();
+
+			assertThat(data.events, contains("[", 0.0, 1.0, "]", "[", 2.0, 3.0, "]", "[", 4.0, 5.0, "]", "[", 6.0, 7.0, "]", "[", 8.0, "]"));
+			assertThat(sums.events, contains(1.0, 5.0, 9.0, 13.0, 8.0));
+
+			if(groupParallel) {
+				assertThat(instances.size(), greaterThan(1));
+			} else {
+				assertThat(instances, hasSize(1));
+			}
+		}
+	}
+
+	@Test(timeout = 10000)
+	public void testFailureInFusedComponent() {
+		final Pipeline testee = new Pipeline();
+		final Collector collector = new Collector();
+
+		final ComponentNode source = testee.add("source", new Source()).set("count", 100000);
+		final ComponentNode tracer = testee.add("tracer", new Tracer());
+		final ComponentNode failing = testee.add("failing", new Failing()).set("fail-at", 10);
+		final ComponentNode sink = testee.add("sink", collector);
+		testee.connect(source, "output-stream", tracer, "input-stream");
+		testee.connect(tracer, "output-stream", failing, "input-stream");
+		testee.connect(failing, "output-stream", sink, "input-stream");
+
+		try {
+			testee.run();
+			fail("Pipeline did not fail.");
+		} catch(final ConversionException e) {
+			assertThat(e.getMessage(), is("Component failing failed."));
+		}
+
+		assertThat(collector.events.size(), is(10));
+		assertTrue(collector.finished);
+	}
+
+	@Test(timeout = 10000)
+	public void testBroadcast() throws ConversionException {
+		final Pipeline testee = new Pipeline();
+		final Splitter splitter = new Splitter();
+		final Collector first = new Collector();
+		final Collector second = new Collector();
+
+		testee.setStreamCapacity(4);
+
+		final ComponentNode source = testee.add("source", new Source()).set("count", 6).set("group-size", 3);
+		final ComponentNode split = testee.add("split", splitter);
+		final ComponentNode adder = testee.add("adder", new Adder()).set("column", "value").set("offset", 1.0);
+		testee.connect(source, "output-stream", split, "input-stream");
+		testee.connect(split, "output-stream-1", adder, "input-stream");
+		testee.connect(adder, "output-stream", testee.add("first", first), "input-stream");
+		testee.connect(split, "output-stream-2", testee.add("second", second), "input-stream");
+
+		testee.run();
+
+		// the second branch is not affected by the adder in the first one
+		assertThat(first.events, contains("[", 1.0, 2.0, 3.0, "]", "[", 4.0, 5.0, 6.0, "]"));
+		assertThat(second.events, contains("[", 0.0, 1.0, 2.0, "]", "[", 3.0, 4.0, 5.0, "]"));
+		assertThat(splitter.processed, is(0));
+	}
+
+	@Test(timeout = 10000)
+	public void testSpillingStreams() throws ConversionException {
+		final Pipeline testee = new Pipeline();
+		final Collector collector = new Collector();
+		final int count = 10000;
+
+		testee.setStreamCapacity(2);
+		testee.setSpillDirectory(folder.getRoot().toPath());
+
+		final ComponentNode source = testee.add("source", new Source()).set("count", count);
+		final ComponentNode adder = testee.add("adder", new Adder()).set("column", "value").set("offset", 1.0);
+		final ComponentNode sink = testee.add("sink", collector);
+		testee.connect(source, "output-stream", adder, "input-stream");
+		testee.connect(adder, "output-stream", sink, "input-stream");
+
+		testee.run();
+
+		final List<Object> expected = new ArrayList<>();
+		for(int i = 0; i < count; ++i) {
+			expected.add((double)(i + 1));
+		}
+
+		assertThat(collector.events, equalTo(expected));
+	}
+
+	@Test(timeout = 10000)
+	public void testOverflowPolicy() throws ConversionException {
+		final Pipeline testee = new Pipeline();
+		final PipelineMetrics metrics = new PipelineMetrics("overflow-test");
+		metrics.setJmxEnabled(false);
+		testee.setMetrics(metrics);
+
+		final Collector collector = new Collector();
+		final int count = 10000;
+
+		testee.setStreamCapacity(2);
+		testee.setOverflowPolicy(OverflowPolicy.DROP_NEWEST);
+
+		final ComponentNode source = testee.add("source", new Source()).set("count", count).set("group-size", 100);
+		final ComponentNode sink = testee.add("sink", collector);
+		testee.connect(source, "output-stream", sink, "input-stream");
+
+		testee.run();
+
+		final long values = collector.events.stream().filter(Double.class::isInstance).count();
+		final StreamMetrics stream = metrics.getStreams().iterator().next();
+
+		// values may be dropped, the groups are kept
+		assertThat(collector.events.stream().filter("["::equals).count(), is(100L));
+		assertThat(collector.events.stream().filter("]"::equals).count(), is(100L));
+		assertThat(values + stream.getDroppedVectors(), is((long)count));
+	}
+
+	@Test(timeout = 10000)
+	public void testProjection() throws ConversionException {
+		final Pipeline testee = new Pipeline();
+
+		final Source projected = new Source();
+		final ComponentNode first = testee.add("first", projected).set("count", 3);
+		final ComponentNode firstAdder = testee.add("first-adder", new DeclaredAdder()).set("column", "value").set("offset", "1");
+		testee.connect(first, "output-stream", firstAdder, "input-stream");
+
+		// the collector may access any column
+		final Source unprojected = new Source();
+		final Collector collector = new Collector();
+		final ComponentNode second = testee.add("second", unprojected).set("count", 3);
+		final ComponentNode secondAdder = testee.add("second-adder", new DeclaredAdder()).set("column", "value").set("offset", "1");
+		final ComponentNode sink = testee.add("sink", collector);
+		testee.connect(second, "output-stream", secondAdder, "input-stream");
+		testee.connect(secondAdder, "output-stream", sink, "input-stream");
+
+		testee.run();
+
+		assertThat(projected.projection, equalTo(Collections.singleton("value")));
+		assertThat(unprojected.projection, is(nullValue()));
+		assertThat(collector.events, equalTo(Arrays.asList(1.0, 2.0, 3.0)));
+	}
+
+	@Test(timeout = 10000)
+	public void testMetrics() throws ConversionException {
+		final Pipeline testee = new Pipeline();
+		final PipelineMetrics metrics = new PipelineMetrics("metrics-test");
+		metrics.setJmxEnabled(false);
+		testee.setMetrics(metrics);
+
+		final ComponentNode source = testee.add("source", new Source()).set("count", 100).set("group-size", 10);
+		final ComponentNode first = testee.add("first", new Tracer());
+		final ComponentNode second = testee.add("second", new Tracer());
+		final ComponentNode sink = testee.add("sink", new Collector());
+		testee.connect(source, "output-stream", first, "input-stream");
+		testee.connect(first, "output-stream", second, "input-stream");
+		testee.connect(second, "output-stream", sink, "input-stream");
+
+		testee.run();
+
+		// the stream between the fused tracers is not queued
+		final List<StreamMetrics> streams = new ArrayList<>(metrics.getStreams());
+		assertThat(streams, hasSize(2));
+		assertThat(streams.get(0).getName(), is("source.output-stream->first.input-stream"));
+		assertThat(streams.get(0).getVectorsIn(), is(120L));
+		assertThat(streams.get(0).getVectorsOut(), is(120L));
+		assertThat(streams.get(1).getVectorsIn(), is(140L));
+		assertThat(streams.get(1).getQueueDepth(), is(0));
+
+		final List<ComponentMetrics> components = new ArrayList<>(metrics.getComponents());
+		assertThat(components, hasSize(3));
+		assertThat(components.get(0).getInvocations(), is(100L));
+		assertThat(components.get(1).getInvocations(), is(110L));
+		assertThat(components.get(2).getInvocations(), is(120L));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDuplicateConnection() {
+		final Pipeline testee = new Pipeline();
+		final ComponentNode source = testee.add("source", new Source());
+		final ComponentNode first = testee.add("first", new Collector());
+		final ComponentNode second = testee.add("second", new Collector());
+		testee.connect(source, "output-stream", first, "input-stream");
+		testee.connect(source, "output-stream", second, "input-stream");
+	}
+
+	@Test
+	public void testOutputValueIsCreated() {
+		final Pipeline testee = new Pipeline();
+		final ComponentNode sink = testee.add("sink", new Collector());
+		final ComponentNode consumer = testee.add("holder", new ValueHolder());
+		testee.connectValue(sink, "max", consumer, "value");
+
+		assertThat(((ValueHolder)consumer.getComponent()).value, sameInstance(sink.getOutputValue("max")));
+	}
+}
@@ -0,0 +1,400 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.annotations.Broadcast;
+import de.codapro.api.annotations.ColumnId;
+import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
+import de.codapro.api.annotations.GroupIndex;
+import de.codapro.api.annotations.GroupIsolated;
+import de.codapro.api.annotations.Input;
+import de.codapro.api.annotations.Log;
+import de.codapro.api.annotations.OnEnterGroup;
+import de.codapro.api.annotations.OnExecute;
+import de.codapro.api.annotations.OnFinish;
+import de.codapro.api.annotations.OnInit;
+import de.codapro.api.annotations.OnLeaveGroup;
+import de.codapro.api.annotations.OnProcess;
+import de.codapro.api.annotations.Output;
+import de.codapro.api.annotations.Projection;
+import de.codapro.api.model.ColumnType;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.Value;
+
+/**
+ * Small components for testing the pipeline.
+ */
+final class TestComponents {
+	private TestComponents() {
+	}
+
+	/**
+	 * Produces the numbers {@code 0, ..., count - 1} in column "value", grouped
+	 *   into groups of {@code group-size} vectors if the size is positive.
+	 */
+	@Component(name = "Source", doc = "Produces numbers.", sinks = {})
+	static class Source {
+		@Input(doc = "Number of vectors.", name = "count")
+		private int count;
+
+		@Input(doc = "Number of vectors per group.", name = "group-size", required = false)
+		private int groupSize = 0;
+
+		@Named("output-stream")
+		private Stream output;
+
+		/**
+		 * Columns used downstream, injected by the pipeline.
+		 */
+		@Projection
+		Set<String> projection;
+
+		@OnInit
+		public void init() {
+			output.getHeader().add("id", ColumnType.INT);
+			output.getHeader().add("value", ColumnType.DOUBLE);
+		}
+
+		@OnExecute
+		public void execute() throws ConversionException {
+			for(int i = 0; i < count; ++i) {
+				if(groupSize > 0 && i % groupSize == 0) {
+					output.append(DataVector.GROUP_START);
+				}
+
+				final DataVector vector = new DataVector(2);
+				vector.set(0, i);
+				vector.set(1, (double)i);
+				output.append(vector);
+
+				if(groupSize > 0 && (i % groupSize == groupSize - 1 || i == count - 1)) {
+					output.append(DataVector.GROUP_END);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Copies its input to two output streams, the pipeline replaces it by a
+	 *   broadcast.
+	 */
+	@Broadcast(copyOnWrite = true)
+	@Component(name = "Splitter", doc = "Copies a stream.",
+			   sources = {@Output(doc = "First copy.", name = "output-stream-1"),
+						  @Output(doc = "Second copy.", name = "output-stream-2")})
+	static class Splitter {
+		@Named("output-stream-2")
+		private Stream second;
+
+		int processed = 0;
+
+		@OnEnterGroup
+		public void enterGroup() throws ConversionException {
+			second.append(DataVector.GROUP_START);
+		}
+
+		@OnLeaveGroup
+		public void leaveGroup() throws ConversionException {
+			second.append(DataVector.GROUP_END);
+		}
+
+		@OnProcess(value = "input-stream", dest = "output-stream-1")
+		public void process(final DataVector vector) throws ConversionException {
+			++processed;
+			second.append(vector.copyOnWrite());
+		}
+	}
+
+	/**
+	 * Adds {@code offset} to the column selected by {@code column}.
+	 */
+	@Component(name = "Adder", doc = "Adds an offset.")
+	static class Adder {
+		@ColumnId(doc = "The column to change.", name = "column", stream = "input-stream")
+		private int column;
+
+		@Input(doc = "The offset.", name = "offset", type = Double.class)
+		private Value<Double> offset;
+
+		/**
+		 * Names of the threads that processed vectors.
+		 */
+		private final Set<String> threads;
+
+		Adder() {
+			this(ConcurrentHashMap.newKeySet());
+		}
+
+		Adder(final Set<String> threads) {
+			this.threads = threads;
+		}
+
+		@OnInit
+		public void init(@Named("input-stream") final Stream input, @Named("output-stream") final Stream output) {
+			output.setHeader(input.getHeader());
+		}
+
+		@OnProcess
+		public void process(final DataVector vector) {
+			threads.add(Thread.currentThread().getName());
+			vector.set(column, (Double)vector.get(column) + offset.get());
+		}
+	}
+
+	/**
+	 * An {@link Adder} that accesses columns only by its column id.
+	 */
+	@DeclaredColumns
+	static class DeclaredAdder extends Adder {
+	}
+
+	/**
+	 * Stamps each vector with the name of the processing thread and counts the
+	 *   vectors processed by a different thread than the first checker's.
+	 */
+	@Component(name = "ThreadChecker", doc = "Checks threads.")
+	static class ThreadChecker {
+		private final AtomicInteger handovers;
+
+		ThreadChecker(final AtomicInteger handovers) {
+			this.handovers = handovers;
+		}
+
+		@OnInit
+		public void init(@Named("input-stream") final Stream input, @Named("output-stream") final Stream output) {
+			output.setHeader(input.getHeader());
+		}
+
+		@OnProcess
+		public void process(final DataVector vector) {
+			final String thread = Thread.currentThread().getName();
+
+			if(vector.size() == 2) {
+				vector.append(thread);
+			} else if(!thread.equals(vector.get(2))) {
+				handovers.incrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Records the values of column "value" and the group boundaries as "[" and
+	 *   "]". Appends a vector with value -1 at the end of each group.
+	 */
+	@Component(name = "Tracer", doc = "Traces data.")
+	static class Tracer {
+		final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+
+		@OnInit
+		public void init(@Named("input-stream") final Stream input, @Named("output-stream") final Stream output) {
+			output.setHeader(input.getHeader());
+		}
+
+		@OnEnterGroup
+		public void enterGroup() {
+			events.add("[");
+		}
+
+		@OnLeaveGroup
+		public void leaveGroup(@Named("output-stream") final Stream output) throws ConversionException {
+			final DataVector summary = new DataVector(2);
+			summary.set(0, -1);
+			summary.set(1, -1.0);
+			output.append(summary);
+
+			events.add("]");
+		}
+
+		@OnProcess
+		public void process(final DataVector vector) {
+			events.add(vector.get(1));
+		}
+	}
+
+	/**
+	 * Sums column "value" per group and appends the group index and the sum
+	 *   to "descriptor-stream" when leaving the group. Earlier groups take
+	 *   longer, so parallel groups finish out of order.
+	 */
+	@GroupIsolated
+	@Component(name = "GroupSummer", doc = "Sums groups.", sources = {
+		@Output(doc = "The data.", name = "output-stream"),
+		@Output(doc = "The sums.", name = "descriptor-stream")
+	})
+	static class GroupSummer {
+		/**
+		 * All instances that processed vectors.
+		 */
+		private final Set<GroupSummer> instances;
+
+		@GroupIndex
+		private int group = -1;
+
+		private double sum;
+
+		GroupSummer() {
+			this(ConcurrentHashMap.newKeySet());
+		}
+
+		GroupSummer(final Set<GroupSummer> instances) {
+			this.instances = instances;
+		}
+
+		@OnInit
+		public void init(@Named("input-stream") final Stream input, @Named("output-stream") final Stream output,
+						 @Named("descriptor-stream") final Stream descriptors) {
+			output.setHeader(input.getHeader());
+			descriptors.getHeader().add("id", ColumnType.INT);
+			descriptors.getHeader().add("value", ColumnType.DOUBLE);
+		}
+
+		@OnEnterGroup
+		public void enterGroup() {
+			this.sum = 0;
+		}
+
+		@OnLeaveGroup
+		public void leaveGroup(@Named("descriptor-stream") final Stream descriptors) throws ConversionException {
+			final DataVector descriptor = new DataVector(2);
+			descriptor.set(0, group);
+			descriptor.set(1, sum);
+			descriptors.append(descriptor);
+		}
+
+		@OnProcess
+		public void process(final DataVector vector) throws InterruptedException {
+			instances.add(this);
+			Thread.sleep(Math.max(0, 5 - group));
+			sum += (Double)vector.get(1);
+		}
+	}
+
+	/**
+	 * Records the values of column "value" and the group boundaries as "[" and "]".
+	 */
+	@Component(name = "Collector", doc = "Collects data.", sources = {})
+	static class Collector {
+		@Log
+		private Logger log;
+
+		@Output(doc = "The maximum.", name = "max")
+		private Value<Double> max;
+
+		final List<Object> events = Collections.synchronizedList(new ArrayList<>());
+
+		int valueColumn = -1;
+
+		boolean finished = false;
+
+		@OnInit
+		public void init(@Named("input-stream") final Stream input) {
+			valueColumn = input.getHeader().indexOf("value");
+		}
+
+		@OnEnterGroup
+		public void enterGroup() {
+			events.add("[");
+		}
+
+		@OnLeaveGroup
+		public void leaveGroup() {
+			events.add("]");
+		}
+
+		@OnProcess(dest = {})
+		public void process(final DataVector vector) {
+			events.add(vector.get(valueColumn));
+		}
+
+		@OnFinish
+		public void finish() {
+			max.set(events.stream()
+						  .filter(Double.class::isInstance)
+						  .mapToDouble(Double.class::cast)
+						  .max()
+						  .orElse(Double.NaN));
+			log.debug("Collected {} events.", events.size());
+			finished = true;
+		}
+	}
+
+	/**
+	 * Gets a value from another component.
+	 */
+	@Component(name = "ValueHolder", doc = "Holds a value.", sinks = {}, sources = {})
+	static class ValueHolder {
+		@Input(doc = "A value.", name = "value", type = Double.class)
+		Value<Double> value;
+	}
+
+	/**
+	 * Fails on the vector with id {@code fail-at}.
+	 */
+	@Component(name = "Failing", doc = "Fails.")
+	static class Failing {
+		@Input(doc = "Id of the failing vector.", name = "fail-at")
+		private int failAt;
+
+		@OnInit
+		public void init(@Named("input-stream") final Stream input, @Named("output-stream") final Stream output) {
+			output.setHeader(input.getHeader());
+		}
+
+		@OnProcess
+		public void process(final DataVector vector) throws ConversionException {
+			if((Integer)vector.get(0) == failAt) {
+				throw new ConversionException("Failed at " + failAt + ".");
+			}
+		}
+	}
+
+	enum Mode { FAST, SLOW }
+
+	/**
+	 * Has parameters of various types.
+	 */
+	@Component(name = "Configurable", doc = "Has parameters.", sinks = {}, sources = {})
+	static class Configurable {
+		@Input(doc = "A number.", name = "number")
+		double number;
+
+		@Input(doc = "Some numbers.", name = "numbers")
+		int [] numbers;
+
+		@Input(doc = "A mode.", name = "mode")
+		Mode mode = Mode.FAST;
+
+		@Input(doc = "A name.", name = "name")
+		String name;
+	}
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+import org.junit.Test;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.model.ColumnType;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.RingStream;
+
+public class InstrumentedStreamTest {
+
+	@Test
+	public void testCountsVectors() throws ConversionException {
+		final InstrumentedStream testee = InstrumentedStream.of("test", new RingStream(8));
+
+		testee.append(new DataVector(1));
+		testee.append(DataVector.GROUP_END);
+		testee.get();
+
+		assertThat(testee.getMetrics().getVectorsIn(), is(2L));
+		assertThat(testee.getMetrics().getVectorsOut(), is(1L));
+		assertThat(testee.getMetrics().getQueueDepth(), is(1));
+	}
+
+	@Test
+	public void testCountsBatches() throws ConversionException {
+		final InstrumentedStream testee = InstrumentedStream.of("test", new RingStream(8));
+		final DataBatch batch = new DataBatch(new ColumnType [] {ColumnType.DOUBLE}, 4);
+		batch.addRow();
+		batch.addRow();
+		batch.setGroupMarker(DataVector.GROUP_END);
+
+		testee.appendBatch(batch);
+
+		assertThat(testee.getMetrics().getVectorsIn(), is(3L));
+		assertThat(testee.getMetrics().getQueueDepth(), is(3));
+	}
+
+	@Test(timeout = 5000)
+	public void testRecordsBlockedGet() throws InterruptedException {
+		final InstrumentedStream testee = InstrumentedStream.of("test", new RingStream(8));
+
+		final Thread producer = new Thread(() -> {
+			try {
+				Thread.sleep(50);
+				testee.append(new DataVector(1));
+			} catch(final InterruptedException | ConversionException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		producer.start();
+
+		testee.get();
+		producer.join();
+
+		assertThat(testee.getMetrics().getBlockedGetNanos(), greaterThan(10000000L));
+		assertThat(testee.getMetrics().getBlockedAppendNanos(), is(0L));
+	}
+
+	@Test(timeout = 5000)
+	public void testRecordsBlockedAppend() throws ConversionException, InterruptedException {
+		final InstrumentedStream testee = InstrumentedStream.of("test", new RingStream(1));
+		testee.append(new DataVector(1));
+
+		final Thread consumer = new Thread(() -> {
+			try {
+				Thread.sleep(50);
+				testee.get();
+			} catch(final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		consumer.start();
+
+		testee.append(new DataVector(1));
+		consumer.join();
+
+		assertThat(testee.getMetrics().getBlockedAppendNanos(), greaterThan(10000000L));
+	}
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.executor.metrics;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.RingStream;
+
+public class PipelineMetricsTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testMBeansAreRegisteredWhileRunning() throws ConversionException, JMException {
+		final PipelineMetrics testee = new PipelineMetrics("jmx-test");
+		final InstrumentedStream stream = testee.instrument("a->b", new RingStream(4));
+		testee.component("b").processed(100);
+		stream.append(new DataVector(1));
+
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		final ObjectName streamName = new ObjectName("de.codapro:type=Stream,pipeline=\"jmx-test\",name=\"a->b\"");
+		final ObjectName componentName = new ObjectName("de.codapro:type=Component,pipeline=\"jmx-test\",name=\"b\"");
+
+		testee.start();
+		assertThat(server.getAttribute(streamName, "VectorsIn"), is(1L));
+		assertThat(server.getAttribute(componentName, "ProcessNanos"), is(100L));
+
+		testee.stop();
+		assertThat(server.isRegistered(streamName), is(false));
+		assertThat(server.isRegistered(componentName), is(false));
+	}
+
+	@Test
+	public void testCsvSnapshot() throws IOException, ConversionException {
+		final Path csv = folder.getRoot().toPath().resolve("metrics.csv");
+		final PipelineMetrics testee = new PipelineMetrics("csv-test");
+		testee.setJmxEnabled(false);
+		testee.setCsvFile(csv);
+
+		final InstrumentedStream stream = testee.instrument("a->b", new RingStream(4));
+		stream.append(new DataVector(1));
+		testee.component("b").processed(100);
+
+		testee.report();
+		testee.report();
+
+		final List<String> lines = Files.readAllLines(csv);
+		assertThat(lines, hasSize(5));
+		assertThat(lines.get(0), startsWith("timestamp,kind,name"));
+		assertThat(lines.get(1).substring(lines.get(1).indexOf(',') + 1), is("stream,\"a->b\",1,0,1,0,0,0,0,0,,"));
+		assertThat(lines.get(2).substring(lines.get(2).indexOf(',') + 1), is("component,\"b\",,,,,,,,,1,100"));
+	}
+}
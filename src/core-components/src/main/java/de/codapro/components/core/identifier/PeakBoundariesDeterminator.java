@@ -25,6 +25,7 @@ import org.slf4j.Logger;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.GroupIsolated;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnEnterGroup;
@@ -36,6 +37,7 @@ import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 import de.codapro.api.model.Value;
 
+@GroupIsolated
 @Component(name = "PeakBoundariesDeterminator", doc = "Determines data descriptors.")
 public class PeakBoundariesDeterminator {
 	/**
@@ -21,10 +21,12 @@ package de.codapro.components.core.identifier;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnExecute;
 import de.codapro.api.annotations.OnInit;
+import de.codapro.api.model.ColumnType;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.MarkingStream;
 import de.codapro.api.model.Stream;
@@ -38,6 +40,7 @@ import org.slf4j.Logger;
  * @author cplump
  */
 
+@DeclaredColumns
 @Component(name = "WindowDetectorBySlopeChange", doc = "computes piecewise slopes and detects changes that are higher than expected.")
 public class WindowDetectorBySlopeChange {
 	@Log
@@ -68,9 +71,16 @@ public class WindowDetectorBySlopeChange {
 	@Input(doc = "Number of data points that will be transfered before and after an peak.", name = "offset-size")
 	private int windowSize = 5000;
 
+	@Input(doc = "Number of data vectors handed to the output stream at once, 0 or 1 hands them over one by one.", name = "batch-size", required = false)
+	private int batchSize = 0;
+
 	@OnExecute
 	public void execute(final @Named("output-stream") Stream outputStream) throws ConversionException {
-		bufferingStream = new MarkingStream(outputStream, windowSize);
+		if(batchSize > 1) {
+			bufferingStream = new MarkingStream(outputStream, windowSize, outputStream.getHeader().freeze(), batchSize);
+		} else {
+			bufferingStream = new MarkingStream(outputStream, windowSize);
+		}
 
 		processColumns();
 
@@ -84,7 +94,7 @@ public class WindowDetectorBySlopeChange {
 	@OnInit
 	public void getColumnId(final @Named("output-stream") Stream outputStream) {
 		outputStream.setHeader(inputStream.getHeader());
-		outputStream.getHeader().add(peakColumn);
+		outputStream.getHeader().add(peakColumn, ColumnType.BOOLEAN);
 	}
 
 	/**
@@ -27,15 +27,18 @@ import org.slf4j.Logger;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnExecute;
 import de.codapro.api.annotations.OnInit;
+import de.codapro.api.model.ColumnType;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.MarkingStream;
 import de.codapro.api.model.Stream;
 import de.codapro.api.model.Value;
 
+@DeclaredColumns
 @Component(name = "WindowDetectorByThreshold", doc = "Find peaks in a data stream. The result is stored to a boolean column that is appended to each data vector.")
 public class WindowDetectorByThreshold {
 	@Log
@@ -57,6 +60,9 @@ public class WindowDetectorByThreshold {
 	@Input(doc = "Number of data points that will be transfered before and after an peak.", name = "offset-size", required = false)
 	private int windowSize = 5000;
 
+	@Input(doc = "Number of data vectors handed to the output stream at once, 0 or 1 hands them over one by one.", name = "batch-size", required = false)
+	private int batchSize = 0;
+
 	@Input(doc = "Name of the new column that stores the information if the vector belongs to a peak or not.", name = "name")
 	private String peakColumn;
 
@@ -71,12 +77,16 @@ public class WindowDetectorByThreshold {
 	@OnInit
 	public void getColumnId(final @Named("output-stream") Stream outputStream) {
 		outputStream.setHeader(inputStream.getHeader());
-		outputStream.getHeader().add(peakColumn);
+		outputStream.getHeader().add(peakColumn, ColumnType.BOOLEAN);
 	}
 
 	@OnExecute
 	public void execute(final @Named("output-stream") Stream outputStream) throws  ConversionException {
-		bufferingStream = new MarkingStream(outputStream, windowSize);
+		if(batchSize > 1) {
+			bufferingStream = new MarkingStream(outputStream, windowSize, outputStream.getHeader().freeze(), batchSize);
+		} else {
+			bufferingStream = new MarkingStream(outputStream, windowSize);
+		}
 
 		processColumns();
 
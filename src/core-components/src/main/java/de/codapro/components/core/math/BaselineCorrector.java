@@ -2,12 +2,14 @@ package de.codapro.components.core.math;
 
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.OnInit;
 import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Value;
 
+@DeclaredColumns
 @Component(name = "BaselineCorrector", doc = "Component to correct data stream by a given offset.")
 public class BaselineCorrector {
 	@Input(doc = "The offset the datastream is corrected by.", name = "offset", type = Double.class)
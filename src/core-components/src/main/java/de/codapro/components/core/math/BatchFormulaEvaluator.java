@@ -0,0 +1,281 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.math;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import javax.inject.Named;
+
+import org.mariuszgromada.math.mxparser.Constant;
+import org.mariuszgromada.math.mxparser.Expression;
+import org.slf4j.Logger;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.Input;
+import de.codapro.api.annotations.Log;
+import de.codapro.api.annotations.OnExecute;
+import de.codapro.api.annotations.OnInit;
+import de.codapro.api.model.BatchConversionException;
+import de.codapro.api.model.ColumnType;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
+import de.codapro.components.core.utils.math.CompiledFormula;
+import de.codapro.components.core.utils.math.FormulaEvaluatorBase;
+
+/**
+ * Evaluates formulas like {@link FormulaEvaluator}, but reads and writes
+ *   batches of {@code batch-size} vectors, see {@link Stream#getBatch(DataBatch)}.
+ *   Numeric columns are read from the primitive columns of the batch, so a
+ *   batch produced by a reader reaches the compiled formulas without boxing
+ *   a value. The input columns are copied column-wise to the output batch and
+ *   the results are stored in double columns.
+ *
+ * Formulas the compiler does not support are evaluated by mXparser row by
+ *   row, which boxes the values of all numeric columns.
+ */
+@Component(doc = "A component for calculating new values based on configurable formulas, evaluated batch-wise.", name = "BatchFormulaEvaluator")
+public class BatchFormulaEvaluator extends FormulaEvaluatorBase {
+	@Log
+	private static Logger log;
+
+	@Input(doc = "Number of data vectors evaluated at once.", name = "batch-size", required = false)
+	private int batchSize = 1024;
+
+	@Named("output-stream")
+	private Stream outputStream;
+
+	/**
+	 * Number of columns of the input vectors, the header is shared with the
+	 *   output stream and also contains the result columns.
+	 */
+	private int inputColumnCount;
+
+	/**
+	 * Mangled name of each input column, used as constant name in the formulas.
+	 */
+	private String [] constantNames;
+
+	/**
+	 * The compiled formulas, {@code null} for formulas evaluated by mXparser.
+	 */
+	private CompiledFormula [] compiledFormulas;
+
+	/**
+	 * Columns used by each compiled formula.
+	 */
+	private int [][] formulaColumns;
+
+	/**
+	 * Columns used by any compiled formula.
+	 */
+	private int [] usedColumns;
+
+	/**
+	 * Values of the used columns of the current row, indexed by column.
+	 */
+	private double [] values;
+
+	/**
+	 * Iff the value of a used column of the current row is not a number.
+	 */
+	private boolean [] missing;
+
+	private DataBatch input;
+
+	private DataBatch output;
+
+	@OnInit
+	public void init() {
+		inputColumnCount = stream.getHeader().size();
+
+		outputStream.setHeader(stream.getHeader());
+		addColumnNamesToOutputStream(outputStream);
+		for(int i = 0; i < formulas.length; ++i) {
+			outputStream.getHeader().setType(inputColumnCount + i, ColumnType.DOUBLE);
+		}
+
+		resolveFunctions();
+
+		for(final Expression formula : formulas) {
+			formula.addFunctions(functions);
+		}
+
+		compileFormulas();
+	}
+
+	@OnExecute
+	public void execute() throws ConversionException {
+		try {
+			while(true) {
+				readBatch();
+				evaluateFormulas();
+
+				output.setGroupMarker(input.getGroupMarker());
+				outputStream.appendBatch(output);
+			}
+		} catch(final NoSuchElementException e) {
+			// end of stream reached.
+		}
+	}
+
+	/**
+	 * Reads the next batch. The column types are taken from the header, they
+	 *   might be set by the producer only once it knows them.
+	 */
+	private void readBatch() throws BatchConversionException {
+		final StreamHeader header = stream.getHeader();
+
+		if(input == null || !hasTypesOf(header)) {
+			final ColumnType [] types = new ColumnType[inputColumnCount];
+			for(int column = 0; column < inputColumnCount; ++column) {
+				types[column] = header.typeOf(column);
+			}
+
+			final ColumnType [] outputTypes = Arrays.copyOf(types, inputColumnCount + formulas.length);
+			Arrays.fill(outputTypes, inputColumnCount, outputTypes.length, ColumnType.DOUBLE);
+
+			input = new DataBatch(types, batchSize);
+			output = new DataBatch(outputTypes, batchSize);
+		}
+
+		try {
+			stream.getBatch(input);
+		} catch(final BatchConversionException e) {
+			log.error("Vector {} does not match the column types of the header {}.", e.getVector(), header);
+			throw e;
+		}
+	}
+
+	private boolean hasTypesOf(final StreamHeader header) {
+		for(int column = 0; column < inputColumnCount; ++column) {
+			if(input.getType(column) != header.typeOf(column)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private void evaluateFormulas() throws ConversionException {
+		output.clear();
+		output.copyRows(input, 0, input.size());
+
+		for(int row = 0; row < input.size(); ++row) {
+			for(final int column : usedColumns) {
+				readValue(column, row);
+			}
+
+			for(int i = 0; i < formulas.length; ++i) {
+				final double result = compiledFormulas[i] != null ? evaluateCompiled(i) : evaluateInterpreted(formulas[i], row);
+
+				output.setDouble(inputColumnCount + i, row, result);
+			}
+		}
+	}
+
+	private void readValue(final int column, final int row) {
+		switch(input.getType(column)) {
+		case DOUBLE:
+		case FLOAT:
+		case INT:
+			missing[column] = input.isNull(column, row);
+			values[column] = input.getDouble(column, row);
+			break;
+
+		default:
+			final Object value = input.get(column, row);
+
+			missing[column] = !(value instanceof Number);
+			values[column] = missing[column] ? Double.NaN : ((Number)value).doubleValue();
+			break;
+		}
+	}
+
+	/**
+	 * Like mXparser, a formula using a column that is not a number cannot be calculated.
+	 */
+	private double evaluateCompiled(final int formula) {
+		for(final int column : formulaColumns[formula]) {
+			if(missing[column]) {
+				return Double.NaN;
+			}
+		}
+
+		return compiledFormulas[formula].evaluate(values);
+	}
+
+	private double evaluateInterpreted(final Expression exp, final int row) {
+		exp.removeAllConstants();
+
+		exp.addConstants(constants);
+
+		for(int column = 0; column < inputColumnCount; ++column) {
+			final Object value = input.get(column, row);
+
+			if(!(value instanceof Number)) {
+				continue;
+			}
+
+			final Constant arg = new Constant(constantNames[column], ((Number)value).doubleValue());
+			exp.addConstants(arg);
+		}
+
+		return exp.calculate();
+	}
+
+	private void compileFormulas() {
+		final StreamHeader header = stream.getHeader();
+
+		// names of several columns are ambiguous and left to mXparser
+		final Map<String, Integer> columns = new HashMap<>();
+		constantNames = new String[inputColumnCount];
+		for(int column = 0; column < inputColumnCount; ++column) {
+			constantNames[column] = mangleName(header.nameOf(column));
+			columns.merge(constantNames[column], column, (first, second) -> -1);
+		}
+
+		compiledFormulas = new CompiledFormula[formulas.length];
+		formulaColumns = new int[formulas.length][];
+		values = new double[inputColumnCount];
+		missing = new boolean[inputColumnCount];
+
+		for(int i = 0; i < formulas.length; ++i) {
+			compiledFormulas[i] = CompiledFormula.compile(formulas[i].getExpressionString(), name -> columns.getOrDefault(name, -1), constants, functions);
+
+			if(compiledFormulas[i] == null) {
+				log.info("Formula {} is evaluated by mXparser row by row.", formulas[i].getExpressionString());
+				formulaColumns[i] = new int[0];
+			} else {
+				formulaColumns[i] = compiledFormulas[i].getColumns();
+			}
+		}
+
+		usedColumns = Arrays.stream(formulaColumns).flatMapToInt(Arrays::stream).distinct().toArray();
+	}
+
+	@Override
+	public String toString() {
+		return "BatchFormulaEvaluator [formulas=" + formulas.length + ", batchSize=" + batchSize + "]";
+	}
+}
@@ -18,20 +18,73 @@
  */
 package de.codapro.components.core.math;
 
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
 import javax.inject.Named;
 
 import org.mariuszgromada.math.mxparser.Constant;
 import org.mariuszgromada.math.mxparser.Expression;
+import org.slf4j.Logger;
 
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnInit;
 import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
+import de.codapro.components.core.utils.math.CompiledFormula;
 import de.codapro.components.core.utils.math.FormulaEvaluatorBase;
 
+/**
+ * Evaluates formulas for each vector, the numeric input columns are available
+ *   as constants named like the columns. Formulas are compiled once per input
+ *   header (see {@link CompiledFormula}), they only read the columns they use.
+ *   Formulas using features the compiler does not support are evaluated by
+ *   mXparser with all numeric columns as constants.
+ */
 @Component(doc = "A component for calculating new values based on configurable formulas.", name = "FormulaEvaluator")
 public class FormulaEvaluator extends FormulaEvaluatorBase {
+	@Log
+	private static Logger log;
+
+	/**
+	 * The header {@link #constantNames} belongs to.
+	 */
+	private StreamHeader namedHeader = null;
+
+	/**
+	 * Mangled name of each input column, used as constant name in the formulas.
+	 */
+	private String [] constantNames = {};
+
+	/**
+	 * The compiled formulas, {@code null} for formulas evaluated by mXparser.
+	 */
+	private CompiledFormula [] compiledFormulas = {};
+
+	/**
+	 * Columns used by each compiled formula.
+	 */
+	private int [][] formulaColumns = {};
+
+	/**
+	 * Columns used by any compiled formula.
+	 */
+	private int [] usedColumns = {};
+
+	/**
+	 * Values of the used columns of the current vector, indexed by column.
+	 */
+	private double [] values = {};
+
+	/**
+	 * Iff the value of a used column of the current vector is not a number.
+	 */
+	private boolean [] missing = {};
+
 	@OnInit
 	public void init(final @Named("output-stream") Stream stream) {
 		addColumnNamesToOutputStream(stream);
@@ -45,23 +98,100 @@ public class FormulaEvaluator extends FormulaEvaluatorBase {
 
 	@OnProcess
 	public void evaluateFormulas(final DataVector vector) {
-		for(final Expression exp : formulas) {
-			exp.removeAllConstants();
+		final String [] names = constantNames();
 
-			exp.addConstants(constants);
+		for(final int column : usedColumns) {
+			final Object value = vector.get(column);
 
-			for(final String column : stream.getHeader()) {
-				final Object value = vector.get(stream.getHeader().indexOf(column));
+			missing[column] = !(value instanceof Number);
+			values[column] = missing[column] ? Double.NaN : ((Number)value).doubleValue();
+		}
 
-				if(!(value instanceof Number)) {
-					continue;
-				}
+		for(int i = 0; i < formulas.length; ++i) {
+			if(compiledFormulas[i] != null) {
+				vector.append(evaluateCompiled(i));
+			} else {
+				vector.append(evaluateInterpreted(formulas[i], vector, names));
+			}
+		}
+	}
 
-				final Constant arg = new Constant(mangleName(column), ((Number)value).doubleValue());
-				exp.addConstants(arg);
+	/**
+	 * Like mXparser, a formula using a column that is not a number cannot be calculated.
+	 */
+	private double evaluateCompiled(final int formula) {
+		for(final int column : formulaColumns[formula]) {
+			if(missing[column]) {
+				return Double.NaN;
 			}
+		}
+
+		return compiledFormulas[formula].evaluate(values);
+	}
+
+	private double evaluateInterpreted(final Expression exp, final DataVector vector, final String [] names) {
+		exp.removeAllConstants();
+
+		exp.addConstants(constants);
+
+		for(int column = 0; column < names.length; ++column) {
+			final Object value = vector.get(column);
 
-			vector.append(exp.calculate());
+			if(!(value instanceof Number)) {
+				continue;
+			}
+
+			final Constant arg = new Constant(names[column], ((Number)value).doubleValue());
+			exp.addConstants(arg);
+		}
+
+		return exp.calculate();
+	}
+
+	/**
+	 * @return The constant names of the input columns. They are only computed
+	 *   again if the input header changes, the formulas are compiled again
+	 *   for the new columns.
+	 */
+	private String [] constantNames() {
+		final StreamHeader header = stream.getHeader();
+
+		if(header != namedHeader || header.size() != constantNames.length) {
+			constantNames = new String[header.size()];
+			for(int column = 0; column < constantNames.length; ++column) {
+				constantNames[column] = mangleName(header.nameOf(column));
+			}
+
+			namedHeader = header;
+			compileFormulas();
 		}
+
+		return constantNames;
+	}
+
+	private void compileFormulas() {
+		// names of several columns are ambiguous and left to mXparser
+		final Map<String, Integer> columns = new HashMap<>();
+		for(int column = 0; column < constantNames.length; ++column) {
+			columns.merge(constantNames[column], column, (first, second) -> -1);
+		}
+
+		compiledFormulas = new CompiledFormula[formulas.length];
+		formulaColumns = new int[formulas.length][];
+		values = new double[constantNames.length];
+		missing = new boolean[constantNames.length];
+
+		for(int i = 0; i < formulas.length; ++i) {
+			compiledFormulas[i] = CompiledFormula.compile(formulas[i].getExpressionString(), name -> columns.getOrDefault(name, -1), constants, functions);
+
+			if(compiledFormulas[i] == null) {
+				log.info("Formula {} is evaluated by mXparser.", formulas[i].getExpressionString());
+				formulaColumns[i] = new int[0];
+			} else {
+				formulaColumns[i] = compiledFormulas[i].getColumns();
+			}
+		}
+
+		usedColumns = Arrays.stream(formulaColumns).flatMapToInt(Arrays::stream).distinct().toArray();
 	}
 }
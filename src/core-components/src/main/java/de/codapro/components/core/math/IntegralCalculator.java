@@ -21,6 +21,7 @@ package de.codapro.components.core.math;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.GroupIsolated;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnEnterGroup;
@@ -40,6 +41,7 @@ import org.slf4j.Logger;
  * @author cplump
  */
 
+@GroupIsolated
 @Component(name = "IntegralCalculator", doc = "Calculates the integral under a curve for given channels.", sinks = {
 		@Input(doc = "The component's input stream.", name = "input-stream", required = true),
 		@Input(doc = "Input Stream that contains already computed data", name = "descriptor-stream-input")
@@ -21,6 +21,7 @@ package de.codapro.components.core.math;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.GroupIsolated;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnEnterGroup;
@@ -35,6 +36,7 @@ import java.util.Arrays;
 import javax.inject.Named;
 import org.slf4j.Logger;
 
+@GroupIsolated
 @Component(name= "MaximumCalculator",
            doc="Determines the maximal value within a given time frame for given channels.",
            sinks = {
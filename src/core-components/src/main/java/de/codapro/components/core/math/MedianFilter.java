@@ -21,13 +21,13 @@ package de.codapro.components.core.math;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.NoSuchElementException;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnExecute;
@@ -37,7 +37,15 @@ import de.codapro.api.model.BufferingStream;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 import de.codapro.components.core.stream.impl.ConversionRule;
+import de.codapro.components.core.utils.math.SlidingMedian;
 
+/**
+ * Sets each result column to the median of the source column within a window
+ *   of {@code filter-size} vectors centered at the vector. The medians of all
+ *   columns are updated incrementally, so each vector costs
+ *   {@code O(log filter-size)} per column.
+ */
+@DeclaredColumns
 @Component(name = "MedianFilter", doc = "Median filter to remove noise.")
 public class MedianFilter {
 	@Log
@@ -56,6 +64,17 @@ public class MedianFilter {
 
 	private BufferingStream dataBuffer;
 
+	/**
+	 * Median of the buffered source values of each conversion rule.
+	 */
+	private SlidingMedian [] medians;
+
+	/**
+	 * Type of the source values of each conversion rule, the median is
+	 *   converted back to it.
+	 */
+	private Class<?> [] types;
+
 	@Input(doc="The filter size.", name="filter-size")
 	private int filterSize;
 
@@ -70,19 +89,26 @@ public class MedianFilter {
 		try {
 			while(true) {
 				final DataVector vector = inputStream.get();
+				final DataVector center = dataBuffer.get(filterSize / 2);
 
-				for(final ConversionRule rule : conversionRules) {
-					final List<Object> sortedElements = dataBuffer.stream().map(v -> v.get(rule.getSourceIndex())).sorted().collect(Collectors.toList());
-					Object median = sortedElements.get(sortedElements.size() / 2);
-					dataBuffer.get(filterSize / 2).set(rule.getTargetIndex(), median);
+				for(int r = 0; r < medians.length; ++r) {
+					center.set(conversionRules.get(r).getTargetIndex(), toNumber(medians[r].median(), types[r]));
 				}
+
 				dataBuffer.append(vector);
+				addToMedians(vector);
 			}
 		} catch(final NoSuchElementException e) {
 			// end of stream reached.
 		}
 	}
 
+	private void addToMedians(final DataVector vector) {
+		for(int r = 0; r < medians.length; ++r) {
+			medians[r].add(((Number)vector.get(conversionRules.get(r).getSourceIndex())).doubleValue());
+		}
+	}
+
 	private Number getNaN(final Number object) {
 		if(object instanceof Float) {
 			return Float.NaN;
@@ -94,6 +120,21 @@ public class MedianFilter {
 		return 0;
 	}
 
+	/**
+	 * Converts a median to the type of the source values.
+	 */
+	private static Number toNumber(final double value, final Class<?> type) {
+		if(type == Float.class) {
+			return (float)value;
+		} else if(type == Integer.class) {
+			return (int)value;
+		} else if(type == Long.class) {
+			return (long)value;
+		}
+
+		return value;
+	}
+
 	@OnInit
 	public void initBuffers() throws ConversionException {
 		copyStreamHeader();
@@ -101,15 +142,26 @@ public class MedianFilter {
 		createConversionRules();
 
 		dataBuffer = new BufferingStream(outputStream, filterSize);
+		medians = new SlidingMedian[conversionRules.size()];
+		types = new Class<?>[conversionRules.size()];
+
+		for(int r = 0; r < medians.length; ++r) {
+			medians[r] = new SlidingMedian(filterSize);
+		}
 
 		while(!dataBuffer.isFull()) {
 			final DataVector vector = inputStream.get();
 
-			for(final ConversionRule rule : conversionRules) {
-				final Number nan = getNaN((Number)vector.get(rule.getSourceIndex()));
-				vector.set(rule.getTargetIndex(), nan);
-				dataBuffer.append(vector);
+			for(int r = 0; r < medians.length; ++r) {
+				final ConversionRule rule = conversionRules.get(r);
+				final Number value = (Number)vector.get(rule.getSourceIndex());
+
+				types[r] = value.getClass();
+				vector.set(rule.getTargetIndex(), getNaN(value));
 			}
+
+			dataBuffer.append(vector);
+			addToMedians(vector);
 		}
 	}
 
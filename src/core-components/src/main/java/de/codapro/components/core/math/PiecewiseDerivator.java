@@ -24,6 +24,7 @@ import org.slf4j.Logger;
 
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnInit;
@@ -36,6 +37,7 @@ import de.codapro.api.model.Stream;
  *
  */
 
+@DeclaredColumns
 @Component(name="PiecewiseDerivator", doc = "Computes the piecewise derivation of the given column. If given no other information, this is done by simple subtraction. "
 		+ "If given a column to refer to, it is computed as a differential quotient")
 public class PiecewiseDerivator {
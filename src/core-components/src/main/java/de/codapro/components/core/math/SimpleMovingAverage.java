@@ -19,7 +19,6 @@
 package de.codapro.components.core.math;
 
 import java.util.Arrays;
-import java.util.NoSuchElementException;
 
 import javax.inject.Named;
 
@@ -28,20 +27,53 @@ import org.slf4j.Logger;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
-import de.codapro.api.annotations.OnExecute;
 import de.codapro.api.annotations.OnFinish;
 import de.codapro.api.annotations.OnInit;
 import de.codapro.api.annotations.OnProcess;
-import de.codapro.api.annotations.Output;
 import de.codapro.api.model.BufferingStream;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
+import de.codapro.api.model.WindowListener;
+import de.codapro.components.core.utils.math.NeumaierSum;
 
+/**
+ * Appends the moving average of each input column to the vectors. The window
+ *   sums are updated when a vector enters or leaves the window, so a vector
+ *   costs the same for every filter size. NaN and infinite values are not
+ *   added to the sums, the average of a window containing one is NaN.
+ */
+@DeclaredColumns
 @Component(name = "SimpleMovingAverage", doc = "computes the moving average of a column")
 public class SimpleMovingAverage {
-	
+	/**
+	 * The averaging modes.
+	 */
+	public enum Mode {
+		/**
+		 * The mean of the vector and the {@code filter-size - 1} preceding
+		 *   vectors, fewer at the start of the stream.
+		 */
+		TRAILING,
+
+		/**
+		 * The mean of {@code filter-size} vectors centered at the vector,
+		 *   fewer at both ends of the stream. The vector is at index
+		 *   {@code filter-size / 2} of the window, like for the {@link MedianFilter}.
+		 */
+		CENTERED,
+
+		/**
+		 * The exponentially weighted mean with the smoothing factor {@code alpha}.
+		 */
+		EXPONENTIAL
+	}
+
+	@Input(doc="Smoothing factor of the exponential mode within (0, 1]. Defaults to 2 / (filter-size + 1).", name="alpha", required=false)
+	private double alpha = Double.NaN;
+
 	private BufferingStream dataBuffer; 
 	
 	@Input(doc="The amount of data to be smoothed. Average of order 'filter size'.", name="filter-size")
@@ -56,28 +88,104 @@ public class SimpleMovingAverage {
 	@Log
 	private Logger log;
 
+	@Input(doc="The averaging mode (TRAILING, CENTERED or EXPONENTIAL).", name="mode", required=false)
+	private Mode mode = Mode.TRAILING;
+
 	@Input(doc = "Name of the output columns for the calculated mean.", name = "results", required = true)
 	public String[]  outputColumns;
 
-	//@Output(doc="The stream containing the original data with columns added for the smoothed values.", name="output-stream")
-	//private Stream outputStream;
+	private Stream outputStream;
+
+	/**
+	 * Sums of the finite values of the input columns over the buffered vectors.
+	 */
+	private NeumaierSum [] sums;
+
+	/**
+	 * Numbers of the buffered NaN and infinite values of the input columns.
+	 */
+	private int [] nonFiniteCounts;
+
+	/**
+	 * The exponentially weighted means, NaN until the first finite value.
+	 */
+	private double [] averages;
 
 	@OnInit()
 	public void initBuffers(@Named("output-stream") final Stream outputStream) throws ConversionException {
 		copyStreamHeader(outputStream);
+		this.outputStream = outputStream;
+
+		if(mode == Mode.EXPONENTIAL) {
+			if(Double.isNaN(alpha)) {
+				alpha = 2.0 / (filterSize + 1);
+			}
+
+			if(!(alpha > 0 && alpha <= 1)) {
+				throw new IllegalArgumentException("Smoothing factor must be within (0, 1] but is " + alpha + ".");
+			}
+
+			averages = new double[inputColumns.length];
+			Arrays.fill(averages, Double.NaN);
+			return;
+		}
+
 		dataBuffer = new BufferingStream(outputStream, filterSize);
+		sums = new NeumaierSum[inputColumns.length];
+		nonFiniteCounts = new int[inputColumns.length];
+
+		for(int j = 0; j < sums.length; j++) {
+			sums[j] = new NeumaierSum();
+		}
+
+		// the sums follow the window, so a mean costs the same for every filter size
+		dataBuffer.addListener(new WindowListener() {
+			@Override
+			public void admitted(final DataVector vector) {
+				updateSums(vector, true);
+			}
+
+			@Override
+			public void evicted(final DataVector vector) {
+				updateSums(vector, false);
+			}
+		});
 	}
 
 	@OnProcess(dest= {})
 	public void process(final DataVector vector) throws ConversionException {
-		dataBuffer.append(vector);
+		switch(mode) {
+		case EXPONENTIAL:
+			vector.appendAll(updateAverages(vector));
+			outputStream.append(vector);
+			break;
+
+		case CENTERED:
+			dataBuffer.append(vector);
+
+			final int center = dataBuffer.size() - 1 - successors();
+			if(center >= 0) {
+				dataBuffer.get(center).appendAll(computeMean(dataBuffer.size()));
+			}
+			break;
 
-		final double [] means = computeMeanFromBuffer();
-		vector.appendAll(means);
+		default:
+			dataBuffer.append(vector);
+			vector.appendAll(computeMean(dataBuffer.size()));
+		}
 	}
 
 	@OnFinish
 	public void finish() {
+		if(dataBuffer == null) {
+			outputStream.markClosed();
+			return;
+		}
+
+		if(mode == Mode.CENTERED) {
+			completeCenteredMeans();
+		}
+
 		try {
 			dataBuffer.close();
 		} catch (final ConversionException c) {
@@ -85,24 +193,67 @@ public class SimpleMovingAverage {
 		}
 	}
 
-	private double[] computeMeanFromBuffer() {
-		double[] mean = new double[inputColumns.length];
+	/**
+	 * Appends the means to the last vectors, their windows lack successors.
+	 *   The window is shrunk from the front, the sums are not used afterwards.
+	 */
+	private void completeCenteredMeans() {
+		final int size = dataBuffer.size();
+		int first = 0;
+
+		for(int i = Math.max(0, size - successors()); i < size; ++i) {
+			while(first < i - filterSize / 2) {
+				updateSums(dataBuffer.get(first++), false);
+			}
+
+			dataBuffer.get(i).appendAll(computeMean(size - first));
+		}
+	}
+
+	private double[] computeMean(final int count) {
+		final double[] mean = new double[inputColumns.length];
+
+		//divide every sum by the current window size to obtain mean
+		for(int j = 0; j < inputColumns.length; j++) {
+			mean[j] = nonFiniteCounts[j] > 0 ? Double.NaN : sums[j].value() / count;
+		}
+
+		return mean; 
+	}
+
+	/**
+	 * @return Number of vectors following the center of a centered window.
+	 */
+	private int successors() {
+		return filterSize - 1 - filterSize / 2;
+	}
 
-		//for each column to be smoothed
+	private double[] updateAverages(final DataVector vector) {
 		for(int j = 0; j < inputColumns.length; j++) {
+			final double value = ((Number)vector.get(inputColumns[j])).doubleValue();
 
-			//compute sum of current buffer
-			final int currentSize = dataBuffer.size();
-			for(int i = 0; i < currentSize; i++) {
-				mean[j] = mean[j] + (Double) dataBuffer.get(i).get(inputColumns[j]);
+			if(!Double.isFinite(value)) {
+				continue;
 			}
 
-			//divide every sum by filterSize to obtain mean
-			mean[j] /= currentSize;
+			averages[j] = Double.isNaN(averages[j]) ? value : averages[j] + alpha * (value - averages[j]);
 		}
 
+		return averages;
+	}
 
-		return mean; 
+	private void updateSums(final DataVector vector, final boolean admitted) {
+		for(int j = 0; j < inputColumns.length; j++) {
+			final double value = ((Number)vector.get(inputColumns[j])).doubleValue();
+
+			if(!Double.isFinite(value)) {
+				nonFiniteCounts[j] += admitted ? 1 : -1;
+			} else if(admitted) {
+				sums[j].add(value);
+			} else {
+				sums[j].subtract(value);
+			}
+		}
 	}
 
 	private void copyStreamHeader(final Stream outputStream) {
@@ -112,6 +263,6 @@ public class SimpleMovingAverage {
 
 	@Override
 	public String toString() {
-		return "SimpleMovingAverage [inputColumns=" + inputColumns + ", outputColumns=" + outputColumns + "]";
+		return "SimpleMovingAverage [inputColumns=" + inputColumns + ", outputColumns=" + outputColumns + ", mode=" + mode + "]";
 	}
 }
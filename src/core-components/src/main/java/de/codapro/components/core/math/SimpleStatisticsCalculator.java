@@ -22,13 +22,16 @@ import org.slf4j.Logger;
 
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnFinish;
 import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.annotations.Output;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Value;
+import de.codapro.components.core.utils.math.RunningStatistics;
 
+@DeclaredColumns
 @Component(name = "SimpleStatisticsCalculator", doc = "Calculate simple statistics, such as mean, variance, max and min for a given data stream.", sources = {})
 public class SimpleStatisticsCalculator {
 	@Log
@@ -61,51 +64,39 @@ public class SimpleStatisticsCalculator {
 	@Output(doc = "The variance value.", name = "variance")
 	private Value<Double> varianceValue;
 
-	private double mean = 0.0f;
-	private double max = Double.NEGATIVE_INFINITY;
-	private double min = Double.POSITIVE_INFINITY;
-	private int count = 0;
-
-	private double f1 = 0.0f;
-	private double f2 = 0.0f;
+	private final RunningStatistics statistics = new RunningStatistics();
 
 	@OnProcess(dest = {})
 	public void process(final DataVector vector) {
 		final Object val = vector.get(dataIndex);
 
-		// count the number of data sets
-		count = count + 1;
-
 		// extract value of row
-		double value = 0.0f;
+		double value = 0.0;
 		if (val instanceof Number) {
 			value = ((Number) val).doubleValue();
 		} else {
 			log.error("No numeric value for statistics calculation: {}.", val);
 		}
 
-		mean += value;
-		max = Math.max(max, value);
-		min = Math.min(min, value);
-
-		f1 += Math.pow(value, 2);
-		f2 += value;
+		statistics.add(value);
 	}
 
 	@OnFinish
 	public void setConstants() {
-		mean /= count;
-		float variance = (float) (f1 - 2 * mean * f2 + count * Math.pow(mean, 2)) / count;
+		final double mean = statistics.mean();
+		final double variance = statistics.variance();
+		final double max = statistics.max();
+		final double min = statistics.min();
 
 		log.info("Noise mean is {}.", mean);
 		log.info("Noise variance is {}.", variance);
 		log.info("Noise max is {}.", max);
 		log.info("Noise min is {}.", min);
 
-		meanValue.set((double) mean);
-		minValue.set((double) min);
-		maxValue.set((double) max);
-		varianceValue.set((double) variance);
+		meanValue.set(mean);
+		minValue.set(min);
+		maxValue.set(max);
+		varianceValue.set(variance);
 	}
 
 	@Override
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.math;
+
+import java.util.Arrays;
+import java.util.function.ToDoubleFunction;
+
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.annotations.ColumnId;
+import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
+import de.codapro.api.annotations.Log;
+import de.codapro.api.annotations.OnEnterGroup;
+import de.codapro.api.annotations.OnFinish;
+import de.codapro.api.annotations.OnInit;
+import de.codapro.api.annotations.OnLeaveGroup;
+import de.codapro.api.annotations.OnProcess;
+import de.codapro.api.annotations.Output;
+import de.codapro.api.model.ColumnType;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.Value;
+import de.codapro.components.core.utils.math.RunningStatistics;
+
+/**
+ * Calculates the statistics of several columns. Each group is accumulated
+ *   separately and described by one row per column in the descriptor stream,
+ *   the statistics of the whole stream are obtained by merging the ones of
+ *   the groups (see {@link RunningStatistics}). Vectors outside of groups are
+ *   described by a single row per column with group index {@code -1} once
+ *   the input ends. Nested groups are part of their enclosing group.
+ *
+ * The statistics of the whole stream are published as arrays with one
+ *   element per column. The variance is the population variance like the one
+ *   of {@link SimpleStatisticsCalculator}, the kurtosis is the excess kurtosis.
+ *   Values that are not finite numbers are ignored.
+ */
+@DeclaredColumns
+@Component(name = "StatisticsCalculator",
+		   doc = "Calculates count, mean, variance, min, max, skewness and kurtosis of several columns, in total and per group.",
+		   sources = {
+			   @Output(doc = "One row of statistics per group and column.", name = "descriptor-stream")
+		   })
+public class StatisticsCalculator {
+	@Log
+	private static Logger log;
+
+	@ColumnId(doc = "The columns to calculate the statistics for.", name = "columns", stream = "input-stream")
+	private int [] columns;
+
+	@Output(doc = "The number of finite values of each column.", name = "count")
+	private Value<long[]> countValue;
+
+	@Output(doc = "The mean of each column.", name = "mean")
+	private Value<double[]> meanValue;
+
+	@Output(doc = "The variance of each column.", name = "variance")
+	private Value<double[]> varianceValue;
+
+	@Output(doc = "The minimum of each column.", name = "min")
+	private Value<double[]> minValue;
+
+	@Output(doc = "The maximum of each column.", name = "max")
+	private Value<double[]> maxValue;
+
+	@Output(doc = "The skewness of each column.", name = "skewness")
+	private Value<double[]> skewnessValue;
+
+	@Output(doc = "The excess kurtosis of each column.", name = "kurtosis")
+	private Value<double[]> kurtosisValue;
+
+	@Output(doc = "The mergeable statistics of each column.", name = "statistics")
+	private Value<RunningStatistics[]> statisticsValue;
+
+	/**
+	 * Names of the columns.
+	 */
+	private String [] columnNames;
+
+	/**
+	 * Statistics of the current group or of the vectors outside of groups.
+	 */
+	private RunningStatistics [] partials;
+
+	/**
+	 * Statistics of the vectors outside of groups that precede the current group.
+	 */
+	private RunningStatistics [] ungrouped;
+
+	/**
+	 * Statistics of all values described so far.
+	 */
+	private RunningStatistics [] totals;
+
+	/**
+	 * Index of the current group, {@code -1} outside of groups.
+	 */
+	private int group = -1;
+
+	/**
+	 * Number of groups entered so far.
+	 */
+	private int groupCount = 0;
+
+	/**
+	 * Nesting depth of groups, nested groups are part of the enclosing group.
+	 */
+	private int depth = 0;
+
+	@OnInit
+	public void init(final @Named("input-stream") Stream input, final @Named("descriptor-stream") Stream descriptors) {
+		columnNames = new String[columns.length];
+		partials = new RunningStatistics[columns.length];
+		ungrouped = new RunningStatistics[columns.length];
+		totals = new RunningStatistics[columns.length];
+		for(int i = 0; i < columns.length; ++i) {
+			columnNames[i] = input.getHeader().nameOf(columns[i]);
+			partials[i] = new RunningStatistics();
+			ungrouped[i] = new RunningStatistics();
+			totals[i] = new RunningStatistics();
+		}
+
+		descriptors.getHeader()
+				   .add("Group", ColumnType.INT)
+				   .add("Column", ColumnType.STRING)
+				   .add("Count")
+				   .add("Mean", ColumnType.DOUBLE)
+				   .add("Variance", ColumnType.DOUBLE)
+				   .add("Min", ColumnType.DOUBLE)
+				   .add("Max", ColumnType.DOUBLE)
+				   .add("Skewness", ColumnType.DOUBLE)
+				   .add("Kurtosis", ColumnType.DOUBLE);
+	}
+
+	@OnEnterGroup
+	public void enter() {
+		if(depth++ > 0) {
+			return;
+		}
+
+		for(int i = 0; i < columns.length; ++i) {
+			ungrouped[i].merge(partials[i]);
+			partials[i].clear();
+		}
+
+		group = groupCount++;
+	}
+
+	@OnLeaveGroup
+	public void leave(final @Named("descriptor-stream") Stream descriptors) throws ConversionException {
+		if(--depth > 0) {
+			return;
+		}
+
+		describe(partials, descriptors);
+		group = -1;
+	}
+
+	@OnProcess(dest = {})
+	public void process(final DataVector vector) {
+		for(int i = 0; i < columns.length; ++i) {
+			final Object value = vector.get(columns[i]);
+
+			if(value instanceof Number && Double.isFinite(((Number)value).doubleValue())) {
+				partials[i].add(((Number)value).doubleValue());
+			}
+		}
+	}
+
+	@OnFinish
+	public void publish(final @Named("descriptor-stream") Stream descriptors) throws ConversionException {
+		boolean hasUngrouped = false;
+		for(int i = 0; i < columns.length; ++i) {
+			ungrouped[i].merge(partials[i]);
+			hasUngrouped |= ungrouped[i].count() > 0;
+		}
+
+		if(hasUngrouped) {
+			group = -1;
+			describe(ungrouped, descriptors);
+		}
+
+		final long [] counts = new long[totals.length];
+		for(int i = 0; i < totals.length; ++i) {
+			counts[i] = totals[i].count();
+		}
+
+		log.info("Calculated statistics of {} values of {}.", Arrays.toString(counts), Arrays.toString(columnNames));
+
+		countValue.set(counts);
+		meanValue.set(collect(RunningStatistics::mean));
+		varianceValue.set(collect(RunningStatistics::variance));
+		minValue.set(collect(RunningStatistics::min));
+		maxValue.set(collect(RunningStatistics::max));
+		skewnessValue.set(collect(RunningStatistics::skewness));
+		kurtosisValue.set(collect(RunningStatistics::kurtosis));
+		statisticsValue.set(totals);
+	}
+
+	/**
+	 * Appends a row for each column of {@code statistics} to the descriptor
+	 *   stream, merges them into the totals and clears them.
+	 */
+	private void describe(final RunningStatistics [] statistics, final Stream descriptors) throws ConversionException {
+		for(int i = 0; i < columns.length; ++i) {
+			final RunningStatistics column = statistics[i];
+
+			final DataVector row = new DataVector();
+			row.append(group)
+			   .append(columnNames[i])
+			   .append(column.count())
+			   .append(column.mean())
+			   .append(column.variance())
+			   .append(column.min())
+			   .append(column.max())
+			   .append(column.skewness())
+			   .append(column.kurtosis());
+			descriptors.append(row);
+
+			totals[i].merge(column);
+			column.clear();
+		}
+	}
+
+	private double [] collect(final ToDoubleFunction<RunningStatistics> statistic) {
+		final double [] result = new double[totals.length];
+		for(int i = 0; i < totals.length; ++i) {
+			result[i] = statistic.applyAsDouble(totals[i]);
+		}
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "StatisticsCalculator [columns=" + columns.length + "]";
+	}
+}
@@ -18,26 +18,60 @@
  */
 package de.codapro.components.core.math;
 
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
 import javax.inject.Named;
 
 import org.mariuszgromada.math.mxparser.Expression;
 import org.mariuszgromada.math.mxparser.Function;
+import org.slf4j.Logger;
 
-import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
 import de.codapro.api.annotations.Input;
+import de.codapro.api.annotations.Log;
+import de.codapro.api.annotations.OnFinish;
 import de.codapro.api.annotations.OnInit;
 import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
-import de.codapro.api.model.RingBuffer;
-import de.codapro.api.model.RingBufferImpl;
+import de.codapro.api.model.DoubleRingBuffer;
+import de.codapro.api.model.StorageAllocator;
 import de.codapro.api.model.Stream;
+import de.codapro.components.core.utils.math.CompiledFormula;
 import de.codapro.components.core.utils.math.FormulaEvaluatorBase;
 import de.codapro.components.core.utils.math.TupleValueFunctionExtension;
 
+/**
+ * Evaluates formulas over the last {@code capacity} values of the tuple
+ *   columns. {@code x(i)} is the {@code i}th value of tuple {@code x}, the
+ *   windowed functions {@code sum mean min max var slope first last}, e.g.
+ *   {@code mean(x)}, are computed from aggregates the tuple buffers keep up to
+ *   date (see {@link CompiledFormula}). Formulas the compiler does not support
+ *   are evaluated by mXparser, their functions are set up once at
+ *   initialisation. mXparser has no windowed functions, so such formulas must
+ *   not use them.
+ */
 @Component(doc = "A component for calculating new values based on configurable formulas and value tuples.", name = "TupleFormulaEvaluator")
 public class TupleFormulaEvaluator extends FormulaEvaluatorBase {
+	@Log
+	private static Logger log;
+
+	/**
+	 * Compiled formulas do not read any column values, the tuples are read
+	 *   from the buffers.
+	 */
+	private static final double [] NO_VALUES = {};
+
+	/**
+	 * A call of a windowed function with a single name as argument, like {@code mean(x)}.
+	 */
+	private static final Pattern WINDOWED_FUNCTION = Pattern.compile("\\b(sum|mean|min|max|var|slope|first|last)\\s*\\(\\s*(\\w+)\\s*\\)");
+
 	@Input(doc = "List of 'not a number' values for the results, e.g 1.", name = "nans")
 	private double [] nans;
 
@@ -47,24 +81,88 @@ public class TupleFormulaEvaluator extends FormulaEvaluatorBase {
 	@Input(doc = "Size of tuples, default is 50.", name = "capacity", required = false)
 	private int capacity = 50;
 
+	@Input(doc = "Keep the tuples off-heap, recommended for large capacities.", name = "off-heap", required = false)
+	private boolean offHeap = false;
+
+	@Input(doc = "Directory for memory-mapping off-heap tuples, by default they are kept in memory.", name = "storage-directory", required = false)
+	private String storageDirectory = null;
+
 	/**
 	 * Array of ring buffers to store the tuples
 	 */
-	private RingBuffer<Double> [] buffers;
+	private DoubleRingBuffer [] buffers;
+
+	/**
+	 * The compiled formulas, {@code null} for formulas evaluated by mXparser.
+	 */
+	private CompiledFormula [] compiledFormulas;
 
 	@OnInit
 	public void init(final @Named("output-stream") Stream stream) {
 		addColumnNamesToOutputStream(stream);
 		resolveFunctions();
 
-		buffers = new RingBuffer[tupleColumns.length];
+		final StorageAllocator allocator;
+		if(!offHeap) {
+			allocator = StorageAllocator.HEAP;
+		} else if(storageDirectory == null) {
+			allocator = StorageAllocator.DIRECT;
+		} else {
+			allocator = StorageAllocator.mapped(Paths.get(storageDirectory));
+		}
+
+		buffers = new DoubleRingBuffer[tupleColumns.length];
 		for(int i = 0; i < buffers.length; ++i) {
-			buffers[i] = new RingBufferImpl<Double>(Double.class, capacity);
+			buffers[i] = new DoubleRingBuffer(capacity, allocator);
+		}
+
+		// the functions read the buffers directly, therefore they are created only once
+		final Function valuesFunction = new Function("values", new TupleValueFunctionExtension(buffers));
+		final Function [] tupleFunctions = new Function[buffers.length + 1];
+		final Map<String, DoubleRingBuffer> windows = new HashMap<>();
+
+		tupleFunctions[0] = valuesFunction;
+		for(int i = 0; i < buffers.length; ++i) {
+			final String name = mangleName(this.stream.getHeader().nameOf(tupleColumns[i]));
+
+			tupleFunctions[i + 1] = toFunction(name, i, valuesFunction);
+			windows.put(name, buffers[i]);
+		}
+
+		compiledFormulas = new CompiledFormula[formulas.length];
+		for(int i = 0; i < formulas.length; ++i) {
+			compiledFormulas[i] = CompiledFormula.compile(formulas[i].getExpressionString(), name -> -1, windows, constants, functions);
+
+			if(compiledFormulas[i] == null) {
+				checkInterpretable(formulas[i].getExpressionString(), windows.keySet());
+				log.info("Formula {} is evaluated by mXparser.", formulas[i].getExpressionString());
+
+				final Expression formula = formulas[i];
+				formula.addConstants(constants);
+				formula.addFunctions(functions);
+				formula.addFunctions(tupleFunctions);
+			}
+		}
+	}
+
+	/**
+	 * @throws IllegalArgumentException If the formula uses a windowed function,
+	 *   mXparser would calculate NaN for it. The buffers are released before.
+	 */
+	private void checkInterpretable(final String formula, final Set<String> windows) {
+		final Matcher matcher = WINDOWED_FUNCTION.matcher(formula);
+
+		while(matcher.find()) {
+			if(windows.contains(matcher.group(2))) {
+				log.error("Formula {} cannot be compiled and mXparser does not support {}.", formula, matcher.group());
+				releaseBuffers();
+				throw new IllegalArgumentException("Formula '" + formula + "' cannot be compiled and mXparser does not support the windowed function '" + matcher.group() + "'.");
+			}
 		}
 	}
 
 	@OnProcess
-	public void evaluateFormulas(final DataVector vector) throws ConversionException {
+	public void evaluateFormulas(final DataVector vector) {
 		final int length = buffers.length;
 		for(int i = 0; i < length; ++i) {
 			buffers[i].append(((Number)vector.get(tupleColumns[i])).doubleValue());
@@ -76,41 +174,25 @@ public class TupleFormulaEvaluator extends FormulaEvaluatorBase {
 			return;
 		}
 
-		final Function[] valueArrays = new Function[length+1];
-		valueArrays[0] = toValuesFunction();
-
-		for(int i = 0; i < length; ++i) {
-			valueArrays[i + 1] = toFunction(stream.getHeader().nameOf(tupleColumns[i]), i, valueArrays[0]);
-		}
-
-		for(final Expression formula : formulas) {
-			formula.removeAllConstants();
-			formula.removeAllFunctions();
-
-			formula.addConstants(constants);
-			formula.addFunctions(functions);
-
-			formula.addFunctions(valueArrays);
-
-			vector.append(formula.calculate());
+		for(int i = 0; i < formulas.length; ++i) {
+			if(compiledFormulas[i] != null) {
+				vector.append(compiledFormulas[i].evaluate(NO_VALUES));
+			} else {
+				vector.append(formulas[i].calculate());
+			}
 		}
 	}
 
-	private Function toValuesFunction() {
-		final Double [][] values = new Double[buffers.length][];
-		int index = 0;
-		for(final RingBuffer<Double> buffer : buffers) {
-			values[index++] = buffer.toArray();
+	@OnFinish
+	public void releaseBuffers() {
+		for(final DoubleRingBuffer buffer : buffers) {
+			buffer.close();
 		}
-
-		final TupleValueFunctionExtension ext = new TupleValueFunctionExtension(values);
-
-		return new Function("values", ext);
 	}
 
 	private Function toFunction(final String name, final int index, final Function valuesFunction) {
 		final StringBuilder function = new StringBuilder();
-		function.append(mangleName(name));
+		function.append(name);
 		function.append("(i)");
 		function.append("=");
 		function.append("values(");
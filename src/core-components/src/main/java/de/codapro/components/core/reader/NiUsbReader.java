@@ -20,6 +20,7 @@ package de.codapro.components.core.reader;
 
 import java.nio.DoubleBuffer;
 import java.nio.IntBuffer;
+import java.util.Arrays;
 
 import javax.inject.Named;
 
@@ -31,7 +32,9 @@ import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnExecute;
 import de.codapro.api.annotations.OnInit;
-import de.codapro.api.model.DataVector;
+import de.codapro.api.model.ColumnType;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVectorPool;
 import de.codapro.api.model.Stream;
 import de.codapro.api.model.StreamHeader;
 import de.codapro.components.core.utils.CustomScaleConfiguration;
@@ -43,6 +46,13 @@ import de.codapro.niusb.api.NiTask;
 import de.codapro.niusb.api.SampleMode;
 import de.codapro.niusb.api.TerminalConfig;
 
+/**
+ * Reads from a National Instruments USB DAC. The output stream is appended to
+ *   within the read loop, so a stream that blocks delays the next read and
+ *   the driver buffer overflows. Connect the reader with a dropping or
+ *   decimating {@link de.codapro.api.model.OverflowPolicy} to keep the
+ *   acquisition running if a consumer is too slow.
+ */
 @Component(name = "NiUsbReader", doc = "Component for reading a data streams from a National Instruments USB DAC.", sinks = {})
 public class NiUsbReader {
 	@Log
@@ -60,6 +70,9 @@ public class NiUsbReader {
 	@Input(doc = "The expected input min value", name = "min-value")
 	private double minValue;
 
+	@Input(doc = "Number of released data vectors kept for reuse, 0 disables pooling.", name = "pool-size", required = false)
+	private int poolSize = 1024;
+
 	@Input(doc = "The number of analog input channels", name = "number-of-channels")
 	private int numberOfChannels;
 
@@ -78,10 +91,10 @@ public class NiUsbReader {
 	public void init(final @Named("output-stream") Stream stream) {
 		final StreamHeader header = stream.getHeader();
 
-		header.add("Time");
+		header.add("Time", ColumnType.DOUBLE);
 		for (final String column : columns) {
 			log.info("Adding column {}.", column);
-			header.add(column);
+			header.add(column, ColumnType.DOUBLE);
 		}
 
 		Runtime.getRuntime().addShutdownHook(new Thread() {
@@ -114,7 +127,8 @@ public class NiUsbReader {
 			task.stop();
 			task.clear();
 		} catch (final NiDacException e) {
-			log.error("Failed to read data.", e);
+			// e.g. a driver buffer overflow, the recorded data is incomplete
+			throw new ConversionException("Failed to read data from " + channels + ".", e);
 		}
 	}
 
@@ -130,19 +144,33 @@ public class NiUsbReader {
 		final DoubleBuffer inputBuffer = DoubleBuffer.wrap(buffer);
 		final IntBuffer samplesPerChannelRead = IntBuffer.wrap(new int[] { 0 });
 
+		// the batch is reused for each read, so there is no allocation per sample
+		final ColumnType [] types = new ColumnType[nos + 1];
+		Arrays.fill(types, ColumnType.DOUBLE);
+		final DataBatch batch = new DataBatch(types, numberOfSamplesPerChannel);
+
+		if(poolSize > 0) {
+			batch.setPool(new DataVectorPool(poolSize));
+		}
+
 		while(!hasToTerminate) {
 			task.readAnalogF64(numberOfSamplesPerChannel, inputBuffer, inputBufferSize, samplesPerChannelRead, FillMode.GroupByScanNumber);
 
-			int limit = samplesPerChannelRead.get(0) * nos;
+			final int samples = samplesPerChannelRead.get(0);
 
-			for (int i = 0; i < limit; i = i + 2) {
-				final DataVector vector = new DataVector();
+			batch.clear();
+			for (int sample = 0; sample < samples; ++sample) {
+				final int row = batch.addRow();
 
-				vector.append(time).append(buffer[i]).append(buffer[i + 1]);
+				batch.setDouble(0, row, time);
+				for (int channel = 0; channel < nos; ++channel) {
+					batch.setDouble(channel + 1, row, buffer[sample * nos + channel]);
+				}
 
-				stream.append(vector);
 				time = time + timeInterval;
 			}
+
+			stream.appendBatch(batch);
 		}
 	}
 }
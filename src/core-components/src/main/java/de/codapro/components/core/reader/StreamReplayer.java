@@ -0,0 +1,217 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.reader;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.Input;
+import de.codapro.api.annotations.Log;
+import de.codapro.api.annotations.OnExecute;
+import de.codapro.api.annotations.OnFinish;
+import de.codapro.api.annotations.OnInit;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.DataVectorPool;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
+import de.codapro.api.model.StreamSchema;
+import de.codapro.components.core.utils.recording.RecordingFormat;
+
+/**
+ * Replays a recording of the {@link de.codapro.components.core.writer.StreamRecorder}.
+ *   The file is memory mapped region-wise and the batches are handed to the
+ *   output stream as recorded, including the group sentinels.
+ *
+ * Numeric columns are copied from the file into the batch without boxing. A
+ *   {@link de.codapro.api.model.RingStream} queues the batch as it is, so a
+ *   consumer reading batches gets the values without boxing, too. Consumers
+ *   reading single vectors box the values when the rows are converted, the
+ *   vectors are taken from a pool of {@code pool-size} vectors.
+ */
+@Component(name = "StreamReplayer", doc = "Replays a stream recorded by the StreamRecorder.", sinks = {})
+public class StreamReplayer {
+	/**
+	 * Size of the regions the file is mapped in. Frames larger than a region
+	 *   are mapped at once.
+	 */
+	private static final long REGION_SIZE = 64L * 1024 * 1024;
+
+	@Log
+	private static Logger log;
+
+	@Input(doc="Name of the recording.", name="filename")
+	private String filename;
+
+	@Named("output-stream")
+	private Stream dataStream;
+
+	@Input(doc="Number of released data vectors kept for reuse, 0 disables pooling.", name="pool-size", required=false)
+	private int poolSize = 1024;
+
+	private int batchSize;
+
+	private FileChannel channel;
+
+	/**
+	 * File position of the next frame.
+	 */
+	private long position;
+
+	/**
+	 * The currently mapped region.
+	 */
+	private MappedByteBuffer region;
+
+	/**
+	 * File position of the mapped region.
+	 */
+	private long regionStart;
+
+	private StreamSchema schema;
+
+	private long vectorCount;
+
+	@OnInit
+	public void open() throws IOException, ConversionException {
+		channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+		position = 0;
+		region = null;
+		vectorCount = 0;
+
+		if(nextFrame() != RecordingFormat.HEADER) {
+			throw new ConversionException(filename + " does not start with a recording header.");
+		}
+
+		batchSize = RecordingFormat.readBatchSize(region);
+		schema = RecordingFormat.readSchema(region);
+
+		final StreamHeader header = dataStream.getHeader();
+		for(int column = 0; column < schema.size(); ++column) {
+			header.add(schema.nameOf(column), schema.typeOf(column));
+		}
+	}
+
+	@OnExecute
+	public void replay() throws IOException, ConversionException {
+		final DataBatch batch = new DataBatch(schema, batchSize);
+
+		if(poolSize > 0) {
+			batch.setPool(new DataVectorPool(poolSize));
+		}
+
+		while(true) {
+			final byte kind = nextFrame();
+
+			switch(kind) {
+			case RecordingFormat.BATCH:
+				RecordingFormat.readBatch(region, batch);
+				vectorCount += batch.size();
+				dataStream.appendBatch(batch);
+				break;
+
+			case RecordingFormat.GROUP_START:
+				dataStream.append(DataVector.GROUP_START);
+				break;
+
+			case RecordingFormat.GROUP_END:
+				dataStream.append(DataVector.GROUP_END);
+				break;
+
+			case RecordingFormat.END:
+				return;
+
+			default:
+				throw new ConversionException("Unexpected frame " + kind + " at " + position + " of " + filename + ".");
+			}
+		}
+	}
+
+	@OnFinish
+	public void close() throws IOException {
+		region = null;
+		channel.close();
+
+		log.info("Replayed {} data vectors.", vectorCount);
+	}
+
+	@Override
+	public String toString() {
+		return "StreamReplayer [filename=" + filename + ", " + vectorCount + "]";
+	}
+
+	/**
+	 * Maps the region starting at {@code start} that contains at least {@code length} bytes.
+	 */
+	private void map(final long start, final long length) throws IOException, ConversionException {
+		final long size = channel.size();
+
+		if(start + length > size) {
+			throw new ConversionException(filename + " is truncated at " + start + ".");
+		}
+
+		region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(Math.max(REGION_SIZE, length), size - start));
+		region.order(ByteOrder.LITTLE_ENDIAN);
+		regionStart = start;
+	}
+
+	/**
+	 * Positions the region at the payload of the next frame and limits it to
+	 *   the payload.
+	 *
+	 * @return The kind of the frame.
+	 */
+	private byte nextFrame() throws IOException, ConversionException {
+		if(region == null || position + RecordingFormat.FRAME_HEADER_SIZE > regionStart + region.capacity()) {
+			map(position, RecordingFormat.FRAME_HEADER_SIZE);
+		}
+
+		region.limit(region.capacity());
+		region.position((int)(position - regionStart));
+
+		final byte kind = region.get();
+		final int length = region.getInt();
+
+		if(length < 0) {
+			throw new ConversionException("Invalid frame length " + length + " at " + position + " of " + filename + ".");
+		}
+
+		final long payload = position + RecordingFormat.FRAME_HEADER_SIZE;
+
+		if(payload + length > regionStart + region.capacity()) {
+			map(position, RecordingFormat.FRAME_HEADER_SIZE + (long)length);
+		}
+
+		region.position((int)(payload - regionStart));
+		region.limit((int)(payload - regionStart) + length);
+		position = payload + length;
+
+		return kind;
+	}
+}
@@ -27,14 +27,18 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.IntStream;
 
 import javax.inject.Named;
 
 import org.slf4j.Logger;
 
+import de.codapro.tdms.io.impl.TDMsIterator;
 import de.codapro.tdms.model.TDMsChannel;
 import de.codapro.tdms.model.TDMsFile;
 import de.codapro.tdms.model.TDMsGroup;
+import de.codapro.tdms.model.Type;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.Component;
 import de.codapro.api.annotations.Input;
@@ -42,11 +46,16 @@ import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnExecute;
 import de.codapro.api.annotations.OnFinish;
 import de.codapro.api.annotations.OnInit;
-import de.codapro.api.model.DataVector;
+import de.codapro.api.annotations.Projection;
+import de.codapro.api.model.ColumnType;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVectorPool;
 import de.codapro.api.model.Stream;
 
 /**
  * Component for reading tdms files and convert them into a DataVector stream.
+ *   Channels whose names are not used by any downstream component are not
+ *   read, see {@link Projection}.
  */
 @Component(name = "TDMsReader", doc = "Component for reading a TDMs file and converting it into a stream of data vectors.", sinks= {})
 public class TDMsReader {
@@ -59,12 +68,29 @@ public class TDMsReader {
 	@Named("output-stream")
 	private Stream dataStream;
 
+	@Input(doc="Number of data vectors handed to the output stream at once.", name="batch-size", required=false)
+	private int batchSize = 1024;
+
 	@Input(doc="Name of the input file.", name="filename")
 	private String filename;
 
 	@Input(doc="Names of the read columns.", name="names")
 	private String [] names;
 
+	@Input(doc="Number of released data vectors kept for reuse, 0 disables pooling.", name="pool-size", required=false)
+	private int poolSize = 1024;
+
+	/**
+	 * Names of the columns used downstream or {@code null} if unknown.
+	 */
+	@Projection
+	private Set<String> projection;
+
+	/**
+	 * Indices of the streamed channels within {@link #channels}.
+	 */
+	private int [] selectedColumns;
+
 	private int vectorCount;
 
 	@OnExecute
@@ -90,27 +116,17 @@ public class TDMsReader {
 			reader = new de.codapro.tdms.io.TDMsReader(inputFile);
 			final TDMsFile file = reader.read();
 
-			final List<Iterator<Object>> dataStreams = new ArrayList<>(channels.length);
+			final List<TDMsChannel> selectedChannels = new ArrayList<>(selectedColumns.length);
 
-			Arrays.stream(channels)
-				  .map(channel -> findChannelIterator(file, channel))
+			Arrays.stream(selectedColumns)
+				  .mapToObj(column -> channels[column])
+				  .map(channel -> findChannel(file, channel))
 				  .filter(opt -> opt.isPresent())
 				  .map(opt -> opt.get())
-				  .forEach(dataStreams::add);
-
-			if(!dataStreams.isEmpty()) {
-				final Iterator<Object> first = dataStreams.get(0);
-
-				while(first.hasNext()) {
-					final DataVector data = new DataVector();
+				  .forEach(selectedChannels::add);
 
-					for(final Iterator<Object> iter : dataStreams) {
-						data.append(iter.next());
-					}
-
-					++vectorCount;
-					dataStream.append(data);
-				}
+			if(!selectedChannels.isEmpty()) {
+				copyChannelsToStream(selectedChannels);
 			}
 		} finally {
 			closeIfOpened(reader);
@@ -128,7 +144,84 @@ public class TDMsReader {
 		}
 	}
 
-	private Optional<Iterator<Object>> findChannelIterator(final TDMsFile file, final String channelPart) {
+	/**
+	 * Copies the channel data batch-wise to the output stream. Numeric
+	 *   channels are read as primitives, so no value is boxed on the way from
+	 *   the file to the stream.
+	 */
+	private void copyChannelsToStream(final List<TDMsChannel> selectedChannels) throws ConversionException {
+		final int channelCount = selectedChannels.size();
+		final ColumnType [] types = new ColumnType[channelCount];
+		final List<Iterator<Object>> dataStreams = new ArrayList<>(channelCount);
+
+		for(int i = 0; i < channelCount; ++i) {
+			types[i] = toColumnType(selectedChannels.get(i).getType());
+			dataStreams.add(selectedChannels.get(i).iterator());
+		}
+
+		// the types are only known after reading the file, columns are only
+		//  aligned with the header if all channels have been found
+		if(channelCount == dataStream.getHeader().size()) {
+			for(int i = 0; i < channelCount; ++i) {
+				dataStream.getHeader().setType(i, types[i]);
+			}
+		}
+
+		final DataBatch batch = new DataBatch(types, batchSize);
+		final Iterator<Object> first = dataStreams.get(0);
+
+		if(poolSize > 0) {
+			batch.setPool(new DataVectorPool(poolSize));
+		}
+
+		while(first.hasNext()) {
+			final int row = batch.addRow();
+
+			for(int column = 0; column < channelCount; ++column) {
+				copyValue(batch, column, row, dataStreams.get(column));
+			}
+
+			++vectorCount;
+
+			if(batch.isFull()) {
+				dataStream.appendBatch(batch);
+				batch.clear();
+			}
+		}
+
+		if(!batch.isEmpty()) {
+			dataStream.appendBatch(batch);
+		}
+	}
+
+	private static void copyValue(final DataBatch batch, final int column, final int row, final Iterator<Object> data) throws ConversionException {
+		if(!(data instanceof TDMsIterator)) {
+			batch.set(column, row, data.next());
+			return;
+		}
+
+		final TDMsIterator iterator = (TDMsIterator)data;
+
+		switch(batch.getType(column)) {
+		case DOUBLE:
+			batch.setDouble(column, row, iterator.nextDouble());
+			break;
+
+		case FLOAT:
+			batch.setFloat(column, row, (float)iterator.nextDouble());
+			break;
+
+		case INT:
+			batch.setInt(column, row, (int)iterator.nextDouble());
+			break;
+
+		default:
+			batch.set(column, row, iterator.next());
+			break;
+		}
+	}
+
+	private Optional<TDMsChannel> findChannel(final TDMsFile file, final String channelPart) {
 		final String [] path = channelPart.split("/");
 
 		final Optional<TDMsGroup> group = file.getGroupByName(path[1]);
@@ -142,16 +235,54 @@ public class TDMsReader {
 
 		if(!channel.isPresent()) {
 			log.warn("Cannot find channel of {}.", channelPart);
-			return Optional.empty();
 		}
 
-		return Optional.of(channel.get().iterator());
+		return channel;
+	}
+
+	/**
+	 * Maps TDMs types to column types. Only types whose values keep their Java
+	 *   type when stored in a primitive column are mapped, all others are stored
+	 *   as objects.
+	 */
+	private static ColumnType toColumnType(final Type type) {
+		switch(type) {
+		case DOUBLE_FLOAT:
+			return ColumnType.DOUBLE;
+
+		case SINGLE_FLOAT:
+			return ColumnType.FLOAT;
+
+		case I32:
+			return ColumnType.INT;
+
+		case BOOLEAN:
+			return ColumnType.BOOLEAN;
+
+		case STRING:
+			return ColumnType.STRING;
+
+		default:
+			return ColumnType.OBJECT;
+		}
 	}
 
 	@OnInit
 	public void init() {
-		for(int i = 0; i < names.length; ++i) {
-			dataStream.getHeader().add(names[i]);
+		if(projection == null) {
+			selectedColumns = IntStream.range(0, channels.length).toArray();
+			dataStream.getHeader().add(names);
+			return;
+		}
+
+		selectedColumns = IntStream.range(0, Math.min(channels.length, names.length))
+								   .filter(i -> projection.contains(names[i]))
+								   .toArray();
+
+		log.info("Reading {} of {} channels, the others are not used downstream.", selectedColumns.length, channels.length);
+
+		for(final int column : selectedColumns) {
+			dataStream.getHeader().add(names[column]);
 		}
 	}
 
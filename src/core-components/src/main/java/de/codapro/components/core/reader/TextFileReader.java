@@ -25,10 +25,10 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.rmi.AccessException;
-import java.util.Arrays;
 import java.util.Locale;
+import java.util.Set;
 import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import javax.inject.Named;
 
@@ -41,12 +41,19 @@ import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.OnExecute;
 import de.codapro.api.annotations.OnFinish;
 import de.codapro.api.annotations.OnInit;
+import de.codapro.api.annotations.Projection;
 import de.codapro.api.model.DataVector;
+import de.codapro.api.model.DataVectorPool;
 import de.codapro.api.model.Stream;
 import de.codapro.components.core.utils.StringConverter;
 import de.codapro.components.core.utils.csv.RecordSeparator;
 import de.codapro.components.core.utils.text.FieldFormat;
 
+/**
+ * Reads a text file with fixed-width fields. Fields of columns which are not
+ *   used by any downstream component are neither extracted nor converted, see
+ *   {@link Projection}.
+ */
 @Component(name = "TextFileReader", doc = "Component for reading a field-based text file and converting it into a stream of data vectors.", sinks= {})
 public class TextFileReader {
 	private static final Logger log = LoggerFactory.getLogger(TextFileReader.class);
@@ -76,11 +83,35 @@ public class TextFileReader {
 	@Input(doc="Locale used for parsing numeric values.", name="locale", required = false)
 	private Locale locale = Locale.getDefault();
 
+	@Input(doc = "Number of released data vectors kept for reuse, 0 disables pooling.", name = "pool-size", required = false)
+	private int poolSize = 0;
+
+	/**
+	 * Pool for data vectors, {@code null} if pooling is disabled.
+	 */
+	private DataVectorPool pool = null;
+
 	@Input(doc = "The line separator that is used (Mac, Unix or Windows).", name = "record-separator", required = false)
 	private RecordSeparator recordSeparator = RecordSeparator.Unix;
 
 	private long lineLength;
 
+	/**
+	 * Start of each field within a line, followed by the line length.
+	 */
+	private int [] offsets;
+
+	/**
+	 * Names of the columns used downstream or {@code null} if unknown.
+	 */
+	@Projection
+	private Set<String> projection;
+
+	/**
+	 * Index of the field of each stream column.
+	 */
+	private int [] selectedColumns;
+
 	@OnFinish
 	public void closeInput() throws IOException {
 		data.close();
@@ -92,9 +123,12 @@ public class TextFileReader {
 			conversions[i] = StringConverter.getFunction(fileFormat[i].getType(), locale);
 		}
 
-		lineLength = Arrays.stream(fileFormat)
-						   .collect(Collectors.summarizingInt(ff -> ff.getLength()))
-						   .getSum();
+		offsets = new int [fileFormat.length + 1];
+		for(int i = 0; i < fileFormat.length; ++i) {
+			offsets[i + 1] = offsets[i] + fileFormat[i].getLength();
+		}
+
+		lineLength = offsets[fileFormat.length];
 	}
 
 	@OnExecute
@@ -105,11 +139,11 @@ public class TextFileReader {
 
 		while(isNotEof) {
 			try {
-				final String [] line = readLine();
-				final DataVector vector = new DataVector(line.length);
+				final String [] line = readLine(selectedColumns);
+				final DataVector vector = pool == null ? new DataVector(line.length) : pool.acquire();
 
 				for(int i = 0; i < line.length; ++i) {
-					vector.set(i, conversions[i].apply(line[i]));
+					vector.set(i, conversions[selectedColumns[i]].apply(line[i]));
 				}
 
 				stream.append(vector);
@@ -130,6 +164,10 @@ public class TextFileReader {
 
 		convertConversionCallbacks();
 		setStreamHeader(stream);
+
+		if(poolSize > 0) {
+			pool = new DataVectorPool(poolSize);
+		}
 	}
 
 	private void openTextFile() throws IOException {
@@ -150,11 +188,13 @@ public class TextFileReader {
 		data = Files.newBufferedReader(inputFile.toPath());
 	}
 
-	private String[] readLine() throws IOException {
-		final int length = fileFormat.length;
-		final String [] row = new String[length];
+	/**
+	 * Reads the next line and extracts the given fields.
+	 */
+	private String[] readLine(final int [] columns) throws IOException {
+		final String [] row = new String[columns.length];
 
-		String line = data.readLine();
+		final String line = data.readLine();
 
 		if(line == null) {
 			throw new EOFException("Reached end of file.");
@@ -165,32 +205,51 @@ public class TextFileReader {
 			throw new IllegalStateException("Line length does not match.");
 		}
 
-		for(int i = 0; i < length; ++i) {
-			row[i] = line.substring(0, fileFormat[i].getLength()).trim();
-			line = line.substring(fileFormat[i].getLength());
+		for(int i = 0; i < columns.length; ++i) {
+			row[i] = line.substring(offsets[columns[i]], offsets[columns[i] + 1]).trim();
 		}
 
 		return row;
 	}
 
 	private void setStreamHeader(final Stream stream) throws IOException {
+		final int length = fileFormat.length;
+		final int [] allColumns = IntStream.range(0, length).toArray();
+		final String [] names;
+
 		if(headerRows == 0) {
 			// there are no row headers. We have to use the given ones.
-			stream.getHeader().add(columnNames);
+			names = columnNames;
 		} else {
-			final int length = fileFormat.length;
-
-			final String [] headers = readLine();
+			names = readLine(allColumns);
 
 			for(int r = 1; r < headerRows; ++r) {
-				final String row [] = readLine();
+				final String row [] = readLine(allColumns);
 
 				for(int i = 0; i < length; ++i) {
-					headers[i] = headers[i] + " " + row[i];
+					names[i] = names[i] + " " + row[i];
 				}
 			}
+		}
+
+		if(projection == null) {
+			selectedColumns = allColumns;
+			stream.getHeader().add(names);
+		} else {
+			selectedColumns = IntStream.range(0, Math.min(length, names.length))
+									   .filter(i -> projection.contains(names[i]))
+									   .toArray();
+
+			log.info("Reading {} of {} fields, the others are not used downstream.", selectedColumns.length, length);
+
+			for(final int column : selectedColumns) {
+				stream.getHeader().add(names[column]);
+			}
+		}
 
-			stream.getHeader().add(headers);
+		final int columns = Math.min(selectedColumns.length, stream.getHeader().size());
+		for(int i = 0; i < columns; ++i) {
+			stream.getHeader().setType(i, StringConverter.getColumnType(fileFormat[selectedColumns[i]].getType()));
 		}
 	}
 }
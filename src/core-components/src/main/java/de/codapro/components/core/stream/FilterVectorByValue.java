@@ -25,12 +25,14 @@ import javax.inject.Named;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.OnInit;
 import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 
+@DeclaredColumns
 @Component(name = "FilterVectorByValue", doc = "Removes data vectors if a specific column matches a given value.")
 public class FilterVectorByValue {
 	@ColumnId(doc="Name of the columns to compare.", name="column", stream="input-stream")
@@ -27,6 +27,7 @@ import org.slf4j.Logger;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnFinish;
@@ -35,6 +36,7 @@ import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 
+@DeclaredColumns
 @Component(name = "GroupMarker", doc = "This component groups parts of the input stream according to a boolean flag (within the data stream itself). Following group-oriented components can then calculate group-based information.")
 public class GroupMarker {
 	@Input(doc="Should non-group data records be filtered (deleted).", name="filter")
@@ -6,6 +6,7 @@ import org.slf4j.Logger;
 
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnFinish;
 import de.codapro.api.annotations.OnInit;
@@ -13,6 +14,7 @@ import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 
+@DeclaredColumns
 @Component(name = "GroupedStreamCreator", doc = "This component turns the whole input stream into a group.")
 public class GroupedStreamCreator {
 	@Log
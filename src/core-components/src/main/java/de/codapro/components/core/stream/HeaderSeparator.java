@@ -22,6 +22,7 @@ import javax.inject.Named;
 
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.OnInit;
 import de.codapro.api.annotations.OnProcess;
@@ -29,6 +30,7 @@ import de.codapro.api.annotations.Output;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 
+@DeclaredColumns
 @Component(name = "HeaderSeparator", doc = "Splices a data stream into a fixed length header and a body.")
 public class HeaderSeparator {
 	@Input(doc="The size of the header.", name="header-size")
@@ -26,6 +26,7 @@ import org.slf4j.Logger;
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnInit;
@@ -34,6 +35,7 @@ import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 
 
+@DeclaredColumns
 @Component(name= "SeparatorByFixedValue", doc = "Adds a column that identifies which type of phase this is")
 public class MarkByFixedValue {
 	
@@ -23,7 +23,9 @@ import javax.inject.Named;
 import org.slf4j.Logger;
 
 import de.codapro.api.ConversionException;
+import de.codapro.api.annotations.Broadcast;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnEnterGroup;
 import de.codapro.api.annotations.OnInit;
@@ -33,6 +35,16 @@ import de.codapro.api.annotations.Output;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 
+/**
+ * Copies a stream, both outputs share the vectors and must not modify them.
+ *   Runtimes supporting {@link Broadcast} replace the component by a single
+ *   broadcast stream, so the vectors are queued only once. *
+ * If the component is not replaced, e.g. by runtimes without
+ *   {@link Broadcast} support or because one of its connections does not
+ *   block, it copies the vectors itself.
+ */
+@Broadcast
+@DeclaredColumns
 @Component(name = "ReadOnlyStreamCopyCreator",
 			doc = "Takes an input stream and create two similar output streams. The streams are read only since the data is shared between the streams.",
 			sources= {@Output(doc="First output stream containing all input values.", name="output-stream-1"),
@@ -65,7 +77,8 @@ public class ReadOnlyStreamCopyCreator {
 	@OnProcess(value="input-stream", dest="output-stream-1")
 	public void process(final DataVector vector) {
 		try {
-			outputStream2.append(vector);
+			// both branches own the vector now and release it independently
+			outputStream2.append(vector.retain());
 		} catch (ConversionException e) {
 			log.error("Unable to add vector {} to second stream.", vector);
 		}
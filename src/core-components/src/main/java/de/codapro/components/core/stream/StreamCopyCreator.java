@@ -23,7 +23,9 @@ import javax.inject.Named;
 import org.slf4j.Logger;
 
 import de.codapro.api.ConversionException;
+import de.codapro.api.annotations.Broadcast;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnEnterGroup;
 import de.codapro.api.annotations.OnInit;
@@ -33,6 +35,16 @@ import de.codapro.api.annotations.Output;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 
+/**
+ * Copies a stream, the second output receives copy-on-write copies of the
+ *   vectors. Runtimes supporting {@link Broadcast} replace the component by
+ *   a single broadcast stream, so the vectors are queued only once. *
+ * If the component is not replaced, e.g. by runtimes without
+ *   {@link Broadcast} support or because one of its connections does not
+ *   block, it copies the vectors itself.
+ */
+@Broadcast(copyOnWrite = true)
+@DeclaredColumns
 @Component(name = "StreamCopyCreator",
 			doc = "Takes an input stream and create two similar output streams.",
 			sources= {@Output(doc="First output stream containing all input values.", name="output-stream-1"),
@@ -63,9 +75,10 @@ public class StreamCopyCreator {
 	}
 
 	@OnProcess(value="input-stream", dest="output-stream-1")
-	public void process(final DataVector vector) throws CloneNotSupportedException {
+	public void process(final DataVector vector) {
 		try {
-			outputStream2.append((DataVector)vector.clone());
+			// the row is only copied if one of the branches modifies it
+			outputStream2.append(vector.copyOnWrite());
 		} catch (ConversionException e) {
 			log.error("Unable to add vector {} to second stream.", vector);
 		}
@@ -24,12 +24,14 @@ import javax.inject.Named;
 
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.OnInit;
 import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 
+@DeclaredColumns
 @Component(name = "And", doc = "Takes a set of boolean columns and calculates the and result. The result is append to the data vector.")
 public class LogicalAndCalculator {
 
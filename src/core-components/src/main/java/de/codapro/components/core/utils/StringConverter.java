@@ -26,6 +26,8 @@ import java.util.function.Function;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.codapro.api.model.ColumnType;
+
 /**
  * Convert strings into other objects.
  *
@@ -63,6 +65,28 @@ public final class StringConverter {
 		};
 	}
 
+	/**
+	 * Returns the column type of the values created by {@link #getFunction(String, Locale)}.
+	 */
+	public static ColumnType getColumnType(final String conversionKind) {
+		switch(conversionKind) {
+		case "%b":
+			return ColumnType.BOOLEAN;
+
+		case "%f":
+			return ColumnType.FLOAT;
+
+		case "%d":
+			return ColumnType.DOUBLE;
+
+		case "%i":
+			return ColumnType.INT;
+
+		default:
+			return ColumnType.STRING;
+		}
+	}
+
 	/**
 	 * Returns a data conversion method for the given type.
 	 */
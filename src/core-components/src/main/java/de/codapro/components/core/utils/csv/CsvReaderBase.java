@@ -26,9 +26,14 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.rmi.AccessException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.IntStream;
 
 import de.codapro.components.core.utils.StringConverter;
 import org.apache.commons.csv.CSVFormat;
@@ -39,11 +44,17 @@ import org.slf4j.LoggerFactory;
 
 import de.codapro.api.ConversionException;
 import de.codapro.api.annotations.Input;
+import de.codapro.api.annotations.Projection;
+import de.codapro.api.model.ColumnType;
 import de.codapro.api.model.DataVector;
+import de.codapro.api.model.DataVectorPool;
 import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamHeader;
 
 /**
- * Base class for reading csv's.
+ * Base class for reading csv's. Fields of columns which are not used by any
+ *   downstream component are neither added to the stream nor converted, see
+ *   {@link Projection}.
  */
 public abstract class CsvReaderBase {
 	private static final Logger log = LoggerFactory.getLogger(CsvReaderBase.class); 
@@ -72,9 +83,28 @@ public abstract class CsvReaderBase {
 
 	private CSVParser parser;
 
+	@Input(doc = "Number of released data vectors kept for reuse, 0 disables pooling.", name = "pool-size", required = false)
+	private int poolSize = 0;
+
+	/**
+	 * Pool for data vectors, {@code null} if pooling is disabled.
+	 */
+	private DataVectorPool pool = null;
+
+	/**
+	 * Names of the columns used downstream or {@code null} if unknown.
+	 */
+	@Projection
+	private Set<String> projection;
+
 	@Input(doc = "The line separator that is used (Mac, Unix or Windows).", name = "record-separator", required = false)
 	private RecordSeparator recordSeparator = RecordSeparator.Unix;
 
+	/**
+	 * Record index of each stream column or {@code null} if all fields are streamed.
+	 */
+	private int [] sourceColumns = null;
+
 	/**
 	 * Closes the current parser instance
 	 */
@@ -151,11 +181,11 @@ public abstract class CsvReaderBase {
 	protected void setStreamHeader(final Stream stream, final boolean respectFileHeader) {
 		if(firstRowContainsHeader && respectFileHeader) {
 			final CSVRecord record = iterator.next();
-			for(final String column : record) {
-				stream.getHeader().add(column);
-			}
+			final List<String> names = new ArrayList<>(record.size());
+			record.forEach(names::add);
+			addColumns(stream.getHeader(), names);
 		} else if(columnNames != null && !headerAlreadySet) {
-			stream.getHeader().add(columnNames);
+			addColumns(stream.getHeader(), Arrays.asList(columnNames));
 		}
 
 		if(firstRowContainsHeader && !respectFileHeader && iterator != null) {
@@ -163,19 +193,65 @@ public abstract class CsvReaderBase {
 			iterator.next();
 		}
 
+		setColumnTypes(stream.getHeader());
 		headerAlreadySet = true;
 	}
 
+	/**
+	 * Adds the columns used downstream to the header and records their
+	 *   position within the records.
+	 */
+	private void addColumns(final StreamHeader header, final List<String> names) {
+		if(projection == null) {
+			names.forEach(header::add);
+			return;
+		}
+
+		final int [] selected = IntStream.range(0, names.size())
+										 .filter(i -> projection.contains(names.get(i)))
+										 .toArray();
+
+		for(final int column : selected) {
+			header.add(names.get(column));
+		}
+
+		sourceColumns = selected.length == names.size() ? null : selected;
+
+		if(sourceColumns != null) {
+			log.info("Reading {} of {} columns, the others are not used downstream.", selected.length, names.size());
+		}
+	}
+
+	/**
+	 * Records the types of the converted values in the header. Without
+	 *   conversions all values are strings.
+	 */
+	private void setColumnTypes(final StreamHeader header) {
+		for(int i = 0; i < header.size(); ++i) {
+			final int source = sourceColumns == null ? i : sourceColumns[i];
+
+			if(columnTypes == null) {
+				header.setType(i, ColumnType.STRING);
+			} else if(source < columnTypes.length) {
+				header.setType(i, StringConverter.getColumnType(columnTypes[source]));
+			}
+		}
+	}
+
 	/**
 	 * Converts a csv record into a valid data record.
 	 */
 	protected DataVector toDataVector(final CSVRecord record, final int streamSize) {
+		if(sourceColumns != null) {
+			return toProjectedDataVector(record);
+		}
+
 		int recordSize = record.size();
 		if(recordSize > streamSize) {
 		    recordSize = streamSize; // truncate records to size of the resulting stream
 		}
 
-		final DataVector vector = new DataVector(recordSize);
+		final DataVector vector = newDataVector(recordSize);
 
 		if(conversions != null) {
 			for(int i = 0; i < conversions.length; ++i) {
@@ -190,4 +266,41 @@ public abstract class CsvReaderBase {
 
 		return vector;
 	}
+
+	/**
+	 * Converts only the fields of the stream columns.
+	 */
+	private DataVector toProjectedDataVector(final CSVRecord record) {
+		final DataVector vector = newDataVector(sourceColumns.length);
+
+		for(int i = 0; i < sourceColumns.length; ++i) {
+			final int source = sourceColumns[i];
+
+			if(conversions == null) {
+				vector.set(i, record.get(source));
+			} else if(source < conversions.length) {
+				vector.set(i, conversions[source].apply(record.get(source)));
+			}
+		}
+
+		return vector;
+	}
+
+	private DataVector newDataVector(final int size) {
+		if(poolSize <= 0) {
+			return new DataVector(size);
+		}
+
+		if(pool == null) {
+			pool = new DataVectorPool(poolSize);
+		}
+
+		// pooled vectors are empty, size them like new ones
+		final DataVector vector = pool.acquire();
+		if(size > 0) {
+			vector.set(size - 1, null);
+		}
+
+		return vector;
+	}
 }
@@ -0,0 +1,687 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.utils.math;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+import org.mariuszgromada.math.mxparser.Constant;
+import org.mariuszgromada.math.mxparser.Function;
+import org.mariuszgromada.math.mxparser.mXparser;
+import org.mariuszgromada.math.mxparser.mathcollection.BinaryRelations;
+import org.mariuszgromada.math.mxparser.mathcollection.BooleanAlgebra;
+import org.mariuszgromada.math.mxparser.mathcollection.MathConstants;
+import org.mariuszgromada.math.mxparser.mathcollection.MathFunctions;
+import org.mariuszgromada.math.mxparser.mathcollection.NumberTheory;
+
+import de.codapro.api.model.DoubleRingBuffer;
+
+/**
+ * A formula compiled into a tree of primitive operations. The columns used
+ *   by the formula are bound to slots of a {@code double} array, so an
+ *   evaluation neither parses nor allocates and its cost only depends on the
+ *   size of the formula.
+ *
+ * Only a subset of the mXparser syntax is supported: numbers, column and
+ *   constant names, {@code pi} and {@code e}, the operators {@code + - * / ^},
+ *   one relation ({@code = <> != < > <= >=}) per operand of the boolean
+ *   operators {@code & && | ||}, and the functions {@code sin cos tan abs sqrt
+ *   exp ln log10 floor ceil sgn min max if}. The operations are the ones of
+ *   mXparser including its rounding, so the results are identical.
+ *
+ * Formulas may refer to windows of values kept in {@link DoubleRingBuffer}s.
+ *   {@code x(i)} is the {@code i}th element of window {@code x}, {@code 0} is
+ *   the oldest one. The windowed functions {@code sum mean min max var slope
+ *   first last} take a window name as their only argument, e.g.
+ *   {@code mean(x)}, and read the aggregates the buffer keeps up to date, so
+ *   their cost does not depend on the window size. mXparser has no such
+ *   functions.
+ *
+ * {@link #compile(String, ToIntFunction, Map, Constant[], Function[])} returns
+ *   {@code null} for all other formulas, they have to be evaluated by mXparser.
+ */
+public final class CompiledFormula {
+	/**
+	 * A node of the formula tree.
+	 */
+	private interface Node {
+		double evaluate(double [] values);
+	}
+
+	/**
+	 * Thrown while parsing a formula that cannot be compiled.
+	 */
+	private static final class UnsupportedFormulaException extends Exception {
+		private static final long serialVersionUID = 1L;
+
+		private UnsupportedFormulaException(final String message) {
+			super(message, null, false, false);
+		}
+	}
+
+	/**
+	 * A recursive descent parser following the operator priorities of mXparser.
+	 */
+	private static final class Parser {
+		private final String formula;
+
+		private final ToIntFunction<String> columns;
+
+		private final Map<String, DoubleRingBuffer> windows;
+
+		private final Constant [] constants;
+
+		private final Function [] functions;
+
+		private final boolean ulpRounding = mXparser.checkIfUlpRounding();
+
+		private final boolean almostIntRounding = mXparser.checkIfAlmostIntRounding();
+
+		private final Set<Integer> usedColumns = new LinkedHashSet<>();
+
+		private int position = 0;
+
+		private Parser(final String formula, final ToIntFunction<String> columns, final Map<String, DoubleRingBuffer> windows, final Constant [] constants, final Function [] functions) {
+			this.formula = formula;
+			this.columns = columns;
+			this.windows = windows;
+			this.constants = constants;
+			this.functions = functions;
+		}
+
+		private Node parse() throws UnsupportedFormulaException {
+			final Node node = parseBoolean();
+
+			skipWhitespace();
+			if(position < formula.length()) {
+				throw new UnsupportedFormulaException("Unexpected '" + formula.charAt(position) + "' at " + position + ".");
+			}
+
+			return node;
+		}
+
+		/**
+		 * {@code &} and {@code |} have the same priority and are evaluated from left to right.
+		 */
+		private Node parseBoolean() throws UnsupportedFormulaException {
+			Node node = parseRelation();
+
+			while(true) {
+				if(accept("&&") || accept("&")) {
+					final Node left = node;
+					final Node right = parseRelation();
+					node = values -> BooleanAlgebra.and(left.evaluate(values), right.evaluate(values));
+				} else if(accept("||") || accept("|")) {
+					final Node left = node;
+					final Node right = parseRelation();
+					node = values -> BooleanAlgebra.or(left.evaluate(values), right.evaluate(values));
+				} else {
+					return node;
+				}
+			}
+		}
+
+		/**
+		 * Chained relations are evaluated surprisingly by mXparser, they are not supported.
+		 */
+		private Node parseRelation() throws UnsupportedFormulaException {
+			final Node left = parseSum();
+			final Node node;
+
+			if(accept("<=")) {
+				final Node right = parseSum();
+				node = values -> BinaryRelations.leq(left.evaluate(values), right.evaluate(values));
+			} else if(accept(">=")) {
+				final Node right = parseSum();
+				node = values -> BinaryRelations.geq(left.evaluate(values), right.evaluate(values));
+			} else if(accept("<>") || accept("!=")) {
+				final Node right = parseSum();
+				node = values -> BinaryRelations.neq(left.evaluate(values), right.evaluate(values));
+			} else if(accept("<")) {
+				final Node right = parseSum();
+				node = values -> BinaryRelations.lt(left.evaluate(values), right.evaluate(values));
+			} else if(accept(">")) {
+				final Node right = parseSum();
+				node = values -> BinaryRelations.gt(left.evaluate(values), right.evaluate(values));
+			} else if(accept("=")) {
+				final Node right = parseSum();
+				node = values -> BinaryRelations.eq(left.evaluate(values), right.evaluate(values));
+			} else {
+				return left;
+			}
+
+			if(peekAny("<", ">", "=", "!")) {
+				throw new UnsupportedFormulaException("Chained relations are not supported.");
+			}
+
+			return node;
+		}
+
+		private Node parseSum() throws UnsupportedFormulaException {
+			Node node = parseProduct();
+
+			while(true) {
+				if(accept("+")) {
+					final Node left = node;
+					final Node right = parseSummand();
+					node = values -> round(left.evaluate(values) + right.evaluate(values));
+				} else if(accept("-")) {
+					final Node left = node;
+					final Node right = parseSummand();
+					node = values -> round(left.evaluate(values) - right.evaluate(values));
+				} else {
+					return node;
+				}
+			}
+		}
+
+		/**
+		 * mXparser fails for signs following a {@code +} or {@code -}.
+		 */
+		private Node parseSummand() throws UnsupportedFormulaException {
+			if(peekAny("+", "-")) {
+				throw new UnsupportedFormulaException("Consecutive signs are not supported.");
+			}
+
+			return parseProduct();
+		}
+
+		private Node parseProduct() throws UnsupportedFormulaException {
+			Node node = parseSigned();
+
+			while(true) {
+				if(accept("*")) {
+					final Node left = node;
+					final Node right = parseSigned();
+					node = values -> round(left.evaluate(values) * right.evaluate(values));
+				} else if(accept("/")) {
+					final Node left = node;
+					final Node right = parseSigned();
+					node = values -> round(MathFunctions.div(left.evaluate(values), right.evaluate(values)));
+				} else {
+					return node;
+				}
+			}
+		}
+
+		/**
+		 * A minus directly followed by a number is part of the number, e.g.
+		 *   {@code -2^2} is 4. Otherwise it negates the power, e.g. {@code -x^2}
+		 *   is {@code -(x^2)}.
+		 */
+		private Node parseSigned() throws UnsupportedFormulaException {
+			skipWhitespace();
+
+			if(peekAny("+")) {
+				throw new UnsupportedFormulaException("Unary plus is not supported.");
+			}
+
+			if(!accept("-")) {
+				return parsePower();
+			}
+
+			if(peekAny("+", "-")) {
+				throw new UnsupportedFormulaException("Consecutive signs are not supported.");
+			}
+
+			if(position < formula.length() && isNumberStart(formula.charAt(position))) {
+				final double number = -parseNumber();
+				return parseExponent(values -> number);
+			}
+
+			final Node operand = parsePower();
+			return values -> -operand.evaluate(values);
+		}
+
+		/**
+		 * Powers are right associative.
+		 */
+		private Node parsePower() throws UnsupportedFormulaException {
+			return parseExponent(parsePrimary());
+		}
+
+		private Node parseExponent(final Node base) throws UnsupportedFormulaException {
+			if(!accept("^")) {
+				return base;
+			}
+
+			final Node exponent = parseSigned();
+			return values -> round(MathFunctions.power(base.evaluate(values), exponent.evaluate(values)));
+		}
+
+		private Node parsePrimary() throws UnsupportedFormulaException {
+			skipWhitespace();
+
+			if(position >= formula.length()) {
+				throw new UnsupportedFormulaException("Unexpected end of formula.");
+			}
+
+			final char c = formula.charAt(position);
+
+			if(accept("(")) {
+				final Node node = parseBoolean();
+				expect(")");
+				return node;
+			}
+
+			if(isNumberStart(c)) {
+				final double number = parseNumber();
+				return values -> number;
+			}
+
+			if(Character.isLetter(c) || c == '_') {
+				final String name = parseName();
+
+				if(accept("(")) {
+					return parseFunction(name);
+				}
+
+				return resolveName(name);
+			}
+
+			throw new UnsupportedFormulaException("Unexpected '" + c + "' at " + position + ".");
+		}
+
+		private Node parseFunction(final String name) throws UnsupportedFormulaException {
+			for(final Function function : functions) {
+				if(function.getFunctionName().equals(name)) {
+					throw new UnsupportedFormulaException("User defined function " + name + " is not supported.");
+				}
+			}
+
+			final DoubleRingBuffer window = windows.get(name);
+			if(window != null) {
+				return parseWindowElement(window);
+			}
+
+			final Node aggregate = parseWindowAggregate(name);
+			if(aggregate != null) {
+				return aggregate;
+			}
+
+			final List<Node> arguments = new ArrayList<>();
+			do {
+				arguments.add(parseBoolean());
+			} while(accept(","));
+			expect(")");
+
+			final Node [] args = arguments.toArray(new Node[0]);
+
+			switch(name) {
+			case "min":
+				return variadic(args, true);
+
+			case "max":
+				return variadic(args, false);
+
+			case "if":
+				if(args.length != 3) {
+					throw new UnsupportedFormulaException("Function if expects three arguments.");
+				}
+
+				// the condition is calculated by a separate expression, so it is rounded like a result
+				return values -> {
+					final double value = args[0].evaluate(values);
+					final double condition = almostIntRounding ? roundAlmostInt(value) : value;
+
+					if(Double.isNaN(condition)) {
+						return Double.NaN;
+					}
+
+					return condition != 0 ? args[1].evaluate(values) : args[2].evaluate(values);
+				};
+
+			default:
+				if(args.length != 1) {
+					throw new UnsupportedFormulaException("Function " + name + " with " + args.length + " arguments is not supported.");
+				}
+
+				return unary(name, args[0]);
+			}
+		}
+
+		/**
+		 * Parses the index of {@code x(i)}, the index is truncated like the
+		 *   parameters of mXparser's function extensions.
+		 */
+		private Node parseWindowElement(final DoubleRingBuffer window) throws UnsupportedFormulaException {
+			final Node index = parseBoolean();
+			expect(")");
+
+			return values -> {
+				final int element = (int)index.evaluate(values);
+
+				if(element < 0 || element >= window.size()) {
+					throw new IllegalStateException("Tuple index " + element + " is not in range.");
+				}
+
+				return window.get(element);
+			};
+		}
+
+		/**
+		 * Parses a windowed function whose argument is the name of a window.
+		 *
+		 * @return The function or {@code null} if it is not a windowed function,
+		 *   nothing is consumed in that case.
+		 */
+		private Node parseWindowAggregate(final String name) {
+			final int start = position;
+
+			skipWhitespace();
+			final DoubleRingBuffer window = position < formula.length() && (Character.isLetter(formula.charAt(position)) || formula.charAt(position) == '_') ? windows.get(parseName()) : null;
+
+			if(window == null || !accept(")")) {
+				position = start;
+				return null;
+			}
+
+			switch(name) {
+			case "sum":
+				return values -> window.sum();
+			case "mean":
+				return values -> window.mean();
+			case "min":
+				return values -> window.min();
+			case "max":
+				return values -> window.max();
+			case "var":
+				return values -> window.variance();
+			case "slope":
+				return values -> window.slope();
+			case "first":
+				return values -> window.isEmpty() ? Double.NaN : window.get(0);
+			case "last":
+				return values -> window.isEmpty() ? Double.NaN : window.getLast();
+			default:
+				position = start;
+				return null;
+			}
+		}
+
+		private Node unary(final String name, final Node arg) throws UnsupportedFormulaException {
+			switch(name) {
+			case "sin":
+				return values -> MathFunctions.sin(arg.evaluate(values));
+			case "cos":
+				return values -> MathFunctions.cos(arg.evaluate(values));
+			case "tan":
+				return values -> MathFunctions.tan(arg.evaluate(values));
+			case "abs":
+				return values -> MathFunctions.abs(arg.evaluate(values));
+			case "sqrt":
+				return values -> MathFunctions.sqrt(arg.evaluate(values));
+			case "exp":
+				return values -> MathFunctions.exp(arg.evaluate(values));
+			case "ln":
+				return values -> MathFunctions.ln(arg.evaluate(values));
+			case "log10":
+				return values -> MathFunctions.log10(arg.evaluate(values));
+			case "floor":
+				return values -> MathFunctions.floor(arg.evaluate(values));
+			case "ceil":
+				return values -> MathFunctions.ceil(arg.evaluate(values));
+			case "sgn":
+				return values -> MathFunctions.sgn(arg.evaluate(values));
+			default:
+				throw new UnsupportedFormulaException("Function " + name + " is not supported.");
+			}
+		}
+
+		/**
+		 * Evaluates the arguments into a reused array, like mXparser's variadic functions.
+		 */
+		private Node variadic(final Node [] args, final boolean min) {
+			final double [] arguments = new double[args.length];
+
+			return values -> {
+				for(int i = 0; i < args.length; ++i) {
+					arguments[i] = args[i].evaluate(values);
+				}
+
+				return min ? NumberTheory.min(arguments) : NumberTheory.max(arguments);
+			};
+		}
+
+		private Node resolveName(final String name) throws UnsupportedFormulaException {
+			final int column = columns.applyAsInt(name);
+			Node node = null;
+
+			if(column >= 0) {
+				usedColumns.add(column);
+				node = values -> values[column];
+			}
+
+			for(final Constant constant : constants) {
+				if(constant.getConstantName().equals(name)) {
+					if(node != null) {
+						throw new UnsupportedFormulaException("Name " + name + " is ambiguous.");
+					}
+
+					final double value = constant.getConstantValue();
+					node = values -> value;
+				}
+			}
+
+			if(node == null && name.equals("pi")) {
+				node = values -> MathConstants.PI;
+			} else if(node == null && name.equals("e")) {
+				node = values -> MathConstants.E;
+			} else if(node != null && (name.equals("pi") || name.equals("e"))) {
+				throw new UnsupportedFormulaException("Name " + name + " hides a built-in constant.");
+			}
+
+			if(node == null) {
+				throw new UnsupportedFormulaException("Unknown name " + name + ".");
+			}
+
+			return node;
+		}
+
+		/**
+		 * Rounds the result of an operator like mXparser's ULP rounding.
+		 */
+		private double round(final double value) {
+			if(!ulpRounding || Double.isNaN(value) || Double.isInfinite(value)) {
+				return value;
+			}
+
+			final int digits = MathFunctions.ulpDecimalDigitsBefore(value);
+			return digits >= 0 ? MathFunctions.round(value, digits) : value;
+		}
+
+		private String parseName() {
+			final int start = position;
+
+			while(position < formula.length() && (Character.isLetterOrDigit(formula.charAt(position)) || formula.charAt(position) == '_')) {
+				++position;
+			}
+
+			return formula.substring(start, position);
+		}
+
+		private double parseNumber() throws UnsupportedFormulaException {
+			final int start = position;
+
+			skipDigits();
+			if(position < formula.length() && formula.charAt(position) == '.') {
+				++position;
+
+				if(skipDigits() == 0) {
+					throw new UnsupportedFormulaException("Number without fraction digits at " + start + ".");
+				}
+			}
+
+			if(position < formula.length() && Character.toLowerCase(formula.charAt(position)) == 'e') {
+				final int mantissaEnd = position;
+				++position;
+
+				if(position < formula.length() && (formula.charAt(position) == '+' || formula.charAt(position) == '-')) {
+					++position;
+				}
+
+				if(skipDigits() == 0) {
+					// e.g. 2e, the name follows the number directly
+					position = mantissaEnd;
+				}
+			}
+
+			if(position < formula.length() && (Character.isLetterOrDigit(formula.charAt(position)) || formula.charAt(position) == '_' || formula.charAt(position) == '.')) {
+				throw new UnsupportedFormulaException("Unexpected '" + formula.charAt(position) + "' after number at " + position + ".");
+			}
+
+			return Double.parseDouble(formula.substring(start, position));
+		}
+
+		private int skipDigits() {
+			final int start = position;
+
+			while(position < formula.length() && Character.isDigit(formula.charAt(position))) {
+				++position;
+			}
+
+			return position - start;
+		}
+
+		private boolean accept(final String token) {
+			skipWhitespace();
+
+			if(formula.startsWith(token, position)) {
+				position += token.length();
+				return true;
+			}
+
+			return false;
+		}
+
+		private void expect(final String token) throws UnsupportedFormulaException {
+			if(!accept(token)) {
+				throw new UnsupportedFormulaException("Expected '" + token + "' at " + position + ".");
+			}
+		}
+
+		private boolean peekAny(final String... tokens) {
+			skipWhitespace();
+
+			for(final String token : tokens) {
+				if(formula.startsWith(token, position)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		private void skipWhitespace() {
+			while(position < formula.length() && Character.isWhitespace(formula.charAt(position))) {
+				++position;
+			}
+		}
+
+		private static boolean isNumberStart(final char c) {
+			return Character.isDigit(c) || c == '.';
+		}
+	}
+
+	private final String formula;
+
+	private final Node root;
+
+	private final int [] columns;
+
+	private final boolean almostIntRounding = mXparser.checkIfAlmostIntRounding();
+
+	private CompiledFormula(final String formula, final Node root, final int [] columns) {
+		this.formula = formula;
+		this.root = root;
+		this.columns = columns;
+	}
+
+	/**
+	 * Compiles a formula without windows.
+	 *
+	 * @see #compile(String, ToIntFunction, Map, Constant[], Function[])
+	 */
+	public static CompiledFormula compile(final String formula, final ToIntFunction<String> columns, final Constant [] constants, final Function [] functions) {
+		return compile(formula, columns, Collections.emptyMap(), constants, functions);
+	}
+
+	/**
+	 * Compiles a formula.
+	 *
+	 * @param formula The formula in mXparser syntax.
+	 * @param columns Gives the index of the column of a name or a negative
+	 *   value if there is no such column.
+	 * @param windows The windows by name. The compiled formula reads the
+	 *   buffers when it is evaluated, so they can be appended to afterwards.
+	 * @param constants The user defined constants.
+	 * @param functions The user defined functions, formulas calling them are
+	 *   not compiled.
+	 * @return The compiled formula or {@code null} if the formula is not
+	 *   supported and has to be evaluated by mXparser.
+	 */
+	public static CompiledFormula compile(final String formula, final ToIntFunction<String> columns, final Map<String, DoubleRingBuffer> windows, final Constant [] constants, final Function [] functions) {
+		final Parser parser = new Parser(formula, columns, windows, constants, functions);
+
+		try {
+			final Node root = parser.parse();
+			return new CompiledFormula(formula, root, parser.usedColumns.stream().mapToInt(Integer::intValue).toArray());
+		} catch(final UnsupportedFormulaException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Evaluates the formula.
+	 *
+	 * @param values The column values, indexed like the columns passed to
+	 *   {@link #compile(String, ToIntFunction, Map, Constant[], Function[])}. Only
+	 *   the columns given by {@link #getColumns()} are read.
+	 */
+	public double evaluate(final double [] values) {
+		final double result = root.evaluate(values);
+		return almostIntRounding ? roundAlmostInt(result) : result;
+	}
+
+	/**
+	 * @return The indices of the columns used by the formula.
+	 */
+	public int [] getColumns() {
+		return columns.clone();
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledFormula [" + formula + "]";
+	}
+
+	/**
+	 * Rounds a result to the nearest integer if it is closer than mXparser's
+	 *   epsilon, like mXparser's almost integer rounding.
+	 */
+	private static double roundAlmostInt(final double value) {
+		final double rounded = Math.round(value);
+		return Math.abs(value - rounded) <= BinaryRelations.getEpsilon() ? rounded : value;
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.utils.math;
+
+/**
+ * A running sum with Neumaier's improved Kahan compensation. The rounding
+ *   error of each addition is collected separately, so adding and subtracting
+ *   the values of a sliding window over hours of data does not drift away
+ *   from the exact sum of the window.
+ */
+public final class NeumaierSum {
+	private double sum = 0;
+
+	/**
+	 * The accumulated rounding errors of {@link #sum}.
+	 */
+	private double compensation = 0;
+
+	public void add(final double value) {
+		final double total = sum + value;
+
+		if(Math.abs(sum) >= Math.abs(value)) {
+			compensation += (sum - total) + value;
+		} else {
+			compensation += (value - total) + sum;
+		}
+
+		sum = total;
+	}
+
+	public void subtract(final double value) {
+		add(-value);
+	}
+
+	/**
+	 * Sets the sum to zero.
+	 */
+	public void reset() {
+		sum = 0;
+		compensation = 0;
+	}
+
+	/**
+	 * @return The compensated sum.
+	 */
+	public double value() {
+		return sum + compensation;
+	}
+
+	@Override
+	public String toString() {
+		return "NeumaierSum [" + value() + "]";
+	}
+}
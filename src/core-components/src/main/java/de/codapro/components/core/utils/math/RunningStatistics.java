@@ -0,0 +1,198 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.utils.math;
+
+/**
+ * Running mean, central moments, minimum and maximum of a sequence of values.
+ *   Values are added with Welford's update, which does not suffer from the
+ *   cancellation of the textbook formula {@code sum(x^2) - n * mean^2}.
+ *
+ * Statistics of disjoint parts of a sequence, e.g. of groups processed in
+ *   parallel, can be combined by {@link #merge(RunningStatistics)} with the
+ *   pairwise formulas of Chan et al., the result is the same as if all values
+ *   had been added to a single instance.
+ */
+public final class RunningStatistics {
+	private long count = 0;
+
+	private double mean = 0;
+
+	/**
+	 * Sums of the second, third and fourth powers of the deviations from the mean.
+	 */
+	private double m2 = 0;
+
+	private double m3 = 0;
+
+	private double m4 = 0;
+
+	private double min = Double.POSITIVE_INFINITY;
+
+	private double max = Double.NEGATIVE_INFINITY;
+
+	public RunningStatistics() {
+	}
+
+	/**
+	 * Creates a copy of {@code other}.
+	 */
+	public RunningStatistics(final RunningStatistics other) {
+		set(other);
+	}
+
+	public void add(final double value) {
+		final double previousCount = count++;
+		final double n = count;
+		final double delta = value - mean;
+		final double deltaN = delta / n;
+		final double deltaN2 = deltaN * deltaN;
+		final double term = delta * deltaN * previousCount;
+
+		mean += deltaN;
+		// the higher moments use the lower ones before the update
+		m4 += term * deltaN2 * (n * n - 3 * n + 3) + 6 * deltaN2 * m2 - 4 * deltaN * m3;
+		m3 += term * deltaN * (n - 2) - 3 * deltaN * m2;
+		m2 += term;
+
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Resets the statistics to the ones of an empty sequence.
+	 */
+	public void clear() {
+		count = 0;
+		mean = 0;
+		m2 = 0;
+		m3 = 0;
+		m4 = 0;
+		min = Double.POSITIVE_INFINITY;
+		max = Double.NEGATIVE_INFINITY;
+	}
+
+	/**
+	 * @return The number of values.
+	 */
+	public long count() {
+		return count;
+	}
+
+	/**
+	 * @return The excess kurtosis, {@code 0} for normally distributed values.
+	 *   NaN if there are no values or all values are equal.
+	 */
+	public double kurtosis() {
+		return count == 0 ? Double.NaN : count * m4 / (m2 * m2) - 3;
+	}
+
+	/**
+	 * @return The largest value. NaN if there are no values.
+	 */
+	public double max() {
+		return count == 0 ? Double.NaN : max;
+	}
+
+	/**
+	 * @return The arithmetic mean. NaN if there are no values.
+	 */
+	public double mean() {
+		return count == 0 ? Double.NaN : mean;
+	}
+
+	/**
+	 * Adds the statistics of another sequence to this one.
+	 */
+	public void merge(final RunningStatistics other) {
+		if(other.count == 0) {
+			return;
+		}
+
+		if(count == 0) {
+			set(other);
+			return;
+		}
+
+		final double a = count;
+		final double b = other.count;
+		final double n = a + b;
+		final double delta = other.mean - mean;
+		final double delta2 = delta * delta;
+
+		final double mergedM2 = m2 + other.m2 + delta2 * a * b / n;
+		final double mergedM3 = m3 + other.m3
+			+ delta2 * delta * a * b * (a - b) / (n * n)
+			+ 3 * delta * (a * other.m2 - b * m2) / n;
+		final double mergedM4 = m4 + other.m4
+			+ delta2 * delta2 * a * b * (a * a - a * b + b * b) / (n * n * n)
+			+ 6 * delta2 * (a * a * other.m2 + b * b * m2) / (n * n)
+			+ 4 * delta * (a * other.m3 - b * m3) / n;
+
+		count += other.count;
+		mean += delta * b / n;
+		m2 = mergedM2;
+		m3 = mergedM3;
+		m4 = mergedM4;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	/**
+	 * @return The smallest value. NaN if there are no values.
+	 */
+	public double min() {
+		return count == 0 ? Double.NaN : min;
+	}
+
+	/**
+	 * @return The sample variance. NaN if there are less than two values.
+	 */
+	public double sampleVariance() {
+		return count < 2 ? Double.NaN : m2 / (count - 1);
+	}
+
+	/**
+	 * @return The skewness. NaN if there are no values or all values are equal.
+	 */
+	public double skewness() {
+		return count == 0 ? Double.NaN : Math.sqrt(count) * m3 / Math.pow(m2, 1.5);
+	}
+
+	/**
+	 * @return The population variance. NaN if there are no values.
+	 */
+	public double variance() {
+		return count == 0 ? Double.NaN : m2 / count;
+	}
+
+	@Override
+	public String toString() {
+		return "RunningStatistics [count=" + count + ", mean=" + mean() + ", variance=" + variance() + ", min=" + min() + ", max=" + max() + "]";
+	}
+
+	private void set(final RunningStatistics other) {
+		count = other.count;
+		mean = other.mean;
+		m2 = other.m2;
+		m3 = other.m3;
+		m4 = other.m4;
+		min = other.min;
+		max = other.max;
+	}
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.utils.math;
+
+/**
+ * The median of the last {@code capacity} values of a series. Adding a value
+ *   to a full window removes the oldest one, both in {@code O(log capacity)}
+ *   time and without allocations.
+ *
+ * The window is split into two indexed heaps: a max-heap holding the lower
+ *   half and a min-heap holding the upper half of the sorted values. The upper
+ *   heap has as many or one more element than the lower one, so its top is the
+ *   median. Each heap knows the position of every ring slot it contains, so
+ *   the oldest value is removed without searching.
+ *
+ * Values are ordered like {@link Double#compare(double, double)}, i.e. NaN is
+ *   greater than all other values.
+ */
+public final class SlidingMedian {
+	/**
+	 * A binary heap of ring slots ordered by their values.
+	 */
+	private final class Heap {
+		/**
+		 * {@code 1} for a min-heap, {@code -1} for a max-heap.
+		 */
+		private final int order;
+
+		private final int [] slots;
+
+		private int size = 0;
+
+		private Heap(final int order, final int capacity) {
+			this.order = order;
+			this.slots = new int[capacity];
+		}
+
+		private int peek() {
+			return slots[0];
+		}
+
+		private int pop() {
+			final int top = slots[0];
+			removeAt(0);
+			return top;
+		}
+
+		private void push(final int slot) {
+			heaps[slot] = this;
+			slots[size] = slot;
+			positions[slot] = size;
+			siftUp(size++);
+		}
+
+		private void removeAt(final int index) {
+			--size;
+
+			if(index != size) {
+				slots[index] = slots[size];
+				positions[slots[index]] = index;
+				siftDown(index);
+				siftUp(index);
+			}
+		}
+
+		private boolean less(final int a, final int b) {
+			return order * Double.compare(values[slots[a]], values[slots[b]]) < 0;
+		}
+
+		private void siftDown(int index) {
+			while(true) {
+				final int left = 2 * index + 1;
+
+				if(left >= size) {
+					return;
+				}
+
+				final int child = left + 1 < size && less(left + 1, left) ? left + 1 : left;
+
+				if(!less(child, index)) {
+					return;
+				}
+
+				swap(child, index);
+				index = child;
+			}
+		}
+
+		private void siftUp(int index) {
+			while(index > 0) {
+				final int parent = (index - 1) / 2;
+
+				if(!less(index, parent)) {
+					return;
+				}
+
+				swap(index, parent);
+				index = parent;
+			}
+		}
+
+		private void swap(final int a, final int b) {
+			final int slot = slots[a];
+			slots[a] = slots[b];
+			slots[b] = slot;
+			positions[slots[a]] = a;
+			positions[slots[b]] = b;
+		}
+	}
+
+	private final int capacity;
+
+	/**
+	 * The window's values, a ring starting at {@link #head}.
+	 */
+	private final double [] values;
+
+	/**
+	 * Heap containing each ring slot.
+	 */
+	private final Heap [] heaps;
+
+	/**
+	 * Position of each ring slot within its heap.
+	 */
+	private final int [] positions;
+
+	private final Heap lower;
+
+	private final Heap upper;
+
+	/**
+	 * Ring slot of the oldest value.
+	 */
+	private int head = 0;
+
+	private int size = 0;
+
+	/**
+	 * @param capacity The window size.
+	 */
+	public SlidingMedian(final int capacity) {
+		if(capacity <= 0) {
+			throw new IllegalArgumentException("Window size must be positive but is " + capacity + ".");
+		}
+
+		this.capacity = capacity;
+		this.values = new double[capacity];
+		this.heaps = new Heap[capacity];
+		this.positions = new int[capacity];
+		this.lower = new Heap(-1, capacity / 2 + 1);
+		this.upper = new Heap(1, capacity / 2 + 2);
+	}
+
+	/**
+	 * Adds a value to the window, the oldest value is removed if the window is full.
+	 */
+	public void add(final double value) {
+		if(size == capacity) {
+			remove(head);
+			head = head + 1 == capacity ? 0 : head + 1;
+			--size;
+		}
+
+		final int slot = (head + size) % capacity;
+		values[slot] = value;
+		++size;
+
+		if(upper.size > 0 && Double.compare(value, values[upper.peek()]) < 0) {
+			lower.push(slot);
+		} else {
+			upper.push(slot);
+		}
+
+		rebalance();
+	}
+
+	/**
+	 * @return The window size.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	/**
+	 * Removes all values.
+	 */
+	public void clear() {
+		head = 0;
+		size = 0;
+		lower.size = 0;
+		upper.size = 0;
+	}
+
+	/**
+	 * @return Iff the window contains {@code capacity} values.
+	 */
+	public boolean isFull() {
+		return size == capacity;
+	}
+
+	/**
+	 * Returns the median of the window. For an even number of values this is
+	 *   the upper one of both middle values, i.e. the element at index
+	 *   {@code size / 2} of the sorted window.
+	 *
+	 * @return The median or NaN if the window is empty.
+	 */
+	public double median() {
+		return size == 0 ? Double.NaN : values[upper.peek()];
+	}
+
+	/**
+	 * @return The number of values in the window.
+	 */
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		return "SlidingMedian [capacity=" + capacity + ", size=" + size + ", median=" + median() + "]";
+	}
+
+	private void rebalance() {
+		if(lower.size > upper.size) {
+			upper.push(lower.pop());
+		} else if(upper.size > lower.size + 1) {
+			lower.push(upper.pop());
+		}
+	}
+
+	private void remove(final int slot) {
+		heaps[slot].removeAt(positions[slot]);
+		rebalance();
+	}
+}
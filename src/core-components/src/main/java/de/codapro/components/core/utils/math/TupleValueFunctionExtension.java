@@ -22,8 +22,12 @@ import org.mariuszgromada.math.mxparser.FunctionExtension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.codapro.api.model.DoubleRingBuffer;
+
 /**
- * Function extension to give access to all values by index.
+ * Function extension to give access to all values by index. The values are
+ *   read directly from the tuple buffers, tuple index {@code 0} is the oldest
+ *   value.
  * 
  * @author Bernhard J. Berger
  */
@@ -46,9 +50,9 @@ public class TupleValueFunctionExtension implements FunctionExtension {
 	/**
 	 * List of all values.
 	 */
-	private Double[][] values;
+	private DoubleRingBuffer [] values;
 
-	public TupleValueFunctionExtension(final Double [][] values) {
+	public TupleValueFunctionExtension(final DoubleRingBuffer [] values) {
 		setValues(values);
 	}
 
@@ -59,12 +63,12 @@ public class TupleValueFunctionExtension implements FunctionExtension {
 			throw new IllegalStateException("Value index " + valueIndex + " is not in range.");
 		}
 
-		if(tupleIndex < 0 || tupleIndex >= values[valueIndex].length) {
+		if(tupleIndex < 0 || tupleIndex >= values[valueIndex].size()) {
 			log.error("Invalid tuple index {}.", tupleIndex);
 			throw new IllegalStateException("Tuple index " + tupleIndex + " is not in range.");
 		}
 
-		return values[valueIndex][tupleIndex];
+		return values[valueIndex].get(tupleIndex);
 	}
 
 	@Override
@@ -95,7 +99,7 @@ public class TupleValueFunctionExtension implements FunctionExtension {
 		return 2;
 	}
 
-	public Double[][] getValues() {
+	public DoubleRingBuffer [] getValues() {
 		return values;
 	}
 
@@ -110,7 +114,7 @@ public class TupleValueFunctionExtension implements FunctionExtension {
 		}
 	}
 
-	public void setValues(Double[][] values) {
+	public void setValues(final DoubleRingBuffer [] values) {
 		this.values = values;
 	}
 
@@ -0,0 +1,318 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.utils.recording;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.model.ColumnType;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVectorCodec;
+import de.codapro.api.model.StreamSchema;
+
+/**
+ * Binary format of stream recordings. A recording is a sequence of frames,
+ *   each consisting of a kind byte, the payload length as int and the payload.
+ *   All values are stored little endian.
+ *
+ * The first frame is the header with the column names and types. It is
+ *   followed by batch frames and group sentinel frames in stream order, the
+ *   last frame marks the end of the stream. Batches are stored column-wise,
+ *   numeric columns are written as plain arrays, so they can be copied from and
+ *   into the {@link DataBatch} columns without boxing. Numeric and boolean
+ *   columns are followed by a flag telling if they contain {@code null} values
+ *   and, if so, by their null mask as longs with one bit per row.
+ */
+public final class RecordingFormat {
+	public static final byte HEADER = 0;
+
+	public static final byte BATCH = 1;
+
+	public static final byte GROUP_START = 2;
+
+	public static final byte GROUP_END = 3;
+
+	public static final byte END = 4;
+
+	/**
+	 * Size of the kind and the payload length preceding each payload.
+	 */
+	public static final int FRAME_HEADER_SIZE = Byte.BYTES + Integer.BYTES;
+
+	private static final int MAGIC = 0x43445052;
+
+	private static final int VERSION = 2;
+
+	private static final ColumnType [] TYPES = ColumnType.values();
+
+	private RecordingFormat() {
+	}
+
+	/**
+	 * Writes the header payload.
+	 *
+	 * @param schema The schema of the recorded stream.
+	 * @param batchSize The maximum number of rows per batch frame.
+	 * @param buffer The target buffer.
+	 * @throws java.nio.BufferOverflowException Iff the buffer is too small.
+	 */
+	public static void writeHeader(final StreamSchema schema, final int batchSize, final ByteBuffer buffer) {
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(batchSize);
+		buffer.putInt(schema.size());
+
+		for(int column = 0; column < schema.size(); ++column) {
+			writeString(schema.nameOf(column), buffer);
+			buffer.put((byte)schema.typeOf(column).ordinal());
+		}
+	}
+
+	/**
+	 * Reads the maximum number of rows per batch from a header payload. Has to
+	 *   be called before {@link #readSchema(ByteBuffer)}.
+	 */
+	public static int readBatchSize(final ByteBuffer buffer) throws ConversionException {
+		try {
+			if(buffer.getInt() != MAGIC) {
+				throw new ConversionException("Not a stream recording.");
+			}
+
+			final int version = buffer.getInt();
+			if(version != VERSION) {
+				throw new ConversionException("Unsupported recording version " + version + ".");
+			}
+
+			return buffer.getInt();
+		} catch(final BufferUnderflowException e) {
+			throw new ConversionException("Truncated recording header.", e);
+		}
+	}
+
+	/**
+	 * Reads the column names and types following the batch size of a header payload.
+	 */
+	public static StreamSchema readSchema(final ByteBuffer buffer) throws ConversionException {
+		try {
+			final int columns = buffer.getInt();
+			final String [] names = new String[columns];
+			final ColumnType [] types = new ColumnType[columns];
+
+			for(int column = 0; column < columns; ++column) {
+				names[column] = readString(buffer);
+
+				final int type = buffer.get();
+				if(type < 0 || type >= TYPES.length) {
+					throw new ConversionException("Unknown column type " + type + ".");
+				}
+				types[column] = TYPES[type];
+			}
+
+			return new StreamSchema(names, types);
+		} catch(final BufferUnderflowException | NegativeArraySizeException e) {
+			throw new ConversionException("Truncated recording header.", e);
+		}
+	}
+
+	/**
+	 * Writes the rows of a batch as batch payload. The group marker is not written.
+	 *
+	 * @throws java.nio.BufferOverflowException Iff the buffer is too small.
+	 */
+	public static void writeBatch(final DataBatch batch, final ByteBuffer buffer) throws ConversionException {
+		final int rows = batch.size();
+		buffer.putInt(rows);
+
+		for(int column = 0; column < batch.getColumnCount(); ++column) {
+			switch(batch.getType(column)) {
+			case DOUBLE:
+				buffer.asDoubleBuffer().put(batch.getDoubleColumn(column), 0, rows);
+				buffer.position(buffer.position() + rows * Double.BYTES);
+				writeNulls(batch, column, buffer);
+				break;
+
+			case FLOAT:
+				buffer.asFloatBuffer().put(batch.getFloatColumn(column), 0, rows);
+				buffer.position(buffer.position() + rows * Float.BYTES);
+				writeNulls(batch, column, buffer);
+				break;
+
+			case INT:
+				buffer.asIntBuffer().put(batch.getIntColumn(column), 0, rows);
+				buffer.position(buffer.position() + rows * Integer.BYTES);
+				writeNulls(batch, column, buffer);
+				break;
+
+			case BOOLEAN:
+				final boolean [] values = batch.getBooleanColumn(column);
+				for(int row = 0; row < rows; ++row) {
+					buffer.put(values[row] ? (byte)1 : (byte)0);
+				}
+				writeNulls(batch, column, buffer);
+				break;
+
+			case STRING:
+				for(int row = 0; row < rows; ++row) {
+					writeString(batch.getString(column, row), buffer);
+				}
+				break;
+
+			default:
+				for(int row = 0; row < rows; ++row) {
+					DataVectorCodec.writeValue(batch.get(column, row), buffer);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads a batch payload into {@code batch}. The batch is cleared first and
+	 *   has to have the recorded column types and at least the recorded batch size
+	 *   as capacity.
+	 */
+	public static void readBatch(final ByteBuffer buffer, final DataBatch batch) throws ConversionException {
+		batch.clear();
+
+		try {
+			final int rows = buffer.getInt();
+			if(rows < 0 || rows > batch.capacity()) {
+				throw new ConversionException("Invalid batch size " + rows + ".");
+			}
+
+			for(int row = 0; row < rows; ++row) {
+				batch.addRow();
+			}
+
+			for(int column = 0; column < batch.getColumnCount(); ++column) {
+				switch(batch.getType(column)) {
+				case DOUBLE:
+					buffer.asDoubleBuffer().get(batch.getDoubleColumn(column), 0, rows);
+					buffer.position(buffer.position() + rows * Double.BYTES);
+					readNulls(buffer, batch, column);
+					break;
+
+				case FLOAT:
+					buffer.asFloatBuffer().get(batch.getFloatColumn(column), 0, rows);
+					buffer.position(buffer.position() + rows * Float.BYTES);
+					readNulls(buffer, batch, column);
+					break;
+
+				case INT:
+					buffer.asIntBuffer().get(batch.getIntColumn(column), 0, rows);
+					buffer.position(buffer.position() + rows * Integer.BYTES);
+					readNulls(buffer, batch, column);
+					break;
+
+				case BOOLEAN:
+					final boolean [] values = batch.getBooleanColumn(column);
+					for(int row = 0; row < rows; ++row) {
+						values[row] = buffer.get() != 0;
+					}
+					readNulls(buffer, batch, column);
+					break;
+
+				case STRING:
+					for(int row = 0; row < rows; ++row) {
+						batch.setString(column, row, readString(buffer));
+					}
+					break;
+
+				default:
+					for(int row = 0; row < rows; ++row) {
+						batch.set(column, row, DataVectorCodec.readValue(buffer));
+					}
+				}
+			}
+		} catch(final BufferUnderflowException | IllegalArgumentException e) {
+			throw new ConversionException("Truncated or corrupt batch frame.", e);
+		}
+	}
+
+	/**
+	 * Reads the null flag and mask of a column, the column values have to be read before.
+	 */
+	private static void readNulls(final ByteBuffer buffer, final DataBatch batch, final int column) {
+		if(buffer.get() == 0) {
+			return;
+		}
+
+		final int rows = batch.size();
+		long mask = 0;
+
+		for(int row = 0; row < rows; ++row) {
+			if(row % Long.SIZE == 0) {
+				mask = buffer.getLong();
+			}
+
+			if((mask & (1L << row)) != 0) {
+				batch.setNull(column, row);
+			}
+		}
+	}
+
+	private static String readString(final ByteBuffer buffer) {
+		final int length = buffer.getInt();
+		if(length < 0) {
+			return null;
+		}
+
+		final byte [] bytes = new byte[length];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Writes the null flag and, if there are {@code null} values, the null mask of a column.
+	 */
+	private static void writeNulls(final DataBatch batch, final int column, final ByteBuffer buffer) {
+		if(!batch.hasNulls(column)) {
+			buffer.put((byte)0);
+			return;
+		}
+
+		buffer.put((byte)1);
+
+		final int rows = batch.size();
+		long mask = 0;
+
+		for(int row = 0; row < rows; ++row) {
+			if(batch.isNull(column, row)) {
+				mask |= 1L << row;
+			}
+
+			if(row % Long.SIZE == Long.SIZE - 1 || row == rows - 1) {
+				buffer.putLong(mask);
+				mask = 0;
+			}
+		}
+	}
+
+	private static void writeString(final String value, final ByteBuffer buffer) {
+		if(value == null) {
+			buffer.putInt(-1);
+			return;
+		}
+
+		final byte [] bytes = value.getBytes(StandardCharsets.UTF_8);
+		buffer.putInt(bytes.length);
+		buffer.put(bytes);
+	}
+}
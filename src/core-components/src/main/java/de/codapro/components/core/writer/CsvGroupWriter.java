@@ -23,6 +23,8 @@ import java.io.File;
 import javax.inject.Named;
 
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.GroupIndex;
+import de.codapro.api.annotations.GroupIsolated;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.OnEnterGroup;
 import de.codapro.api.annotations.OnLeaveGroup;
@@ -31,6 +33,7 @@ import de.codapro.api.model.DataVector;
 import de.codapro.api.model.Stream;
 import de.codapro.components.core.utils.csv.CsvWriterBase;
 
+@GroupIsolated
 @Component(	name = "CsvGroupWriter",
 			doc = "Writes each data vector group into a separate file.",
 			sources= {})
@@ -38,6 +41,12 @@ public class CsvGroupWriter extends CsvWriterBase {
 	@Input(doc="Name of the input file. Make sure to inclue a format string for integers, such as part-%03d.csv", name="filename")
 	private String filename;
 
+	/**
+	 * Index of the current group if the runtime provides it.
+	 */
+	@GroupIndex
+	private int group = -1;
+
 	private int fileNumberSuffix = 0;
 
 	/**
@@ -51,6 +60,10 @@ public class CsvGroupWriter extends CsvWriterBase {
 	public void openNextCsv(final @Named("input-stream") Stream stream) {
 		initColumnIds(stream);
 
+		if(group >= 0) {
+			fileNumberSuffix = group;
+		}
+
 		final String nextFilename = String.format(filename, fileNumberSuffix++);
 		open(stream, new File(nextFilename));
 	}
@@ -70,5 +83,7 @@ public class CsvGroupWriter extends CsvWriterBase {
 		if(isWriting()) {
 			write(vector);
 		}
+
+		vector.release();
 	}
 }
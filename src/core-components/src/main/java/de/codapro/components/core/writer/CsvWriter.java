@@ -54,6 +54,7 @@ public class CsvWriter extends CsvWriterBase {
 	@OnProcess(dest={})
 	public void process(final DataVector vector) {
 		write(vector);
+		vector.release();
 	}
 
 	@Override
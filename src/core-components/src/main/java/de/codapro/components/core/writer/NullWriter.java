@@ -19,14 +19,17 @@
 package de.codapro.components.core.writer;
 
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.OnProcess;
 import de.codapro.api.model.DataVector;
 
+@DeclaredColumns
 @Component(name = "NullWriter", doc = "Discards all data.", sources= {})
 public class NullWriter {
 	@OnProcess(dest={})
 	public void nop(final DataVector vecotr) {
 		// The null writer dumps all data.
+		vecotr.release();
 	}
 
 	@Override
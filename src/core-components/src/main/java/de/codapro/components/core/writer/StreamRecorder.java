@@ -0,0 +1,196 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.writer;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import javax.inject.Named;
+
+import org.slf4j.Logger;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.Input;
+import de.codapro.api.annotations.Log;
+import de.codapro.api.annotations.OnEnterGroup;
+import de.codapro.api.annotations.OnFinish;
+import de.codapro.api.annotations.OnInit;
+import de.codapro.api.annotations.OnLeaveGroup;
+import de.codapro.api.annotations.OnProcess;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.StreamSchema;
+import de.codapro.components.core.utils.recording.RecordingFormat;
+
+/**
+ * Records a stream including its header and group sentinels into a binary
+ *   file, see {@link RecordingFormat}. The recording can be played back by the
+ *   {@link de.codapro.components.core.reader.StreamReplayer}.
+ */
+@Component(
+		name	= "StreamRecorder",
+		doc		= "Records a vector stream including its header and groups into a binary file for replay.",
+		sources	= {}
+)
+public class StreamRecorder {
+	@Log
+	private static Logger log;
+
+	@Input(doc="Number of data vectors written at once.", name="batch-size", required=false)
+	private int batchSize = 1024;
+
+	@Input(doc="Name of the output file.", name="filename")
+	private String filename;
+
+	private DataBatch batch;
+
+	/**
+	 * Buffer for encoding a frame, grown on demand.
+	 */
+	private ByteBuffer buffer;
+
+	private FileChannel channel;
+
+	private long vectorCount;
+
+	@OnInit
+	public void open(final @Named("input-stream") Stream stream) throws IOException, ConversionException {
+		final StreamSchema schema = stream.getHeader().freeze();
+
+		batch = new DataBatch(schema, batchSize);
+		buffer = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+		channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+		vectorCount = 0;
+
+		while(true) {
+			try {
+				startFrame(RecordingFormat.HEADER);
+				RecordingFormat.writeHeader(schema, batchSize, buffer);
+				break;
+			} catch(final BufferOverflowException e) {
+				grow();
+			}
+		}
+
+		writeFrame();
+	}
+
+	@OnProcess(dest={})
+	public void record(final DataVector vector) throws IOException, ConversionException {
+		try {
+			batch.appendRow(vector);
+		} finally {
+			vector.release();
+		}
+
+		++vectorCount;
+
+		if(batch.isFull()) {
+			flush();
+		}
+	}
+
+	@OnEnterGroup
+	public void enterGroup() throws IOException, ConversionException {
+		flush();
+		writeSentinel(RecordingFormat.GROUP_START);
+	}
+
+	@OnLeaveGroup
+	public void leaveGroup() throws IOException, ConversionException {
+		flush();
+		writeSentinel(RecordingFormat.GROUP_END);
+	}
+
+	@OnFinish
+	public void close() throws IOException, ConversionException {
+		try {
+			flush();
+			writeSentinel(RecordingFormat.END);
+		} finally {
+			channel.close();
+		}
+
+		log.info("Recorded {} data vectors.", vectorCount);
+	}
+
+	@Override
+	public String toString() {
+		return "StreamRecorder [filename=" + filename + ", " + vectorCount + "]";
+	}
+
+	/**
+	 * Writes the buffered rows as batch frame.
+	 */
+	private void flush() throws IOException, ConversionException {
+		if(batch.isEmpty()) {
+			return;
+		}
+
+		while(true) {
+			try {
+				startFrame(RecordingFormat.BATCH);
+				RecordingFormat.writeBatch(batch, buffer);
+				break;
+			} catch(final BufferOverflowException e) {
+				grow();
+			}
+		}
+
+		writeFrame();
+		batch.clear();
+	}
+
+	private void grow() {
+		buffer = ByteBuffer.allocateDirect(buffer.capacity() * 2).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/**
+	 * Clears the buffer and writes the kind and a placeholder for the payload length.
+	 */
+	private void startFrame(final byte kind) {
+		buffer.clear();
+		buffer.put(kind);
+		buffer.putInt(0);
+	}
+
+	/**
+	 * Patches the payload length and writes the frame to the file.
+	 */
+	private void writeFrame() throws IOException {
+		buffer.flip();
+		buffer.putInt(Byte.BYTES, buffer.limit() - RecordingFormat.FRAME_HEADER_SIZE);
+
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	private void writeSentinel(final byte kind) throws IOException {
+		startFrame(kind);
+		writeFrame();
+	}
+}
@@ -33,6 +33,7 @@ import de.codapro.tdms.model.TDMsGroup;
 import de.codapro.tdms.model.Type;
 import de.codapro.api.annotations.ColumnId;
 import de.codapro.api.annotations.Component;
+import de.codapro.api.annotations.DeclaredColumns;
 import de.codapro.api.annotations.Input;
 import de.codapro.api.annotations.Log;
 import de.codapro.api.annotations.OnExecute;
@@ -42,6 +43,7 @@ import de.codapro.api.model.Stream;
 /**
  * Component for writing tdms files.
  */
+@DeclaredColumns
 @Component(name = "TDMsWriter", doc = "Component for writing a TDMs file.", sources = {})
 public class TDMsWriter {
 	@Log
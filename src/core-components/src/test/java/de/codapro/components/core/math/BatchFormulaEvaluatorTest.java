@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mariuszgromada.math.mxparser.Expression;
+import org.mariuszgromada.math.mxparser.Function;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import de.codapro.api.model.ColumnType;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.RingStream;
+import de.codapro.api.model.Stream;
+
+public class BatchFormulaEvaluatorTest {
+	private BatchFormulaEvaluator testee;
+
+	private Stream input;
+
+	private Stream output;
+
+	@Before
+	public void setUp() throws Exception {
+		FieldUtils.writeDeclaredStaticField(BatchFormulaEvaluator.class, "log", Mockito.mock(Logger.class), true);
+
+		input = new RingStream();
+		input.getHeader().add("a value", ColumnType.DOUBLE).add("label", ColumnType.STRING).add("b", ColumnType.INT);
+		output = new RingStream();
+
+		testee = new BatchFormulaEvaluator();
+		FieldUtils.writeField(testee, "stream", input, true);
+		FieldUtils.writeField(testee, "outputStream", output, true);
+		FieldUtils.writeField(testee, "batchSize", 4, true);
+		FieldUtils.writeField(testee, "resultColumns", new String [] {"sum", "double", "labelled"}, true);
+		FieldUtils.writeField(testee, "functions", new Function [] {new Function("twice(v) = 2 * v")}, true);
+		FieldUtils.writeField(testee, "formulas", new Expression [] {
+			new Expression("a_value + b"), new Expression("twice(b)"), new Expression("label + 1")}, true);
+
+		testee.init();
+	}
+
+	@Test
+	public void testCompiledAndInterpretedFormulas() throws Exception {
+		final DataBatch batch = new DataBatch(new ColumnType [] {ColumnType.DOUBLE, ColumnType.STRING, ColumnType.INT}, 8);
+		for(int i = 0; i < 6; ++i) {
+			final int row = batch.addRow();
+			batch.setDouble(0, row, i + 0.5);
+			batch.setString(1, row, "text");
+			batch.setInt(2, row, i);
+		}
+		batch.setNull(0, 5);
+
+		input.appendBatch(batch);
+		input.append(DataVector.GROUP_END);
+		input.close();
+
+		testee.execute();
+		output.close();
+
+		assertEquals(ColumnType.DOUBLE, output.getHeader().typeOf(3));
+
+		// the results of both input batches are read at once
+		final DataBatch result = new DataBatch(output.getHeader().freeze(), 8);
+		assertEquals(6, output.getBatch(result));
+		assertEquals(0.5, result.getDouble(3, 0), 0.0);
+		assertEquals(6.5, result.getDouble(3, 3), 0.0);
+		assertEquals(6.0, result.getDouble(4, 3), 0.0);
+		assertTrue(Double.isNaN(result.getDouble(5, 3)));
+		assertEquals(8.5, result.getDouble(3, 4), 0.0);
+		assertEquals(10.0, result.getDouble(4, 5), 0.0);
+		assertEquals(DataVector.GROUP_END, result.getGroupMarker());
+
+		// a null value cannot be calculated
+		assertTrue(Double.isNaN(result.getDouble(3, 5)));
+	}
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.math;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.Arrays;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mariuszgromada.math.mxparser.Expression;
+import org.mariuszgromada.math.mxparser.Function;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.RingStream;
+import de.codapro.api.model.Stream;
+
+public class FormulaEvaluatorTest {
+	private FormulaEvaluator testee;
+
+	@Before
+	public void setUp() throws Exception {
+		FieldUtils.writeDeclaredStaticField(FormulaEvaluator.class, "log", Mockito.mock(Logger.class), true);
+
+		final Stream input = new RingStream();
+		input.getHeader().add("a value").add("label").add("b");
+
+		testee = new FormulaEvaluator();
+		FieldUtils.writeField(testee, "stream", input, true);
+		FieldUtils.writeField(testee, "resultColumns", new String [] {"sum", "double", "labelled"}, true);
+		FieldUtils.writeField(testee, "functions", new Function [] {new Function("twice(v) = 2 * v")}, true);
+		FieldUtils.writeField(testee, "formulas", new Expression [] {
+			new Expression("a_value + b"), new Expression("twice(b)"), new Expression("label + 1")}, true);
+
+		testee.init(new RingStream());
+	}
+
+	@Test
+	public void testCompiledAndInterpretedFormulas() {
+		final DataVector vector = new DataVector(3);
+		vector.set(0, 1.5);
+		vector.set(1, "text");
+		vector.set(2, 2);
+
+		testee.evaluateFormulas(vector);
+
+		// the label is not a number, so there is no such constant
+		assertThat(Arrays.asList(vector.get(3), vector.get(4), vector.get(5)), equalTo(Arrays.asList(3.5, 4.0, Double.NaN)));
+	}
+}
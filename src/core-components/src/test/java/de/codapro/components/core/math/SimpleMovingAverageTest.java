@@ -0,0 +1,96 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.math;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.RingStream;
+import de.codapro.api.model.Stream;
+import de.codapro.components.core.math.SimpleMovingAverage.Mode;
+
+public class SimpleMovingAverageTest {
+
+	@Test
+	public void testTrailing() throws Exception {
+		assertThat(run(Mode.TRAILING, 3, 1.0, 2.0, 3.0, 4.0, 5.0), equalTo(Arrays.asList(1.0, 1.5, 2.0, 3.0, 4.0)));
+	}
+
+	@Test
+	public void testCentered() throws Exception {
+		assertThat(run(Mode.CENTERED, 3, 1.0, 2.0, 3.0, 4.0, 5.0), equalTo(Arrays.asList(1.5, 2.0, 3.0, 4.0, 4.5)));
+		assertThat(run(Mode.CENTERED, 4, 1.0, 2.0, 3.0, 4.0, 5.0), equalTo(Arrays.asList(1.5, 2.0, 2.5, 3.5, 4.0)));
+	}
+
+	@Test
+	public void testExponential() throws Exception {
+		assertThat(run(Mode.EXPONENTIAL, 3, 1.0, 2.0, 3.0, 4.0), equalTo(Arrays.asList(1.0, 1.5, 2.25, 3.125)));
+	}
+
+	@Test
+	public void testNonFiniteValues() throws Exception {
+		assertThat(run(Mode.TRAILING, 2, 1.0, Double.NaN, 3.0, 4.0), equalTo(Arrays.asList(1.0, Double.NaN, Double.NaN, 3.5)));
+		assertThat(run(Mode.EXPONENTIAL, 2, 3.0, Double.NaN, 6.0), equalTo(Arrays.asList(3.0, 3.0, 5.0)));
+	}
+
+	@Test
+	public void testFloatColumn() throws Exception {
+		assertThat(run(Mode.TRAILING, 2, 1.0f, 2.0f), equalTo(Arrays.asList(1.0, 1.5)));
+	}
+
+	private static List<Object> run(final Mode mode, final int filterSize, final Number... values) throws Exception {
+		final Stream input = new RingStream();
+		input.getHeader().add("x");
+
+		final Stream output = new RingStream(values.length + 1);
+
+		final SimpleMovingAverage testee = new SimpleMovingAverage();
+		FieldUtils.writeDeclaredField(testee, "log", Mockito.mock(Logger.class), true);
+		FieldUtils.writeDeclaredField(testee, "inputStream", input, true);
+		FieldUtils.writeDeclaredField(testee, "filterSize", filterSize, true);
+		FieldUtils.writeDeclaredField(testee, "mode", mode, true);
+		testee.inputColumns = new int [] {0};
+		testee.outputColumns = new String [] {"mean"};
+
+		testee.initBuffers(output);
+		for(final Number value : values) {
+			final DataVector vector = new DataVector(1);
+			vector.set(0, value);
+			testee.process(vector);
+		}
+		testee.finish();
+
+		final List<Object> means = new ArrayList<>();
+		for(int i = 0; i < values.length; ++i) {
+			means.add(output.get().get(1));
+		}
+
+		return means;
+	}
+}
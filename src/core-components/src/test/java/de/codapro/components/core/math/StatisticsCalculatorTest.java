@@ -0,0 +1,120 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.math;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.RingStream;
+import de.codapro.api.model.Stream;
+import de.codapro.api.model.Value;
+import de.codapro.components.core.utils.math.RunningStatistics;
+
+public class StatisticsCalculatorTest {
+	private StatisticsCalculator testee;
+
+	private Stream descriptors;
+
+	private final Value<long[]> count = new Value<>();
+
+	private final Value<double[]> mean = new Value<>();
+
+	private final Value<double[]> variance = new Value<>();
+
+	private final Value<double[]> max = new Value<>();
+
+	private final Value<RunningStatistics[]> statistics = new Value<>();
+
+	@Before
+	public void setUp() throws Exception {
+		FieldUtils.writeDeclaredStaticField(StatisticsCalculator.class, "log", Mockito.mock(Logger.class), true);
+
+		final Stream input = new RingStream();
+		input.getHeader().add("time").add("a").add("b");
+		descriptors = new RingStream();
+
+		testee = new StatisticsCalculator();
+		FieldUtils.writeField(testee, "columns", new int [] {1, 2}, true);
+		FieldUtils.writeField(testee, "countValue", count, true);
+		FieldUtils.writeField(testee, "meanValue", mean, true);
+		FieldUtils.writeField(testee, "varianceValue", variance, true);
+		FieldUtils.writeField(testee, "minValue", new Value<double[]>(), true);
+		FieldUtils.writeField(testee, "maxValue", max, true);
+		FieldUtils.writeField(testee, "skewnessValue", new Value<double[]>(), true);
+		FieldUtils.writeField(testee, "kurtosisValue", new Value<double[]>(), true);
+		FieldUtils.writeField(testee, "statisticsValue", statistics, true);
+
+		testee.init(input, descriptors);
+	}
+
+	@Test
+	public void testGroupsAndTotals() throws Exception {
+		process(0, 1, "x");
+
+		testee.enter();
+		process(1, 2, 10);
+		process(2, 4, 20);
+		process(2.5, Double.NaN, Double.POSITIVE_INFINITY);
+		testee.leave(descriptors);
+
+		testee.enter();
+		process(3, 6, 30);
+		testee.leave(descriptors);
+
+		process(4, 7, 40);
+		testee.publish(descriptors);
+		descriptors.close();
+
+		final List<List<Object>> rows = new ArrayList<>();
+		while(!descriptors.isEmpty()) {
+			final DataVector row = descriptors.get();
+			rows.add(List.of(row.get(0), row.get(1), row.get(2), row.get(3)));
+		}
+
+		// the ungrouped vectors are described at the end, "x", NaN and infinity are ignored
+		assertThat(rows, equalTo(List.of(
+			List.of(0, "a", 2L, 3.0), List.of(0, "b", 2L, 15.0),
+			List.of(1, "a", 1L, 6.0), List.of(1, "b", 1L, 30.0),
+			List.of(-1, "a", 2L, 4.0), List.of(-1, "b", 1L, 40.0))));
+
+		assertArrayEquals(new long [] {5, 4}, count.get());
+		assertArrayEquals(new double [] {4.0, 25.0}, mean.get(), 1e-12);
+		assertArrayEquals(new double [] {5.2, 125.0}, variance.get(), 1e-12);
+		assertArrayEquals(new double [] {7.0, 40.0}, max.get(), 0);
+		assertEquals(6.5, statistics.get()[0].sampleVariance(), 1e-12);
+	}
+
+	private void process(final double time, final double a, final Object b) {
+		final DataVector vector = new DataVector();
+		vector.append(time).append(a).append(b);
+		testee.process(vector);
+	}
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.math;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mariuszgromada.math.mxparser.Expression;
+import org.mariuszgromada.math.mxparser.Function;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.RingStream;
+import de.codapro.api.model.Stream;
+
+public class TupleFormulaEvaluatorTest {
+	private TupleFormulaEvaluator testee;
+
+	@Before
+	public void setUp() throws Exception {
+		FieldUtils.writeDeclaredStaticField(TupleFormulaEvaluator.class, "log", Mockito.mock(Logger.class), true);
+
+		final Stream input = new RingStream();
+		input.getHeader().add("a value").add("b");
+
+		testee = new TupleFormulaEvaluator();
+		FieldUtils.writeField(testee, "stream", input, true);
+		FieldUtils.writeField(testee, "tupleColumns", new int [] {0, 1}, true);
+		FieldUtils.writeField(testee, "capacity", 3, true);
+		FieldUtils.writeField(testee, "nans", new double [] {-1, -1, -1, -1}, true);
+		FieldUtils.writeField(testee, "resultColumns", new String [] {"aggregates", "difference", "window", "iterated"}, true);
+		FieldUtils.writeField(testee, "formulas", new Expression [] {
+			new Expression("mean(a_value) + slope(a_value)"),
+			new Expression("a_value(2) - b(0)"),
+			new Expression("max(b) - min(b) + first(b) * last(b) + var(a_value) + sum(a_value)"),
+			new Expression("sum(i, 0, 2, a_value(i) * b(i))")}, true);
+
+		testee.init(new RingStream());
+	}
+
+	@After
+	public void tearDown() {
+		testee.releaseBuffers();
+	}
+
+	@Test
+	public void testFormulasOverTuples() {
+		final List<Object> results = new ArrayList<>();
+
+		for(int i = 1; i <= 4; ++i) {
+			final DataVector vector = new DataVector(2);
+			vector.set(0, i * 2.0);
+			vector.set(1, 10 - i);
+
+			testee.evaluateFormulas(vector);
+			results.add(List.of(vector.get(2), vector.get(3), vector.get(4), vector.get(5)));
+		}
+
+		// windows of a are {2, 4, 6} and {4, 6, 8}, windows of b are {9, 8, 7} and {8, 7, 6}
+		assertThat(results, equalTo(List.of(
+			List.of(-1.0, -1.0, -1.0, -1.0),
+			List.of(-1.0, -1.0, -1.0, -1.0),
+			List.of(6.0, -3.0, 2.0 + 63.0 + 4.0 + 12.0, 2 * 9.0 + 4 * 8.0 + 6 * 7.0),
+			List.of(8.0, 0.0, 2.0 + 48.0 + 4.0 + 18.0, 4 * 8.0 + 6 * 7.0 + 8 * 6.0))));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInterpretedFormulaWithWindowedFunctionFails() throws Exception {
+		final Stream input = new RingStream();
+		input.getHeader().add("a value");
+
+		final TupleFormulaEvaluator evaluator = new TupleFormulaEvaluator();
+		FieldUtils.writeField(evaluator, "stream", input, true);
+		FieldUtils.writeField(evaluator, "tupleColumns", new int [] {0}, true);
+		FieldUtils.writeField(evaluator, "nans", new double [] {-1}, true);
+		FieldUtils.writeField(evaluator, "resultColumns", new String [] {"twice"}, true);
+		FieldUtils.writeField(evaluator, "functions", new Function [] {new Function("twice(v) = 2 * v")}, true);
+		FieldUtils.writeField(evaluator, "formulas", new Expression [] {new Expression("twice(mean(a_value))")}, true);
+
+		// user defined functions are not compiled
+		evaluator.init(new RingStream());
+	}
+}
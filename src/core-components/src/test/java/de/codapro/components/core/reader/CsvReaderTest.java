@@ -0,0 +1,103 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.reader;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.RingStream;
+import de.codapro.api.model.Stream;
+
+public class CsvReaderTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private CsvReader testee;
+
+	@Before
+	public void setUp() throws Exception {
+		final File file = folder.newFile("input.csv");
+		Files.write(file.toPath(), Arrays.asList("a;b;c", "1.5;2;x", "2.5;3;y", "3.5;4;z"), Charset.defaultCharset());
+
+		testee = new CsvReader();
+		FieldUtils.writeField(testee, "filename", file.getPath(), true);
+		FieldUtils.writeField(testee, "firstRowContainsHeader", true, true);
+		FieldUtils.writeField(testee, "locale", Locale.ENGLISH, true);
+		FieldUtils.writeField(testee, "poolSize", 2, true);
+		// column c has no conversion
+		FieldUtils.writeField(testee, "columnTypes", new String [] {"%d", "%i"}, true);
+	}
+
+	@Test
+	public void testPooledVectorsMatchHeader() throws Exception {
+		assertThat(read(), equalTo(Arrays.asList(
+			Arrays.asList(1.5, 2, null), Arrays.asList(2.5, 3, null), Arrays.asList(3.5, 4, null))));
+	}
+
+	@Test
+	public void testPooledProjectedVectorsMatchHeader() throws Exception {
+		FieldUtils.writeField(testee, "projection", Set.of("a", "c"), true);
+
+		assertThat(read(), equalTo(Arrays.asList(
+			Arrays.asList(1.5, null), Arrays.asList(2.5, null), Arrays.asList(3.5, null))));
+	}
+
+	/**
+	 * Reads the file and releases each vector, so later vectors are taken from the pool.
+	 */
+	private List<List<Object>> read() throws Exception {
+		final Stream output = new RingStream();
+
+		testee.initStream(output);
+		testee.execute(output);
+		testee.close();
+		output.markClosed();
+
+		final List<List<Object>> rows = new ArrayList<>();
+		while(!output.isEmpty()) {
+			final DataVector vector = output.get();
+			final List<Object> row = new ArrayList<>();
+
+			for(int column = 0; column < output.getHeader().size(); ++column) {
+				row.add(vector.get(column));
+			}
+
+			rows.add(row);
+			vector.release();
+		}
+
+		return rows;
+	}
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.utils.math;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+import org.mariuszgromada.math.mxparser.Constant;
+import org.mariuszgromada.math.mxparser.Expression;
+import org.mariuszgromada.math.mxparser.Function;
+
+public class CompiledFormulaTest {
+	private static final List<String> COLUMNS = Arrays.asList("x", "y_1", "z");
+
+	private static final Constant [] CONSTANTS = {new Constant("w", 0.1)};
+
+	private static final Function [] FUNCTIONS = {new Function("f(a) = 2 * a")};
+
+	private static final String [] FORMULAS = {
+		"x + y_1 * z", "x - y_1 - z", "x / y_1 / z", "x * w + 0.2", "z / 0",
+		"2^3^2", "x ^ -z", "2^-1", "-2^2", "-x^2", "-(x)^2", "2*-x^2", "-x + 1", "x * -2",
+		"1e3 * x", ".5 * z", "1.5e-3 * y_1", "(x + y_1) * (z - w)", "0.1 + 0.2", "w * 3",
+		"x > y_1", "x <= z", "x = y_1", "x <> z", "x != z", "x >= 0 & z < 0", "x > 0 | z > 0 & y_1 > 0",
+		"x && y_1 || z", "if(x > y_1, x, y_1)", "if(z - w, 1, 2)", "if(x, 1, 1 / 0)",
+		"sin(x) + cos(y_1) * tan(z)", "abs(y_1) + sqrt(abs(x))", "exp(z) - ln(abs(x) + 1)", "log10(abs(y_1) + 1)",
+		"floor(x) + ceil(y_1) + sgn(z)", "min(x, y_1, z)", "max(x, w)", "pi * x + e", "y_1 ^ (1 / 3)", "sqrt(-1)"
+	};
+
+	@Test
+	public void testResultsMatchMxparser() {
+		final Random random = new Random(7);
+
+		for(final String formula : FORMULAS) {
+			final CompiledFormula testee = compile(formula);
+			assertThat(formula, testee, notNullValue());
+
+			for(int i = 0; i < 200; ++i) {
+				final double [] values = new double[COLUMNS.size()];
+				for(int column = 0; column < values.length; ++column) {
+					// small integers hit the rounding and comparison corner cases
+					values[column] = random.nextBoolean() ? random.nextInt(7) - 3 : random.nextGaussian() * 10;
+				}
+
+				final Expression expression = new Expression(formula, CONSTANTS);
+				for(int column = 0; column < values.length; ++column) {
+					expression.addConstants(new Constant(COLUMNS.get(column), values[column]));
+				}
+
+				assertEquals(formula + " with " + Arrays.toString(values), expression.calculate(), testee.evaluate(values), 0);
+			}
+		}
+	}
+
+	@Test
+	public void testUsedColumns() {
+		assertThat(compile("z * 2 + x * z").getColumns(), equalTo(new int [] {2, 0}));
+		assertThat(compile("w + pi").getColumns(), equalTo(new int [0]));
+	}
+
+	@Test
+	public void testUnsupportedFormulas() {
+		for(final String formula : new String [] {"f(x)", "unknown + 1", "1 < 2 = 1", "2--3", "1 - -x", "+3", "5.", "2(3)", "x (y_1)",
+												  "x * 2e", "~x", "3 # 2", "10%", "gcd(4, 6)", "sin(x, y_1)", "if(x, 1)", "(x"}) {
+			assertThat(formula, compile(formula), nullValue());
+		}
+	}
+
+	private static CompiledFormula compile(final String formula) {
+		return CompiledFormula.compile(formula, COLUMNS::indexOf, CONSTANTS, FUNCTIONS);
+	}
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.utils.math;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+public class RunningStatisticsTest {
+
+	@Test
+	public void testEmpty() {
+		final RunningStatistics testee = new RunningStatistics();
+
+		assertEquals(0, testee.count());
+		assertEquals(Double.NaN, testee.mean(), 0);
+		assertEquals(Double.NaN, testee.variance(), 0);
+		assertEquals(Double.NaN, testee.min(), 0);
+		assertEquals(Double.NaN, testee.max(), 0);
+	}
+
+	@Test
+	public void testNoCancellationForLargeOffsets() {
+		final RunningStatistics testee = new RunningStatistics();
+
+		testee.add(1e9 + 1);
+		testee.add(1e9 + 2);
+		testee.add(1e9 + 3);
+
+		assertEquals(1e9 + 2, testee.mean(), 0);
+		assertEquals(2.0 / 3, testee.variance(), 1e-12);
+		assertEquals(1.0, testee.sampleVariance(), 1e-12);
+		assertEquals(0.0, testee.skewness(), 1e-9);
+	}
+
+	@Test
+	public void testMatchesTwoPass() {
+		final double [] values = randomValues(1000, 7);
+		final RunningStatistics testee = new RunningStatistics();
+
+		for(final double value : values) {
+			testee.add(value);
+		}
+
+		assertStatistics(values, testee);
+	}
+
+	@Test
+	public void testMergeMatchesSequential() {
+		final double [] values = randomValues(1000, 11);
+		final RunningStatistics sequential = new RunningStatistics();
+		final RunningStatistics testee = new RunningStatistics();
+		RunningStatistics part = new RunningStatistics();
+
+		for(int i = 0; i < values.length; ++i) {
+			sequential.add(values[i]);
+			part.add(values[i]);
+
+			// parts of different sizes, including empty ones
+			if(i % 97 == 0 || i % 13 == 0) {
+				testee.merge(part);
+				testee.merge(new RunningStatistics());
+				part = new RunningStatistics();
+			}
+		}
+		testee.merge(part);
+
+		assertEquals(sequential.count(), testee.count());
+		assertEquals(sequential.mean(), testee.mean(), 1e-12);
+		assertEquals(sequential.variance(), testee.variance(), 1e-9);
+		assertEquals(sequential.skewness(), testee.skewness(), 1e-9);
+		assertEquals(sequential.kurtosis(), testee.kurtosis(), 1e-9);
+		assertEquals(sequential.min(), testee.min(), 0);
+		assertEquals(sequential.max(), testee.max(), 0);
+		assertStatistics(values, testee);
+	}
+
+	private static double [] randomValues(final int count, final long seed) {
+		final Random random = new Random(seed);
+		final double [] values = new double[count];
+
+		for(int i = 0; i < count; ++i) {
+			// skewed values
+			values[i] = 100 + Math.exp(random.nextGaussian());
+		}
+
+		return values;
+	}
+
+	private static void assertStatistics(final double [] values, final RunningStatistics testee) {
+		double mean = 0, min = Double.POSITIVE_INFINITY, max = Double.NEGATIVE_INFINITY;
+		for(final double value : values) {
+			mean += value;
+			min = Math.min(min, value);
+			max = Math.max(max, value);
+		}
+		mean /= values.length;
+
+		double m2 = 0, m3 = 0, m4 = 0;
+		for(final double value : values) {
+			final double deviation = value - mean;
+			m2 += deviation * deviation;
+			m3 += deviation * deviation * deviation;
+			m4 += deviation * deviation * deviation * deviation;
+		}
+
+		final int n = values.length;
+		assertEquals(n, testee.count());
+		assertEquals(mean, testee.mean(), 1e-10);
+		assertEquals(m2 / n, testee.variance(), 1e-10);
+		assertEquals(m2 / (n - 1), testee.sampleVariance(), 1e-10);
+		assertEquals(Math.sqrt(n) * m3 / Math.pow(m2, 1.5), testee.skewness(), 1e-8);
+		assertEquals(n * m4 / (m2 * m2) - 3, testee.kurtosis(), 1e-8);
+		assertEquals(min, testee.min(), 0);
+		assertEquals(max, testee.max(), 0);
+	}
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.utils.math;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class SlidingMedianTest {
+
+	@Test
+	public void testEmpty() {
+		final SlidingMedian testee = new SlidingMedian(3);
+
+		assertEquals(Double.NaN, testee.median(), 0);
+		assertEquals(0, testee.size());
+	}
+
+	@Test
+	public void testUpperMedianOfEvenWindow() {
+		final SlidingMedian testee = new SlidingMedian(4);
+
+		testee.add(4);
+		testee.add(1);
+		assertEquals(4, testee.median(), 0);
+
+		testee.add(3);
+		testee.add(2);
+		assertTrue(testee.isFull());
+		assertEquals(3, testee.median(), 0);
+
+		// removes 4
+		testee.add(0);
+		assertEquals(2, testee.median(), 0);
+	}
+
+	@Test
+	public void testClear() {
+		final SlidingMedian testee = new SlidingMedian(2);
+
+		testee.add(1);
+		testee.add(2);
+		testee.clear();
+
+		assertFalse(testee.isFull());
+		testee.add(5);
+		assertEquals(5, testee.median(), 0);
+	}
+
+	@Test
+	public void testMatchesSortedWindow() {
+		final Random random = new Random(42);
+
+		for(final int capacity : new int [] {1, 2, 3, 8, 51}) {
+			final SlidingMedian testee = new SlidingMedian(capacity);
+			final Deque<Double> window = new ArrayDeque<>();
+
+			for(int i = 0; i < 2000; ++i) {
+				// few distinct values for duplicates, some NaN
+				final double value = random.nextInt(20) == 0 ? Double.NaN : random.nextInt(10);
+
+				testee.add(value);
+				window.addLast(value);
+				if(window.size() > capacity) {
+					window.removeFirst();
+				}
+
+				final double [] sorted = window.stream().mapToDouble(Double::doubleValue).toArray();
+				Arrays.sort(sorted);
+
+				assertEquals(window.size(), testee.size());
+				assertEquals(sorted[sorted.length / 2], testee.median(), 0);
+			}
+		}
+	}
+}
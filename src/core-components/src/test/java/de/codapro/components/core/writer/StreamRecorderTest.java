@@ -0,0 +1,229 @@
+/*
+ * Copyright 2021 CoDaPro project. All rights reserved.
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston,
+ * MA 02110-1301  USA
+ */
+package de.codapro.components.core.writer;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.slf4j.Logger;
+
+import de.codapro.api.ConversionException;
+import de.codapro.api.model.ColumnType;
+import de.codapro.api.model.DataBatch;
+import de.codapro.api.model.DataVector;
+import de.codapro.api.model.RingStream;
+import de.codapro.api.model.Stream;
+import de.codapro.components.core.reader.StreamReplayer;
+
+public class StreamRecorderTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File file;
+
+	@Before
+	public void setUp() throws Exception {
+		file = folder.newFile("recording.bin");
+
+		FieldUtils.writeDeclaredStaticField(StreamRecorder.class, "log", Mockito.mock(Logger.class), true);
+		FieldUtils.writeDeclaredStaticField(StreamReplayer.class, "log", Mockito.mock(Logger.class), true);
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		final Stream input = new RingStream();
+		input.getHeader()
+			 .add("d", ColumnType.DOUBLE)
+			 .add("f", ColumnType.FLOAT)
+			 .add("i", ColumnType.INT)
+			 .add("b", ColumnType.BOOLEAN)
+			 .add("s", ColumnType.STRING)
+			 .add("o", ColumnType.OBJECT);
+
+		final StreamRecorder testee = new StreamRecorder();
+		FieldUtils.writeDeclaredField(testee, "filename", file.getPath(), true);
+		FieldUtils.writeDeclaredField(testee, "batchSize", 2, true);
+
+		testee.open(input);
+		testee.enterGroup();
+		for(int i = 0; i < 5; ++i) {
+			testee.record(vector(i));
+		}
+		testee.leaveGroup();
+		testee.record(vector(5));
+		testee.close();
+
+		final Stream output = new RingStream(16);
+		replay(output);
+
+		assertThat(output.getHeader().nameOf(4), equalTo("s"));
+		assertThat(output.getHeader().typeOf(1), equalTo(ColumnType.FLOAT));
+		assertThat(output.getHeader().typeOf(5), equalTo(ColumnType.OBJECT));
+
+		assertThat(output.get(), sameInstance(DataVector.GROUP_START));
+		for(int i = 0; i < 5; ++i) {
+			assertVector(output.get(), i);
+		}
+		assertThat(output.get(), sameInstance(DataVector.GROUP_END));
+		assertVector(output.get(), 5);
+	}
+
+	@Test
+	public void testRoundTripKeepsNulls() throws Exception {
+		final Stream input = new RingStream();
+		input.getHeader()
+			 .add("d", ColumnType.DOUBLE)
+			 .add("f", ColumnType.FLOAT)
+			 .add("i", ColumnType.INT)
+			 .add("b", ColumnType.BOOLEAN);
+
+		final StreamRecorder testee = new StreamRecorder();
+		FieldUtils.writeDeclaredField(testee, "filename", file.getPath(), true);
+
+		testee.open(input);
+		for(int i = 0; i < 70; ++i) {
+			testee.record(i % 3 == 0 ? new DataVector(4) : new DataVector().append(Double.NaN).append(1.0f).append(i).append(true));
+		}
+		testee.close();
+
+		final Stream output = new RingStream(128);
+		replay(output);
+
+		for(int i = 0; i < 70; ++i) {
+			final DataVector vector = output.get();
+
+			for(int column = 0; column < 4; ++column) {
+				assertThat(vector.get(column) == null, equalTo(i % 3 == 0));
+			}
+		}
+	}
+
+	@Test
+	public void testReplayedBatchesAreReadColumnWise() throws Exception {
+		final Stream input = new RingStream();
+		input.getHeader().add("d", ColumnType.DOUBLE);
+
+		final StreamRecorder testee = new StreamRecorder();
+		FieldUtils.writeDeclaredField(testee, "filename", file.getPath(), true);
+		FieldUtils.writeDeclaredField(testee, "batchSize", 16, true);
+
+		testee.open(input);
+		for(int i = 0; i < 40; ++i) {
+			testee.record(new DataVector().append(i * 0.5));
+		}
+		testee.close();
+
+		final Stream output = new RingStream(64);
+		replay(output);
+
+		final DataBatch batch = new DataBatch(new ColumnType [] {ColumnType.DOUBLE}, 64);
+		assertThat(output.getBatch(batch), equalTo(40));
+
+		for(int i = 0; i < 40; ++i) {
+			assertThat(batch.getDoubleColumn(0)[i], equalTo(i * 0.5));
+		}
+	}
+
+	@Test
+	public void testLargeFrames() throws Exception {
+		final Stream input = new RingStream();
+		input.getHeader().add("s", ColumnType.STRING);
+
+		final StreamRecorder testee = new StreamRecorder();
+		FieldUtils.writeDeclaredField(testee, "filename", file.getPath(), true);
+
+		final String value = new String(new char[100_000]).replace('\0', 'x');
+
+		testee.open(input);
+		testee.record(new DataVector().append(value));
+		testee.close();
+
+		final Stream output = new RingStream();
+		replay(output);
+
+		assertThat(output.get().get(0), equalTo(value));
+	}
+
+	@Test(expected = ConversionException.class)
+	public void testReplayTruncated() throws Exception {
+		final Stream input = new RingStream();
+		input.getHeader().add("d", ColumnType.DOUBLE);
+
+		final StreamRecorder testee = new StreamRecorder();
+		FieldUtils.writeDeclaredField(testee, "filename", file.getPath(), true);
+
+		testee.open(input);
+		testee.record(new DataVector().append(1.0));
+		testee.close();
+
+		try(final RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+			raf.setLength(raf.length() - 8);
+		}
+
+		replay(new RingStream());
+	}
+
+	private void replay(final Stream output) throws Exception {
+		final StreamReplayer replayer = new StreamReplayer();
+		FieldUtils.writeDeclaredField(replayer, "filename", file.getPath(), true);
+		FieldUtils.writeDeclaredField(replayer, "dataStream", output, true);
+
+		replayer.open();
+		try {
+			replayer.replay();
+		} finally {
+			replayer.close();
+		}
+	}
+
+	private static DataVector vector(final int i) {
+		return new DataVector()
+				.append(i * 1.5)
+				.append(i * 0.5f)
+				.append(i)
+				.append(i % 2 == 0)
+				.append(i == 3 ? null : "v" + i)
+				.append(BigDecimal.valueOf(i));
+	}
+
+	private static void assertVector(final DataVector vector, final int i) {
+		assertThat(vector.get(0), equalTo(i * 1.5));
+		assertThat(vector.get(1), equalTo(i * 0.5f));
+		assertThat(vector.get(2), equalTo(i));
+		assertThat(vector.get(3), equalTo(i % 2 == 0));
+		if(i == 3) {
+			assertThat(vector.get(4), nullValue());
+		} else {
+			assertThat(vector.get(4), equalTo("v" + i));
+		}
+		assertThat(vector.get(5), equalTo(BigDecimal.valueOf(i)));
+	}
+}
@@ -96,6 +96,17 @@ public class TDMsIterator implements Iterator<Object> {
 		return data.read(index++);
 	}
 
+	/**
+	 * Reads the next value as double without boxing it, see {@link FileSegment#readDouble(long)}.
+	 */
+	public double nextDouble() {
+		if(!hasNext()) {
+			throw new NoSuchElementException("There is no next element.");
+		}
+
+		return data.readDouble(index++);
+	}
+
 	@Override
 	public String toString() {
 		final StringBuilder buffer = new StringBuilder();
@@ -22,6 +22,7 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.function.Function;
@@ -273,6 +274,33 @@ public enum Type {
 		return clazz.cast(readFunction.apply(buffer));
 	}
 
+	/**
+	 * Reads a numeric value at an absolute position as double. Double, single
+	 *   and I32 values are read without boxing them and without moving the
+	 *   buffer's position.
+	 */
+	public double readDouble(final ByteBuffer buffer, final int position) {
+		final boolean swap = buffer.order() != ByteOrder.LITTLE_ENDIAN;
+
+		switch(this) {
+		case DOUBLE_FLOAT:
+			final long bits = buffer.getLong(position);
+			return Double.longBitsToDouble(swap ? Long.reverseBytes(bits) : bits);
+
+		case SINGLE_FLOAT:
+			final int singleBits = buffer.getInt(position);
+			return Float.intBitsToFloat(swap ? Integer.reverseBytes(singleBits) : singleBits);
+
+		case I32:
+			final int value = buffer.getInt(position);
+			return swap ? Integer.reverseBytes(value) : value;
+
+		default:
+			buffer.position(position);
+			return ((Number)read(buffer, Object.class)).doubleValue();
+		}
+	}
+
 	public void write(final Object object, final RandomAccessFile raf) throws IOException {
 		writeFunction.accept(object, raf);
 	}
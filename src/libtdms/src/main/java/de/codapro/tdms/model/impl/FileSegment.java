@@ -74,6 +74,14 @@ public abstract  class FileSegment implements TDMsDataSegment {
 
 	public abstract Object read(final long index);
 
+	/**
+	 * Reads a numeric value as double. Double, single and I32 values are read
+	 *   without boxing them.
+	 */
+	public double readDouble(final long index) {
+		return ((Number)read(index)).doubleValue();
+	}
+
 	@Override
 	public Optional<BigInteger> size() {
 		return Optional.of(numberOfDataSets);
@@ -49,4 +49,11 @@ public class InterleavedChannelFileSegment extends FileSegment {
 		return type.read(buffer, Object.class);
 	}
 
+	@Override
+	public double readDouble(final long index) {
+		final long dataPosition = position + index * interleavedSharedSegment.getColumnSize() + offsetSize;
+
+		return type.readDouble(buffer, (int)dataPosition);
+	}
+
 }
@@ -60,4 +60,11 @@ public class SingleChannelFileSegment extends FileSegment {
 
 		return type.read(buffer, Object.class);
 	}
+
+	@Override
+	public double readDouble(final long index) {
+		final long dataPosition = position + index * type.size();
+
+		return type.readDouble(buffer, (int)dataPosition);
+	}
 }
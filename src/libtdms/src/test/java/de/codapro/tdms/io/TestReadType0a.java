@@ -7,6 +7,8 @@ import java.util.Iterator;
 
 import org.junit.Test;
 
+import de.codapro.tdms.io.impl.TDMsIterator;
+
 import de.codapro.tdms.model.TDMsChannel;
 import de.codapro.tdms.model.TDMsFile;
 import de.codapro.tdms.model.TDMsGroup;
@@ -88,6 +90,26 @@ public class TestReadType0a {
 		reader.close();
 	}
 
+	@Test
+	public void testReadDoublesWithoutBoxingAcrossThreeSegment() throws Exception {
+		final TDMsReader reader = new TDMsReader(new File("src/test/resources/type_0a_double_three_segments.tdms"));
+		final TDMsFile file = reader.read();
+
+		final TDMsChannel channel = file.getGroupByName("double_group").get().getChannelByName("double_channel").get();
+		final TDMsIterator iterator = (TDMsIterator)channel.iterator();
+
+		for(int i = 0; i < 3; ++i) {
+			assertEquals(-2.02, iterator.nextDouble(), 0.0);
+			assertEquals(-1.01, iterator.nextDouble(), 0.0);
+			assertEquals(0.0, iterator.nextDouble(), 0.0);
+			assertEquals(1.01, iterator.nextDouble(), 0.0);
+			assertEquals(2.02, iterator.nextDouble(), 0.0);
+		}
+		assertFalse(iterator.hasNext());
+
+		reader.close();
+	}
+
 	@Test
 	public void testReadTwoDoubleChannelInOneSegment() throws Exception {
 		final TDMsReader reader = new TDMsReader(new File("src/test/resources/type_0a_double_two_channels_one_segment.tdms"));